@@ -0,0 +1,94 @@
+package com.yassine.learningapp.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client HTTP partagé par toutes les sessions. Chaque appel attend son instant planifié puis est mesuré par
+ * le {@link LatencyRecorder} ; les échecs réseau sont enregistrés comme des réponses ({@code io}, {@code timeout}).
+ */
+public class ApiClient {
+
+    public record Response(int status, String body, HttpResponse<String> raw) {
+
+        public boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        public Optional<String> header(String name) {
+            return raw == null ? Optional.empty() : raw.headers().firstValue(name);
+        }
+    }
+
+    private static final Response FAILED = new Response(-1, "", null);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final LatencyRecorder recorder;
+
+    public ApiClient(String baseUrl, Duration timeout, LatencyRecorder recorder) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.recorder = recorder;
+    }
+
+    public HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("User-Agent", "learningapp-loadtest");
+    }
+
+    /** Attend {@code intendedNanos}, envoie, enregistre. Ne lève pas : un échec rend un statut négatif. */
+    public Response send(String endpoint, long intendedNanos, HttpRequest request) {
+        sleepUntil(intendedNanos);
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, intendedNanos, sent, System.nanoTime(), Integer.toString(response.statusCode()));
+            return new Response(response.statusCode(), response.body(), response);
+        } catch (HttpTimeoutException e) {
+            recorder.record(endpoint, intendedNanos, sent, System.nanoTime(), "timeout");
+            return FAILED;
+        } catch (IOException e) {
+            recorder.record(endpoint, intendedNanos, sent, System.nanoTime(), "io");
+            return FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FAILED;
+        }
+    }
+
+    /** Vérifie que l'application répond, sans mesure. */
+    public boolean isUp(String path) {
+        try {
+            HttpRequest request = request(path).timeout(Duration.ofSeconds(2)).GET().build();
+            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.yassine.learningapp.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Application démarrée par le générateur : jar exécuté dans une JVM séparée, sur le port de {@code baseUrl} et
+ * la base de {@code jdbcUrl}, access tokens de durée {@code tokenTtl}. Options de JVM via {@code JAVA_TOOL_OPTIONS}.
+ * Schéma créé par les migrations Flyway au démarrage. Sortie dans {@code app.log} à côté du rapport, fichiers de
+ * l'application (exports, bundles, index vectoriels, texte extrait) dans un répertoire propre à l'exécution, au
+ * même endroit, supprimé à l'arrêt.
+ */
+final class AppProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final int UNLIMITED = 1_000_000;
+
+    private final Process process;
+    private final Path log;
+    private final Path files;
+
+    private AppProcess(Process process, Path log, Path files) {
+        this.process = process;
+        this.log = log;
+        this.files = files;
+    }
+
+    static AppProcess start(LoadTestConfig config) throws IOException {
+        int port = URI.create(config.baseUrl()).getPort();
+        Path log = (config.output().getParent() == null ? Path.of(".") : config.output().getParent()).resolve("app.log");
+        Files.createDirectories(log.getParent());
+        // Répertoires obligatoires de l'application (pas de tmpdir par défaut)
+        Path files = Files.createTempDirectory(log.getParent(), "app-files-");
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-jar", config.appJar().toString(),
+                "--server.port=" + port,
+                "--management.server.port=" + (port + 1),
+                // Toutes les sessions partent de la même adresse : seul le quota par IP est levé, celui par compte reste
+                "--app.rate-limit.auth.ip.burst=" + UNLIMITED,
+                "--app.rate-limit.auth.ip.per-minute=" + UNLIMITED));
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        Map<String, String> env = builder.environment();
+        env.put("SPRING_DATASOURCE_URL", config.jdbcUrl());
+        env.put("SPRING_DATASOURCE_USERNAME", config.jdbcUser());
+        env.put("SPRING_DATASOURCE_PASSWORD", config.jdbcPassword());
+        env.put("JWT_SECRET", UUID.randomUUID() + "-" + UUID.randomUUID());
+        env.put("JWT_EXPIRATION", Long.toString(config.tokenTtl().toMillis()));
+        env.putIfAbsent("SPRING_MAIL_USERNAME", "");
+        env.putIfAbsent("SPRING_MAIL_PASSWORD", "");
+        env.put("APP_EXPORT_DIR", files.resolve("exports").toString());
+        env.put("APP_BUNDLE_DIR", files.resolve("bundles").toString());
+        env.put("APP_RETRIEVAL_DIR", files.resolve("vectors").toString());
+        env.put("APP_EXTRACTION_DIR", files.resolve("text").toString());
+        System.out.printf("Starting %s on port %d (log: %s)%n", config.appJar(), port, log);
+        return new AppProcess(builder.start(), log, files);
+    }
+
+    void awaitReady(ApiClient api) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue() + ", see " + log);
+            }
+            if (api.isUp("/health/live")) return;
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Application not ready after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+        deleteFiles();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private void deleteFiles() {
+        try (Stream<Path> paths = Files.walk(files)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            System.err.printf("Could not delete %s: %s%n", files, e);
+        }
+    }
+}
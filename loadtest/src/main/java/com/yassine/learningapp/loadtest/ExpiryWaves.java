@@ -0,0 +1,13 @@
+package com.yassine.learningapp.loadtest;
+
+/**
+ * Vagues d'expiration : à chaque intervalle, les tokens obtenus avant sont considérés expirés par toutes les
+ * sessions actives, qui se renouvellent à leur action suivante (ex. onglets qui reprennent après une coupure).
+ */
+record ExpiryWaves(long originNanos, long intervalNanos) {
+
+    /** Numéro de la vague en cours à {@code nanos} ; toujours 0 si les vagues sont désactivées. */
+    long wave(long nanos) {
+        return intervalNanos <= 0 ? 0 : Math.floorDiv(nanos - originNanos, intervalNanos);
+    }
+}
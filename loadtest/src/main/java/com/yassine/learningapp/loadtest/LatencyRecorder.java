@@ -0,0 +1,79 @@
+package com.yassine.learningapp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences par endpoint, en microsecondes.
+ *
+ * <p>Correction de l'omission coordonnée : le temps de réponse part de l'instant où la requête <em>devait</em>
+ * partir selon le planning (arrivée de la session, ou fin de l'action précédente + pause), pas de l'instant
+ * où elle est partie. Un client en retard (serveur saturé, générateur lent) compte son retard au lieu de
+ * le masquer. Le temps de service (depuis l'envoi effectif) est gardé à part pour faire la différence.
+ *
+ * <p>Seules les requêtes planifiées dans la fenêtre de mesure sont enregistrées (l'échauffement est ignoré).
+ */
+public class LatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    public record Endpoint(Histogram responseTime, Histogram serviceTime, Map<String, Long> statuses) {}
+
+    private record Histograms(ConcurrentHistogram responseTime, ConcurrentHistogram serviceTime,
+                              Map<String, LongAdder> statuses) {}
+
+    private final Map<String, Histograms> endpoints = new ConcurrentHashMap<>();
+    private volatile long windowStartNanos = Long.MAX_VALUE;
+    private volatile long windowEndNanos = Long.MAX_VALUE;
+
+    /** Fenêtre de mesure, en {@link System#nanoTime()} : planifiées avant {@code start} ou après {@code end}, ignorées. */
+    public void window(long startNanos, long endNanos) {
+        this.windowStartNanos = startNanos;
+        this.windowEndNanos = endNanos;
+    }
+
+    /**
+     * @param intendedNanos instant prévu par le planning
+     * @param sentNanos     instant d'envoi effectif
+     * @param doneNanos     réception complète de la réponse (ou échec)
+     * @param status        code HTTP, ou {@code io} / {@code timeout}
+     */
+    public void record(String endpoint, long intendedNanos, long sentNanos, long doneNanos, String status) {
+        if (intendedNanos < windowStartNanos || intendedNanos >= windowEndNanos) return;
+        Histograms histograms = endpoints.computeIfAbsent(endpoint, e -> new Histograms(
+                histogram(), histogram(), new ConcurrentHashMap<>()));
+        histograms.responseTime().recordValue(micros(doneNanos - intendedNanos));
+        histograms.serviceTime().recordValue(micros(doneNanos - sentNanos));
+        histograms.statuses().computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /** Copie figée des histogrammes, par endpoint trié par nom. */
+    public Map<String, Endpoint> snapshot() {
+        Map<String, Endpoint> snapshot = new TreeMap<>();
+        endpoints.forEach((name, histograms) -> {
+            Map<String, Long> statuses = new TreeMap<>();
+            histograms.statuses().forEach((status, count) -> statuses.put(status, count.sum()));
+            snapshot.put(name, new Endpoint(histograms.responseTime().copy(), histograms.serviceTime().copy(), statuses));
+        });
+        return snapshot;
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static ConcurrentHistogram histogram() {
+        return new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    private static long micros(long nanos) {
+        return Math.clamp(TimeUnit.NANOSECONDS.toMicros(nanos), 1, HIGHEST_TRACKABLE_MICROS);
+    }
+}
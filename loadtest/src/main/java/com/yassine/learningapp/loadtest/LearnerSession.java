@@ -0,0 +1,174 @@
+package com.yassine.learningapp.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours d'un apprenant : login, liste des documents, puis pour quelques quiz : liste des quiz d'un document,
+ * détail du quiz, temps de réponse proportionnel au nombre de questions, envoi du résultat (synchro des tentatives).
+ *
+ * <p>L'access token est renouvelé ({@code POST /api/auth/refresh}, rotation du refresh token) quand il expire,
+ * à chaque vague d'expiration, ou sur un 401. Le temps de l'appel qui a déclenché le renouvellement inclut
+ * celui du renouvellement, comme pour l'utilisateur.
+ *
+ * <p>Tirages (compte, documents, quiz, pauses, score) issus d'une graine par session : deux exécutions de même
+ * configuration rejouent les mêmes parcours.
+ */
+final class LearnerSession implements Runnable {
+
+    static final String LOGIN = "POST /api/auth/login";
+    static final String REFRESH = "POST /api/auth/refresh";
+    static final String DOCUMENTS = "GET /api/documents";
+    static final String DOCUMENT_QUIZZES = "GET /api/documents/{id}/quizzes";
+    static final String QUIZ = "GET /api/quizzes/{id}";
+    static final String SUBMIT = "POST /api/quiz-results/sync";
+
+    private static final long EXPIRY_SKEW_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final String REFRESH_COOKIE = "refresh_token";
+
+    private final int index;
+    private final long arrivalNanos;
+    private final long endNanos;
+    private final ExpiryWaves waves;
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final JsonMapper json;
+    private final SplittableRandom random;
+    private final int user;
+
+    private String accessToken;
+    private long accessExpiresNanos;
+    private long accessWave;
+    private String refreshToken;
+
+    LearnerSession(int index, long arrivalNanos, long endNanos, ExpiryWaves waves,
+                   LoadTestConfig config, ApiClient api, JsonMapper json) {
+        this.index = index;
+        this.arrivalNanos = arrivalNanos;
+        this.endNanos = endNanos;
+        this.waves = waves;
+        this.config = config;
+        this.api = api;
+        this.json = json;
+        this.random = new SplittableRandom(config.seed() * 1_000_003L + index);
+        this.user = random.nextInt(config.users());
+    }
+
+    @Override
+    public void run() {
+        long intended = arrivalNanos;
+        if (!login(intended)) return;
+
+        intended = next(config.thinkTime().toNanos());
+        JsonNode page = authenticated(DOCUMENTS, intended, () -> api.request("/api/documents?page=0&size=20").GET());
+        List<Long> documents = ids(page == null ? null : page.path("content"));
+        if (documents.isEmpty()) return;
+
+        for (int attempt = 0; attempt < config.quizzesPerSession(); attempt++) {
+            long document = documents.get(random.nextInt(documents.size()));
+            intended = next(config.thinkTime().toNanos());
+            if (intended >= endNanos) return;
+            List<Long> quizzes = ids(authenticated(DOCUMENT_QUIZZES, intended,
+                    () -> api.request("/api/documents/" + document + "/quizzes").GET()));
+            if (quizzes.isEmpty()) continue;
+
+            long quizId = quizzes.get(random.nextInt(quizzes.size()));
+            intended = next(config.thinkTime().toNanos());
+            if (intended >= endNanos) return;
+            JsonNode quiz = authenticated(QUIZ, intended, () -> api.request("/api/quizzes/" + quizId).GET());
+            int questions = quiz == null ? 0 : quiz.path("questions").size();
+            if (questions == 0) continue;
+
+            long answering = questions * config.answerTime().toNanos();
+            intended = next(answering);
+            if (intended >= endNanos) return;
+            int score = random.nextInt(questions + 1);
+            Map<String, Object> body = Map.of("attempts", List.of(Map.of(
+                    "idempotencyKey", "lt-" + config.seed() + "-" + index + "-" + attempt,
+                    "quizId", quizId,
+                    "score", score,
+                    "questionCount", questions,
+                    "timeTakenSeconds", TimeUnit.NANOSECONDS.toMillis(answering) / 1000.0)));
+            authenticated(SUBMIT, intended, () -> api.request("/api/quiz-results/sync")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body))));
+        }
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private boolean login(long intended) {
+        String body = json.writeValueAsString(Map.of(
+                "username", Seeder.username(user), "password", LoadTestConfig.PASSWORD, "rememberMe", false));
+        ApiClient.Response response = api.send(LOGIN, intended, api.request("/api/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        return acceptTokens(response);
+    }
+
+    private boolean refresh(long intended) {
+        if (refreshToken == null) return false;
+        ApiClient.Response response = api.send(REFRESH, intended, api.request("/api/auth/refresh")
+                .header("Cookie", REFRESH_COOKIE + "=" + refreshToken)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+        return acceptTokens(response);
+    }
+
+    private boolean acceptTokens(ApiClient.Response response) {
+        if (!response.ok()) return false;
+        long now = System.nanoTime();
+        JsonNode auth = json.readTree(response.body());
+        accessToken = auth.path("accessToken").asString();
+        accessExpiresNanos = now + TimeUnit.SECONDS.toNanos(auth.path("expiresInSeconds").asLong());
+        accessWave = waves.wave(now);
+        response.raw().headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith(REFRESH_COOKIE + "="))
+                .findFirst()
+                .ifPresent(cookie -> refreshToken = cookie.split(";", 2)[0].substring(REFRESH_COOKIE.length() + 1));
+        return true;
+    }
+
+    /** Appel authentifié ; renouvelle le token avant (expiré, vague) ou après un 401. Corps JSON, ou null. */
+    private JsonNode authenticated(String endpoint, long intended, RequestFactory factory) {
+        if (intended >= accessExpiresNanos - EXPIRY_SKEW_NANOS || waves.wave(intended) != accessWave) {
+            if (!refresh(intended)) return null;
+        }
+        ApiClient.Response response = api.send(endpoint, intended, authorize(factory.create()));
+        if (response.status() == 401 && refresh(System.nanoTime())) {
+            response = api.send(endpoint, intended, authorize(factory.create()));
+        }
+        return response.ok() && !response.body().isEmpty() ? json.readTree(response.body()) : null;
+    }
+
+    private HttpRequest authorize(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + accessToken).build();
+    }
+
+    /** Instant prévu de l'action suivante : maintenant + pause exponentielle de moyenne {@code meanNanos}, bornée. */
+    private long next(long meanNanos) {
+        double pause = -meanNanos * Math.log(1 - random.nextDouble());
+        return System.nanoTime() + (long) Math.min(pause, 4.0 * meanNanos);
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        if (array != null) array.forEach(node -> ids.add(node.path("id").asLong()));
+        return ids;
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest.Builder create();
+    }
+}
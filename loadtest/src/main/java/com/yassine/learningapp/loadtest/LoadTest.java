@@ -0,0 +1,86 @@
+package com.yassine.learningapp.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Point d'entrée.
+ * <pre>
+ *   java -jar loadtest.jar --app-jar=target/app.jar [--arrival-rate=5 --duration=3m ...] [--baseline=ref.json]
+ *   java -jar loadtest.jar --base-url=http://staging:8080 --jdbc-url=...      (instance déjà lancée)
+ *   java -jar loadtest.jar compare ref.json run.json [--max-regression=0.1]
+ * </pre>
+ * Code de sortie 1 si la comparaison avec {@code --baseline} relève une régression (p99 ou taux d'erreur).
+ * Toutes les sessions partent de l'adresse du générateur : une instance déjà lancée doit lever son quota
+ * {@code /api/auth/**} par IP ({@code app.rate-limit.auth.ip.*}), comme le fait {@link AppProcess}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length < 3) throw new IllegalArgumentException("usage: compare <baseline.json> <current.json> [--max-regression=0.1]");
+            String[] options = Arrays.copyOfRange(args, 3, args.length);
+            double maxRegression = LoadTestConfig.parse(options).maxRegression();
+            System.exit(printComparison(Report.read(Path.of(args[1])), Report.read(Path.of(args[2])), maxRegression) ? 0 : 1);
+        }
+
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        LatencyRecorder recorder = new LatencyRecorder();
+        ApiClient api = new ApiClient(config.baseUrl(), config.requestTimeout(), recorder);
+
+        AppProcess app = config.appJar() == null ? null : AppProcess.start(config);
+        ObjectNode report;
+        try {
+            if (app != null) app.awaitReady(api);
+            else if (!api.isUp("/health/live")) throw new IllegalStateException("No application at " + config.baseUrl());
+
+            Seeder seeder = new Seeder(config);
+            long seedStart = System.nanoTime();
+            if (seeder.seed()) {
+                System.out.printf("Seeded %d users in %d ms%n", config.users(), (System.nanoTime() - seedStart) / 1_000_000);
+            }
+            seeder.reset();
+
+            Instant startedAt = Instant.now();
+            System.out.printf("Running %.1f sessions/s: warmup %s, measure %s%n",
+                    config.arrivalRate(), config.warmup(), config.duration());
+            int sessions = new OpenWorkload(config, api, recorder).run();
+            report = Report.build(config, startedAt, sessions, recorder.snapshot());
+        } finally {
+            if (app != null) app.close();
+        }
+
+        Report.write(report, config.output());
+        System.out.println("Report: " + config.output());
+        report.path("endpoints").properties().forEach(e -> System.out.printf("%-34s n=%-7d err=%-5d p50=%8.1f p99=%8.1f p99.9=%8.1f ms%n",
+                e.getKey(), e.getValue().path("count").asLong(), e.getValue().path("errors").asLong(),
+                e.getValue().path("responseTimeMs").path("p50").asDouble(),
+                e.getValue().path("responseTimeMs").path("p99").asDouble(),
+                e.getValue().path("responseTimeMs").path("p99.9").asDouble()));
+
+        if (config.baseline() != null && !printComparison(Report.read(config.baseline()), report, config.maxRegression())) {
+            System.exit(1);
+        }
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static boolean printComparison(JsonNode baseline, JsonNode current, double maxRegression) {
+        Report.Comparison comparison = Report.compare(baseline, current, maxRegression);
+        if (!comparison.sameWorkload()) {
+            System.out.println("WARNING: workloads differ, the comparison is not meaningful");
+        }
+        comparison.lines().forEach(System.out::println);
+        comparison.regressions().forEach(r -> System.out.println("REGRESSION: " + r));
+        return comparison.regressions().isEmpty();
+    }
+}
@@ -0,0 +1,162 @@
+package com.yassine.learningapp.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres d'une exécution, lus en {@code --clé=valeur}. Les champs de {@link #workload()} décrivent la charge :
+ * deux rapports ne sont comparables que s'ils sont identiques.
+ *
+ * @param appJar         jar de l'application à démarrer ; null pour viser une instance déjà lancée ({@code baseUrl})
+ * @param arrivalRate    sessions d'apprenant démarrées par seconde (modèle ouvert : indépendant des temps de réponse)
+ * @param thinkTime      pause moyenne entre deux actions (loi exponentielle, bornée à 4 fois la moyenne)
+ * @param answerTime     temps moyen de réponse à une question d'un quiz
+ * @param tokenTtl       durée de vie des access tokens de l'application démarrée ({@code JWT_EXPIRATION})
+ * @param expiryWaveEvery toutes les sessions actives considèrent leur access token expiré à cet intervalle
+ *                       (reprise d'activité après une coupure) ; zéro = désactivé
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        Path appJar,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        int users,
+        int documentsPerUser,
+        int quizzesPerDocument,
+        int questionsPerQuiz,
+        double arrivalRate,
+        Duration warmup,
+        Duration duration,
+        Duration thinkTime,
+        Duration answerTime,
+        int quizzesPerSession,
+        Duration tokenTtl,
+        Duration expiryWaveEvery,
+        Duration requestTimeout,
+        long seed,
+        Path output,
+        Path baseline,
+        double maxRegression
+) {
+
+    static final String PASSWORD = "loadtest-password";
+    static final String USERNAME_PREFIX = "learner-";
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        Options options = new Options(values);
+        LoadTestConfig config = new LoadTestConfig(
+                options.string("base-url", "http://localhost:18080"),
+                options.path("app-jar", null),
+                options.string("jdbc-url", "jdbc:postgresql://localhost:5432/learningapp-db"),
+                options.string("jdbc-user", "learningapp"),
+                options.string("jdbc-password", "learningapp123"),
+                options.integer("users", 500),
+                options.integer("documents-per-user", 5),
+                options.integer("quizzes-per-document", 2),
+                options.integer("questions-per-quiz", 10),
+                options.decimal("arrival-rate", 5.0),
+                options.duration("warmup", Duration.ofSeconds(30)),
+                options.duration("duration", Duration.ofMinutes(3)),
+                options.duration("think-time", Duration.ofSeconds(3)),
+                options.duration("answer-time", Duration.ofSeconds(4)),
+                options.integer("quizzes-per-session", 3),
+                options.duration("token-ttl", Duration.ofMinutes(2)),
+                options.duration("expiry-wave-every", Duration.ofMinutes(1)),
+                options.duration("request-timeout", Duration.ofSeconds(30)),
+                options.longValue("seed", 42L),
+                options.path("output", Path.of("loadtest-results", "run-" + System.currentTimeMillis() + ".json")),
+                options.path("baseline", null),
+                options.decimal("max-regression", 0.10));
+        options.rejectUnknown();
+        return config;
+    }
+
+    /** Description de la charge, recopiée dans le rapport et comparée avant de confronter deux exécutions. */
+    public Map<String, Object> workload() {
+        Map<String, Object> workload = new LinkedHashMap<>();
+        workload.put("users", users);
+        workload.put("documentsPerUser", documentsPerUser);
+        workload.put("quizzesPerDocument", quizzesPerDocument);
+        workload.put("questionsPerQuiz", questionsPerQuiz);
+        workload.put("arrivalRate", arrivalRate);
+        workload.put("warmup", warmup.toString());
+        workload.put("duration", duration.toString());
+        workload.put("thinkTime", thinkTime.toString());
+        workload.put("answerTime", answerTime.toString());
+        workload.put("quizzesPerSession", quizzesPerSession);
+        workload.put("tokenTtl", tokenTtl.toString());
+        workload.put("expiryWaveEvery", expiryWaveEvery.toString());
+        workload.put("seed", seed);
+        return workload;
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static final class Options {
+
+        private final Map<String, String> values;
+
+        Options(Map<String, String> values) {
+            this.values = new HashMap<>(values);
+        }
+
+        String string(String key, String defaultValue) {
+            String value = values.remove(key);
+            return value == null ? defaultValue : value;
+        }
+
+        Path path(String key, Path defaultValue) {
+            String value = values.remove(key);
+            return value == null || value.isBlank() ? defaultValue : Path.of(value);
+        }
+
+        int integer(String key, int defaultValue) {
+            String value = values.remove(key);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        long longValue(String key, long defaultValue) {
+            String value = values.remove(key);
+            return value == null ? defaultValue : Long.parseLong(value);
+        }
+
+        double decimal(String key, double defaultValue) {
+            String value = values.remove(key);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+
+        /** {@code 500ms}, {@code 30s}, {@code 2m}, {@code 1h} ou ISO-8601 ({@code PT30S}). */
+        Duration duration(String key, Duration defaultValue) {
+            String value = values.remove(key);
+            if (value == null) return defaultValue;
+            if (value.equals("0")) return Duration.ZERO;
+            if (value.startsWith("P") || value.startsWith("p")) return Duration.parse(value);
+            if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            return switch (value.charAt(value.length() - 1)) {
+                case 's' -> Duration.ofSeconds(amount);
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                default -> throw new IllegalArgumentException("Invalid duration for --" + key + ": " + value);
+            };
+        }
+
+        void rejectUnknown() {
+            if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+    }
+}
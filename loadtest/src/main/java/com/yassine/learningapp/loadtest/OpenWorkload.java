@@ -0,0 +1,77 @@
+package com.yassine.learningapp.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modèle ouvert : les sessions arrivent selon un processus de Poisson de débit {@code arrivalRate}, quelle que
+ * soit la vitesse de réponse de l'application (un serveur lent accumule des sessions au lieu de ralentir le
+ * générateur). Une session par thread virtuel. Instants d'arrivée tirés de la graine : identiques d'une
+ * exécution à l'autre.
+ */
+public class OpenWorkload {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+    private static final long PROGRESS_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final LatencyRecorder recorder;
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    public OpenWorkload(LoadTestConfig config, ApiClient api, LatencyRecorder recorder) {
+        this.config = config;
+        this.api = api;
+        this.recorder = recorder;
+    }
+
+    /** Lance les arrivées jusqu'à la fin de la fenêtre de mesure puis attend les sessions en cours. Renvoie leur nombre. */
+    public int run() throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        long measureStart = start + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+        recorder.window(measureStart, end);
+        ExpiryWaves waves = new ExpiryWaves(start, config.expiryWaveEvery().toNanos());
+
+        SplittableRandom arrivals = new SplittableRandom(config.seed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.arrivalRate();
+        AtomicInteger active = new AtomicInteger();
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("learner-", 0).factory());
+        int sessions = 0;
+        long nextProgress = start + PROGRESS_NANOS;
+        try {
+            for (long arrival = start; ; sessions++) {
+                arrival += (long) (-meanGapNanos * Math.log(1 - arrivals.nextDouble()));
+                if (arrival >= end) break;
+                ApiClient.sleepUntil(arrival);
+                LearnerSession session = new LearnerSession(sessions, arrival, end, waves, config, api, json);
+                active.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        session.run();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                });
+                if (arrival >= nextProgress) {
+                    System.out.printf("[%s] sessions started=%d active=%d%n",
+                            arrival < measureStart ? "warmup" : "measure", sessions + 1, active.get());
+                    nextProgress += PROGRESS_NANOS;
+                }
+            }
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                System.out.printf("Drain timeout: %d sessions still active, interrupting%n", active.get());
+                executor.shutdownNow();
+            }
+        }
+        return sessions;
+    }
+}
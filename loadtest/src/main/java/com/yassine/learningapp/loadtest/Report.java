@@ -0,0 +1,143 @@
+package com.yassine.learningapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rapport JSON d'une exécution : charge (configuration), puis par endpoint le nombre de requêtes, les statuts,
+ * les percentiles de temps de réponse (corrigé) et de service, et l'histogramme HdrHistogram complet (base64,
+ * compressé) pour une analyse ultérieure. Deux rapports de même charge se comparent avec {@link #compare}.
+ */
+public final class Report {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final JsonMapper JSON = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+
+    private Report() {
+    }
+
+    public static ObjectNode build(LoadTestConfig config, Instant startedAt, int sessions,
+                                   Map<String, LatencyRecorder.Endpoint> endpoints) {
+        ObjectNode report = JSON.createObjectNode();
+        report.put("startedAt", startedAt.toString());
+        report.set("workload", JSON.valueToTree(config.workload()));
+        report.put("sessions", sessions);
+        ObjectNode byEndpoint = report.putObject("endpoints");
+        double seconds = config.duration().toMillis() / 1000.0;
+        endpoints.forEach((name, endpoint) -> {
+            ObjectNode node = byEndpoint.putObject(name);
+            long count = endpoint.responseTime().getTotalCount();
+            node.put("count", count);
+            node.put("throughputPerSecond", round(count / seconds));
+            node.put("errors", endpoint.statuses().entrySet().stream()
+                    .filter(e -> !isSuccess(e.getKey()))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum());
+            node.set("statuses", JSON.valueToTree(endpoint.statuses()));
+            node.set("responseTimeMs", percentiles(endpoint.responseTime()));
+            node.set("serviceTimeMs", percentiles(endpoint.serviceTime()));
+            node.put("responseTimeHistogram", encode(endpoint.responseTime()));
+        });
+        return report;
+    }
+
+    public static void write(ObjectNode report, Path output) throws IOException {
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        JSON.writeValue(output.toFile(), report);
+    }
+
+    public static JsonNode read(Path path) {
+        return JSON.readTree(path.toFile());
+    }
+
+    /** Une ligne par endpoint et par percentile, plus les régressions au-delà de {@code maxRegression}. */
+    public record Comparison(List<String> lines, List<String> regressions, boolean sameWorkload) {}
+
+    public static Comparison compare(JsonNode baseline, JsonNode current, double maxRegression) {
+        List<String> lines = new ArrayList<>();
+        List<String> regressions = new ArrayList<>();
+        boolean sameWorkload = baseline.path("workload").equals(current.path("workload"));
+        lines.add(String.format("%-34s %8s %10s %10s %8s", "endpoint", "pct", "baseline", "current", "change"));
+        for (String name : current.path("endpoints").propertyNames()) {
+            JsonNode before = baseline.path("endpoints").path(name);
+            JsonNode after = current.path("endpoints").path(name);
+            if (before.isMissingNode()) {
+                lines.add(String.format("%-34s (absent du rapport de référence)", name));
+                continue;
+            }
+            for (double percentile : PERCENTILES) {
+                String key = "p" + label(percentile);
+                double a = before.path("responseTimeMs").path(key).asDouble();
+                double b = after.path("responseTimeMs").path(key).asDouble();
+                double change = a == 0 ? 0 : (b - a) / a;
+                lines.add(String.format("%-34s %8s %10.1f %10.1f %+7.1f%%", name, key, a, b, change * 100));
+                if (percentile == 99 && change > maxRegression) {
+                    regressions.add(String.format("%s p99 %.1f ms -> %.1f ms (%+.1f%%)", name, a, b, change * 100));
+                }
+            }
+            double errorsBefore = errorRate(before);
+            double errorsAfter = errorRate(after);
+            if (errorsAfter > errorsBefore + 0.001) {
+                regressions.add(String.format("%s error rate %.2f%% -> %.2f%%", name, errorsBefore * 100, errorsAfter * 100));
+            }
+        }
+        return new Comparison(lines, regressions, sameWorkload);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static ObjectNode percentiles(Histogram histogram) {
+        ObjectNode node = JSON.createObjectNode();
+        for (double percentile : PERCENTILES) {
+            node.put("p" + label(percentile), millis(histogram.getValueAtPercentile(percentile)));
+        }
+        node.put("max", millis(histogram.getMaxValue()));
+        node.put("mean", round(histogram.getMean() / 1000.0));
+        return node;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static double errorRate(JsonNode endpoint) {
+        long count = endpoint.path("count").asLong();
+        return count == 0 ? 0 : (double) endpoint.path("errors").asLong() / count;
+    }
+
+    /** 2xx et 304 (revalidation) sont des succès. */
+    private static boolean isSuccess(String status) {
+        return status.startsWith("2") || status.equals("304");
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? Integer.toString((int) percentile) : Double.toString(percentile);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,191 @@
+package com.yassine.learningapp.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Jeu de données des comptes {@code learner-NNNNN}, inséré en JDBC (lots) : documents, quiz et questions par
+ * utilisateur selon la configuration, contenu dérivé de la graine. Réutilisé tel quel s'il a déjà la bonne
+ * forme ; l'état modifié par une exécution (résultats, refresh tokens) est effacé avant chaque exécution.
+ */
+public class Seeder {
+
+    private static final int BATCH = 1000;
+    private static final String LEARNERS = "select id from users where username like '" + LoadTestConfig.USERNAME_PREFIX + "%'";
+
+    private final LoadTestConfig config;
+
+    public Seeder(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /** Peuple la base si nécessaire. Renvoie true si le jeu de données a été (re)créé. */
+    public boolean seed() throws SQLException {
+        try (Connection connection = connect()) {
+            if (hasExpectedShape(connection)) return false;
+            connection.setAutoCommit(false);
+            purge(connection);
+            insert(connection);
+            connection.commit();
+            return true;
+        }
+    }
+
+    /** Efface ce que les parcours écrivent, pour que chaque exécution parte du même état. */
+    public void reset() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("delete from quiz_results where user_id in (" + LEARNERS + ")");
+            statement.executeUpdate("delete from refresh_tokens where user_id in (" + LEARNERS + ")");
+            statement.execute("analyze");
+        }
+    }
+
+    static String username(int index) {
+        return LoadTestConfig.USERNAME_PREFIX + String.format("%05d", index);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", config.jdbcUser());
+        properties.setProperty("password", config.jdbcPassword());
+        properties.setProperty("reWriteBatchedInserts", "true");
+        return DriverManager.getConnection(config.jdbcUrl(), properties);
+    }
+
+    private boolean hasExpectedShape(Connection connection) throws SQLException {
+        long documents = (long) config.users() * config.documentsPerUser();
+        long quizzes = documents * config.quizzesPerDocument();
+        long questions = quizzes * config.questionsPerQuiz();
+        return count(connection, LEARNERS.replace("select id", "select count(*)")) == config.users()
+                && count(connection, "select count(*) from documents where user_id in (" + LEARNERS + ")") == documents
+                && count(connection, "select count(*) from quizzes q join documents d on d.id = q.document_id"
+                + " where d.user_id in (" + LEARNERS + ")") == quizzes
+                && count(connection, "select count(*) from quiz_questions qq join quizzes q on q.id = qq.quiz_id"
+                + " join documents d on d.id = q.document_id where d.user_id in (" + LEARNERS + ")") == questions;
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void purge(Connection connection) throws SQLException {
+        String documents = "select id from documents where user_id in (" + LEARNERS + ")";
+        String quizzes = "select id from quizzes where document_id in (" + documents + ")";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("delete from quiz_results where user_id in (" + LEARNERS + ") or quiz_id in (" + quizzes + ")");
+            statement.executeUpdate("delete from quiz_questions where quiz_id in (" + quizzes + ")");
+            statement.executeUpdate("delete from quizzes where document_id in (" + documents + ")");
+            statement.executeUpdate("delete from flash_cards where document_id in (" + documents + ")");
+            statement.executeUpdate("delete from documents where user_id in (" + LEARNERS + ")");
+            statement.executeUpdate("delete from refresh_tokens where user_id in (" + LEARNERS + ")");
+            statement.executeUpdate("delete from users where id in (" + LEARNERS + ")");
+        }
+    }
+
+    private void insert(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        LocalDateTime now = LocalDateTime.now();
+        // Coût de production : l'application vérifie ce hash à chaque login
+        String passwordHash = new BCryptPasswordEncoder(12).encode(LoadTestConfig.PASSWORD);
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into users (username, password, role, active, locked, created_at) values (?, ?, 'USER', true, false, ?)")) {
+            for (int u = 0; u < config.users(); u++) {
+                insert.setString(1, username(u));
+                insert.setString(2, passwordHash);
+                insert.setTimestamp(3, Timestamp.valueOf(now));
+                add(insert, u);
+            }
+            insert.executeBatch();
+        }
+        List<Long> users = ids(connection, LEARNERS + " order by username");
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into documents (user_id, title, path, file_size, created_at) values (?, ?, ?, ?, ?)")) {
+            int n = 0;
+            for (int u = 0; u < users.size(); u++) {
+                for (int d = 0; d < config.documentsPerUser(); d++) {
+                    insert.setLong(1, users.get(u));
+                    insert.setString(2, "Cours " + (d + 1) + " de " + username(u));
+                    insert.setString(3, "uploads/" + username(u) + "/course-" + d + ".pdf");
+                    insert.setDouble(4, 50_000 + random.nextInt(5_000_000));
+                    insert.setTimestamp(5, Timestamp.valueOf(now.minusHours(d)));
+                    add(insert, n++);
+                }
+            }
+            insert.executeBatch();
+        }
+        List<Long> documents = ids(connection, "select id from documents where user_id in (" + LEARNERS + ") order by user_id, id");
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into quizzes (document_id, title, question_count, created_at) values (?, ?, ?, ?)")) {
+            int n = 0;
+            for (long document : documents) {
+                for (int q = 0; q < config.quizzesPerDocument(); q++) {
+                    insert.setLong(1, document);
+                    insert.setString(2, "Quiz " + (q + 1));
+                    insert.setString(3, Integer.toString(config.questionsPerQuiz()));
+                    insert.setTimestamp(4, Timestamp.valueOf(now));
+                    add(insert, n++);
+                }
+            }
+            insert.executeBatch();
+        }
+        List<Long> quizzes = ids(connection, "select q.id from quizzes q join documents d on d.id = q.document_id"
+                + " where d.user_id in (" + LEARNERS + ") order by q.id");
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into quiz_questions (quiz_id, question_order, question, answer, option_a, option_b, option_c, option_d,"
+                        + " correct_answer, explanation, created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int n = 0;
+            String[] letters = {"A", "B", "C", "D"};
+            for (long quiz : quizzes) {
+                for (int q = 0; q < config.questionsPerQuiz(); q++) {
+                    String correct = letters[random.nextInt(4)];
+                    insert.setLong(1, quiz);
+                    insert.setInt(2, q + 1);
+                    insert.setString(3, "Question " + (q + 1) + " du quiz " + quiz + " ?");
+                    insert.setString(4, "Réponse " + correct);
+                    for (int o = 0; o < 4; o++) insert.setString(5 + o, "Proposition " + letters[o]);
+                    insert.setString(9, correct);
+                    insert.setString(10, "La bonne réponse est " + correct + ".");
+                    insert.setTimestamp(11, Timestamp.valueOf(now));
+                    add(insert, n++);
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void add(PreparedStatement insert, int n) throws SQLException {
+        insert.addBatch();
+        if ((n + 1) % BATCH == 0) insert.executeBatch();
+    }
+
+    private static List<Long> ids(Connection connection, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,59 @@
+package com.yassine.learningapp.loadtest;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyRecorderTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void responseTimeCountsScheduleDelayAndWarmupIsIgnored() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.window(1_000 * MS, 2_000 * MS);
+
+        // Prévue à 1000 ms, partie à 1400 ms (générateur ou serveur en retard), servie en 10 ms
+        recorder.record("GET /x", 1_000 * MS, 1_400 * MS, 1_410 * MS, "200");
+        recorder.record("GET /x", 999 * MS, 999 * MS, 1_005 * MS, "200");
+        recorder.record("GET /x", 2_000 * MS, 2_000 * MS, 2_001 * MS, "200");
+
+        LatencyRecorder.Endpoint endpoint = recorder.snapshot().get("GET /x");
+        assertEquals(1, endpoint.responseTime().getTotalCount());
+        assertEquals(410, endpoint.responseTime().getMaxValue() / 1000);
+        assertEquals(10, endpoint.serviceTime().getMaxValue() / 1000);
+    }
+
+    @Test
+    void comparisonFlagsP99AndErrorRegressions() {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"--duration=10s"});
+        ObjectNode baseline = report(config, 100, "200");
+        ObjectNode same = report(config, 105, "200");
+        ObjectNode slower = report(config, 150, "200");
+        ObjectNode failing = report(config, 100, "503");
+
+        assertTrue(Report.compare(baseline, same, 0.10).regressions().isEmpty());
+        assertEquals(1, Report.compare(baseline, slower, 0.10).regressions().size());
+        assertEquals(1, Report.compare(baseline, failing, 0.10).regressions().size());
+        assertTrue(Report.compare(baseline, slower, 0.10).sameWorkload());
+
+        JsonNode other = report(LoadTestConfig.parse(new String[]{"--duration=10s", "--arrival-rate=50"}), 100, "200");
+        assertFalse(Report.compare(baseline, other, 0.10).sameWorkload());
+    }
+
+    private static ObjectNode report(LoadTestConfig config, long latencyMillis, String status) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.window(0, Long.MAX_VALUE);
+        for (int i = 0; i < 1_000; i++) {
+            recorder.record("GET /x", 0, 0, latencyMillis * MS, status);
+        }
+        return Report.build(config, Instant.EPOCH, 1_000, recorder.snapshot());
+    }
+}
@@ -0,0 +1,133 @@
+package com.yassine.learningapp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LearnerSessionTest {
+
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final List<String> submissions = new CopyOnWriteArrayList<>();
+    private volatile boolean revokeNextAccess;
+    private HttpServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void followsLearnerFlowAndRotatesRefreshTokenOnExpiryWaves() throws IOException {
+        LatencyRecorder recorder = run(new String[]{"--think-time=15ms", "--answer-time=1ms", "--quizzes-per-session=3"},
+                TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertEquals(3, submissions.size());
+        assertTrue(submissions.getFirst().contains("\"idempotencyKey\":\"lt-42-0-0\""), submissions.getFirst());
+        assertTrue(refreshes.get() >= 1, "refreshes " + refreshes.get());
+        // Jamais d'ancien token présenté : chaque rotation a été suivie
+        recorder.snapshot().forEach((endpoint, data) -> assertEquals(Map.of("200", data.responseTime().getTotalCount()),
+                data.statuses(), endpoint));
+    }
+
+    @Test
+    void refreshesAndRetriesOnUnauthorized() throws IOException {
+        revokeNextAccess = true;
+        LatencyRecorder recorder = run(new String[]{"--think-time=1ms", "--answer-time=1ms", "--quizzes-per-session=1"}, 0);
+
+        assertEquals(1, submissions.size());
+        assertEquals(1, refreshes.get());
+        assertEquals(Map.of("401", 1L, "200", 1L), recorder.snapshot().get(LearnerSession.DOCUMENTS).statuses());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private LatencyRecorder run(String[] options, long waveIntervalNanos) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        String[] args = new String[options.length + 1];
+        args[0] = "--base-url=http://127.0.0.1:" + server.getAddress().getPort();
+        System.arraycopy(options, 0, args, 1, options.length);
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.window(0, Long.MAX_VALUE);
+        ApiClient api = new ApiClient(config.baseUrl(), Duration.ofSeconds(5), recorder);
+        long now = System.nanoTime();
+        new LearnerSession(0, now, Long.MAX_VALUE, new ExpiryWaves(now, waveIntervalNanos),
+                config, api, JsonMapper.builder().build()).run();
+        return recorder;
+    }
+
+    /** Application factice : un access token et un refresh token valides à la fois, rotation à chaque refresh. */
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/api/auth/login")) {
+            issue(exchange);
+            return;
+        }
+        if (path.equals("/api/auth/refresh")) {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            if (!("refresh_token=r" + generation.get()).equals(cookie)) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            refreshes.incrementAndGet();
+            issue(exchange);
+            return;
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (!("Bearer a" + generation.get()).equals(authorization) || revokeNextAccess) {
+            revokeNextAccess = false;
+            respond(exchange, 401, "{}");
+            return;
+        }
+        if (method.equals("GET") && path.equals("/api/documents")) {
+            respond(exchange, 200, "{\"content\":[{\"id\":1},{\"id\":2}],\"page\":0,\"size\":20,\"totalElements\":2,\"totalPages\":1}");
+        } else if (method.equals("GET") && path.matches("/api/documents/\\d+/quizzes")) {
+            respond(exchange, 200, "[{\"id\":10},{\"id\":11}]");
+        } else if (method.equals("GET") && path.matches("/api/quizzes/\\d+")) {
+            respond(exchange, 200, "{\"quiz\":{\"id\":10},\"questions\":[{\"id\":1},{\"id\":2},{\"id\":3}]}");
+        } else if (method.equals("POST") && path.equals("/api/quiz-results/sync")) {
+            submissions.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, 200, "{\"results\":[]}");
+        } else {
+            respond(exchange, 404, "{}");
+        }
+    }
+
+    private void issue(HttpExchange exchange) throws IOException {
+        int next = generation.incrementAndGet();
+        exchange.getResponseHeaders().add("Set-Cookie", "refresh_token=r" + next + "; Path=/api/auth/refresh; HttpOnly");
+        respond(exchange, 200, "{\"accessToken\":\"a" + next + "\",\"tokenType\":\"Bearer\",\"expiresInSeconds\":3600}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Mesure le démarrage : temps jusqu'à la première réponse 2xx et RSS du processus à cet instant.
+#
+#   scripts/startup-benchmark.sh <runs> -- <commande java...>
+#   scripts/startup-benchmark.sh 5 -- java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar
+#
+# Variables :
+#   BENCH_URL        URL sondée (défaut http://localhost:${PORT:-8080}/health/live)
+#   BENCH_TIMEOUT_S  abandon d'une exécution au-delà (défaut 120)
+#   MAX_TTFR_MS      échec si la médiane du temps de première réponse dépasse cette valeur
+#   MAX_RSS_MB       échec si la médiane du RSS dépasse cette valeur
+set -euo pipefail
+
+if [[ $# -lt 3 || "$2" != "--" ]]; then
+  echo "usage: $0 <runs> -- <command...>" >&2
+  exit 2
+fi
+runs=$1
+shift 2
+
+url=${BENCH_URL:-http://localhost:${PORT:-8080}/health/live}
+timeout_s=${BENCH_TIMEOUT_S:-120}
+
+now_ms() { date +%s%3N; }
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+pid=
+cleanup() {
+  if [[ -n "$pid" ]] && kill -0 "$pid" 2>/dev/null; then
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+  fi
+}
+trap cleanup EXIT
+
+ttfr_values=()
+rss_values=()
+for ((run = 1; run <= runs; run++)); do
+  start=$(now_ms)
+  "$@" >"/tmp/startup-benchmark-$run.log" 2>&1 &
+  pid=$!
+
+  ttfr=
+  while (( $(now_ms) - start < timeout_s * 1000 )); do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "run $run: process exited before serving, see /tmp/startup-benchmark-$run.log" >&2
+      exit 1
+    fi
+    if curl -fs -o /dev/null --max-time 1 "$url"; then
+      ttfr=$(( $(now_ms) - start ))
+      break
+    fi
+    sleep 0.05
+  done
+  if [[ -z "$ttfr" ]]; then
+    echo "run $run: no 2xx from $url within ${timeout_s}s" >&2
+    exit 1
+  fi
+
+  rss_mb=$(( $(ps -o rss= -p "$pid" | tr -d ' ') / 1024 ))
+  echo "run $run: ttfr=${ttfr}ms rss=${rss_mb}MB"
+  ttfr_values+=("$ttfr")
+  rss_values+=("$rss_mb")
+
+  cleanup
+  pid=
+done
+
+ttfr_median=$(printf '%s\n' "${ttfr_values[@]}" | median)
+rss_median=$(printf '%s\n' "${rss_values[@]}" | median)
+echo "median: ttfr=${ttfr_median}ms rss=${rss_median}MB (${runs} runs)"
+
+status=0
+if [[ -n "${MAX_TTFR_MS:-}" ]] && (( ttfr_median > MAX_TTFR_MS )); then
+  echo "FAIL: median ttfr ${ttfr_median}ms > ${MAX_TTFR_MS}ms" >&2
+  status=1
+fi
+if [[ -n "${MAX_RSS_MB:-}" ]] && (( rss_median > MAX_RSS_MB )); then
+  echo "FAIL: median rss ${rss_median}MB > ${MAX_RSS_MB}MB" >&2
+  status=1
+fi
+exit $status
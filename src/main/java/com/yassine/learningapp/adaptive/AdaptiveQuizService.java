@@ -0,0 +1,320 @@
+package com.yassine.learningapp.adaptive;
+
+import com.yassine.learningapp.dto.AdaptiveAnswersRequest;
+import com.yassine.learningapp.dto.AdaptiveQuizResponse;
+import com.yassine.learningapp.dto.AdaptiveResultResponse;
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.exception.AdaptiveAttemptException;
+import com.yassine.learningapp.exception.DocumentNotFoundException;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.AdaptiveAttemptRepository;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.QuestionStatsRepository;
+import com.yassine.learningapp.repository.QuestionStatsRepository.Delta;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.UserAbilityRepository;
+import com.yassine.learningapp.sharding.Shards;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Quiz adaptatif : au lieu de la liste fixe d'un quiz, les questions de tous les quiz d'un document sont
+ * choisies au plus près du niveau de l'utilisateur (information maximale en modèle de Rasch), et le quiz
+ * s'arrête dès que l'erreur standard visée est atteinte : plus court pour un niveau déjà bien estimé.
+ *
+ * <p>Chaque quiz servi est enregistré comme une tentative (ses questions) : la correction n'accepte que ces
+ * questions, une fois chacune, tant que la tentative n'a pas expiré. Sans cela, n'importe quelle question du
+ * document pourrait être soumise (et sa bonne réponse lue) et le niveau gonflé en répétant une bonne réponse.
+ *
+ * <p>Les réponses alimentent des compteurs en mémoire ({@link QuestionStatsBuffer}), écrits en base par lots
+ * ({@link #flush()}) ; chaque écriture recalibre la difficulté des questions concernées et les repositionne
+ * dans les index chargés. Les compteurs sont tenus par shard : une question vit sur le shard de son
+ * propriétaire. Le niveau de l'utilisateur est mis à jour à chaque correction.
+ */
+@Slf4j
+@Service
+public class AdaptiveQuizService {
+
+    /** Dispersion de la cible autour du niveau : deux quiz successifs ne sont pas identiques. */
+    private static final double TARGET_JITTER = 0.25;
+    private static final int FLUSH_CHUNK = 500;
+    private static final long MAX_RESPONSE_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    /** Questions d'un document, valables tant que la version des questions n'a pas changé. */
+    private static final class Pool {
+        final ContentVersion version;
+        final Map<Long, QuizQuestionResponse> questions;
+        final DifficultyIndex index;
+        volatile long lastAccess = System.nanoTime();
+
+        Pool(ContentVersion version, Map<Long, QuizQuestionResponse> questions, DifficultyIndex index) {
+            this.version = version;
+            this.questions = questions;
+            this.index = index;
+        }
+    }
+
+    private record Graded(QuizQuestionResponse question, boolean correct, long responseMillis, double abilityBefore) {}
+
+    private final DocumentRepository documentRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final QuestionStatsRepository statsRepository;
+    private final UserAbilityRepository abilityRepository;
+    private final AdaptiveAttemptRepository attemptRepository;
+    private final HotPathMetrics metrics;
+    private final Shards shards;
+    private final TransactionTemplate tx;
+    private final int minQuestions;
+    private final int maxQuestions;
+    private final double targetStandardError;
+    private final long idleNanos;
+    private final Duration attemptTtl;
+
+    private final Map<Long, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<Integer, QuestionStatsBuffer> buffers = new ConcurrentHashMap<>();
+
+    public AdaptiveQuizService(DocumentRepository documentRepository,
+                               QuizQuestionRepository quizQuestionRepository,
+                               QuestionStatsRepository statsRepository,
+                               UserAbilityRepository abilityRepository,
+                               AdaptiveAttemptRepository attemptRepository,
+                               HotPathMetrics metrics,
+                               Shards shards,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.adaptive.min-questions:5}") int minQuestions,
+                               @Value("${app.adaptive.max-questions:20}") int maxQuestions,
+                               @Value("${app.adaptive.target-standard-error:0.35}") double targetStandardError,
+                               @Value("${app.adaptive.idle-unload-minutes:30}") long idleUnloadMinutes,
+                               @Value("${app.adaptive.attempt-ttl-minutes:120}") long attemptTtlMinutes) {
+        this.documentRepository = documentRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.statsRepository = statsRepository;
+        this.abilityRepository = abilityRepository;
+        this.attemptRepository = attemptRepository;
+        this.metrics = metrics;
+        this.shards = shards;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.minQuestions = minQuestions;
+        this.maxQuestions = maxQuestions;
+        this.targetStandardError = targetStandardError;
+        this.idleNanos = Duration.ofMinutes(idleUnloadMinutes).toNanos();
+        this.attemptTtl = Duration.ofMinutes(attemptTtlMinutes);
+        metrics.gauge("app.adaptive.pools", pools, Map::size);
+    }
+
+    public AdaptiveQuizResponse assemble(Long documentId, Long userId) {
+        Timer.Sample sample = metrics.start();
+        record Served(String attemptId, Pool pool, Rasch.Ability ability, Set<Long> chosen) {}
+        Served served = tx.execute(status -> {
+            if (!owns(documentId, userId)) return null;
+            Pool pool = pool(documentId);
+            Rasch.Ability ability = abilityRepository.find(userId, documentId);
+            Set<Long> chosen = choose(pool, ability);
+            String attemptId = UUID.randomUUID().toString();
+            attemptRepository.create(attemptId, userId, documentId, chosen, LocalDateTime.now());
+            return new Served(attemptId, pool, ability, chosen);
+        });
+        if (served == null) throw new DocumentNotFoundException(documentId);
+
+        List<AdaptiveQuizResponse.Question> questions = new ArrayList<>(served.chosen().size());
+        for (Long id : served.chosen()) {
+            QuizQuestionResponse q = served.pool().questions.get(id);
+            questions.add(new AdaptiveQuizResponse.Question(q.id(), q.question(), q.optionA(), q.optionB(),
+                    q.optionC(), q.optionD()));
+        }
+        sample.stop(metrics.adaptive("assemble"));
+        return new AdaptiveQuizResponse(served.attemptId(), documentId, served.ability().theta(),
+                served.ability().standardError(), questions);
+    }
+
+    /**
+     * Corrige des réponses d'une tentative. Toute la soumission est refusée si une question n'a pas été servie
+     * par la tentative, y figure deux fois ou a déjà été corrigée. Les questions supprimées depuis le service
+     * ne sont pas corrigées.
+     */
+    public AdaptiveResultResponse submit(Long documentId, Long userId, String attemptId,
+                                         List<AdaptiveAnswersRequest.Answer> answers) {
+        Timer.Sample sample = metrics.start();
+        Map<Long, AdaptiveAnswersRequest.Answer> byQuestion = new LinkedHashMap<>();
+        for (AdaptiveAnswersRequest.Answer answer : answers) {
+            if (byQuestion.putIfAbsent(answer.questionId(), answer) != null) {
+                throw new AdaptiveAttemptException("Question soumise deux fois : " + answer.questionId());
+            }
+        }
+
+        record Outcome(List<Graded> graded, Rasch.Ability ability) {}
+        Outcome outcome = tx.execute(status -> {
+            if (!owns(documentId, userId)) return null;
+            LocalDateTime now = LocalDateTime.now();
+            if (!attemptRepository.lock(attemptId, userId, documentId, now.minus(attemptTtl))) {
+                throw new AdaptiveAttemptException("Tentative inconnue ou expirée");
+            }
+            List<Long> rejected = attemptRepository.claim(attemptId, List.copyOf(byQuestion.keySet()), now);
+            if (!rejected.isEmpty()) {
+                throw new AdaptiveAttemptException("Questions non servies ou déjà corrigées : " + rejected);
+            }
+            Pool pool = pool(documentId);
+            Rasch.Ability ability = abilityRepository.findForUpdate(userId, documentId);
+            List<Graded> graded = new ArrayList<>(byQuestion.size());
+            for (AdaptiveAnswersRequest.Answer answer : byQuestion.values()) {
+                QuizQuestionResponse question = pool.questions.get(answer.questionId());
+                if (question == null) continue;
+                boolean correct = question.correctAnswer().equalsIgnoreCase(answer.choice());
+                long millis = answer.responseMillis() == null ? 0 : Math.min(answer.responseMillis(), MAX_RESPONSE_MILLIS);
+                graded.add(new Graded(question, correct, millis, ability.theta()));
+                ability = Rasch.update(ability, pool.index.difficulty(question.id()), correct);
+            }
+            if (!graded.isEmpty()) abilityRepository.save(userId, documentId, ability);
+            return new Outcome(graded, ability);
+        });
+        if (outcome == null) throw new DocumentNotFoundException(documentId);
+
+        // Statistiques comptées après commit seulement
+        QuestionStatsBuffer buffer = buffers.computeIfAbsent(shards.shardOf(userId), shard -> new QuestionStatsBuffer());
+        int correct = 0;
+        List<AdaptiveResultResponse.Graded> result = new ArrayList<>(outcome.graded().size());
+        for (Graded g : outcome.graded()) {
+            buffer.record(g.question().id(), g.correct(), g.responseMillis(), g.abilityBefore());
+            if (g.correct()) correct++;
+            result.add(new AdaptiveResultResponse.Graded(g.question().id(), g.correct(), g.question().correctAnswer(),
+                    g.question().explanation()));
+        }
+        sample.stop(metrics.adaptive("submit"));
+        return new AdaptiveResultResponse(correct, result.size(), outcome.ability().theta(),
+                outcome.ability().standardError(), result);
+    }
+
+    /** Écrit les compteurs accumulés, recalibre les questions concernées et décharge les index inactifs. */
+    @Scheduled(fixedDelayString = "${app.adaptive.flush-interval-ms:30000}")
+    public void flush() {
+        long now = System.nanoTime();
+        pools.forEach((documentId, pool) -> {
+            if (now - pool.lastAccess > idleNanos) pools.remove(documentId, pool);
+        });
+
+        buffers.forEach(this::flush);
+    }
+
+    /** Supprime les tentatives expirées (et leurs questions) sur chaque shard. */
+    @Scheduled(fixedDelayString = "${app.adaptive.attempt-purge-interval-ms:600000}")
+    public void purgeAttempts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(attemptTtl);
+        for (int shard = 0; shard < shards.count(); shard++) {
+            try {
+                Integer deleted = shards.callOn(shard, () -> tx.execute(status -> attemptRepository.deleteCreatedBefore(cutoff)));
+                if (deleted != null && deleted > 0) log.debug("Adaptive attempts purged: shard={}, attempts={}", shard, deleted);
+            } catch (RuntimeException e) {
+                log.warn("Adaptive attempt purge failed: shard={}", shard, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private void flush(int shard, QuestionStatsBuffer buffer) {
+        List<Delta> deltas = buffer.drain();
+        if (deltas.isEmpty()) return;
+        Timer.Sample sample = metrics.start();
+        Map<Long, Double> difficulties;
+        try {
+            difficulties = shards.callOn(shard, () -> tx.execute(status -> recalibrate(deltas)));
+        } catch (RuntimeException e) {
+            buffer.restore(deltas);
+            log.warn("Question stats flush failed, {} deltas kept for next attempt: shard={}", deltas.size(), shard, e);
+            return;
+        }
+        for (Pool pool : pools.values()) {
+            difficulties.forEach((questionId, difficulty) -> {
+                if (pool.index.contains(questionId)) pool.index.put(questionId, difficulty);
+            });
+        }
+        sample.stop(metrics.adaptive("flush"));
+        log.debug("Question stats flushed: shard={}, questions={}", shard, deltas.size());
+    }
+
+    /** Questions au plus près du niveau jusqu'à l'erreur standard visée (entre min et max questions). */
+    private Set<Long> choose(Pool pool, Rasch.Ability ability) {
+        double theta = ability.theta();
+        double information = ability.information();
+        Set<Long> chosen = new LinkedHashSet<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (chosen.size() < maxQuestions) {
+            if (chosen.size() >= minQuestions && 1.0 / Math.sqrt(information) <= targetStandardError) break;
+            long id = pool.index.nearest(theta + random.nextDouble(-TARGET_JITTER, TARGET_JITTER), chosen);
+            if (id < 0) break;
+            chosen.add(id);
+            information += Rasch.information(theta, pool.index.difficulty(id));
+        }
+        return chosen;
+    }
+
+    private boolean owns(Long documentId, Long userId) {
+        ContentVersion owned = documentRepository.versionByIdAndUserId(documentId, userId);
+        return owned != null && owned.count() != null && owned.count() > 0;
+    }
+
+    /** Index du document, rechargé si ses questions ont changé (quiz généré ou supprimé). */
+    private Pool pool(Long documentId) {
+        ContentVersion version = quizQuestionRepository.versionByDocumentId(documentId);
+        Pool pool = pools.get(documentId);
+        if (pool == null || !pool.version.equals(version)) {
+            pool = load(documentId, version);
+            pools.put(documentId, pool);
+        }
+        pool.lastAccess = System.nanoTime();
+        return pool;
+    }
+
+    private Pool load(Long documentId, ContentVersion version) {
+        Map<Long, QuizQuestionResponse> questions = new HashMap<>();
+        for (QuizQuestionResponse q : quizQuestionRepository.findResponsesByDocumentId(documentId)) {
+            questions.put(q.id(), q);
+        }
+        Map<Long, Double> calibrated = statsRepository.findDifficultiesByDocumentId(documentId);
+        DifficultyIndex index = new DifficultyIndex();
+        // Question jamais répondue : difficulté moyenne (0) en attendant ses premières statistiques
+        questions.keySet().forEach(id -> index.put(id, calibrated.getOrDefault(id, 0.0)));
+        log.debug("Adaptive pool loaded: documentId={}, questions={}, calibrated={}", documentId, questions.size(), calibrated.size());
+        return new Pool(version, questions, index);
+    }
+
+    private Map<Long, Double> recalibrate(List<Delta> deltas) {
+        Map<Long, Double> difficulties = new HashMap<>();
+        for (int from = 0; from < deltas.size(); from += FLUSH_CHUNK) {
+            List<Delta> chunk = deltas.subList(from, Math.min(deltas.size(), from + FLUSH_CHUNK));
+            statsRepository.addDeltas(chunk);
+            for (QuestionStatsRepository.Totals t : statsRepository.findTotals(chunk.stream().map(Delta::questionId).toList())) {
+                difficulties.put(t.questionId(), Rasch.difficulty(t.attempts(), t.correct(), t.abilitySum()));
+            }
+        }
+        statsRepository.updateDifficulties(difficulties);
+        return difficulties;
+    }
+}
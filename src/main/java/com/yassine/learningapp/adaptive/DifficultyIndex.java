@@ -0,0 +1,67 @@
+package com.yassine.learningapp.adaptive;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Questions d'un document triées par difficulté : la plus proche d'un niveau cible se trouve en O(log n)
+ * (plus le nombre de questions déjà retenues, sautées). Les recalibrations repositionnent une question
+ * sans bloquer les lectures concurrentes (un seul écrivain : le chargement, puis l'écriture périodique des stats).
+ */
+final class DifficultyIndex {
+
+    private record Entry(double difficulty, long questionId) {}
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingDouble(Entry::difficulty)
+            .thenComparingLong(Entry::questionId);
+
+    private final NavigableSet<Entry> sorted = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Double> difficulties = new ConcurrentHashMap<>();
+
+    void put(long questionId, double difficulty) {
+        Double previous = difficulties.put(questionId, difficulty);
+        if (previous != null) {
+            if (previous == difficulty) return;
+            sorted.remove(new Entry(previous, questionId));
+        }
+        sorted.add(new Entry(difficulty, questionId));
+    }
+
+    boolean contains(long questionId) {
+        return difficulties.containsKey(questionId);
+    }
+
+    double difficulty(long questionId) {
+        return difficulties.getOrDefault(questionId, 0.0);
+    }
+
+    int size() {
+        return difficulties.size();
+    }
+
+    /** Question non encore retenue la plus proche de {@code target} ; -1 s'il n'en reste pas. */
+    long nearest(double target, Set<Long> excluded) {
+        Entry probe = new Entry(target, Long.MIN_VALUE);
+        Iterator<Entry> above = sorted.tailSet(probe, true).iterator();
+        Iterator<Entry> below = sorted.headSet(probe, false).descendingIterator();
+        Entry up = next(above, excluded);
+        Entry down = next(below, excluded);
+        if (up == null) return down == null ? -1 : down.questionId();
+        if (down == null) return up.questionId();
+        return up.difficulty() - target <= target - down.difficulty() ? up.questionId() : down.questionId();
+    }
+
+    private static Entry next(Iterator<Entry> it, Set<Long> excluded) {
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (!excluded.contains(e.questionId())) return e;
+        }
+        return null;
+    }
+}
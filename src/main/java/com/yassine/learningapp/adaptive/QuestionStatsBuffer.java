@@ -0,0 +1,61 @@
+package com.yassine.learningapp.adaptive;
+
+import com.yassine.learningapp.repository.QuestionStatsRepository.Delta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques par question accumulées sans verrou entre deux écritures en base : une réponse ne coûte que
+ * quelques incréments de {@link LongAdder}, {@link #drain()} récupère et remet à zéro les deltas.
+ */
+final class QuestionStatsBuffer {
+
+    private static final class Counters {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        final LongAdder responseMillis = new LongAdder();
+        final DoubleAdder abilitySum = new DoubleAdder();
+    }
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    /** {@code ability} : niveau du répondant avant cette réponse. */
+    void record(long questionId, boolean correct, long responseMillis, double ability) {
+        Counters c = counters.computeIfAbsent(questionId, id -> new Counters());
+        // attempts d'abord, remis à zéro en dernier par drain : correct ne dépasse jamais attempts dans un delta
+        c.attempts.increment();
+        if (correct) c.correct.increment();
+        c.responseMillis.add(responseMillis);
+        c.abilitySum.add(ability);
+    }
+
+    List<Delta> drain() {
+        List<Delta> deltas = new ArrayList<>();
+        counters.forEach((questionId, c) -> {
+            long correct = c.correct.sumThenReset();
+            long responseMillis = c.responseMillis.sumThenReset();
+            double abilitySum = c.abilitySum.sumThenReset();
+            long attempts = c.attempts.sumThenReset();
+            if (attempts > 0 || correct > 0) {
+                deltas.add(new Delta(questionId, attempts, correct, responseMillis, abilitySum));
+            }
+        });
+        return deltas;
+    }
+
+    /** Remet des deltas non écrits (échec de l'écriture en base) : ils repartiront au prochain drain. */
+    void restore(List<Delta> deltas) {
+        for (Delta d : deltas) {
+            Counters c = counters.computeIfAbsent(d.questionId(), id -> new Counters());
+            c.attempts.add(d.attempts());
+            c.correct.add(d.correct());
+            c.responseMillis.add(d.responseMillis());
+            c.abilitySum.add(d.abilitySum());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.yassine.learningapp.adaptive;
+
+/**
+ * Modèle de Rasch (IRT à un paramètre) : P(réussite) = 1 / (1 + e^-(θ - b)), θ niveau de l'utilisateur,
+ * b difficulté de la question, sur la même échelle logit.
+ *
+ * <p>Difficulté : niveau moyen de ceux qui ont répondu + logit du taux d'échec, ramenée vers 0 tant que la
+ * question a peu de réponses. Niveau : un pas de Newton sur la vraisemblance de chaque réponse, divisé par
+ * l'information cumulée ; celle-ci part de 1 ({@link Ability#PRIOR}), ce qui amortit les premiers pas et donne
+ * l'erreur standard. Ce n'est pas un maximum a posteriori : l'a priori n'entre que par cette information
+ * initiale, jamais comme rappel vers 0 à chaque réponse.
+ */
+public final class Rasch {
+
+    static final double MAX_LOGIT = 4.0;
+
+    /** Nombre de réponses à partir duquel la difficulté observée pèse autant que l'a priori (0). */
+    private static final double DIFFICULTY_PRIOR_WEIGHT = 5.0;
+
+    /** Niveau estimé ; {@code information} part de 1 puis cumule celle des réponses, erreur standard 1 / √info. */
+    public record Ability(double theta, double information, int answers) {
+
+        public static final Ability PRIOR = new Ability(0.0, 1.0, 0);
+
+        public double standardError() {
+            return 1.0 / Math.sqrt(information);
+        }
+    }
+
+    private Rasch() {
+    }
+
+    public static double probability(double theta, double difficulty) {
+        return 1.0 / (1.0 + Math.exp(difficulty - theta));
+    }
+
+    /** Information de Fisher d'une question pour ce niveau : maximale (0.25) quand b = θ. */
+    public static double information(double theta, double difficulty) {
+        double p = probability(theta, difficulty);
+        return p * (1.0 - p);
+    }
+
+    public static Ability update(Ability ability, double difficulty, boolean correct) {
+        double p = probability(ability.theta(), difficulty);
+        double info = p * (1.0 - p);
+        double information = ability.information() + info;
+        double theta = clamp(ability.theta() + ((correct ? 1.0 : 0.0) - p) / information);
+        return new Ability(theta, information, ability.answers() + 1);
+    }
+
+    /** {@code abilitySum} : somme des niveaux des répondants au moment de leur réponse. */
+    public static double difficulty(long attempts, long correct, double abilitySum) {
+        if (attempts <= 0) return 0.0;
+        double failureLogit = Math.log((attempts - correct + 0.5) / (correct + 0.5));
+        double observed = abilitySum / attempts + failureLogit;
+        return clamp(observed * attempts / (attempts + DIFFICULTY_PRIOR_WEIGHT));
+    }
+
+    private static double clamp(double logit) {
+        return Math.clamp(logit, -MAX_LOGIT, MAX_LOGIT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.yassine.learningapp.config;
+
+import com.yassine.learningapp.repository.UserRepository;
+import com.yassine.learningapp.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordConfig {
+
+    /**
+     * BCrypt au coût configuré. Les hashs d'un coût inférieur sont rehashés au prochain login réussi
+     * ({@link PasswordEncoder#upgradeEncoding}).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    @Bean
+    public UserDetailsService userDetailsService(UserRepository userRepository) {
+        return new CustomUserDetailsService(userRepository);
+    }
+}
@@ -0,0 +1,19 @@
+package com.yassine.learningapp.config;
+
+import com.yassine.learningapp.retrieval.Embedder;
+import com.yassine.learningapp.retrieval.HashingEmbedder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RetrievalConfig {
+
+    // Stand-in local et déterministe ; un bean Embedder déclaré ailleurs (modèle distant) le remplace
+    @Bean
+    @ConditionalOnMissingBean
+    public Embedder embedder(@Value("${app.retrieval.dimension:384}") int dimension) {
+        return new HashingEmbedder(dimension);
+    }
+}
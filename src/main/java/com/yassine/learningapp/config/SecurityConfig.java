@@ -3,6 +3,7 @@ package com.yassine.learningapp.config;
 import com.yassine.learningapp.security.JsonAuthenticationEntryPoint;
 import com.yassine.learningapp.security.JsonAccessDeniedHandler;
 import com.yassine.learningapp.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -35,7 +36,11 @@ public class SecurityConfig {
                         .accessDeniedHandler(accessDeniedHandler)            // Gère les 403 ← AJOUTÉ
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch ASYNC (fin d'un flux SSE) : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/health", "/health/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll() // port de management, non exposé publiquement
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
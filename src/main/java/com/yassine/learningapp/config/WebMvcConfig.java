@@ -0,0 +1,77 @@
+package com.yassine.learningapp.config;
+
+import com.yassine.learningapp.sharding.ShardWriteGuard;
+import com.yassine.learningapp.sql.SqlBudgetInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.SerializationConfig;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.cfg.DatatypeFeature;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.cfg.EnumFeature;
+import tools.jackson.databind.cfg.MapperBuilder;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private static final List<DatatypeFeature> DATATYPE_FEATURES = Stream.of(DateTimeFeature.values(),
+            EnumFeature.values()).<DatatypeFeature>flatMap(Stream::of).toList();
+
+    private final SqlBudgetInterceptor sqlBudgetInterceptor;
+    private final ObjectProvider<ShardWriteGuard> shardWriteGuard;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetInterceptor).addPathPatterns("/api/**");
+        // Partitionnement actif seulement : écritures gelées pendant le déplacement d'un utilisateur
+        shardWriteGuard.ifAvailable(guard -> registry.addInterceptor(guard).addPathPatterns("/api/**"));
+    }
+
+    /**
+     * Smile / CBOR pour les clients mobiles qui les demandent via {@code Accept}.
+     * Enregistrés après le converter JSON : sans préférence explicite, la réponse reste en JSON.
+     * Mêmes réglages que le mapper JSON de l'application (spring.jackson.*, modules) : le contenu ne dépend
+     * que du format demandé. Voir {@code PayloadFormatBenchmark} pour les tailles et débits comparés.
+     */
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withSmileConverter(new JacksonSmileHttpMessageConverter(likeJson(SmileMapper.builder()).build()))
+                .withCborConverter(new JacksonCborHttpMessageConverter(likeJson(CBORMapper.builder()).build()));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Recopie features, modules, nommage, dates, locale et inclusion du mapper JSON (immuable en Jackson 3). */
+    private <B extends MapperBuilder<?, B>> B likeJson(B builder) {
+        SerializationConfig config = jsonMapper.serializationConfig();
+        for (MapperFeature f : MapperFeature.values()) builder.configure(f, jsonMapper.isEnabled(f));
+        for (SerializationFeature f : SerializationFeature.values()) builder.configure(f, jsonMapper.isEnabled(f));
+        for (DeserializationFeature f : DeserializationFeature.values()) builder.configure(f, jsonMapper.isEnabled(f));
+        for (DatatypeFeature f : DATATYPE_FEATURES) builder.configure(f, jsonMapper.isEnabled(f));
+        builder.addModules(jsonMapper.registeredModules())
+                .propertyNamingStrategy(config.getPropertyNamingStrategy())
+                .defaultDateFormat(config.getDateFormat())
+                .defaultTimeZone(config.getTimeZone())
+                .defaultLocale(config.getLocale())
+                .changeDefaultPropertyInclusion(ignored -> config.getDefaultPropertyInclusion());
+        return builder;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.adaptive.AdaptiveQuizService;
+import com.yassine.learningapp.dto.AdaptiveAnswersRequest;
+import com.yassine.learningapp.dto.AdaptiveQuizResponse;
+import com.yassine.learningapp.dto.AdaptiveResultResponse;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.sql.SqlBudget;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Quiz adaptatif d'un document : questions choisies pour le niveau de l'utilisateur, puis correction qui met
+ * ce niveau à jour. Chaque GET renvoie un nouveau quiz, une nouvelle tentative (pas de requête conditionnelle) ;
+ * une réponse n'est corrigée qu'une fois par tentative (409 sinon).
+ */
+@RestController
+@RequiredArgsConstructor
+public class AdaptiveQuizController {
+
+    private final AdaptiveQuizService adaptiveQuizService;
+
+    @GetMapping("/api/documents/{documentId}/adaptive-quiz")
+    @SqlBudget(maxStatements = 7, maxRepeatedShape = 1) // propriété + version + niveau + tentative + ses questions (+ questions + difficultés au chargement)
+    public AdaptiveQuizResponse quiz(@PathVariable Long documentId,
+                                     @AuthenticationPrincipal CustomUserDetails principal) {
+        return adaptiveQuizService.assemble(documentId, principal.getUserId());
+    }
+
+    @PostMapping("/api/documents/{documentId}/adaptive-quiz/answers")
+    @SqlBudget(maxStatements = 8, maxRepeatedShape = 1) // propriété + tentative + questions corrigées + version + niveau + upsert (+ chargement)
+    public AdaptiveResultResponse answers(@PathVariable Long documentId,
+                                          @AuthenticationPrincipal CustomUserDetails principal,
+                                          @Valid @RequestBody AdaptiveAnswersRequest body) {
+        return adaptiveQuizService.submit(documentId, principal.getUserId(), body.attemptId(), body.answers());
+    }
+}
@@ -0,0 +1,26 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.CacheRegionStats;
+import com.yassine.learningapp.service.CacheStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Statistiques du cache de second niveau par région (ROLE_ADMIN via /api/admin/**).
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+public class AdminCacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/stats")
+    public List<CacheRegionStats> stats() {
+        return cacheStatisticsService.regions();
+    }
+}
@@ -0,0 +1,55 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.QuizResultSummary;
+import com.yassine.learningapp.dto.ShardMoveRequest;
+import com.yassine.learningapp.dto.ShardStats;
+import com.yassine.learningapp.sharding.ShardAdminService;
+import com.yassine.learningapp.sharding.ShardDirectory;
+import com.yassine.learningapp.sharding.ShardRebalancer;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Shards : volumétrie, placement et déplacement d'un utilisateur (ROLE_ADMIN via /api/admin/**).
+ */
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AdminShardController {
+
+    private static final int MAX_RECENT = 200;
+
+    private final ShardAdminService shardAdminService;
+
+    @GetMapping
+    public List<ShardStats> stats() {
+        return shardAdminService.stats();
+    }
+
+    @GetMapping("/recent-results")
+    public List<QuizResultSummary> recentResults(@RequestParam(defaultValue = "20") int limit) {
+        return shardAdminService.recentResults(Math.max(1, Math.min(limit, MAX_RECENT)));
+    }
+
+    @GetMapping("/users/{userId}")
+    public ShardDirectory.Placement placement(@PathVariable Long userId) {
+        return shardAdminService.placement(userId);
+    }
+
+    /** Synchrone : répond une fois les données copiées et la source purgée. */
+    @PostMapping("/users/{userId}/move")
+    public ShardRebalancer.MoveResult move(@PathVariable Long userId, @Valid @RequestBody ShardMoveRequest request) {
+        return shardAdminService.move(userId, request.shard());
+    }
+}
@@ -0,0 +1,34 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.tracing.SlowTraceBuffer;
+import com.yassine.learningapp.tracing.TraceSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Consultation des traces lentes récentes (ROLE_ADMIN via /api/admin/**).
+ */
+@RestController
+@RequestMapping("/api/admin/traces")
+@RequiredArgsConstructor
+public class AdminTraceController {
+
+    private final SlowTraceBuffer slowTraceBuffer;
+
+    @GetMapping("/slow")
+    public List<TraceSnapshot> slowTraces(@RequestParam(defaultValue = "50") int limit) {
+        return slowTraceBuffer.snapshot(Math.max(1, Math.min(limit, 500)));
+    }
+
+    @GetMapping("/{traceId}")
+    public ResponseEntity<TraceSnapshot> trace(@PathVariable String traceId) {
+        return ResponseEntity.of(slowTraceBuffer.find(traceId));
+    }
+}
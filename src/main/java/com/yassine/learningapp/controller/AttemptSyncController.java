@@ -0,0 +1,31 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.AttemptSyncRequest;
+import com.yassine.learningapp.dto.AttemptSyncResponse;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.sql.SqlBudget;
+import com.yassine.learningapp.sync.AttemptSyncService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Synchro des tentatives hors-ligne : 200 avec un statut par tentative (CREATED / DUPLICATE / REJECTED).
+ * Le client peut rejouer le lot entier tant qu'il n'a pas reçu de réponse.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AttemptSyncController {
+
+    private final AttemptSyncService attemptSyncService;
+
+    @PostMapping("/api/quiz-results/sync")
+    @SqlBudget(maxStatements = 5, maxRepeatedShape = 2) // quiz possédés + clés existantes + batch + relecture des ids
+    public AttemptSyncResponse sync(@AuthenticationPrincipal CustomUserDetails principal,
+                                    @Valid @RequestBody AttemptSyncRequest body) {
+        return attemptSyncService.sync(principal.getUserId(), body.attempts());
+    }
+}
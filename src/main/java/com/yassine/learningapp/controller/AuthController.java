@@ -0,0 +1,104 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.AuthResponse;
+import com.yassine.learningapp.dto.ForgotPasswordRequest;
+import com.yassine.learningapp.dto.LoginRequest;
+import com.yassine.learningapp.dto.ResetPasswordRequest;
+import com.yassine.learningapp.service.AuthService;
+import com.yassine.learningapp.service.PasswordResetService;
+import com.yassine.learningapp.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Access token (JWT) dans le corps, refresh token dans un cookie HttpOnly limité à {@code app.auth.refresh-cookie-path}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    static final String REFRESH_COOKIE = "refresh_token";
+
+    private final AuthService authService;
+    private final PasswordResetService passwordResetService;
+    private final boolean cookieSecure;
+    private final String cookieSameSite;
+    private final String refreshCookiePath;
+
+    public AuthController(AuthService authService,
+                          PasswordResetService passwordResetService,
+                          @Value("${app.auth.cookie-secure:false}") boolean cookieSecure,
+                          @Value("${app.auth.cookie-samesite:Lax}") String cookieSameSite,
+                          @Value("${app.auth.refresh-cookie-path:/api/auth/refresh}") String refreshCookiePath) {
+        this.authService = authService;
+        this.passwordResetService = passwordResetService;
+        this.cookieSecure = cookieSecure;
+        this.cookieSameSite = cookieSameSite;
+        this.refreshCookiePath = refreshCookiePath;
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest body, HttpServletRequest request) {
+        return toResponse(authService.login(body.username(), body.password(), body.rememberMe(), request));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+                                                HttpServletRequest request) {
+        return toResponse(authService.refresh(refreshToken, request));
+    }
+
+    /** Logout : même chemin que le refresh, seul chemin auquel le navigateur envoie le cookie. */
+    @DeleteMapping("/refresh")
+    public ResponseEntity<Void> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        authService.logout(refreshToken);
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie("", Duration.ZERO).toString())
+                .build();
+    }
+
+    /** 202 dans tous les cas : le mail part en arrière-plan (outbox), la réponse ne révèle pas si le compte existe. */
+    @PostMapping("/password/forgot")
+    public ResponseEntity<Void> forgotPassword(@Valid @RequestBody ForgotPasswordRequest body) {
+        passwordResetService.requestReset(body.username());
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/password/reset")
+    public ResponseEntity<Void> resetPassword(@Valid @RequestBody ResetPasswordRequest body) {
+        passwordResetService.resetPassword(body.token(), body.newPassword());
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<AuthResponse> toResponse(AuthService.Session session) {
+        RefreshTokenService.Issued refresh = session.refresh();
+        Duration maxAge = Duration.between(LocalDateTime.now(), refresh.expiresAt());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie(refresh.rawToken(), maxAge).toString())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(AuthResponse.bearer(session.accessToken(), authService.expiresInSeconds(session.accessToken())));
+    }
+
+    private ResponseCookie refreshCookie(String value, Duration maxAge) {
+        return ResponseCookie.from(REFRESH_COOKIE, value)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite(cookieSameSite)
+                .path(refreshCookiePath)
+                .maxAge(maxAge)
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dashboard.DashboardService;
+import com.yassine.learningapp.dto.DashboardResponse;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.sql.SqlBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Écran d'accueil en une seule requête (au lieu d'un appel par section). */
+@RestController
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/api/dashboard")
+    @SqlBudget(maxStatements = 5, maxRepeatedShape = 1) // une requête par section, en parallèle (0 si en cache)
+    public DashboardResponse dashboard(@AuthenticationPrincipal CustomUserDetails principal) {
+        return dashboardService.dashboard(principal.getUserId());
+    }
+}
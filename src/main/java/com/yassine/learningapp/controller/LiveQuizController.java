@@ -0,0 +1,82 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.LiveAnswerRequest;
+import com.yassine.learningapp.dto.LiveAnswerResponse;
+import com.yassine.learningapp.dto.LiveJoinRequest;
+import com.yassine.learningapp.dto.LiveStartRequest;
+import com.yassine.learningapp.live.LiveFrames;
+import com.yassine.learningapp.live.LiveQuizService;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.sql.SqlBudget;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Quiz en direct : l'hôte crée la session et fait avancer les questions, les participants rejoignent avec
+ * le code, s'abonnent au flux SSE ({@code events}) et répondent. Hors démarrage, aucune requête SQL.
+ */
+@RestController
+@RequiredArgsConstructor
+public class LiveQuizController {
+
+    private final LiveQuizService liveQuizService;
+
+    @PostMapping("/api/live/sessions")
+    @SqlBudget(maxStatements = 3, maxRepeatedShape = 1) // propriété + quiz + questions
+    public LiveFrames.Snapshot start(@AuthenticationPrincipal CustomUserDetails principal,
+                                     @Valid @RequestBody LiveStartRequest body) {
+        return liveQuizService.start(body.quizId(), principal.getUserId());
+    }
+
+    @PostMapping("/api/live/sessions/{code}/join")
+    @SqlBudget(maxStatements = 0)
+    public LiveFrames.Snapshot join(@AuthenticationPrincipal CustomUserDetails principal,
+                                    @PathVariable String code,
+                                    @Valid @RequestBody LiveJoinRequest body) {
+        return liveQuizService.join(code, principal.getUserId(), body.nickname());
+    }
+
+    @GetMapping(value = "/api/live/sessions/{code}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SqlBudget(maxStatements = 0)
+    public ResponseEntity<ResponseBodyEmitter> events(@AuthenticationPrincipal CustomUserDetails principal,
+                                                      @PathVariable String code) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // pas de mise en tampon par un proxy nginx
+                .body(liveQuizService.subscribe(code, principal.getUserId()));
+    }
+
+    @PostMapping("/api/live/sessions/{code}/next")
+    @SqlBudget(maxStatements = 0)
+    public LiveFrames.Question next(@AuthenticationPrincipal CustomUserDetails principal,
+                                    @PathVariable String code) {
+        return liveQuizService.next(code, principal.getUserId());
+    }
+
+    @PostMapping("/api/live/sessions/{code}/answers")
+    @SqlBudget(maxStatements = 0)
+    public LiveAnswerResponse answer(@AuthenticationPrincipal CustomUserDetails principal,
+                                     @PathVariable String code,
+                                     @Valid @RequestBody LiveAnswerRequest body) {
+        return new LiveAnswerResponse(
+                liveQuizService.answer(code, principal.getUserId(), body.questionIndex(), body.choice()));
+    }
+
+    @PostMapping("/api/live/sessions/{code}/finish")
+    @SqlBudget(maxStatements = 1, maxRepeatedShape = 1) // batch des résultats
+    public LiveFrames.Finished finish(@AuthenticationPrincipal CustomUserDetails principal,
+                                      @PathVariable String code) {
+        return liveQuizService.finish(code, principal.getUserId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.RetrievedChunk;
+import com.yassine.learningapp.retrieval.RetrievalService;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.sql.SqlBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recherche dans le contenu des documents : seuls les morceaux pertinents sont ensuite envoyés au modèle
+ * de génération, pas le document entier.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RetrievalController {
+
+    private final RetrievalService retrievalService;
+
+    @PostMapping("/api/documents/{documentId}/index")
+    @SqlBudget(maxStatements = 8, maxRepeatedShape = 2) // chemin + ids + delete + batch + ids (+ chargement : stamp et curseur, ou stamp, ids et morceaux manquants)
+    public ResponseEntity<Map<String, Integer>> index(@PathVariable Long documentId,
+                                                      @AuthenticationPrincipal CustomUserDetails principal) {
+        int chunks = retrievalService.index(documentId, principal.getUserId());
+        return ResponseEntity.ok(Map.of("chunks", chunks));
+    }
+
+    @GetMapping("/api/search/chunks")
+    @SqlBudget(maxStatements = 4, maxRepeatedShape = 2) // stamp + texte des k morceaux (+ curseur, ou ids et morceaux manquants si l'index est en retard)
+    public List<RetrievedChunk> search(@RequestParam("q") String query,
+                                       @RequestParam(defaultValue = "5") int k,
+                                       @RequestParam(required = false) Long documentId,
+                                       @AuthenticationPrincipal CustomUserDetails principal) {
+        return retrievalService.search(principal.getUserId(), query, k, documentId);
+    }
+}
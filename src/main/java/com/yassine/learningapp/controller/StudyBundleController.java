@@ -0,0 +1,110 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.StudyBundleService;
+import com.yassine.learningapp.sql.SqlBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bundle d'étude hors-ligne : un seul appel (ou un 304) au lieu d'un appel par fiche / quiz / question.
+ *
+ * <p>Le fichier est stocké gzip et envoyé tel quel ({@code Content-Encoding: gzip}) ; les clients qui
+ * n'acceptent pas gzip reçoivent le JSON décompressé à la volée. Chaque représentation a son ETag fort,
+ * vérifié avant toute construction du bundle.
+ */
+@RestController
+@RequiredArgsConstructor
+@SqlBudget(maxStatements = 11, maxRepeatedShape = 2) // 4 versions, puis au build : 1 document + 3 versions + 3 curseurs
+public class StudyBundleController {
+
+    private static final MediaType BUNDLE_TYPE = MediaType.APPLICATION_JSON;
+
+    private final StudyBundleService studyBundleService;
+
+    @GetMapping("/api/documents/{documentId}/bundle")
+    public ResponseEntity<Resource> bundle(@PathVariable Long documentId,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                           @AuthenticationPrincipal CustomUserDetails principal,
+                                           WebRequest webRequest) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String version = studyBundleService.version(documentId, principal.getUserId());
+
+        if (webRequest.checkNotModified(etag(version, gzip))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag(version, gzip))
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        StudyBundleService.Bundle bundle = studyBundleService.bundle(documentId, version);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag(bundle.version(), gzip))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(BUNDLE_TYPE);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new FileSystemResource(bundle.file()));
+        }
+        return response.body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(bundle.file()))));
+    }
+
+    /** ETag fort par représentation : les octets gzip et identité diffèrent. */
+    private static String etag(String version, boolean gzip) {
+        return "\"" + version + (gzip ? "-gz" : "") + "\"";
+    }
+
+    /**
+     * gzip accepté avec une qualité non nulle (RFC 9110 §12.5.3) : une entrée {@code gzip} explicite l'emporte
+     * sur {@code *}, quel que soit l'ordre ; {@code q=0} (ou une qualité illisible) vaut refus.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip == null ? 0 : gzip, quality(tokens));
+            } else if (coding.equals("*")) {
+                any = quality(tokens);
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.length() > 1 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.DocumentResponse;
+import com.yassine.learningapp.dto.FlashCardResponse;
+import com.yassine.learningapp.dto.PageResponse;
+import com.yassine.learningapp.dto.QuizDetailResponse;
+import com.yassine.learningapp.dto.QuizResponse;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.StudyContentService;
+import com.yassine.learningapp.sql.SqlBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+import static com.yassine.learningapp.web.ConditionalGet.respond;
+import static com.yassine.learningapp.web.MediaTypes.APPLICATION_SMILE_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Lectures interrogées en boucle par le SPA : 304 dès que la version (requête d'agrégat) n'a pas changé.
+ * Fiches et quiz existent aussi en Smile / CBOR pour les clients mobiles ({@code Accept}).
+ */
+@RestController
+@RequiredArgsConstructor
+@SqlBudget(maxStatements = 4, maxRepeatedShape = 1) // version(s) + contenu (+ count pour la pagination)
+public class StudyContentController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final StudyContentService studyContentService;
+
+    @GetMapping("/api/documents")
+    public ResponseEntity<PageResponse<DocumentResponse>> documents(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "20") int size,
+                                                                    WebRequest request) {
+        Long userId = principal.getUserId();
+        // Ordre de l'index idx_documents_user_created (lecture de la page sans tri)
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        return respond(request, studyContentService.documentsVersion(userId),
+                "p" + pageable.getPageNumber() + "s" + pageable.getPageSize(),
+                () -> studyContentService.documents(userId, pageable));
+    }
+
+    @GetMapping(value = "/api/documents/{documentId}/flashcards", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<FlashCardResponse>> flashCards(@PathVariable Long documentId,
+                                                              @AuthenticationPrincipal CustomUserDetails principal,
+                                                              WebRequest request) {
+        return respond(request, studyContentService.flashCardsVersion(documentId, principal.getUserId()), null,
+                () -> studyContentService.flashCards(documentId));
+    }
+
+    @GetMapping(value = "/api/documents/{documentId}/quizzes", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<QuizResponse>> quizzes(@PathVariable Long documentId,
+                                                      @AuthenticationPrincipal CustomUserDetails principal,
+                                                      WebRequest request) {
+        return respond(request, studyContentService.quizzesVersion(documentId, principal.getUserId()), null,
+                () -> studyContentService.quizzes(documentId));
+    }
+
+    @GetMapping(value = "/api/quizzes/{quizId}", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<QuizDetailResponse> quiz(@PathVariable Long quizId,
+                                                   @AuthenticationPrincipal CustomUserDetails principal,
+                                                   WebRequest request) {
+        return respond(request, studyContentService.quizVersion(quizId, principal.getUserId()), null,
+                () -> studyContentService.quiz(quizId));
+    }
+}
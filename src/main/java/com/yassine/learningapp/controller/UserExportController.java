@@ -0,0 +1,50 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.UserExportService;
+import com.yassine.learningapp.sql.SqlBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Export des données personnelles (ZIP).
+ * La réponse est un fichier : Spring gère {@code Range}/{@code If-Range}, le client peut donc reprendre un téléchargement interrompu.
+ */
+@RestController
+@RequiredArgsConstructor
+@SqlBudget(maxStatements = 12, maxRepeatedShape = 2) // 5 versions + 5 curseurs + 1 curseur fichiers
+public class UserExportController {
+
+    private final UserExportService userExportService;
+
+    @GetMapping("/api/me/export")
+    public ResponseEntity<Resource> exportMine(@AuthenticationPrincipal CustomUserDetails principal) {
+        return toResponse(principal.getUserId());
+    }
+
+    @GetMapping("/api/admin/users/{userId}/export")
+    public ResponseEntity<Resource> exportUser(@PathVariable Long userId) {
+        return toResponse(userId);
+    }
+
+    private ResponseEntity<Resource> toResponse(Long userId) {
+        UserExportService.Export export = userExportService.export(userId);
+        String filename = "learningapp-export-" + userId + ".zip";
+
+        return ResponseEntity.ok()
+                .eTag(export.fingerprint())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(new FileSystemResource(export.file()));
+    }
+}
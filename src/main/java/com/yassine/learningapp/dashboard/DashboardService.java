@@ -0,0 +1,190 @@
+package com.yassine.learningapp.dashboard;
+
+import com.yassine.learningapp.dto.DashboardResponse;
+import com.yassine.learningapp.dto.DocumentResponse;
+import com.yassine.learningapp.dto.QuizResultSummary;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import com.yassine.learningapp.sql.SqlStatementStats;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Tableau de bord de l'écran d'accueil : les sections sont des lectures indépendantes, lancées en parallèle
+ * sur des threads virtuels (une transaction en lecture seule chacune). La latence est celle de la plus lente,
+ * bornée par {@code app.dashboard.timeout-ms} : au-delà, la section est rendue indisponible et la vue
+ * partielle est renvoyée.
+ *
+ * <p>Les vues complètes sont gardées {@code app.dashboard.cache-ttl} par utilisateur : un retour sur l'accueil
+ * ne refait aucune requête. Les vues partielles ne sont pas mises en cache.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    private static final int RECENT = 5;
+
+    private record Cached(DashboardResponse view, long expiresAtNanos) {}
+
+    private final DocumentRepository documentRepository;
+    private final QuizRepository quizRepository;
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final HotPathMetrics metrics;
+    private final TransactionTemplate readOnlyTx;
+    private final long timeoutNanos;
+    private final long cacheTtlNanos;
+    private final int cacheMaxEntries;
+
+    /** Borne les connexions prises par les sections : un pic d'accueil ne vide pas le pool pour le reste. */
+    private final Semaphore querySlots;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-", 0).factory());
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    public DashboardService(DocumentRepository documentRepository,
+                            QuizRepository quizRepository,
+                            FlashCardsRepository flashCardsRepository,
+                            QuizResultRepository quizResultRepository,
+                            HotPathMetrics metrics,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.dashboard.timeout-ms:800}") long timeoutMillis,
+                            @Value("${app.dashboard.cache-ttl:10s}") Duration cacheTtl,
+                            @Value("${app.dashboard.cache-max-entries:10000}") int cacheMaxEntries,
+                            @Value("${app.dashboard.max-concurrent-queries:0}") int maxConcurrentQueries,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.documentRepository = documentRepository;
+        this.quizRepository = quizRepository;
+        this.flashCardsRepository = flashCardsRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.metrics = metrics;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // Timeout de transaction = timeout des requêtes JDBC : une section abandonnée ne tient pas sa connexion
+        this.readOnlyTx.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.querySlots = new Semaphore(maxConcurrentQueries > 0 ? maxConcurrentQueries : Math.max(1, poolSize / 2));
+        metrics.gauge("app.dashboard.cache.size", cache, Map::size);
+    }
+
+    public DashboardResponse dashboard(Long userId) {
+        Cached cached = cache.get(userId);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) return cached.view();
+
+        Timer.Sample sample = metrics.start();
+        long deadline = System.nanoTime() + timeoutNanos;
+        PageRequest recent = PageRequest.of(0, RECENT);
+        Future<List<DocumentResponse>> documents = fork("recent_documents", deadline,
+                () -> documentRepository.findRecentResponsesByUserId(userId, recent));
+        Future<Double> storage = fork("storage", deadline, () -> {
+            Double total = documentRepository.countTotalSize(userId);
+            return total == null ? 0.0 : total;
+        });
+        Future<Long> quizzes = fork("quiz_count", deadline, () -> quizRepository.countByDocumentUserId(userId));
+        Future<Long> flashCards = fork("flash_card_count", deadline, () -> flashCardsRepository.countByDocumentUserId(userId));
+        Future<List<QuizResultSummary>> results = fork("recent_results", deadline,
+                () -> quizResultRepository.findRecentSummariesByUserId(userId, recent));
+
+        List<String> unavailable = new ArrayList<>();
+        DashboardResponse view = new DashboardResponse(
+                join("recent_documents", documents, deadline, unavailable),
+                join("storage", storage, deadline, unavailable),
+                join("quiz_count", quizzes, deadline, unavailable),
+                join("flash_card_count", flashCards, deadline, unavailable),
+                join("recent_results", results, deadline, unavailable),
+                List.copyOf(unavailable));
+        sample.stop(metrics.dashboard("total"));
+
+        if (unavailable.isEmpty() && cache.size() < cacheMaxEntries) {
+            cache.put(userId, new Cached(view, System.nanoTime() + cacheTtlNanos));
+        }
+        return view;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.cache-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> cached.expiresAtNanos() - now <= 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /**
+     * Lance une section : même contexte de sécurité (routage read-your-writes) et même budget SQL que la
+     * requête appelante.
+     */
+    private <T> Future<T> fork(String section, long deadline, Supplier<T> query) {
+        return executor.submit(new DelegatingSecurityContextCallable<>(SqlStatementStats.propagate(() -> {
+            if (!querySlots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("No dashboard query slot for " + section);
+            }
+            try {
+                Timer.Sample sample = metrics.start();
+                T result = readOnlyTx.execute(status -> query.get());
+                sample.stop(metrics.dashboard(section));
+                return result;
+            } finally {
+                querySlots.release();
+            }
+        })));
+    }
+
+    /** Résultat de la section, ou null (section ajoutée à {@code unavailable}) si elle n'a pas abouti à temps. */
+    private <T> T join(String section, Future<T> future, long deadline, List<String> unavailable) {
+        String reason;
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            reason = "timeout";
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                reason = "saturated";
+            } else {
+                reason = "error";
+                log.warn("Dashboard section failed: section={}", section, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            reason = "timeout";
+        }
+        metrics.dashboardUnavailable(section, reason).increment();
+        unavailable.add(section);
+        return null;
+    }
+}
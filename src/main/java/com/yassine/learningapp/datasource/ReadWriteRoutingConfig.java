@@ -0,0 +1,74 @@
+package com.yassine.learningapp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Routage lecture/écriture (activé par {@code app.datasource.routing.enabled=true}).
+ *
+ * <p>La datasource exposée est un {@link LazyConnectionDataSourceProxy} : la connexion physique n'est prise
+ * qu'au premier statement, une fois le flag read-only de la transaction appliqué. Les transactions
+ * {@code @Transactional(readOnly = true)} (dont toutes les lectures Spring Data) passent par
+ * {@link ReplicaPool}, les autres par le primaire.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaPool replicaPool(HikariDataSource primaryDataSource,
+                                   ReplicaRoutingProperties properties,
+                                   RecentWriteTracker recentWriteTracker) {
+        List<ReplicaPool.Replica> replicas = properties.replicas().stream()
+                .map(r -> new ReplicaPool.Replica(r.name(), replicaDataSource(r)))
+                .toList();
+        return new ReplicaPool(primaryDataSource, replicas, recentWriteTracker);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaPool replicaPool, ReplicaRoutingProperties properties) {
+        return new ReplicaLagMonitor(replicaPool, properties.maxLag(), properties.lagQuery());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        return routingDataSource(primaryDataSource, replicaPool);
+    }
+
+    static DataSource routingDataSource(DataSource primary, DataSource readOnly) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        return proxy;
+    }
+
+    private static HikariDataSource replicaDataSource(ReplicaRoutingProperties.Replica replica) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica-" + replica.name());
+        ds.setJdbcUrl(replica.url());
+        ds.setUsername(replica.username());
+        ds.setPassword(replica.password());
+        ds.setReadOnly(true);
+        if (replica.maximumPoolSize() != null) ds.setMaximumPoolSize(replica.maximumPoolSize());
+        return ds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yassine.learningapp.datasource;
+
+import com.yassine.learningapp.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garde "read-your-writes" : retient les utilisateurs ayant commité une écriture récemment.
+ * Leurs lectures {@code readOnly} restent sur le primaire pendant la fenêtre configurée
+ * (le temps que les réplicas rattrapent).
+ *
+ * <p>Enregistré sur le transaction manager par Spring Boot (bean {@link TransactionExecutionListener}) : chaque
+ * commit d'écriture ouvre la fenêtre, sans appel explicite. Fenêtre lue ici
+ * ({@code app.datasource.routing.read-your-writes-window}) et non dans {@link ReplicaRoutingProperties} : le
+ * bean existe aussi routage désactivé.
+ */
+@Component
+public class RecentWriteTracker implements TransactionExecutionListener {
+
+    private final long windowNanos;
+    private final Map<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public RecentWriteTracker(@Value("${app.datasource.routing.read-your-writes-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) return;
+        Long userId = CurrentUser.id();
+        if (userId != null) lastWriteByUser.put(userId, System.nanoTime());
+    }
+
+    /** Vrai si l'utilisateur courant a écrit dans la fenêtre : ses lectures doivent aller au primaire. */
+    public boolean currentUserRecentlyWrote() {
+        Long userId = CurrentUser.id();
+        if (userId == null) return false;
+        Long at = lastWriteByUser.get(userId);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(at -> now - at >= windowNanos);
+    }
+}
@@ -0,0 +1,55 @@
+package com.yassine.learningapp.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Mesure périodiquement le retard de réplication de chaque réplica et écarte ceux qui
+ * dépassent {@code maxLag} (ou ne répondent plus). Un réplica revient dès qu'il repasse sous le seuil.
+ *
+ * <p>Note Postgres : {@code pg_last_xact_replay_timestamp()} n'avance pas si le primaire n'écrit rien ;
+ * sur une base très calme le retard mesuré est donc pessimiste.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaPool pool;
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    public ReplicaLagMonitor(ReplicaPool pool, Duration maxLag, String lagQuery) {
+        this.pool = pool;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:2000}")
+    public void check() {
+        for (ReplicaPool.Replica replica : pool.replicas()) {
+            boolean wasHealthy = replica.healthy();
+            try {
+                long lagMillis = measureLagMillis(replica);
+                replica.update(lagMillis <= maxLag.toMillis(), lagMillis);
+            } catch (RuntimeException e) {
+                replica.update(false, -1);
+            }
+            if (wasHealthy != replica.healthy()) {
+                log.warn("Replica {} healthy={} lagMs={}", replica.name(), replica.healthy(), replica.lagMillis());
+            }
+        }
+    }
+
+    private long measureLagMillis(ReplicaPool.Replica replica) {
+        JdbcTemplate jdbc = new JdbcTemplate(replica.dataSource());
+        jdbc.setQueryTimeout(2);
+        if (lagQuery.isBlank()) {
+            jdbc.queryForObject("SELECT 1", Integer.class);
+            return 0;
+        }
+        Double seconds = jdbc.queryForObject(lagQuery, Double.class);
+        return seconds == null ? 0 : Math.round(seconds * 1000);
+    }
+}
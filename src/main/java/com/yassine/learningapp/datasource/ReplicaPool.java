@@ -0,0 +1,97 @@
+package com.yassine.learningapp.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datasource des connexions read-only : réplica sain suivant (round-robin), sinon primaire.
+ *
+ * <p>Le primaire est choisi quand l'utilisateur courant vient d'écrire (read-your-writes), quand tous
+ * les réplicas sont en retard/indisponibles, ou quand un réplica refuse la connexion.
+ */
+@Slf4j
+public class ReplicaPool extends AbstractDataSource {
+
+    /** État d'un réplica, mis à jour par {@link ReplicaLagMonitor}. */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagMillis;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean healthy() {
+            return healthy;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+
+        void update(boolean healthy, long lagMillis) {
+            this.healthy = healthy;
+            this.lagMillis = lagMillis;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final RecentWriteTracker recentWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaPool(DataSource primary, List<Replica> replicas, RecentWriteTracker recentWrites) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.recentWrites = recentWrites;
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (recentWrites.currentUserRecentlyWrote()) {
+            return primary.getConnection();
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy()) continue;
+            try {
+                return replica.dataSource().getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} unavailable, marking down: {}", replica.name(), e.getMessage());
+                replica.update(false, replica.lagMillis());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /** Identifiants propres à chaque pool (réplicas, primaire) : pas de connexion avec d'autres identifiants. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ReplicaPool uses the credentials of its pools, use getConnection()");
+    }
+}
@@ -0,0 +1,34 @@
+package com.yassine.learningapp.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Routage lecture/écriture : {@code app.datasource.routing.*}.
+ *
+ * @param enabled   active le routage (sinon une seule datasource, comportement historique)
+ * @param replicas  réplicas en lecture seule
+ * @param maxLag    au-delà, un réplica est écarté jusqu'à ce qu'il rattrape son retard
+ * @param lagQuery  requête de mesure du retard (secondes) ; vide = retard considéré nul (H2, tests)
+ */
+@ConfigurationProperties("app.datasource.routing")
+public record ReplicaRoutingProperties(
+        boolean enabled,
+        List<Replica> replicas,
+        Duration maxLag,
+        String lagQuery
+) {
+
+    public static final String POSTGRES_LAG_QUERY =
+            "SELECT COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0)";
+
+    public ReplicaRoutingProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+        maxLag = maxLag == null ? Duration.ofSeconds(5) : maxLag;
+        lagQuery = lagQuery == null ? POSTGRES_LAG_QUERY : lagQuery;
+    }
+
+    public record Replica(String name, String url, String username, String password, Integer maximumPoolSize) {}
+}
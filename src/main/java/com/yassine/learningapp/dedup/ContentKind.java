@@ -0,0 +1,9 @@
+package com.yassine.learningapp.dedup;
+
+/** Contenus générés soumis à la déduplication. */
+public enum ContentKind {
+    /** Texte comparé : titre + contenu. */
+    FLASH_CARD,
+    /** Texte comparé : énoncé de la question. */
+    QUIZ_QUESTION
+}
@@ -0,0 +1,14 @@
+package com.yassine.learningapp.dedup;
+
+/**
+ * Élément lu pour la déduplication. {@code scopeId} : périmètre de comparaison, l'utilisateur ; {@code groupId}
+ * et {@code groupSize} : quiz de la question et son nombre de questions (nuls pour les fiches) ;
+ * {@code favorite} : toujours faux pour les questions.
+ */
+public record DedupRow(Long id, Long scopeId, Long groupId, Long groupSize, String text, boolean favorite) {
+
+    /** Fiche : pas de groupe. */
+    public DedupRow(Long id, Long scopeId, String text, boolean favorite) {
+        this(id, scopeId, null, null, text, favorite);
+    }
+}
@@ -0,0 +1,185 @@
+package com.yassine.learningapp.dedup;
+
+import com.yassine.learningapp.health.SchedulerHeartbeats;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.sharding.Shards;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Balayage nocturne des doublons existants, en flux : un curseur trié par utilisateur, un index LSH pour
+ * l'utilisateur courant seulement, remis à zéro au changement d'utilisateur. Les doublons d'une régénération
+ * sont ainsi trouvés entre documents et entre quiz. Le plus ancien élément d'un groupe est conservé ; une fiche
+ * favorite supprimée reporte son statut sur celle qui reste. Un quiz garde au moins
+ * {@code app.dedup.sweep.min-questions-per-quiz} questions et voit son {@code questionCount} recalculé. Chaque
+ * shard est balayé à son tour (un utilisateur n'en déborde pas).
+ *
+ * <p>Par défaut le job ne fait que compter ({@code app.dedup.sweep.apply=false}) : les suppressions sont
+ * activées explicitement, après lecture des chiffres.
+ */
+@Slf4j
+@Component
+public class DuplicateSweepJob {
+
+    private static final String JOB = "dedup-sweep";
+
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final QuizRepository quizRepository;
+    private final NearDuplicateDetector detector;
+    private final HotPathMetrics metrics;
+    private final SchedulerHeartbeats heartbeats;
+    private final Shards shards;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate writeTx;
+    private final boolean apply;
+    private final int flushSize;
+    private final long minQuestionsPerQuiz;
+
+    public record SweepResult(long scanned, long duplicates, long removed) {}
+
+    public DuplicateSweepJob(FlashCardsRepository flashCardsRepository,
+                             QuizQuestionRepository quizQuestionRepository,
+                             QuizRepository quizRepository,
+                             NearDuplicateDetector detector,
+                             HotPathMetrics metrics,
+                             SchedulerHeartbeats heartbeats,
+                             Shards shards,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.dedup.sweep.apply:false}") boolean apply,
+                             @Value("${app.dedup.sweep.flush-size:500}") int flushSize,
+                             @Value("${app.dedup.sweep.min-questions-per-quiz:1}") long minQuestionsPerQuiz) {
+        this.flashCardsRepository = flashCardsRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.quizRepository = quizRepository;
+        this.detector = detector;
+        this.metrics = metrics;
+        this.heartbeats = heartbeats;
+        this.shards = shards;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // Écritures sur une autre connexion : le curseur de lecture reste ouvert pendant les suppressions
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.apply = apply;
+        this.flushSize = flushSize;
+        this.minQuestionsPerQuiz = minQuestionsPerQuiz;
+    }
+
+    @PostConstruct
+    void registerJobs() {
+        heartbeats.expect(JOB, Duration.ofHours(25));
+    }
+
+    @Scheduled(cron = "${app.dedup.sweep.cron:0 45 3 * * *}")
+    public void sweep() {
+        for (int shard = 0; shard < shards.count(); shard++) {
+            SweepResult cards = shards.callOn(shard, () -> sweep(ContentKind.FLASH_CARD));
+            SweepResult questions = shards.callOn(shard, () -> sweep(ContentKind.QUIZ_QUESTION));
+            log.info("Dedup sweep (apply={}): shard={}, flashCards={}, quizQuestions={}", apply, shard, cards, questions);
+        }
+        heartbeats.beat(JOB);
+    }
+
+    SweepResult sweep(ContentKind kind) {
+        Sweep sweep = new Sweep(kind);
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<DedupRow> rows = kind == ContentKind.FLASH_CARD
+                    ? flashCardsRepository.streamDedupRows()
+                    : quizQuestionRepository.streamDedupRows()) {
+                rows.forEach(sweep::accept);
+            }
+        });
+        sweep.flush();
+        return new SweepResult(sweep.scanned, sweep.duplicates, sweep.removed);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private final class Sweep {
+        private final ContentKind kind;
+        private final MinHasher hasher = detector.hasher();
+        private Long scope;
+        private LshIndex index;
+        /** Questions retirées par quiz, pour l'utilisateur courant. */
+        private final Map<Long, Long> removedByQuiz = new HashMap<>();
+        private final List<Long> pendingDuplicates = new ArrayList<>();
+        private final Set<Long> pendingFavorites = new HashSet<>();
+        private final Set<Long> pendingQuizzes = new HashSet<>();
+        private long scanned;
+        private long duplicates;
+        private long removed;
+
+        Sweep(ContentKind kind) {
+            this.kind = kind;
+        }
+
+        void accept(DedupRow row) {
+            scanned++;
+            if (!row.scopeId().equals(scope)) {
+                scope = row.scopeId();
+                index = detector.newIndex();
+                removedByQuiz.clear();
+            }
+            int[] signature = hasher.signature(row.text());
+            LshIndex.Match keeper = index.findDuplicate(signature, detector.threshold());
+            if (keeper == null) {
+                index.add(row.id(), signature);
+                return;
+            }
+            if (kind == ContentKind.QUIZ_QUESTION) {
+                long removedFromQuiz = removedByQuiz.getOrDefault(row.groupId(), 0L);
+                // Le quiz garderait trop peu de questions : celle-ci reste, sans entrer dans l'index
+                if (row.groupSize() - removedFromQuiz <= minQuestionsPerQuiz) return;
+                removedByQuiz.put(row.groupId(), removedFromQuiz + 1);
+                pendingQuizzes.add(row.groupId());
+            }
+            duplicates++;
+            pendingDuplicates.add(row.id());
+            if (row.favorite()) pendingFavorites.add(keeper.id());
+            if (pendingDuplicates.size() >= flushSize) flush();
+        }
+
+        void flush() {
+            if (pendingDuplicates.isEmpty()) return;
+            if (apply) {
+                Integer deleted = writeTx.execute(status -> {
+                    if (kind == ContentKind.FLASH_CARD) {
+                        if (!pendingFavorites.isEmpty()) flashCardsRepository.markFavorite(pendingFavorites);
+                        return flashCardsRepository.deleteByIdIn(pendingDuplicates);
+                    }
+                    int questions = quizQuestionRepository.deleteByIdIn(pendingDuplicates);
+                    quizRepository.refreshQuestionCounts(pendingQuizzes, LocalDateTime.now());
+                    return questions;
+                });
+                removed += deleted;
+                metrics.dedup(kind.name().toLowerCase(Locale.ROOT), "swept").increment(deleted);
+            }
+            pendingDuplicates.clear();
+            pendingFavorites.clear();
+            pendingQuizzes.clear();
+        }
+    }
+}
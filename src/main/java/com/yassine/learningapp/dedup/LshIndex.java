@@ -0,0 +1,92 @@
+package com.yassine.learningapp.dedup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index LSH par bandes sur des signatures MinHash : la signature est coupée en {@code bands} bandes de
+ * {@code rows} composantes, et deux éléments sont candidats dès qu'une bande est identique. Probabilité
+ * d'être candidat pour une similarité s : {@code 1 - (1 - s^rows)^bands} ; seuls les candidats sont comparés.
+ *
+ * <p>Non thread-safe : l'appelant synchronise.
+ */
+public final class LshIndex {
+
+    /** Élément indexé le plus proche et sa similarité estimée. */
+    public record Match(long id, double similarity) {}
+
+    private final int bands;
+    private final int rows;
+    private final List<Map<Long, List<Long>>> buckets;
+    private final Map<Long, int[]> signatures = new HashMap<>();
+
+    public LshIndex(int bands, int rows) {
+        this.bands = bands;
+        this.rows = rows;
+        this.buckets = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) buckets.add(new HashMap<>());
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public void add(long id, int[] signature) {
+        checkLength(signature);
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), k -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    public boolean remove(long id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) return false;
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<Long>> bucketsOfBand = buckets.get(band);
+            long key = bandKey(signature, band);
+            List<Long> bucket = bucketsOfBand.get(key);
+            bucket.remove(Long.valueOf(id));
+            if (bucket.isEmpty()) bucketsOfBand.remove(key);
+        }
+        return true;
+    }
+
+    /** Élément le plus similaire parmi les candidats LSH, si sa similarité atteint {@code threshold}. */
+    public Match findDuplicate(int[] signature, double threshold) {
+        checkLength(signature);
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (int band = 0; band < bands; band++) {
+            List<Long> bucket = buckets.get(band).get(bandKey(signature, band));
+            if (bucket != null) candidates.addAll(bucket);
+        }
+        Match best = null;
+        for (long candidate : candidates) {
+            double similarity = MinHasher.similarity(signature, signatures.get(candidate));
+            if (similarity >= threshold && (best == null || similarity > best.similarity()
+                    || (similarity == best.similarity() && candidate < best.id()))) {
+                best = new Match(candidate, similarity);
+            }
+        }
+        return best;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            h = h * 0x9e3779b97f4a7c15L + signature[i];
+        }
+        return h;
+    }
+
+    private void checkLength(int[] signature) {
+        if (signature.length != bands * rows) {
+            throw new IllegalArgumentException("Expected signature of " + bands * rows + " hashes, got " + signature.length);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.yassine.learningapp.dedup;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Signatures MinHash sur les 5-grammes de caractères d'un texte normalisé (minuscules, sans accents ni
+ * ponctuation). La proportion de composantes égales entre deux signatures estime la similarité de Jaccard
+ * de leurs ensembles de n-grammes.
+ *
+ * <p>Chaque n-gramme est haché une fois sur 64 bits ; les {@code numHashes} fonctions sont ensuite des
+ * hachages multiplicatifs {@code (a*x + b) >>> 32} (a impair) : une multiplication par fonction.
+ */
+public final class MinHasher {
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final int shingleSize;
+    private final long[] a;
+    private final long[] b;
+
+    public MinHasher(int numHashes, int shingleSize, long seed) {
+        if (numHashes < 1 || shingleSize < 1) {
+            throw new IllegalArgumentException("Require numHashes >= 1 and shingleSize >= 1");
+        }
+        this.shingleSize = shingleSize;
+        this.a = new long[numHashes];
+        this.b = new long[numHashes];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < numHashes; i++) {
+            a[i] = random.nextLong() | 1L;
+            b[i] = random.nextLong();
+        }
+    }
+
+    public int numHashes() {
+        return a.length;
+    }
+
+    public int[] signature(String text) {
+        String normalized = normalize(text);
+        int[] signature = new int[a.length];
+        Arrays.fill(signature, -1); // 0xFFFFFFFF : maximum non signé
+        if (normalized.length() <= shingleSize) {
+            update(signature, hash(normalized, 0, normalized.length()));
+            return signature;
+        }
+        for (int start = 0; start + shingleSize <= normalized.length(); start++) {
+            update(signature, hash(normalized, start, start + shingleSize));
+        }
+        return signature;
+    }
+
+    /** Similarité de Jaccard estimée : proportion de composantes égales. */
+    public static double similarity(int[] left, int[] right) {
+        int equal = 0;
+        for (int i = 0; i < left.length; i++) {
+            if (left[i] == right[i]) equal++;
+        }
+        return (double) equal / left.length;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return NON_ALNUM.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private void update(int[] signature, long shingle) {
+        for (int i = 0; i < signature.length; i++) {
+            // Comparaison non signée : les 32 bits de poids fort sont uniformes
+            int h = (int) ((a[i] * shingle + b[i]) >>> 32);
+            if (Integer.compareUnsigned(h, signature[i]) < 0) signature[i] = h;
+        }
+    }
+
+    /** FNV-1a 64 bits puis finaliseur de SplitMix64 (bonne diffusion avant le hachage multiplicatif). */
+    private static long hash(String s, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
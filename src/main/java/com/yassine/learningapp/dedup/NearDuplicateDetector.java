@@ -0,0 +1,43 @@
+package com.yassine.learningapp.dedup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paramètres MinHash/LSH partagés de la déduplication : même hachage, même découpage en bandes et même seuil
+ * pour toute comparaison de fiches / questions.
+ *
+ * <p>Le balayage ({@link DuplicateSweepJob}) construit un index par utilisateur avec {@link #newIndex()} : le
+ * coût d'une vérification ne dépend que du nombre de candidats LSH, pas du nombre de contenus de l'utilisateur.
+ * Aucune génération de fiches ou de questions n'existe dans l'application : pas d'étape de filtrage avant
+ * écriture ni d'index par utilisateur gardé en mémoire, le balayage traite les doublons après coup.
+ */
+@Component
+public class NearDuplicateDetector {
+
+    private final MinHasher hasher;
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+
+    public NearDuplicateDetector(@Value("${app.dedup.bands:16}") int bands,
+                                 @Value("${app.dedup.rows:8}") int rows,
+                                 @Value("${app.dedup.threshold:0.8}") double threshold) {
+        this.hasher = new MinHasher(bands * rows, 5, 0x5eed);
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+    }
+
+    public MinHasher hasher() {
+        return hasher;
+    }
+
+    public LshIndex newIndex() {
+        return new LshIndex(bands, rows);
+    }
+
+    public double threshold() {
+        return threshold;
+    }
+}
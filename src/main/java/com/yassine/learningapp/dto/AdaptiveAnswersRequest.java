@@ -0,0 +1,23 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record AdaptiveAnswersRequest(
+        @NotBlank @Size(max = 36) String attemptId,
+        @NotEmpty @Size(max = 50) List<@Valid Answer> answers
+) {
+
+    public record Answer(
+            @NotNull Long questionId,
+            @NotNull @Pattern(regexp = "[A-Da-d]") String choice,
+            @PositiveOrZero Long responseMillis
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.yassine.learningapp.dto;
+
+import java.util.List;
+
+/**
+ * Quiz assemblé pour le niveau de l'utilisateur ({@code ability}, échelle logit, 0 = niveau moyen).
+ * Les questions sont servies sans la bonne réponse ; {@code attemptId} est à renvoyer avec les réponses.
+ */
+public record AdaptiveQuizResponse(
+        String attemptId,
+        Long documentId,
+        double ability,
+        double standardError,
+        List<Question> questions
+) {
+
+    public record Question(
+            Long id,
+            String question,
+            String optionA,
+            String optionB,
+            String optionC,
+            String optionD
+    ) {}
+}
@@ -0,0 +1,20 @@
+package com.yassine.learningapp.dto;
+
+import java.util.List;
+
+/** Correction d'une tentative de quiz adaptatif et niveau mis à jour. Les questions supprimées entre-temps sont ignorées. */
+public record AdaptiveResultResponse(
+        int correct,
+        int answered,
+        double ability,
+        double standardError,
+        List<Graded> answers
+) {
+
+    public record Graded(
+            Long questionId,
+            boolean correct,
+            String correctAnswer,
+            String explanation
+    ) {}
+}
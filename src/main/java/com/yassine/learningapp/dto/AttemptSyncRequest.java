@@ -0,0 +1,20 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** Lot de tentatives passées hors-ligne. Chaque élément est validé individuellement (statut REJECTED). */
+public record AttemptSyncRequest(
+        @NotEmpty @Size(max = 200) List<Item> attempts
+) {
+
+    public record Item(
+            String idempotencyKey,
+            Long quizId,
+            Integer score,
+            Integer questionCount,
+            Double timeTakenSeconds
+    ) {}
+}
@@ -0,0 +1,27 @@
+package com.yassine.learningapp.dto;
+
+import java.util.List;
+
+/** Un résultat par élément du lot, dans le même ordre. */
+public record AttemptSyncResponse(List<Item> results) {
+
+    public enum Status {
+        /** Enregistrée par cet appel. */
+        CREATED,
+        /** Déjà enregistrée (rejeu) : {@code resultId} est celui de l'enregistrement d'origine. */
+        DUPLICATE,
+        /** Invalide, non enregistrée : la rejouer telle quelle échouera de nouveau. */
+        REJECTED
+    }
+
+    public record Item(String idempotencyKey, Status status, Long resultId, String error) {
+
+        public static Item of(String key, Status status, Long resultId) {
+            return new Item(key, status, resultId, null);
+        }
+
+        public static Item rejected(String key, String error) {
+            return new Item(key, Status.REJECTED, null, error);
+        }
+    }
+}
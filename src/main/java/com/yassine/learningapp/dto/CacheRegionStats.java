@@ -0,0 +1,16 @@
+package com.yassine.learningapp.dto;
+
+/**
+ * Statistiques d'une région du cache de second niveau.
+ * {@code evictions} vient de JCache (JMX) : -1 si non disponible.
+ */
+public record CacheRegionStats(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        long elementsInMemory,
+        long evictions,
+        double hitRatio
+) {
+}
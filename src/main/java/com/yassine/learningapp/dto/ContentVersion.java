@@ -0,0 +1,31 @@
+package com.yassine.learningapp.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version "bon marché" d'un ensemble de lignes : nombre de lignes + dernière modification.
+ * Calculée par une requête d'agrégat, sans charger les entités.
+ */
+public record ContentVersion(Long count, LocalDateTime lastModified) {
+
+    public static final ContentVersion EMPTY = new ContentVersion(0L, null);
+
+    /** Horodatages écrits en heure locale du serveur ({@code LocalDateTime.now()}) : Last-Modified exact. */
+    public long lastModifiedEpochMillis() {
+        return lastModified == null ? 0L : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /** Version d'une réponse composée de plusieurs ensembles (ex. un quiz + ses questions). */
+    public ContentVersion combine(ContentVersion other) {
+        if (other == null) return this;
+        long total = (count == null ? 0L : count) + (other.count == null ? 0L : other.count);
+        LocalDateTime latest = lastModified == null ? other.lastModified
+                : other.lastModified == null || lastModified.isAfter(other.lastModified) ? lastModified : other.lastModified;
+        return new ContentVersion(total, latest);
+    }
+
+    public String fingerprint() {
+        return (count == null ? 0L : count) + "-" + lastModifiedEpochMillis();
+    }
+}
@@ -0,0 +1,16 @@
+package com.yassine.learningapp.dto;
+
+import java.util.List;
+
+/**
+ * Écran d'accueil en une requête. Une section qui n'a pas répondu à temps vaut null et son nom figure dans
+ * {@code unavailable} : le client affiche le reste.
+ */
+public record DashboardResponse(
+        List<DocumentResponse> recentDocuments,
+        Double totalStorageBytes,
+        Long quizCount,
+        Long flashCardCount,
+        List<QuizResultSummary> recentResults,
+        List<String> unavailable
+) {}
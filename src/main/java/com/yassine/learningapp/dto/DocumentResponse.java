@@ -0,0 +1,11 @@
+package com.yassine.learningapp.dto;
+
+import java.time.LocalDateTime;
+
+public record DocumentResponse(
+        Long id,
+        String title,
+        Double fileSize,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto;
+
+import java.time.LocalDateTime;
+
+public record FlashCardResponse(
+        Long id,
+        Long documentId,
+        String title,
+        String content,
+        boolean favorite,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
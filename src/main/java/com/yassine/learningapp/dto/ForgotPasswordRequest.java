@@ -0,0 +1,9 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record ForgotPasswordRequest(
+        @NotBlank @Size(max = 100) String username
+) {
+}
@@ -0,0 +1,9 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+public record LiveAnswerRequest(
+        @NotNull Integer questionIndex,
+        @NotNull @Pattern(regexp = "[A-Da-d]") String choice
+) {}
@@ -0,0 +1,4 @@
+package com.yassine.learningapp.dto;
+
+/** {@code accepted = false} : hors délai, déjà répondu ou question déjà close. */
+public record LiveAnswerResponse(boolean accepted) {}
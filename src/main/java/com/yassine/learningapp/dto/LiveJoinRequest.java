@@ -0,0 +1,8 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record LiveJoinRequest(
+        @NotBlank @Size(max = 32) String nickname
+) {}
@@ -0,0 +1,7 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record LiveStartRequest(
+        @NotNull Long quizId
+) {}
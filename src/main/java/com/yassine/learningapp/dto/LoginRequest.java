@@ -0,0 +1,12 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record LoginRequest(
+        @NotBlank @Size(max = 100) String username,
+        // BCrypt ignore au-delà de 72 octets : inutile d'accepter (et de hasher) plus
+        @NotBlank @Size(max = 72) String password,
+        boolean rememberMe
+) {
+}
@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/** Page sérialisable de façon stable (le JSON de {@code PageImpl} n'est pas un contrat). */
+public record PageResponse<T>(List<T> content, int page, int size, long totalElements, int totalPages) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -0,0 +1,5 @@
+package com.yassine.learningapp.dto;
+
+import java.util.List;
+
+public record QuizDetailResponse(QuizResponse quiz, List<QuizQuestionResponse> questions) {}
@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto;
+
+public record QuizQuestionResponse(
+        Long id,
+        Integer questionOrder,
+        String question,
+        String optionA,
+        String optionB,
+        String optionC,
+        String optionD,
+        String correctAnswer,
+        String explanation
+) {}
@@ -0,0 +1,12 @@
+package com.yassine.learningapp.dto;
+
+import java.time.LocalDateTime;
+
+public record QuizResponse(
+        Long id,
+        Long documentId,
+        String title,
+        String questionCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
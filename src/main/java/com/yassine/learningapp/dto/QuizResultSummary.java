@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto;
+
+import java.time.LocalDateTime;
+
+public record QuizResultSummary(
+        Long id,
+        Long quizId,
+        String quizTitle,
+        Integer score,
+        Integer questionCount,
+        Double percentageScore,
+        LocalDateTime createdAt
+) {}
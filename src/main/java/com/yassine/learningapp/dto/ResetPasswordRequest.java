@@ -0,0 +1,10 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record ResetPasswordRequest(
+        @NotBlank @Size(max = 100) String token,
+        @NotBlank @Size(min = 8, max = 72) String newPassword
+) {
+}
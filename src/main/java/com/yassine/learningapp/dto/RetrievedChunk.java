@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto;
+
+/** Morceau de document renvoyé par la recherche ; {@code score} = similarité cosinus (0 tant que non classé). */
+public record RetrievedChunk(Long id, Long documentId, int chunkIndex, String content, float score) {
+
+    public RetrievedChunk(Long id, Long documentId, int chunkIndex, String content) {
+        this(id, documentId, chunkIndex, content, 0f);
+    }
+
+    public RetrievedChunk withScore(float score) {
+        return new RetrievedChunk(id, documentId, chunkIndex, content, score);
+    }
+}
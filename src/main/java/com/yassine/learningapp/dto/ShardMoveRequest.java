@@ -0,0 +1,7 @@
+package com.yassine.learningapp.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record ShardMoveRequest(@NotNull @Min(0) Integer shard) {
+}
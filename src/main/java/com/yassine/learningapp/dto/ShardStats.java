@@ -0,0 +1,16 @@
+package com.yassine.learningapp.dto;
+
+/**
+ * Volumétrie d'un shard. {@code pinnedUsers} : utilisateurs placés explicitement dans l'annuaire
+ * (les autres sont répartis par hash et n'y figurent pas).
+ */
+public record ShardStats(
+        int shard,
+        String name,
+        long pinnedUsers,
+        long documents,
+        long quizzes,
+        long flashCards,
+        long quizResults
+) {
+}
@@ -0,0 +1,12 @@
+package com.yassine.learningapp.dto.export;
+
+import java.time.LocalDateTime;
+
+public record DocumentExportRow(
+        Long id,
+        String title,
+        String path,
+        Double fileSize,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,106 @@
+package com.yassine.learningapp.dto.export;
+
+import tools.jackson.core.JsonGenerator;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Écriture JSON streaming des lignes d'export (export RGPD, bundles hors-ligne) : un objet par ligne,
+ * sans passer par un ObjectMapper ni matérialiser la liste. Erreurs d'écriture : {@code JacksonIOException}
+ * (non vérifiée), cause d'origine en {@code getCause()}.
+ */
+public final class ExportRowJson {
+
+    /** Écrit une ligne ({@code writeDocument}, {@code writeQuiz}...). */
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(JsonGenerator gen, T row);
+    }
+
+    private ExportRowJson() {
+    }
+
+    /** Écrit les lignes en tableau JSON au fil du curseur, puis ferme {@code rows}. */
+    public static <T> void writeArray(JsonGenerator gen, Stream<T> rows, RowWriter<T> writer) {
+        gen.writeStartArray();
+        try (rows) {
+            for (T row : (Iterable<T>) rows::iterator) {
+                writer.write(gen, row);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    public static void writeDocument(JsonGenerator gen, DocumentExportRow row) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", row.id());
+        gen.writeStringProperty("title", row.title());
+        gen.writeStringProperty("path", row.path());
+        writeNumber(gen, "fileSize", row.fileSize());
+        writeDate(gen, "createdAt", row.createdAt());
+        writeDate(gen, "updatedAt", row.updatedAt());
+        gen.writeEndObject();
+    }
+
+    public static void writeFlashCard(JsonGenerator gen, FlashCardExportRow row) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", row.id());
+        gen.writeNumberProperty("documentId", row.documentId());
+        gen.writeStringProperty("title", row.title());
+        gen.writeStringProperty("content", row.content());
+        gen.writeBooleanProperty("favorite", row.favorite());
+        writeDate(gen, "createdAt", row.createdAt());
+        writeDate(gen, "updatedAt", row.updatedAt());
+        gen.writeEndObject();
+    }
+
+    public static void writeQuiz(JsonGenerator gen, QuizExportRow row) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", row.id());
+        gen.writeNumberProperty("documentId", row.documentId());
+        gen.writeStringProperty("title", row.title());
+        gen.writeStringProperty("questionCount", row.questionCount());
+        writeDate(gen, "createdAt", row.createdAt());
+        writeDate(gen, "updatedAt", row.updatedAt());
+        gen.writeEndObject();
+    }
+
+    public static void writeQuestion(JsonGenerator gen, QuizQuestionExportRow row) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", row.id());
+        gen.writeNumberProperty("quizId", row.quizId());
+        writeNumber(gen, "questionOrder", row.questionOrder());
+        gen.writeStringProperty("question", row.question());
+        gen.writeStringProperty("optionA", row.optionA());
+        gen.writeStringProperty("optionB", row.optionB());
+        gen.writeStringProperty("optionC", row.optionC());
+        gen.writeStringProperty("optionD", row.optionD());
+        gen.writeStringProperty("correctAnswer", row.correctAnswer());
+        gen.writeStringProperty("explanation", row.explanation());
+        gen.writeEndObject();
+    }
+
+    public static void writeResult(JsonGenerator gen, QuizResultExportRow row) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", row.id());
+        gen.writeNumberProperty("quizId", row.quizId());
+        writeNumber(gen, "score", row.score());
+        writeNumber(gen, "questionCount", row.questionCount());
+        writeNumber(gen, "percentageScore", row.percentageScore());
+        writeNumber(gen, "timeTakenSeconds", row.timeTakenSeconds());
+        writeDate(gen, "createdAt", row.createdAt());
+        gen.writeEndObject();
+    }
+
+    static void writeNumber(JsonGenerator gen, String field, Number value) {
+        gen.writeName(field);
+        if (value == null) gen.writeNull();
+        else if (value instanceof Double d) gen.writeNumber(d);
+        else gen.writeNumber(value.longValue());
+    }
+
+    static void writeDate(JsonGenerator gen, String field, LocalDateTime value) {
+        gen.writeStringProperty(field, value == null ? null : value.toString());
+    }
+}
@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto.export;
+
+import java.time.LocalDateTime;
+
+public record FlashCardExportRow(
+        Long id,
+        Long documentId,
+        String title,
+        String content,
+        boolean favorite,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
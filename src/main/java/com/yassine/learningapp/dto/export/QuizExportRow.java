@@ -0,0 +1,12 @@
+package com.yassine.learningapp.dto.export;
+
+import java.time.LocalDateTime;
+
+public record QuizExportRow(
+        Long id,
+        Long documentId,
+        String title,
+        String questionCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
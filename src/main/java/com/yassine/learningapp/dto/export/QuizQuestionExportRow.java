@@ -0,0 +1,14 @@
+package com.yassine.learningapp.dto.export;
+
+public record QuizQuestionExportRow(
+        Long id,
+        Long quizId,
+        Integer questionOrder,
+        String question,
+        String optionA,
+        String optionB,
+        String optionC,
+        String optionD,
+        String correctAnswer,
+        String explanation
+) {}
@@ -0,0 +1,13 @@
+package com.yassine.learningapp.dto.export;
+
+import java.time.LocalDateTime;
+
+public record QuizResultExportRow(
+        Long id,
+        Long quizId,
+        Integer score,
+        Integer questionCount,
+        Double percentageScore,
+        Double timeTakenSeconds,
+        LocalDateTime createdAt
+) {}
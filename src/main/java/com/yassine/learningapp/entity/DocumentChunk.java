@@ -0,0 +1,41 @@
+package com.yassine.learningapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Morceau du texte d'un document, unité de recherche. Son vecteur vit dans l'index HNSW de l'utilisateur
+ * (fichier dérivé, reconstructible depuis cette table).
+ */
+@Entity
+@Table(name = "document_chunks", indexes = {
+        @Index(name = "idx_document_chunks_document", columnList = "document_id, chunk_index"),
+        @Index(name = "idx_document_chunks_user", columnList = "user_id, id")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+public class DocumentChunk extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    private Document document;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    @Column(name = "start_offset", nullable = false)
+    private int startOffset;
+
+    @Column(name = "end_offset", nullable = false)
+    private int endOffset;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+}
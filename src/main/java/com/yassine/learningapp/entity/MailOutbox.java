@@ -0,0 +1,62 @@
+package com.yassine.learningapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email à envoyer, inséré dans la même transaction que l'action métier qui le déclenche
+ * (outbox transactionnelle) : pas de mail pour une transaction annulée, pas de transaction perdue
+ * parce que le relais SMTP est lent.
+ */
+@Entity
+@Table(name = "mail_outbox", uniqueConstraints =
+        @UniqueConstraint(name = "uq_mail_outbox_dedupe_key", columnNames = "dedupe_key"))
+@NoArgsConstructor
+@Getter
+@Setter
+public class MailOutbox extends BaseEntity {
+
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    /** Clé d'idempotence fournie par l'appelant : un même mail n'est mis en file qu'une fois. */
+    @Column(name = "dedupe_key", nullable = false, length = 190)
+    private String dedupeKey;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /** PENDING : date de la prochaine tentative. SENDING : fin du bail d'envoi (reprise si l'instance meurt). */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public MailOutbox(String dedupeKey, String recipient, String subject, String body, LocalDateTime now) {
+        this.dedupeKey = dedupeKey;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.nextAttemptAt = now;
+    }
+}
@@ -1,12 +1,16 @@
 package com.yassine.learningapp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table( name = "quizzes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "learningapp.quiz")
 public class Quiz extends BaseEntity{
     private String title;
     private String questionCount;
@@ -16,5 +20,6 @@ public class Quiz extends BaseEntity{
     private Document document;
 
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "learningapp.quiz.questions")
     private List<QuizQuestion> question =  new ArrayList<>();
 }
@@ -2,9 +2,13 @@ package com.yassine.learningapp.entity;
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table( name = "quiz_questions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "learningapp.quiz-question")
 public class QuizQuestion extends BaseEntity {
     private String question;
     private String answer;
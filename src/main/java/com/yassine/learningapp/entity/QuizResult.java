@@ -7,7 +7,8 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table( name = "quiz_results")
+@Table( name = "quiz_results",
+        uniqueConstraints = @UniqueConstraint(name = "uq_quiz_results_user_attempt", columnNames = {"user_id", "client_attempt_id"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
@@ -17,6 +18,10 @@ public class QuizResult extends BaseEntity {
     private Double timeTakenSeconds;
     private Double percentageScore;
 
+    /** Clé d'idempotence générée par le client (tentatives hors-ligne synchronisées en lot), null sinon. */
+    @Column(name = "client_attempt_id", length = 64)
+    private String clientAttemptId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -28,9 +33,18 @@ public class QuizResult extends BaseEntity {
     @PrePersist
     @PreUpdate
     public void calculatePercentageScore() {
-        if(questionCount!=null && score!=null && questionCount > 0){
-            this.percentageScore = (score * 100.0) / questionCount ;
+        Double percentage = percentageScore(score, questionCount);
+        if (percentage != null) {
+            this.percentageScore = percentage;
+        }
+    }
+
+    /** Règle de calcul partagée avec les insertions JDBC en lot (qui ne passent pas par les callbacks JPA). */
+    public static Double percentageScore(Integer score, Integer questionCount) {
+        if (questionCount != null && score != null && questionCount > 0) {
+            return (score * 100.0) / questionCount;
         }
+        return null;
     }
 
 }
@@ -9,14 +9,13 @@ import java.time.LocalDateTime;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
-@Builder
+@Builder(toBuilder = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(onlyExplicitlyIncluded = true)
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-        @Index(name = "idx_refresh_token_hash", columnList = "token_hash"),
-        @Index(name = "idx_refresh_user_id", columnList = "user_id"),
-        @Index(name = "idx_refresh_expires", columnList = "expires_at")
+        @Index(name = "idx_refresh_tokens_user_expires", columnList = "user_id, expires_at"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
 })
 public class RefreshToken {
 
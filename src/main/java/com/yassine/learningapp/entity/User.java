@@ -7,6 +7,10 @@ import lombok.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Pas de cache L2 : verrouillage, désactivation, rehash et réinitialisation du mot de passe doivent être vus
+ * immédiatement par le chemin d'authentification de toutes les instances (le cache est propre à chaque instance).
+ */
 @Entity
 @Table(name = "users")
 @NoArgsConstructor
@@ -0,0 +1,9 @@
+package com.yassine.learningapp.exception;
+
+/** Correction refusée : tentative inconnue ou expirée, question non servie par la tentative ou déjà corrigée. */
+public class AdaptiveAttemptException extends AppException {
+
+    public AdaptiveAttemptException(String message) {
+        super(message, ErrorCode.ADAPTIVE_ATTEMPT_INVALID);
+    }
+}
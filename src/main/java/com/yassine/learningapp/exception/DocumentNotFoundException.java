@@ -0,0 +1,15 @@
+package com.yassine.learningapp.exception;
+
+public class DocumentNotFoundException extends AppException {
+
+    private final Long documentId;
+
+    public DocumentNotFoundException(Long documentId) {
+        super("Document introuvable", ErrorCode.DOCUMENT_NOT_FOUND);
+        this.documentId = documentId;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+}
@@ -13,5 +13,22 @@ public enum ErrorCode {
     REFRESH_TOKEN_INVALID,
     REFRESH_TOKEN_EXPIRED,
     REFRESH_TOKEN_REVOKED,
-    TOO_MANY_SESSIONS
+    TOO_MANY_SESSIONS,
+
+    INVALID_CREDENTIALS,
+    RESET_TOKEN_INVALID,
+    ACCOUNT_LOCKED,
+    ACCOUNT_DISABLED,
+
+    SERVICE_OVERLOADED,
+    RATE_LIMITED,
+
+    DOCUMENT_NOT_FOUND,
+    QUIZ_NOT_FOUND,
+    ADAPTIVE_ATTEMPT_INVALID,
+
+    LIVE_SESSION_NOT_FOUND,
+    LIVE_SESSION_STATE,
+
+    SHARD_MOVING
     }
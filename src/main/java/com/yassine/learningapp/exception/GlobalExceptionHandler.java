@@ -0,0 +1,58 @@
+package com.yassine.learningapp.exception;
+
+import com.yassine.learningapp.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Rendu JSON des exceptions métier ({@link AppException}) levées par les contrôleurs.
+ */
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(ServiceOverloadedException ex, HttpServletRequest request) {
+        log.warn("Overloaded: {} path={}", ex.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getErrorCode().name(), ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimited(RateLimitedException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getErrorCode().name(), ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(ShardMovingException.class)
+    public ResponseEntity<ErrorResponse> handleShardMoving(ShardMovingException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getErrorCode().name(), ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(AppException.class)
+    public ResponseEntity<ErrorResponse> handleApp(AppException ex, HttpServletRequest request) {
+        return ResponseEntity.status(statusOf(ex.getErrorCode()))
+                .body(new ErrorResponse(ex.getErrorCode().name(), ex.getMessage(), request.getRequestURI()));
+    }
+
+    private static HttpStatus statusOf(ErrorCode code) {
+        return switch (code) {
+            case USER_NOT_FOUND, DOCUMENT_NOT_FOUND, QUIZ_NOT_FOUND, LIVE_SESSION_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case RESET_TOKEN_INVALID -> HttpStatus.BAD_REQUEST;
+            case TOO_MANY_SESSIONS, LIVE_SESSION_STATE, ADAPTIVE_ATTEMPT_INVALID -> HttpStatus.CONFLICT;
+            case ACCOUNT_LOCKED, ACCOUNT_DISABLED -> HttpStatus.FORBIDDEN;
+            case SERVICE_OVERLOADED, SHARD_MOVING -> HttpStatus.SERVICE_UNAVAILABLE;
+            case RATE_LIMITED -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.UNAUTHORIZED;
+        };
+    }
+}
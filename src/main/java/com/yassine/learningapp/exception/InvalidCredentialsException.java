@@ -0,0 +1,12 @@
+package com.yassine.learningapp.exception;
+
+public class InvalidCredentialsException extends AppException {
+
+    public InvalidCredentialsException() {
+        super("Identifiants invalides", ErrorCode.INVALID_CREDENTIALS);
+    }
+
+    public InvalidCredentialsException(String message, ErrorCode errorCode) {
+        super(message, errorCode);
+    }
+}
@@ -0,0 +1,15 @@
+package com.yassine.learningapp.exception;
+
+public class LiveSessionNotFoundException extends AppException {
+
+    private final String code;
+
+    public LiveSessionNotFoundException(String code) {
+        super("Session introuvable", ErrorCode.LIVE_SESSION_NOT_FOUND);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
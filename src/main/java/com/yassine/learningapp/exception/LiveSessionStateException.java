@@ -0,0 +1,9 @@
+package com.yassine.learningapp.exception;
+
+/** Action impossible dans l'état courant de la session (question déjà ouverte, session terminée, complète...). */
+public class LiveSessionStateException extends AppException {
+
+    public LiveSessionStateException(String message) {
+        super(message, ErrorCode.LIVE_SESSION_STATE);
+    }
+}
@@ -0,0 +1,15 @@
+package com.yassine.learningapp.exception;
+
+public class QuizNotFoundException extends AppException {
+
+    private final Long quizId;
+
+    public QuizNotFoundException(Long quizId) {
+        super("Quiz introuvable", ErrorCode.QUIZ_NOT_FOUND);
+        this.quizId = quizId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+}
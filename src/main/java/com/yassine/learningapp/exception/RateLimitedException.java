@@ -0,0 +1,18 @@
+package com.yassine.learningapp.exception;
+
+/**
+ * Quota du client dépassé. Rendue en 429 + Retry-After.
+ */
+public class RateLimitedException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(String message, long retryAfterSeconds) {
+        super(message, ErrorCode.RATE_LIMITED);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
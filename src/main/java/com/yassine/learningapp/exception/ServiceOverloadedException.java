@@ -0,0 +1,19 @@
+package com.yassine.learningapp.exception;
+
+/**
+ * Capacité d'une ressource interne épuisée (pool de hash, ...) : la requête est rejetée immédiatement
+ * plutôt que d'attendre et d'immobiliser un thread HTTP. Rendue en 503 + Retry-After.
+ */
+public class ServiceOverloadedException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, ErrorCode.SERVICE_OVERLOADED);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.yassine.learningapp.exception;
+
+/**
+ * Écriture refusée pendant le déplacement des données de l'utilisateur vers un autre shard.
+ * Rendue en 503 + Retry-After : le client rejoue une fois le déplacement terminé.
+ */
+public class ShardMovingException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public ShardMovingException(Long userId, long retryAfterSeconds) {
+        super("Data of user " + userId + " is being moved, retry later", ErrorCode.SHARD_MOVING);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
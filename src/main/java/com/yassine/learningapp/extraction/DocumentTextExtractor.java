@@ -0,0 +1,16 @@
+package com.yassine.learningapp.extraction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Extraction du texte brut d'un format de fichier. Les extracteurs sont essayés dans leur ordre
+ * ({@link org.springframework.core.annotation.Order}) ; le premier qui {@link #supports} le fichier l'emporte.
+ */
+public interface DocumentTextExtractor {
+
+    boolean supports(Path file) throws IOException;
+
+    /** Écrit le texte dans {@code sink}, page par page et dans l'ordre, sans le matérialiser en entier. */
+    void extract(Path file, PageSink sink) throws IOException;
+}
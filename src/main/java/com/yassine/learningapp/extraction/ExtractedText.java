@@ -0,0 +1,133 @@
+package com.yassine.learningapp.extraction;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Texte extrait d'un document, lu depuis son fichier de cache mappé en mémoire : le texte reste dans le
+ * cache de pages de l'OS, seuls les tampons de décodage des {@link Reader} sont sur le tas.
+ *
+ * <p>Format : en-tête {@code MAGIC, VERSION}, texte UTF-8 des pages bout à bout, puis en fin de fichier la
+ * table des offsets ({@code pageCount + 1} longs, relatifs au début du texte), {@code pageCount} et
+ * {@code MAGIC}. La table est écrite en dernier : un fichier tronqué est rejeté.
+ */
+public final class ExtractedText {
+
+    static final int MAGIC = 0x4C505458; // "LPTX"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int TRAILER_BYTES = 8;
+
+    private static final int DECODE_CHARS = 8 * 1024;
+
+    private final MappedByteBuffer buffer;
+    private final long[] pageOffsets;
+
+    private ExtractedText(MappedByteBuffer buffer, long[] pageOffsets) {
+        this.buffer = buffer;
+        this.pageOffsets = pageOffsets;
+    }
+
+    public static ExtractedText open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid extracted text file size " + size + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int trailer = (int) size - TRAILER_BYTES;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(trailer + 4) != MAGIC) {
+                throw new IOException("Not an extracted text file: " + file);
+            }
+            int pageCount = buffer.getInt(trailer);
+            int table = trailer - (pageCount + 1) * Long.BYTES;
+            if (pageCount < 0 || table < HEADER_BYTES) {
+                throw new IOException("Corrupt page table in " + file);
+            }
+            long[] offsets = new long[pageCount + 1];
+            for (int i = 0; i <= pageCount; i++) {
+                offsets[i] = buffer.getLong(table + i * Long.BYTES);
+            }
+            if (offsets[0] != 0 || HEADER_BYTES + offsets[pageCount] != table) {
+                throw new IOException("Corrupt page table in " + file);
+            }
+            return new ExtractedText(buffer, offsets);
+        }
+    }
+
+    public int pageCount() {
+        return pageOffsets.length - 1;
+    }
+
+    /** Taille du texte en octets UTF-8. */
+    public long byteLength() {
+        return pageOffsets[pageOffsets.length - 1];
+    }
+
+    public Reader reader() {
+        return reader(0, pageCount());
+    }
+
+    /** Texte des pages {@code [fromPage, toPage)} (indices à partir de 0). */
+    public Reader reader(int fromPage, int toPage) {
+        if (fromPage < 0 || toPage > pageCount() || fromPage > toPage) {
+            throw new IndexOutOfBoundsException("Pages [" + fromPage + ", " + toPage + ") of " + pageCount());
+        }
+        int from = (int) (HEADER_BYTES + pageOffsets[fromPage]);
+        int to = (int) (HEADER_BYTES + pageOffsets[toPage]);
+        return new MappedReader(buffer.slice(from, to - from));
+    }
+
+    /** Décodage UTF-8 incrémental d'une tranche du fichier mappé. */
+    private static final class MappedReader extends Reader {
+
+        private final ByteBuffer in;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer decoded = CharBuffer.allocate(DECODE_CHARS).flip();
+        private boolean flushed;
+
+        MappedReader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) return 0;
+            if (!decoded.hasRemaining() && !fill()) return -1;
+            int n = Math.min(len, decoded.remaining());
+            decoded.get(cbuf, off, n);
+            return n;
+        }
+
+        private boolean fill() {
+            decoded.clear();
+            if (in.hasRemaining()) {
+                decoder.decode(in, decoded, true);
+            }
+            if (!in.hasRemaining() && !flushed) {
+                decoder.flush(decoded);
+                flushed = true;
+            }
+            decoded.flip();
+            return decoded.hasRemaining();
+        }
+
+        @Override
+        public void close() {
+            // Rien à libérer : le mapping est relâché par le GC
+        }
+    }
+}
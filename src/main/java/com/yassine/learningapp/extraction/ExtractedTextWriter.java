@@ -0,0 +1,101 @@
+package com.yassine.learningapp.extraction;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Écrit un fichier au format {@link ExtractedText} au fil de l'extraction : chaque fragment est encodé en
+ * UTF-8 et écrit aussitôt, seule la table des offsets de pages reste en mémoire.
+ */
+final class ExtractedTextWriter implements PageSink, Closeable {
+
+    private final OutputStream out;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer encoded = ByteBuffer.allocate(16 * 1024);
+    private long written;
+    private long[] pageOffsets = new long[64];
+    private int pageCount;
+    /** Surrogate haut en fin de fragment, complété par le fragment suivant. */
+    private char pendingHighSurrogate;
+
+    ExtractedTextWriter(Path file) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        ByteBuffer header = ByteBuffer.allocate(ExtractedText.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ExtractedText.MAGIC).putInt(ExtractedText.VERSION);
+        out.write(header.array());
+    }
+
+    @Override
+    public void append(CharSequence text) throws IOException {
+        if (text.isEmpty()) return;
+        CharBuffer chars;
+        if (pendingHighSurrogate != 0) {
+            chars = CharBuffer.allocate(text.length() + 1).put(pendingHighSurrogate).put(CharBuffer.wrap(text)).flip();
+            pendingHighSurrogate = 0;
+        } else {
+            chars = CharBuffer.wrap(text);
+        }
+        if (Character.isHighSurrogate(chars.get(chars.limit() - 1))) {
+            pendingHighSurrogate = chars.get(chars.limit() - 1);
+            chars.limit(chars.limit() - 1);
+        }
+        encode(chars);
+    }
+
+    @Override
+    public void endPage() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            encode(CharBuffer.wrap(new char[]{pendingHighSurrogate})); // isolé : remplacé
+            pendingHighSurrogate = 0;
+        }
+        if (pageCount + 1 == pageOffsets.length) {
+            pageOffsets = Arrays.copyOf(pageOffsets, pageOffsets.length * 2);
+        }
+        pageOffsets[++pageCount] = written;
+    }
+
+    /** Écrit la table des pages ; le fichier n'est valide qu'après cet appel. */
+    void finish() throws IOException {
+        ByteBuffer trailer = ByteBuffer.allocate((pageCount + 1) * Long.BYTES + ExtractedText.TRAILER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i <= pageCount; i++) trailer.putLong(pageOffsets[i]);
+        trailer.putInt(pageCount).putInt(ExtractedText.MAGIC);
+        out.write(trailer.array());
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, encoded, true);
+            drain();
+            if (result.isUnderflow()) break;
+        }
+        encoder.reset();
+    }
+
+    private void drain() throws IOException {
+        encoded.flip();
+        out.write(encoded.array(), 0, encoded.limit());
+        written += encoded.limit();
+        encoded.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package com.yassine.learningapp.extraction;
+
+import java.io.IOException;
+
+/**
+ * Reçoit le texte extrait dans l'ordre, par fragments ; {@link #endPage()} clôt la page courante.
+ * Un fragment n'est valable que pendant l'appel (l'extracteur peut réutiliser son tampon).
+ */
+public interface PageSink {
+
+    void append(CharSequence text) throws IOException;
+
+    void endPage() throws IOException;
+}
@@ -0,0 +1,143 @@
+package com.yassine.learningapp.extraction;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDF : les pages sont découpées en plages extraites en parallèle sur un pool borné.
+ *
+ * <p>Un {@link PDDocument} n'est pas thread-safe : chaque plage ouvre le sien, adossé au fichier (pas de copie
+ * du PDF sur le tas, flux décodés mis en cache sur disque). Au plus {@code threads * 2} plages sont en vol par
+ * extraction et les résultats sont écrits dans l'ordre dès qu'ils arrivent : la mémoire ne dépend pas du
+ * nombre de pages.
+ */
+@Slf4j
+@Component
+@Order(0)
+public class PdfTextExtractor implements DocumentTextExtractor {
+
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadPoolExecutor executor;
+    private final int pagesPerTask;
+    private final int window;
+
+    public PdfTextExtractor(@Value("${app.extraction.pdf.threads:0}") int threads,
+                            @Value("${app.extraction.pdf.pages-per-task:16}") int pagesPerTask) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("pdf-extract-"));
+        this.pagesPerTask = pagesPerTask;
+        this.window = poolSize * 2;
+    }
+
+    @Override
+    public boolean supports(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(PDF_SIGNATURE.length), PDF_SIGNATURE);
+        }
+    }
+
+    @Override
+    public void extract(Path file, PageSink sink) throws IOException {
+        int pageCount;
+        try (PDDocument document = load(file)) {
+            pageCount = document.getNumberOfPages();
+        }
+
+        Deque<Future<List<String>>> inFlight = new ArrayDeque<>();
+        int nextPage = 1;
+        try {
+            while (nextPage <= pageCount || !inFlight.isEmpty()) {
+                while (nextPage <= pageCount && inFlight.size() < window) {
+                    int from = nextPage;
+                    int to = Math.min(pageCount, from + pagesPerTask - 1);
+                    inFlight.add(executor.submit(() -> extractRange(file, from, to)));
+                    nextPage = to + 1;
+                }
+                for (String page : await(inFlight.removeFirst())) {
+                    sink.append(page);
+                    sink.endPage();
+                }
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static List<String> extractRange(Path file, int from, int to) {
+        try (PDDocument document = load(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            List<String> pages = new ArrayList<>(to - from + 1);
+            for (int page = from; page <= to; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pages.add(stripper.getText(document));
+            }
+            return pages;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not extract pages " + from + "-" + to + " of " + file, e);
+        }
+    }
+
+    private static PDDocument load(Path file) throws IOException {
+        return Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache());
+    }
+
+    private static List<String> await(Future<List<String>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting PDF text", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException("PDF text extraction failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.yassine.learningapp.extraction;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Repli pour tout autre fichier : lu comme du texte UTF-8 (octets invalides remplacés), en une seule page. */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PlainTextExtractor implements DocumentTextExtractor {
+
+    private static final int BLOCK_CHARS = 16 * 1024;
+
+    @Override
+    public boolean supports(Path file) {
+        return true;
+    }
+
+    @Override
+    public void extract(Path file, PageSink sink) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            char[] block = new char[BLOCK_CHARS];
+            int n;
+            while ((n = reader.read(block)) > 0) {
+                sink.append(CharBuffer.wrap(block, 0, n));
+            }
+        }
+        sink.endPage();
+    }
+}
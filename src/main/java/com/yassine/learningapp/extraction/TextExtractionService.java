@@ -0,0 +1,175 @@
+package com.yassine.learningapp.extraction;
+
+import com.yassine.learningapp.files.AtomicFiles;
+import com.yassine.learningapp.files.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Texte des documents, extrait une seule fois par contenu : le cache ({@code app.extraction.dir}) est indexé
+ * par le SHA-256 du fichier source, deux téléversements identiques partagent donc la même extraction.
+ *
+ * <p>Les consommateurs (découpage, recherche, génération) lisent le texte en flux via
+ * {@link ExtractedText#reader()} ; il n'est jamais matérialisé en un seul {@code String}.
+ */
+@Slf4j
+@Service
+public class TextExtractionService {
+
+    private static final int HASH_CACHE_SIZE = 10_000;
+    private static final Duration TOUCH_INTERVAL = Duration.ofDays(1);
+
+    private final List<DocumentTextExtractor> extractors;
+    private final Path cacheDir;
+    private final Duration retention;
+
+    /** Extractions en cours, par empreinte : les demandes concurrentes attendent la même. */
+    private final SingleFlight<String, Path> extractions = new SingleFlight<>();
+
+    /** Empreintes déjà calculées, tant que taille et date de modification du fichier n'ont pas changé. */
+    private final Map<Path, HashedFile> hashes = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, HashedFile> eldest) {
+            return size() > HASH_CACHE_SIZE;
+        }
+    };
+
+    private record HashedFile(long size, FileTime modified, String sha256) {}
+
+    /** {@code extractors} : dans leur ordre {@code @Order}, le texte brut en dernier. */
+    public TextExtractionService(List<DocumentTextExtractor> extractors,
+                                 @Value("${app.extraction.dir:}") String cacheDir,
+                                 @Value("${app.extraction.retention-days:30}") long retentionDays) {
+        this.extractors = extractors;
+        this.cacheDir = AtomicFiles.directory(cacheDir, "app.extraction.dir (APP_EXTRACTION_DIR)");
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    public ExtractedText open(Path file) {
+        try {
+            String sha256 = sha256(file);
+            Path cached = cacheFile(sha256);
+            if (Files.isRegularFile(cached)) {
+                touch(cached);
+                return ExtractedText.open(cached);
+            }
+            return ExtractedText.open(extractions.run(sha256, () -> extractOnce(file, cached)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not extract text of " + file, e);
+        }
+    }
+
+    @Scheduled(cron = "${app.extraction.purge-cron:0 0 4 * * *}")
+    public void purgeUnused() {
+        if (!Files.isDirectory(cacheDir)) return;
+        FileTime threshold = FileTime.from(Instant.now().minus(retention));
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(path).compareTo(threshold) < 0 && Files.deleteIfExists(path)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Extracted text purge failed in {}", cacheDir, e);
+        }
+        log.info("Extracted text purge: deleted={}", deleted);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Sous {@link #extractions} : un appel qui attendait une extraction concurrente trouve le fichier en cache. */
+    private Path extractOnce(Path file, Path target) {
+        if (Files.isRegularFile(target)) return target;
+        try {
+            extract(file, target);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not extract text of " + file, e);
+        }
+    }
+
+    private void extract(Path file, Path target) throws IOException {
+        DocumentTextExtractor extractor = extractorFor(file);
+        long start = System.nanoTime();
+        AtomicFiles.write(target, part -> {
+            try (ExtractedTextWriter writer = new ExtractedTextWriter(part)) {
+                extractor.extract(file, writer);
+                writer.finish();
+            }
+        });
+        log.info("Text extracted: file={}, extractor={}, bytes={}, ms={}", file.getFileName(),
+                extractor.getClass().getSimpleName(), Files.size(target), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private DocumentTextExtractor extractorFor(Path file) throws IOException {
+        for (DocumentTextExtractor extractor : extractors) {
+            if (extractor.supports(file)) return extractor;
+        }
+        throw new IOException("No text extractor for " + file);
+    }
+
+    private Path cacheFile(String sha256) {
+        return cacheDir.resolve(sha256.substring(0, 2)).resolve(sha256 + ".v" + ExtractedText.VERSION + ".txt");
+    }
+
+    /** La date de modification sert de date de dernier accès pour la purge (mise à jour au plus une fois par jour). */
+    private static void touch(Path cached) {
+        try {
+            FileTime now = FileTime.from(Instant.now());
+            if (Files.getLastModifiedTime(cached).toInstant().plus(TOUCH_INTERVAL).isBefore(now.toInstant())) {
+                Files.setLastModifiedTime(cached, now);
+            }
+        } catch (IOException e) {
+            log.debug("Could not touch {}", cached, e);
+        }
+    }
+
+    private String sha256(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        long size = Files.size(file);
+        FileTime modified = Files.getLastModifiedTime(file);
+        synchronized (hashes) {
+            HashedFile known = hashes.get(key);
+            if (known != null && known.size() == size && known.modified().equals(modified)) {
+                return known.sha256();
+            }
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) digest.update(buffer, 0, n);
+        }
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        synchronized (hashes) {
+            hashes.put(key, new HashedFile(size, modified, sha256));
+        }
+        return sha256;
+    }
+}
@@ -0,0 +1,91 @@
+package com.yassine.learningapp.files;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fichiers construits une fois puis servis (exports, bundles, texte extrait) : écriture atomique et purge
+ * des versions remplacées.
+ */
+@Slf4j
+public final class AtomicFiles {
+
+    @FunctionalInterface
+    public interface PartWriter {
+        void write(Path part) throws IOException;
+    }
+
+    private record Version(Path file, FileTime modified) {}
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Répertoire de fichiers servis, configuré explicitement : jamais le tmpdir par défaut, qu'un redémarrage ou
+     * un nettoyage du système peut vider. {@code property} nomme la propriété et sa variable d'environnement.
+     */
+    public static Path directory(String dir, String property) {
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException(property + " must point to a persistent directory");
+        }
+        return Path.of(dir);
+    }
+
+    /**
+     * Écrit {@code target} dans un fichier {@code .part} voisin (nom unique) puis le renomme atomiquement :
+     * un lecteur voit l'ancien fichier ou le nouveau complet, jamais un fichier partiel.
+     */
+    public static void write(Path target, PartWriter writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path part = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            writer.write(part);
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("Could not delete partial file {}", part, e);
+            }
+        }
+    }
+
+    /**
+     * Supprime les anciennes versions de {@code keep} (fichiers de {@code dir} correspondant à {@code glob})
+     * remplacées depuis plus de {@code grace}. Une version est remplacée à la date de modification de la
+     * suivante : une réponse commencée juste avant peut encore la lire, elle n'est donc pas supprimée tout de
+     * suite (elle le sera au build suivant). Renvoie le nombre de fichiers supprimés.
+     */
+    public static int deleteSuperseded(Path dir, String glob, Path keep, Duration grace) throws IOException {
+        List<Version> versions = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : files) {
+                versions.add(new Version(file, Files.getLastModifiedTime(file)));
+            }
+        }
+        versions.sort(Comparator.comparing(Version::modified));
+
+        Instant threshold = Instant.now().minus(grace);
+        int deleted = 0;
+        for (int i = 0; i < versions.size() - 1; i++) {
+            Path file = versions.get(i).file();
+            if (file.equals(keep)) continue;
+            Instant supersededAt = versions.get(i + 1).modified().toInstant();
+            if (supersededAt.isBefore(threshold) && Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
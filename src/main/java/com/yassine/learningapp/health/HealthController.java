@@ -1,14 +1,30 @@
 package com.yassine.learningapp.health;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+/**
+ * Probes pour le load balancer / l'orchestrateur.
+ * - liveness : le process répond (jamais de dépendance externe, sinon redémarrages en cascade)
+ * - readiness : dernier snapshot calculé en arrière-plan par {@link ReadinessChecker}
+ */
 @RestController
+@RequiredArgsConstructor
 public class HealthController {
 
-    @GetMapping("/health")
+    private final ReadinessChecker readinessChecker;
+
+    @GetMapping({"/health", "/health/live"})
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("OK");
     }
+
+    @GetMapping("/health/ready")
+    public ResponseEntity<HealthSnapshot> ready() {
+        HealthSnapshot snapshot = readinessChecker.current();
+        return ResponseEntity.status(snapshot.isUp() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(snapshot);
+    }
 }
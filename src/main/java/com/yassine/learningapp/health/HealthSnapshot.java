@@ -0,0 +1,31 @@
+package com.yassine.learningapp.health;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Résultat figé du dernier passage des checks de readiness.
+ */
+public record HealthSnapshot(Status status, Instant checkedAt, Map<String, Component> components) {
+
+    public enum Status { UP, DOWN }
+
+    public record Component(Status status, Map<String, Object> details) {
+
+        public static Component up(Map<String, Object> details) {
+            return new Component(Status.UP, details);
+        }
+
+        public static Component down(Map<String, Object> details) {
+            return new Component(Status.DOWN, details);
+        }
+    }
+
+    public static HealthSnapshot starting() {
+        return new HealthSnapshot(Status.DOWN, Instant.now(), Map.of("startup", Component.down(Map.of("reason", "first check pending"))));
+    }
+
+    public boolean isUp() {
+        return status == Status.UP;
+    }
+}
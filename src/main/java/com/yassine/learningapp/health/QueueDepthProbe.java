@@ -0,0 +1,16 @@
+package com.yassine.learningapp.health;
+
+/**
+ * File d'attente interne dont la profondeur est publiée dans le détail de readiness (executor, outbox, ...),
+ * sans la conditionner : l'excédent est rejeté par la file elle-même.
+ * Les implémentations doivent être non bloquantes : lecture de compteurs uniquement.
+ */
+public interface QueueDepthProbe {
+
+    String name();
+
+    int depth();
+
+    /** Capacité au-delà de laquelle les nouvelles tâches sont rejetées. */
+    int capacity();
+}
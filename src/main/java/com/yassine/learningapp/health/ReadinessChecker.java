@@ -0,0 +1,176 @@
+package com.yassine.learningapp.health;
+
+import com.yassine.learningapp.datasource.ReplicaPool;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Évalue les dépendances en arrière-plan (thread du scheduler) et publie un snapshot.
+ * Les probes HTTP lisent uniquement ce snapshot : aucune requête DB, aucun blocage côté thread de requête.
+ *
+ * <p>Routage lecture/écriture actif : {@code db} et {@code pool} portent sur le primaire (la datasource
+ * injectée l'atteint hors transaction read-only), les réplicas sont rapportés à part.
+ */
+@Slf4j
+@Component
+public class ReadinessChecker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HikariDataSource hikari;
+    private final ReplicaPool replicaPool;
+    private final SchedulerHeartbeats heartbeats;
+    private final List<QueueDepthProbe> queues;
+    private final Duration interval;
+    private final Duration maxSchedulerLag;
+    private final int maxThreadsAwaitingConnection;
+
+    private volatile HealthSnapshot snapshot = HealthSnapshot.starting();
+
+    public ReadinessChecker(DataSource dataSource,
+                            ObjectProvider<ReplicaPool> replicaPool,
+                            SchedulerHeartbeats heartbeats,
+                            List<QueueDepthProbe> queues,
+                            @Value("${app.health.interval-ms:5000}") long intervalMs,
+                            @Value("${app.health.db-timeout-seconds:2}") int dbTimeoutSeconds,
+                            @Value("${app.health.max-scheduler-lag-minutes:30}") long maxSchedulerLagMinutes,
+                            @Value("${app.health.max-threads-awaiting-connection:10}") int maxThreadsAwaitingConnection) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(dbTimeoutSeconds);
+        this.hikari = unwrapHikari(dataSource);
+        this.replicaPool = replicaPool.getIfAvailable();
+        this.heartbeats = heartbeats;
+        this.queues = queues;
+        this.interval = Duration.ofMillis(intervalMs);
+        this.maxSchedulerLag = Duration.ofMinutes(maxSchedulerLagMinutes);
+        this.maxThreadsAwaitingConnection = maxThreadsAwaitingConnection;
+    }
+
+    /**
+     * Snapshot courant. S'il n'a pas été rafraîchi depuis 3 intervalles, le checker lui-même est bloqué :
+     * l'instance est considérée non prête.
+     */
+    public HealthSnapshot current() {
+        HealthSnapshot s = snapshot;
+        if (s.isUp() && s.checkedAt().plus(interval.multipliedBy(3)).isBefore(Instant.now())) {
+            return new HealthSnapshot(HealthSnapshot.Status.DOWN, s.checkedAt(),
+                    Map.of("checker", HealthSnapshot.Component.down(Map.of("reason", "stale snapshot"))));
+        }
+        return s;
+    }
+
+    @Scheduled(fixedDelayString = "${app.health.interval-ms:5000}", initialDelay = 0)
+    public void refresh() {
+        Map<String, HealthSnapshot.Component> components = new LinkedHashMap<>();
+        components.put("db", checkDatabase());
+        components.put("pool", checkPool());
+        if (replicaPool != null) components.put("replicas", checkReplicas());
+        components.put("scheduler", checkScheduler());
+        components.put("queues", checkQueues());
+
+        boolean up = components.values().stream().allMatch(c -> c.status() == HealthSnapshot.Status.UP);
+        HealthSnapshot next = new HealthSnapshot(up ? HealthSnapshot.Status.UP : HealthSnapshot.Status.DOWN, Instant.now(), components);
+
+        if (snapshot.isUp() != next.isUp()) {
+            log.warn("Readiness changed: {} -> {} {}", snapshot.status(), next.status(), components);
+        }
+        snapshot = next;
+    }
+
+    private HealthSnapshot.Component checkDatabase() {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return HealthSnapshot.Component.up(Map.of("latencyMs", (System.nanoTime() - start) / 1_000_000));
+        } catch (RuntimeException e) {
+            return HealthSnapshot.Component.down(Map.of("error", e.getClass().getSimpleName()));
+        }
+    }
+
+    private HealthSnapshot.Component checkPool() {
+        // Le MXBean n'existe qu'une fois le pool démarré (première connexion)
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) return HealthSnapshot.Component.up(Map.of("pool", "unknown"));
+
+        int poolMaxSize = hikari.getMaximumPoolSize();
+
+        int active = pool.getActiveConnections();
+        int awaiting = pool.getThreadsAwaitingConnection();
+        Map<String, Object> details = Map.of(
+                "active", active,
+                "idle", pool.getIdleConnections(),
+                "max", poolMaxSize,
+                "threadsAwaiting", awaiting
+        );
+        boolean saturated = active >= poolMaxSize && awaiting > maxThreadsAwaitingConnection;
+        return saturated ? HealthSnapshot.Component.down(details) : HealthSnapshot.Component.up(details);
+    }
+
+    /**
+     * Détail seulement, d'après la dernière mesure de {@code ReplicaLagMonitor} (aucune requête ici) : un réplica
+     * en retard ou injoignable est déjà écarté, ses lectures passent par le primaire. Le primaire vérifié,
+     * l'instance sert toujours ; la retirer ferait tomber toutes les instances ensemble pour une panne de réplica.
+     */
+    private HealthSnapshot.Component checkReplicas() {
+        Map<String, Object> lags = new LinkedHashMap<>();
+        List<String> down = new ArrayList<>();
+        for (ReplicaPool.Replica replica : replicaPool.replicas()) {
+            lags.put(replica.name() + ".lagMs", replica.lagMillis());
+            if (!replica.healthy()) down.add(replica.name());
+        }
+        if (!down.isEmpty()) lags.put("down", down);
+        return HealthSnapshot.Component.up(lags);
+    }
+
+    /**
+     * Détail seulement : les jobs (purges, balayages quotidiens) ne servent aucune requête ; un passage manqué
+     * ne doit pas retirer toutes les instances du load balancer. Alerting sur {@code app.scheduler.lag}.
+     */
+    private HealthSnapshot.Component checkScheduler() {
+        Instant now = Instant.now();
+        Map<String, Object> lags = new LinkedHashMap<>();
+        List<String> late = new ArrayList<>();
+        for (String job : heartbeats.all().keySet()) {
+            Duration lag = heartbeats.lag(job, now);
+            lags.put(job + ".lagSeconds", lag.toSeconds());
+            if (lag.compareTo(maxSchedulerLag) > 0) late.add(job);
+        }
+        if (!late.isEmpty()) lags.put("late", late);
+        return HealthSnapshot.Component.up(lags);
+    }
+
+    /**
+     * Détail seulement : une file pleine rejette déjà l'excédent (503). La retirer du load balancer ferait tomber
+     * toutes les instances en même temps pendant un pic (ex. vague de logins) : surcharge devenue panne complète.
+     */
+    private HealthSnapshot.Component checkQueues() {
+        Map<String, Object> depths = new LinkedHashMap<>();
+        for (QueueDepthProbe queue : queues) {
+            depths.put(queue.name(), queue.depth() + "/" + queue.capacity());
+        }
+        return HealthSnapshot.Component.up(depths);
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) return hikari;
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
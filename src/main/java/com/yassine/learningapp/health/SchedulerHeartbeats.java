@@ -0,0 +1,54 @@
+package com.yassine.learningapp.health;
+
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derniers passages des jobs planifiés. Un job déclare son intervalle maximum attendu
+ * ({@link #expect}), puis signale chaque exécution réussie ({@link #beat}). Le retard de chaque job est publié
+ * en gauge ({@code app.scheduler.lag{job}}) pour l'alerting.
+ */
+@Component
+public class SchedulerHeartbeats {
+
+    public record Heartbeat(Duration maxInterval, Instant lastBeat) {}
+
+    private final Instant startedAt = Instant.now();
+    private final Map<String, Heartbeat> jobs = new ConcurrentHashMap<>();
+    private final HotPathMetrics metrics;
+
+    public SchedulerHeartbeats(HotPathMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void expect(String job, Duration maxInterval) {
+        if (jobs.putIfAbsent(job, new Heartbeat(maxInterval, null)) == null) {
+            metrics.schedulerLag(job, this, h -> h.lag(job, Instant.now()).toSeconds());
+        }
+    }
+
+    public void beat(String job) {
+        jobs.compute(job, (k, hb) -> new Heartbeat(hb == null ? null : hb.maxInterval(), Instant.now()));
+    }
+
+    /**
+     * Retard du job : temps écoulé au-delà de l'intervalle attendu (0 si à l'heure).
+     * Sans passage, on compte depuis le démarrage de l'application.
+     */
+    public Duration lag(String job, Instant now) {
+        Heartbeat hb = jobs.get(job);
+        if (hb == null || hb.maxInterval() == null) return Duration.ZERO;
+        Instant reference = hb.lastBeat() != null ? hb.lastBeat() : startedAt;
+        Duration late = Duration.between(reference.plus(hb.maxInterval()), now);
+        return late.isNegative() ? Duration.ZERO : late;
+    }
+
+    public Map<String, Heartbeat> all() {
+        return Map.copyOf(jobs);
+    }
+}
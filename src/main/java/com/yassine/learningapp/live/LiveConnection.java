@@ -0,0 +1,85 @@
+package com.yassine.learningapp.live;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Une connexion SSE et sa file de trames, vidée par son propre thread virtuel : un client lent ne bloque que
+ * son thread, jamais la diffusion. File pleine = client décroché, la connexion est fermée (il se reconnecte et
+ * reçoit un {@link LiveFrames.Snapshot}).
+ */
+final class LiveConnection implements Runnable {
+
+    private final Long userId;
+    private final ResponseBodyEmitter emitter;
+    private final BlockingQueue<byte[]> queue;
+    private final long heartbeatMillis;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /** Réveille le thread d'écriture à la fermeture. */
+    private static final byte[] CLOSE = new byte[0];
+
+    LiveConnection(Long userId, ResponseBodyEmitter emitter, int queueCapacity, long heartbeatMillis, Runnable onClose) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.heartbeatMillis = heartbeatMillis;
+        this.onClose = onClose;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    /** @return faux si la connexion est fermée ou vient de l'être (file pleine) */
+    boolean offer(byte[] frame) {
+        if (closed.get()) return false;
+        if (!queue.offer(frame)) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed.get()) {
+                byte[] frame = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (frame == CLOSE) break;
+                // byte[] : écrit tel quel par ByteArrayHttpMessageConverter, aucune sérialisation par connexion
+                emitter.send(frame != null ? frame : LiveFrames.HEARTBEAT, MediaType.TEXT_EVENT_STREAM);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client parti ou émetteur déjà terminé
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    /** Ferme après l'envoi des trames déjà en file (dernière trame d'une session terminée). */
+    void closeAfterPending() {
+        if (!queue.offer(CLOSE)) close();
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        queue.clear();
+        queue.offer(CLOSE);
+        try {
+            emitter.complete();
+        } catch (IllegalStateException ignored) {
+            // Déjà terminé
+        }
+        onClose.run();
+    }
+}
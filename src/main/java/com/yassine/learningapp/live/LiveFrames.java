@@ -0,0 +1,48 @@
+package com.yassine.learningapp.live;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Événements SSE d'une session en direct. Un événement est sérialisé une seule fois en trame SSE complète
+ * ({@code event: ...\ndata: {json}\n\n}), puis ces mêmes octets sont écrits sur toutes les connexions.
+ */
+public final class LiveFrames {
+
+    /** Question ouverte, sans la bonne réponse ; {@code deadline} en epoch millis. */
+    public record Question(int index, int total, String question, String optionA, String optionB, String optionC,
+                           String optionD, long deadline) {}
+
+    public record Standing(int rank, String nickname, int score) {}
+
+    public record Reveal(int index, String correctAnswer, String explanation, int answered, int participants,
+                         List<Standing> standings) {}
+
+    /** Envoyé à chaque (re)connexion : l'état courant, la question ouverte s'il y en a une. */
+    public record Snapshot(String code, String title, LiveSession.Phase phase, int participants, Question question) {}
+
+    public record Finished(int questionCount, List<Standing> standings) {}
+
+    /** Commentaire SSE : garde la connexion ouverte à travers les proxys, détecte les clients partis. */
+    static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private LiveFrames() {
+    }
+
+    static byte[] encode(ObjectMapper objectMapper, String event, Object data) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            out.writeBytes(("event: " + event + "\ndata: ").getBytes(StandardCharsets.US_ASCII));
+            // JSON compact : aucune fin de ligne, la donnée tient sur une seule ligne data:
+            out.writeBytes(objectMapper.writeValueAsBytes(data));
+            out.writeBytes(new byte[]{'\n', '\n'});
+            return out.toByteArray();
+        } catch (JacksonException e) {
+            throw new IllegalStateException("Could not serialize live event " + event, e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.yassine.learningapp.live;
+
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.dto.QuizResponse;
+import com.yassine.learningapp.exception.LiveSessionNotFoundException;
+import com.yassine.learningapp.exception.LiveSessionStateException;
+import com.yassine.learningapp.exception.QuizNotFoundException;
+import com.yassine.learningapp.live.LiveFrames.Finished;
+import com.yassine.learningapp.live.LiveFrames.Question;
+import com.yassine.learningapp.live.LiveFrames.Reveal;
+import com.yassine.learningapp.live.LiveFrames.Snapshot;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.sharding.Shards;
+import com.yassine.learningapp.repository.QuizResultBatchInserter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sessions de quiz en direct : l'enseignant ouvre les questions une à une, les participants reçoivent questions,
+ * corrections et classement en SSE.
+ *
+ * <p>Chaque événement est sérialisé une seule fois ({@link LiveFrames#encode}) puis déposé dans la file de
+ * chaque connexion ; l'écriture réseau se fait sur un thread virtuel par connexion. Diffuser à des milliers
+ * de participants ne coûte donc qu'un {@code offer} par connexion au thread qui diffuse.
+ *
+ * <p>Les réponses sont notées en mémoire ; la base n'est touchée qu'au démarrage (quiz et questions) et à la
+ * fin (tous les résultats en un batch). Une session ne survit pas à un redémarrage.
+ *
+ * <p>Les sessions vivent en mémoire de l'instance qui les a ouvertes. Avec plusieurs instances, tout le trafic
+ * {@code /api/live/**} doit être routé vers une même instance (route dédiée de l'ingress) : une autre instance
+ * ne connaît pas le code et répond 404. Ni un cookie de session (participants distincts) ni un hachage du
+ * code (la session naît sur l'instance qui a reçu sa création) ne suffisent.
+ */
+@Slf4j
+@Service
+public class LiveQuizService {
+
+    /**
+     * Préfixe des clés d'idempotence des résultats d'une session. Le {@code ':'} est exclu du format des clés
+     * client de la synchro hors-ligne : les deux espaces de noms ne peuvent pas se recouvrir.
+     */
+    public static final String ATTEMPT_KEY_PREFIX = "live:";
+
+    private static final char[] CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int CODE_LENGTH = 6;
+
+    /** Session et connexions ouvertes, une par utilisateur (une reconnexion remplace la précédente). */
+    private record Live(LiveSession session, Map<Long, LiveConnection> connections) {}
+
+    private final QuizRepository quizRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final QuizResultBatchInserter resultInserter;
+    private final ObjectMapper objectMapper;
+    private final HotPathMetrics metrics;
+    private final Shards shards;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final long questionMillis;
+    private final int maxParticipants;
+    private final int queueCapacity;
+    private final long heartbeatMillis;
+    private final long idleMillis;
+    private final int standingsLimit;
+
+    private final Map<String, Live> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("live-sse-", 0).factory());
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("live-deadline").daemon().factory());
+
+    public LiveQuizService(QuizRepository quizRepository,
+                           QuizQuestionRepository quizQuestionRepository,
+                           QuizResultBatchInserter resultInserter,
+                           ObjectMapper objectMapper,
+                           HotPathMetrics metrics,
+                           Shards shards,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.live.question-seconds:30}") long questionSeconds,
+                           @Value("${app.live.max-participants:5000}") int maxParticipants,
+                           @Value("${app.live.queue-capacity:32}") int queueCapacity,
+                           @Value("${app.live.heartbeat-ms:15000}") long heartbeatMillis,
+                           @Value("${app.live.idle-minutes:30}") long idleMinutes,
+                           @Value("${app.live.standings-limit:10}") int standingsLimit) {
+        this.quizRepository = quizRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.resultInserter = resultInserter;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.shards = shards;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.questionMillis = Duration.ofSeconds(questionSeconds).toMillis();
+        this.maxParticipants = maxParticipants;
+        this.queueCapacity = queueCapacity;
+        this.heartbeatMillis = heartbeatMillis;
+        this.idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+        this.standingsLimit = standingsLimit;
+        metrics.gauge("app.live.sessions", sessions, Map::size);
+        metrics.gauge("app.live.connections", sessions,
+                s -> s.values().stream().mapToInt(live -> live.connections().size()).sum());
+    }
+
+    /** Ouvre une session sur un quiz de l'enseignant ; renvoie son code. */
+    public Snapshot start(Long quizId, Long hostUserId) {
+        record Loaded(QuizResponse quiz, List<QuizQuestionResponse> questions) {}
+        Loaded loaded = readOnlyTx.execute(status -> {
+            if (quizRepository.findIdsOwnedBy(List.of(quizId), hostUserId).isEmpty()) return null;
+            return new Loaded(quizRepository.findResponseById(quizId).orElse(null),
+                    quizQuestionRepository.findResponsesByQuizId(quizId));
+        });
+        if (loaded == null || loaded.quiz() == null) throw new QuizNotFoundException(quizId);
+        if (loaded.questions().isEmpty()) throw new LiveSessionStateException("Quiz sans question");
+
+        while (true) {
+            String code = newCode();
+            LiveSession session = new LiveSession(code, quizId, hostUserId, loaded.quiz().title(),
+                    loaded.questions(), maxParticipants, System.currentTimeMillis());
+            if (sessions.putIfAbsent(code, new Live(session, new ConcurrentHashMap<>())) == null) {
+                log.info("Live session started: code={}, quizId={}, questions={}", code, quizId, loaded.questions().size());
+                return snapshot(session);
+            }
+        }
+    }
+
+    public Snapshot join(String code, Long userId, String nickname) {
+        LiveSession session = live(code).session();
+        session.join(userId, nickname.strip(), System.currentTimeMillis());
+        return snapshot(session);
+    }
+
+    /**
+     * Flux SSE de la session pour l'hôte ou un participant. La première trame est l'état courant : un client
+     * reconnecté (ou décroché pour lenteur) se resynchronise sans requête supplémentaire. Inscription et état
+     * courant sous le verrou de la session, comme les diffusions : aucune trame n'est perdue ni reçue avant l'état.
+     */
+    public ResponseBodyEmitter subscribe(String code, Long userId) {
+        Live live = live(code);
+        LiveSession session = live.session();
+        if (!userId.equals(session.hostUserId()) && !session.isParticipant(userId)) {
+            throw new LiveSessionStateException("Rejoindre la session avant de s'abonner");
+        }
+
+        // Pas de timeout : la fin de session ou la déconnexion du client ferment le flux
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        LiveConnection[] self = new LiveConnection[1];
+        LiveConnection connection = new LiveConnection(userId, emitter, queueCapacity, heartbeatMillis,
+                () -> live.connections().remove(userId, self[0]));
+        self[0] = connection;
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(e -> connection.close());
+
+        LiveConnection previous;
+        synchronized (session) {
+            previous = live.connections().put(userId, connection);
+            connection.offer(LiveFrames.encode(objectMapper, "snapshot", snapshot(session)));
+        }
+        if (previous != null) previous.close();
+        writers.execute(connection);
+        metrics.live("connected").increment();
+        return emitter;
+    }
+
+    /** Hôte : ouvre la question suivante, close automatiquement au délai. */
+    public Question next(String code, Long hostUserId) {
+        Live live = hosted(code, hostUserId);
+        Question question;
+        synchronized (live.session()) {
+            question = live.session().openNext(System.currentTimeMillis(), questionMillis);
+            broadcast(live, "question", question);
+        }
+        deadlines.schedule(() -> closeQuestion(live, question.index()), questionMillis, TimeUnit.MILLISECONDS);
+        return question;
+    }
+
+    /** @return faux si la réponse est refusée (hors délai, déjà répondu, mauvaise question) */
+    public boolean answer(String code, Long userId, int questionIndex, String choice) {
+        Live live = live(code);
+        boolean accepted = live.session().answer(userId, questionIndex, choice, System.currentTimeMillis());
+        // Tout le monde a répondu : inutile d'attendre le délai
+        if (accepted && live.session().everyoneAnswered()) {
+            deadlines.execute(() -> closeQuestion(live, questionIndex));
+        }
+        return accepted;
+    }
+
+    /**
+     * Hôte : termine la session, enregistre les résultats et ferme les flux. Si l'enregistrement échoue, la
+     * session reste ouverte avec ses scores : l'hôte peut relancer la fin (l'expiration le refera aussi).
+     */
+    public Finished finish(String code, Long hostUserId) {
+        return finish(hosted(code, hostUserId));
+    }
+
+    /** Sessions abandonnées : terminées (résultats enregistrés) après {@code app.live.idle-minutes}. */
+    @Scheduled(fixedDelayString = "${app.live.expiry-interval-ms:60000}")
+    public void expireIdle() {
+        long threshold = System.currentTimeMillis() - idleMillis;
+        for (Live live : sessions.values()) {
+            if (live.session().lastActivityMillis() < threshold) {
+                log.info("Live session expired: code={}", live.session().code());
+                try {
+                    finish(live);
+                } catch (RuntimeException e) {
+                    log.warn("Live session expiry failed, retried next run: code={}", live.session().code(), e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlines.shutdownNow();
+        sessions.values().forEach(live -> live.connections().values().forEach(LiveConnection::close));
+        writers.shutdownNow();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private Live live(String code) {
+        Live live = code == null ? null : sessions.get(code);
+        if (live == null) throw new LiveSessionNotFoundException(code);
+        return live;
+    }
+
+    /** Même réponse qu'une session inexistante pour un non-hôte : le code ne révèle rien. */
+    private Live hosted(String code, Long hostUserId) {
+        Live live = live(code);
+        if (!live.session().hostUserId().equals(hostUserId)) throw new LiveSessionNotFoundException(code);
+        return live;
+    }
+
+    /** Diffusée sous le verrou de la session : la correction précède toujours la question suivante. */
+    private void closeQuestion(Live live, int questionIndex) {
+        synchronized (live.session()) {
+            Reveal reveal = live.session().closeQuestion(questionIndex, standingsLimit);
+            if (reveal != null) broadcast(live, "reveal", reveal);
+        }
+    }
+
+    private Finished finish(Live live) {
+        LiveSession session = live.session();
+        List<LiveSession.Participant> participants = session.beginFinish();
+        if (participants == null) throw new LiveSessionStateException("Session déjà terminée");
+        int asked = session.askedCount();
+        Finished finished = new Finished(asked, session.standings(standingsLimit));
+        if (!participants.isEmpty() && asked > 0) {
+            try {
+                saveResults(session, participants, asked);
+            } catch (RuntimeException e) {
+                session.finishFailed();
+                metrics.live("save-failed").increment();
+                throw e;
+            }
+        }
+        byte[] frame = LiveFrames.encode(objectMapper, "finished", finished);
+        synchronized (session) {
+            session.finished();
+            for (LiveConnection connection : live.connections().values()) {
+                if (connection.offer(frame)) connection.closeAfterPending();
+            }
+        }
+        sessions.remove(session.code(), live);
+        metrics.live("finished").increment();
+        log.info("Live session finished: code={}, participants={}, questions={}", session.code(), participants.size(), asked);
+        return finished;
+    }
+
+    /**
+     * Un résultat par participant, en un batch ; clé {@code live:<code>} : une session n'est jamais notée deux fois.
+     * Écrits sur le shard de l'hôte, à côté du quiz (la fin peut venir du thread des délais, sans utilisateur) :
+     * la clé étrangère vers le quiz et le titre joint par l'historique l'imposent. Un participant placé sur un
+     * autre shard ne les voit donc ni dans son historique ni dans son tableau de bord ; seul l'export RGPD
+     * ({@code UserExportService}) les relit sur les autres shards.
+     */
+    private void saveResults(LiveSession session, List<LiveSession.Participant> participants, int asked) {
+        List<QuizResultBatchInserter.Row> rows = new ArrayList<>(participants.size());
+        String attemptKey = ATTEMPT_KEY_PREFIX + session.code();
+        for (LiveSession.Participant p : participants) {
+            rows.add(new QuizResultBatchInserter.Row(p.userId(), session.quizId(), p.correct(), asked,
+                    p.answerMillis() / 1000.0, attemptKey));
+        }
+        shards.runOn(shards.shardOf(session.hostUserId()),
+                () -> tx.executeWithoutResult(status -> resultInserter.insert(rows)));
+    }
+
+    private void broadcast(Live live, String event, Object data) {
+        byte[] frame = LiveFrames.encode(objectMapper, event, data);
+        int dropped = 0;
+        for (LiveConnection connection : live.connections().values()) {
+            if (!connection.offer(frame)) dropped++;
+        }
+        if (dropped > 0) {
+            metrics.live("dropped").increment(dropped);
+            log.debug("Live broadcast: code={}, event={}, dropped={}", live.session().code(), event, dropped);
+        }
+    }
+
+    private Snapshot snapshot(LiveSession session) {
+        return new Snapshot(session.code(), session.title(), session.phase(), session.participantCount(),
+                session.currentQuestion());
+    }
+
+    private String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) code[i] = CODE_ALPHABET[random.nextInt(CODE_ALPHABET.length)];
+        return new String(code);
+    }
+}
@@ -0,0 +1,222 @@
+package com.yassine.learningapp.live;
+
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.exception.LiveSessionStateException;
+import com.yassine.learningapp.live.LiveFrames.Question;
+import com.yassine.learningapp.live.LiveFrames.Reveal;
+import com.yassine.learningapp.live.LiveFrames.Standing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * État d'une session de quiz en direct : questions chargées une fois, réponses notées en mémoire à leur
+ * arrivée. Rien n'est écrit en base avant {@link #finish}. Toutes les transitions sont synchronisées sur
+ * la session.
+ */
+public final class LiveSession {
+
+    public enum Phase { LOBBY, QUESTION, REVEAL, FINISHED }
+
+    /** Participant : score et temps de réponse cumulé (départage à score égal). */
+    public static final class Participant {
+        private final Long userId;
+        private final String nickname;
+        private int correct;
+        private long answerMillis;
+        private int lastAnswered = -1;
+
+        Participant(Long userId, String nickname) {
+            this.userId = userId;
+            this.nickname = nickname;
+        }
+
+        public Long userId() {
+            return userId;
+        }
+
+        public String nickname() {
+            return nickname;
+        }
+
+        public int correct() {
+            return correct;
+        }
+
+        public long answerMillis() {
+            return answerMillis;
+        }
+    }
+
+    private static final Comparator<Participant> RANKING = Comparator
+            .comparingInt(Participant::correct).reversed()
+            .thenComparingLong(Participant::answerMillis)
+            .thenComparing(Participant::nickname);
+
+    private final String code;
+    private final Long quizId;
+    private final Long hostUserId;
+    private final String title;
+    private final List<QuizQuestionResponse> questions;
+    private final int maxParticipants;
+    private final Map<Long, Participant> participants = new HashMap<>();
+
+    private Phase phase = Phase.LOBBY;
+    private int current = -1;
+    private long openedAtMillis;
+    private long deadlineMillis;
+    private int answeredCurrent;
+    private boolean finishing;
+    private volatile long lastActivityMillis;
+
+    public LiveSession(String code, Long quizId, Long hostUserId, String title, List<QuizQuestionResponse> questions,
+                       int maxParticipants, long nowMillis) {
+        this.code = code;
+        this.quizId = quizId;
+        this.hostUserId = hostUserId;
+        this.title = title;
+        this.questions = List.copyOf(questions);
+        this.maxParticipants = maxParticipants;
+        this.lastActivityMillis = nowMillis;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public Long quizId() {
+        return quizId;
+    }
+
+    public Long hostUserId() {
+        return hostUserId;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public long lastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    public synchronized Phase phase() {
+        return phase;
+    }
+
+    public synchronized int participantCount() {
+        return participants.size();
+    }
+
+    public synchronized boolean isParticipant(Long userId) {
+        return participants.containsKey(userId);
+    }
+
+    /** Rejoindre (ou revenir après une déconnexion : le score est conservé). */
+    public synchronized void join(Long userId, String nickname, long nowMillis) {
+        if (phase == Phase.FINISHED || finishing) throw new LiveSessionStateException("Session terminée");
+        if (!participants.containsKey(userId) && participants.size() >= maxParticipants) {
+            throw new LiveSessionStateException("Session complète");
+        }
+        participants.putIfAbsent(userId, new Participant(userId, nickname));
+        lastActivityMillis = nowMillis;
+    }
+
+    /** Ouvre la question suivante jusqu'à {@code nowMillis + durationMillis}. */
+    public synchronized Question openNext(long nowMillis, long durationMillis) {
+        if (phase == Phase.QUESTION) throw new LiveSessionStateException("Une question est déjà ouverte");
+        if (phase == Phase.FINISHED || finishing) throw new LiveSessionStateException("Session terminée");
+        if (current + 1 >= questions.size()) throw new LiveSessionStateException("Plus de question");
+        current++;
+        phase = Phase.QUESTION;
+        openedAtMillis = nowMillis;
+        deadlineMillis = nowMillis + durationMillis;
+        answeredCurrent = 0;
+        lastActivityMillis = nowMillis;
+        return currentQuestion();
+    }
+
+    /**
+     * Note la réponse d'un participant à la question ouverte.
+     *
+     * @return faux si la réponse est refusée (pas de question ouverte, mauvaise question, délai dépassé,
+     *         déjà répondu, participant inconnu)
+     */
+    public synchronized boolean answer(Long userId, int questionIndex, String choice, long nowMillis) {
+        Participant participant = participants.get(userId);
+        if (phase != Phase.QUESTION || questionIndex != current || nowMillis > deadlineMillis
+                || participant == null || participant.lastAnswered == current) {
+            return false;
+        }
+        participant.lastAnswered = current;
+        participant.answerMillis += nowMillis - openedAtMillis;
+        if (questions.get(current).correctAnswer().equalsIgnoreCase(choice)) {
+            participant.correct++;
+        }
+        answeredCurrent++;
+        lastActivityMillis = nowMillis;
+        return true;
+    }
+
+    /** Vrai quand tous les participants ont répondu : la question peut être close sans attendre le délai. */
+    public synchronized boolean everyoneAnswered() {
+        return phase == Phase.QUESTION && !participants.isEmpty() && answeredCurrent >= participants.size();
+    }
+
+    /** Clôt la question ouverte ; null si elle l'est déjà (délai et clôture anticipée en concurrence). */
+    public synchronized Reveal closeQuestion(int questionIndex, int standingsLimit) {
+        if (phase != Phase.QUESTION || questionIndex != current) return null;
+        phase = Phase.REVEAL;
+        QuizQuestionResponse question = questions.get(current);
+        return new Reveal(current, question.correctAnswer(), question.explanation(), answeredCurrent,
+                participants.size(), standings(standingsLimit));
+    }
+
+    /**
+     * Commence la fin de session : plus d'arrivée, de question ni de réponse (une question ouverte est close).
+     * Renvoie les participants à noter, null si la session est déjà terminée ou en cours de clôture. La session
+     * n'est terminée ({@link #finished}) qu'une fois les résultats enregistrés ; {@link #finishFailed} la rouvre,
+     * scores intacts, pour une nouvelle tentative.
+     */
+    public synchronized List<Participant> beginFinish() {
+        if (phase == Phase.FINISHED || finishing) return null;
+        finishing = true;
+        if (phase == Phase.QUESTION) phase = Phase.REVEAL;
+        return new ArrayList<>(participants.values());
+    }
+
+    public synchronized void finished() {
+        finishing = false;
+        phase = Phase.FINISHED;
+    }
+
+    public synchronized void finishFailed() {
+        finishing = false;
+    }
+
+    /** Nombre de questions posées (score final sur ce total). */
+    public synchronized int askedCount() {
+        return current + 1;
+    }
+
+    public synchronized Question currentQuestion() {
+        if (phase != Phase.QUESTION) return null;
+        QuizQuestionResponse q = questions.get(current);
+        return new Question(current, questions.size(), q.question(), q.optionA(), q.optionB(), q.optionC(), q.optionD(),
+                deadlineMillis);
+    }
+
+    public synchronized List<Standing> standings(int limit) {
+        List<Participant> ranked = new ArrayList<>(participants.values());
+        ranked.sort(RANKING);
+        List<Standing> standings = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            Participant p = ranked.get(i);
+            standings.add(new Standing(i + 1, p.nickname(), p.correct()));
+        }
+        return standings;
+    }
+}
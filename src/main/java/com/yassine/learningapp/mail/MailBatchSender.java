@@ -0,0 +1,83 @@
+package com.yassine.learningapp.mail;
+
+import com.yassine.learningapp.entity.MailOutbox;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envoie un lot de mails sur une seule connexion SMTP ({@link JavaMailSender#send(MimeMessage...)} :
+ * un connect / STARTTLS / AUTH pour tout le lot au lieu d'un par mail).
+ */
+@Slf4j
+@Component
+public class MailBatchSender {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public MailBatchSender(JavaMailSender mailSender,
+                           @Value("${app.mail.from}") String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    /**
+     * @return erreurs par id de ligne outbox (vide si tout est parti)
+     */
+    public Map<Long, String> send(List<MailOutbox> batch) {
+        Map<Long, String> failures = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+
+        for (MailOutbox mail : batch) {
+            try {
+                ids.put(toMimeMessage(mail), mail.getId());
+            } catch (MessagingException e) {
+                failures.put(mail.getId(), "Invalid message: " + e.getMessage());
+            }
+        }
+        if (ids.isEmpty()) return failures;
+
+        try {
+            mailSender.send(ids.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                // Échec avant tout envoi (connexion, auth) : tout le lot est à retenter
+                ids.values().forEach(id -> failures.put(id, e.getMessage()));
+            } else {
+                failed.forEach((message, error) -> {
+                    Long id = ids.get(message);
+                    if (id != null) failures.put(id, error.getMessage());
+                });
+            }
+        } catch (MailException e) {
+            ids.values().forEach(id -> failures.put(id, e.getMessage()));
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), false);
+        // Message-ID stable : un renvoi (reprise après crash entre envoi et acquittement) est dédoublonnable en aval
+        message.setHeader("Message-ID", "<outbox-" + mail.getId() + "@learningapp>");
+        return message;
+    }
+}
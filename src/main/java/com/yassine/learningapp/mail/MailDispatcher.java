@@ -0,0 +1,193 @@
+package com.yassine.learningapp.mail;
+
+import com.yassine.learningapp.entity.MailOutbox;
+import com.yassine.learningapp.health.SchedulerHeartbeats;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.ratelimit.RateLimiter;
+import com.yassine.learningapp.repository.MailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dépile l'outbox mail en arrière-plan.
+ *
+ * <p>Un lot = (1) réservation en base ({@code FOR UPDATE SKIP LOCKED}, statut SENDING + bail), commit ;
+ * (2) envoi SMTP hors transaction, sur une seule connexion ; (3) acquittement : SENT, ou nouvelle tentative
+ * avec backoff exponentiel, ou FAILED après {@code max-attempts}. Une instance qui meurt entre (1) et (3)
+ * laisse expirer le bail : le lot est repris (livraison au moins une fois, Message-ID stable). Le bail couvre
+ * le pire cas d'un lot entier (voir {@link #lease}) : un lot lent n'est jamais repris par une autre instance
+ * pendant son envoi.
+ *
+ * <p>La taille des lots est bornée par le quota du fournisseur ({@code max-per-minute}).
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    static final String JOB = "mail.outbox.dispatch";
+
+    private final MailOutboxRepository repository;
+    private final MailBatchSender sender;
+    private final TransactionTemplate tx;
+    private final SchedulerHeartbeats heartbeats;
+    private final HotPathMetrics metrics;
+    private final RateLimiter providerQuota;
+    private final AtomicLong pending = new AtomicLong();
+
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    public MailDispatcher(MailOutboxRepository repository,
+                          MailBatchSender sender,
+                          PlatformTransactionManager transactionManager,
+                          SchedulerHeartbeats heartbeats,
+                          HotPathMetrics metrics,
+                          @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                          @Value("${app.mail.outbox.max-batches-per-poll:10}") int maxBatchesPerPoll,
+                          @Value("${app.mail.outbox.max-per-minute:300}") int maxPerMinute,
+                          @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                          @Value("${app.mail.outbox.lease-seconds:120}") long leaseSeconds,
+                          @Value("${spring.mail.properties.mail.smtp.connectiontimeout:5000}") long connectTimeoutMs,
+                          @Value("${spring.mail.properties.mail.smtp.timeout:10000}") long readTimeoutMs,
+                          @Value("${spring.mail.properties.mail.smtp.writetimeout:10000}") long writeTimeoutMs,
+                          @Value("${app.mail.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+                          @Value("${app.mail.outbox.max-backoff-minutes:60}") long maxBackoffMinutes) {
+        this.repository = repository;
+        this.sender = sender;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.heartbeats = heartbeats;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease(Duration.ofSeconds(leaseSeconds), batchSize, Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(readTimeoutMs + writeTimeoutMs));
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofMinutes(maxBackoffMinutes);
+        this.providerQuota = RateLimiter.perMinute(Math.min(batchSize, maxPerMinute), maxPerMinute, 1);
+        metrics.gauge("app.mail.outbox.pending", pending, AtomicLong::get);
+    }
+
+    @PostConstruct
+    void registerJobs() {
+        heartbeats.expect(JOB, Duration.ofMinutes(5));
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                if (dispatchBatch() < batchSize) break;
+            }
+            pending.set(repository.countPending());
+            heartbeats.beat(JOB);
+        } catch (RuntimeException e) {
+            // Base indisponible : on réessaiera au prochain tick, le heartbeat signalera un blocage durable
+            log.warn("Mail outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    /** @return nombre de mails traités (envoyés ou replanifiés) */
+    int dispatchBatch() {
+        List<MailOutbox> claimed = tx.execute(status -> claim());
+        if (claimed == null || claimed.isEmpty()) return 0;
+
+        Map<Long, String> failures = sender.send(claimed);
+        tx.executeWithoutResult(status -> acknowledge(claimed, failures));
+        return claimed.size();
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeSent() {
+        int deleted = tx.execute(status -> repository.deleteSentBefore(LocalDateTime.now().minusDays(7)));
+        log.info("Mail outbox purge: deleted={}", deleted);
+    }
+
+    /** Les lignes au-delà du quota disponible restent PENDING (verrou relâché au commit). */
+    private List<MailOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> due = repository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        due = List.copyOf(due.subList(0, acquirePermits(due.size())));
+        for (MailOutbox mail : due) {
+            mail.setStatus(MailOutbox.Status.SENDING);
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setNextAttemptAt(now.plus(lease));
+        }
+        return due;
+    }
+
+    private void acknowledge(List<MailOutbox> claimed, Map<Long, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        for (MailOutbox mail : repository.findAllById(claimed.stream().map(MailOutbox::getId).toList())) {
+            String error = failures.get(mail.getId());
+            if (error == null) {
+                mail.setStatus(MailOutbox.Status.SENT);
+                mail.setSentAt(now);
+                mail.setLastError(null);
+                metrics.mailOutbox("sent").increment();
+            } else if (mail.getAttempts() >= maxAttempts) {
+                mail.setStatus(MailOutbox.Status.FAILED);
+                mail.setLastError(truncate(error));
+                metrics.mailOutbox("failed").increment();
+                log.error("Mail abandoned after {} attempts: id={}, error={}", mail.getAttempts(), mail.getId(), error);
+            } else {
+                mail.setStatus(MailOutbox.Status.PENDING);
+                mail.setNextAttemptAt(now.plus(jitter(backoff(mail.getAttempts(), baseBackoff, maxBackoff))));
+                mail.setLastError(truncate(error));
+                metrics.mailOutbox("retry").increment();
+            }
+        }
+    }
+
+    private int acquirePermits(int wanted) {
+        int permits = 0;
+        while (permits < wanted && providerQuota.tryAcquire("smtp") == 0) {
+            permits++;
+        }
+        return permits;
+    }
+
+    /**
+     * Bail d'un lot : au moins {@code configured}, et au moins le pire cas de l'envoi (connexion, puis pour
+     * chaque mail l'écriture et la réponse du relais à leur timeout).
+     */
+    static Duration lease(Duration configured, int batchSize, Duration connectTimeout, Duration perMessageTimeout) {
+        Duration worstCase = connectTimeout.plus(perMessageTimeout.multipliedBy(Math.max(1, batchSize)));
+        return worstCase.compareTo(configured) > 0 ? worstCase : configured;
+    }
+
+    /** base × 2^(tentative-1), plafonné. */
+    static Duration backoff(int attempts, Duration base, Duration max) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = base.multipliedBy(1L << exponent);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    /** ±20 % : évite que tous les mails en échec au même moment repartent ensemble. */
+    private static Duration jitter(Duration delay) {
+        double factor = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delay.toMillis() * factor));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
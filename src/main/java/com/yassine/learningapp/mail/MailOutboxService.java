@@ -0,0 +1,29 @@
+package com.yassine.learningapp.mail;
+
+import com.yassine.learningapp.repository.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mise en file d'un email. À appeler dans la transaction de l'action métier :
+ * le mail n'existe que si l'action est commitée, et l'appelant n'attend jamais le relais SMTP.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+    private final MailOutboxRepository repository;
+
+    /**
+     * @param dedupeKey clé d'idempotence (ex. {@code password-reset:<userId>:<fenêtre>}) : un second appel avec la
+     *                  même clé est ignoré, y compris en concurrence
+     * @return false si un mail avec cette clé existe déjà
+     */
+    @Transactional
+    public boolean enqueue(String dedupeKey, String recipient, String subject, String body) {
+        return repository.insertIfAbsent(dedupeKey, recipient, subject, body, LocalDateTime.now()) == 1;
+    }
+}
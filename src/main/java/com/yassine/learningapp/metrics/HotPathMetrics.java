@@ -0,0 +1,160 @@
+package com.yassine.learningapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Timers des chemins chauds (auth JWT, refresh tokens, rendu des erreurs JSON).
+ *
+ * <p>Les timers publient un histogramme Prometheus (buckets fixes agrégés côté serveur) plutôt que
+ * des percentiles calculés dans l'application : coût constant par enregistrement, agrégeable entre instances.
+ * Les instances sont mises en cache : pas de lookup dans le registre à chaque requête.
+ */
+@Component
+public class HotPathMetrics {
+
+    public static final String AUTH_FILTER = "app.auth.filter";
+    public static final String JWT_PARSE = "app.jwt.parse";
+    public static final String JWT_SIGN = "app.jwt.sign";
+    public static final String REFRESH_TOKEN = "app.refresh.token";
+    public static final String ERROR_RENDER = "app.error.render";
+    public static final String PASSWORD_HASH = "app.password.hash";
+    public static final String PASSWORD_HASH_REJECTED = "app.password.hash.rejected";
+    public static final String RATE_LIMITED = "app.ratelimit.rejected";
+    public static final String LOAD_SHED = "app.load.shed";
+    public static final String MAIL_OUTBOX = "app.mail.outbox";
+    public static final String ATTEMPT_SYNC = "app.sync.attempts";
+    public static final String RETRIEVAL = "app.retrieval";
+    public static final String DEDUP = "app.dedup";
+    public static final String LIVE = "app.live";
+    public static final String ADAPTIVE = "app.adaptive";
+    public static final String DASHBOARD = "app.dashboard";
+    public static final String DASHBOARD_UNAVAILABLE = "app.dashboard.unavailable";
+    public static final String SCHEDULER_LAG = "app.scheduler.lag";
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(50_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(5);
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Timer jwtParse;
+    private final Timer jwtSign;
+
+    public HotPathMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.jwtParse = timer(JWT_PARSE, "outcome", "any");
+        this.jwtSign = timer(JWT_SIGN, "outcome", "any");
+    }
+
+    public Timer jwtParse() {
+        return jwtParse;
+    }
+
+    public Timer jwtSign() {
+        return jwtSign;
+    }
+
+    /** op = issue | rotate | validate */
+    public Timer refreshToken(String op) {
+        return timer(REFRESH_TOKEN, "op", op);
+    }
+
+    /** outcome = authenticated | anonymous | expired | invalid */
+    public Timer authFilter(String outcome) {
+        return timer(AUTH_FILTER, "outcome", outcome);
+    }
+
+    public Timer errorRender(int status) {
+        return timer(ERROR_RENDER, "status", Integer.toString(status));
+    }
+
+    /** op = hash | verify | wait (temps passé dans la file avant exécution) */
+    public Timer passwordHash(String op) {
+        return timer(PASSWORD_HASH, "op", op);
+    }
+
+    /** reason = queue_full | timeout */
+    public Counter passwordHashRejected(String reason) {
+        return Counter.builder(PASSWORD_HASH_REJECTED).tag("reason", reason).register(registry);
+    }
+
+    /** scope = ip | username */
+    public Counter rateLimited(String scope) {
+        return Counter.builder(RATE_LIMITED).tag("scope", scope).register(registry);
+    }
+
+    public Counter loadShed() {
+        return Counter.builder(LOAD_SHED).register(registry);
+    }
+
+    /** outcome = sent | retry | failed */
+    public Counter mailOutbox(String outcome) {
+        return Counter.builder(MAIL_OUTBOX).tag("outcome", outcome).register(registry);
+    }
+
+    /** status = created | duplicate | rejected */
+    public Counter attemptSync(String status) {
+        return Counter.builder(ATTEMPT_SYNC).tag("status", status).register(registry);
+    }
+
+    /** op = embed | search (HNSW seul) | index (document complet) */
+    public Timer retrieval(String op) {
+        return timer(RETRIEVAL, "op", op);
+    }
+
+    /** kind = flash_card | quiz_question ; outcome = unique | suppressed | swept */
+    public Counter dedup(String kind, String outcome) {
+        return Counter.builder(DEDUP).tag("kind", kind).tag("outcome", outcome).register(registry);
+    }
+
+    /** event = connected | dropped (client lent, file pleine) | finished */
+    public Counter live(String event) {
+        return Counter.builder(LIVE).tag("event", event).register(registry);
+    }
+
+    /** op = assemble | submit | flush (écriture des statistiques et recalibration) */
+    public Timer adaptive(String op) {
+        return timer(ADAPTIVE, "op", op);
+    }
+
+    /** section = recent_documents | storage | ... | total (vue complète, hors cache) */
+    public Timer dashboard(String section) {
+        return timer(DASHBOARD, "section", section);
+    }
+
+    /** reason = timeout | error | saturated (pas de connexion disponible à temps) */
+    public Counter dashboardUnavailable(String section, String reason) {
+        return Counter.builder(DASHBOARD_UNAVAILABLE).tag("section", section).tag("reason", reason).register(registry);
+    }
+
+    /** Retard (s) d'un job planifié sur son intervalle attendu : à alerter, la readiness n'en dépend pas. */
+    public <T> void schedulerLag(String job, T target, ToDoubleFunction<T> seconds) {
+        Gauge.builder(SCHEDULER_LAG, target, seconds).tag("job", job).baseUnit("seconds").strongReference(true).register(registry);
+    }
+
+    public <T> void gauge(String name, T target, ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value).strongReference(true).register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return timers.computeIfAbsent(name + '|' + tagKey + '=' + tagValue, k -> Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry));
+    }
+}
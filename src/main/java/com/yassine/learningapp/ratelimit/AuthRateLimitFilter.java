@@ -0,0 +1,50 @@
+package com.yassine.learningapp.ratelimit;
+
+import com.yassine.learningapp.security.ClientIpResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Quota par IP sur {@code /api/auth/**}, avant Spring Security et avant toute lecture du corps :
+ * un flood est rejeté sans toucher au pool de hash ni à la base.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private final AuthRateLimits limits;
+
+    public AuthRateLimitFilter(AuthRateLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain
+    ) throws ServletException, IOException {
+
+        long retryAfter = limits.tryIp(ClientIpResolver.resolve(request));
+        if (retryAfter > 0) {
+            Rejections.write(response, HttpStatus.TOO_MANY_REQUESTS.value(), retryAfter, "RATE_LIMITED");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
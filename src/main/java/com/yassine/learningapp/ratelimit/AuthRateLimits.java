@@ -0,0 +1,64 @@
+package com.yassine.learningapp.ratelimit;
+
+import com.yassine.learningapp.exception.RateLimitedException;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotas des endpoints {@code /api/auth/**} : un bucket par IP (filtre) et un par username (login, reset).
+ * Le quota par username protège un compte ciblé depuis de nombreuses IP.
+ */
+@Slf4j
+@Component
+public class AuthRateLimits {
+
+    private final RateLimiter byIp;
+    private final RateLimiter byUsername;
+    private final HotPathMetrics metrics;
+
+    public AuthRateLimits(HotPathMetrics metrics,
+                          @Value("${app.rate-limit.auth.ip.burst:20}") int ipBurst,
+                          @Value("${app.rate-limit.auth.ip.per-minute:30}") int ipPerMinute,
+                          @Value("${app.rate-limit.auth.username.burst:5}") int usernameBurst,
+                          @Value("${app.rate-limit.auth.username.per-minute:10}") int usernamePerMinute,
+                          @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this.metrics = metrics;
+        this.byIp = RateLimiter.perMinute(ipBurst, ipPerMinute, maxKeys);
+        this.byUsername = RateLimiter.perMinute(usernameBurst, usernamePerMinute, maxKeys);
+        metrics.gauge("app.ratelimit.keys", this, l -> l.byIp.size() + l.byUsername.size());
+    }
+
+    /** @return 0 si autorisé, sinon le Retry-After en secondes */
+    public long tryIp(String ip) {
+        long waitNanos = byIp.tryAcquire(ip == null ? "unknown" : ip);
+        if (waitNanos == 0) return 0;
+        metrics.rateLimited("ip").increment();
+        return retryAfterSeconds(waitNanos);
+    }
+
+    public void checkUsername(String username) {
+        if (username == null || username.isBlank()) return;
+        long waitNanos = byUsername.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+        if (waitNanos == 0) return;
+        metrics.rateLimited("username").increment();
+        throw new RateLimitedException("Trop de tentatives pour ce compte, réessayez plus tard", retryAfterSeconds(waitNanos));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        int evicted = byIp.evictIdle() + byUsername.evictIdle();
+        if (evicted > 0) {
+            log.debug("Rate limit buckets evicted: {}", evicted);
+        }
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
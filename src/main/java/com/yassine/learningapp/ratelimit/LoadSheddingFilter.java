@@ -0,0 +1,77 @@
+package com.yassine.learningapp.ratelimit;
+
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Délestage global par concurrence : au-delà de {@code max-concurrent} requêtes API en cours, 503 immédiat.
+ *
+ * <p>La limite est dimensionnée sur le pool JDBC (par défaut 4 × maximum-pool-size) : on refuse du travail
+ * avant que les threads ne s'empilent en attente d'une connexion, plutôt que de laisser toutes les requêtes
+ * expirer ensemble. Les probes et l'actuator ne sont jamais délestés.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final HotPathMetrics metrics;
+    private final boolean enabled;
+    private final int maxConcurrent;
+
+    public LoadSheddingFilter(HotPathMetrics metrics,
+                              @Value("${app.load-shedding.enabled:true}") boolean enabled,
+                              @Value("${app.load-shedding.max-concurrent:0}") int maxConcurrent,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : poolSize * 4;
+        metrics.gauge("app.load.in_flight", inFlight, AtomicInteger::get);
+        log.info("Load shedding: enabled={}, maxConcurrent={}", enabled, this.maxConcurrent);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Le slot est tenu par la requête initiale jusqu'à la fin de son doFilter
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain
+    ) throws ServletException, IOException {
+
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            metrics.loadShed().increment();
+            Rejections.write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, "SERVICE_OVERLOADED");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.yassine.learningapp.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket par clé, sans verrou.
+ *
+ * <p>Chaque bucket tient dans un seul {@link AtomicLong} (algorithme GCRA) : le "temps d'arrivée théorique"
+ * (TAT) de la prochaine requête. Un jeton = {@code emissionInterval}, la rafale tolérée = {@code burst} jetons.
+ * Une acquisition = un CAS, aucune allocation une fois la clé connue.
+ *
+ * <p>Un bucket dont le TAT est passé est plein : il est équivalent à une clé absente et peut être supprimé
+ * sans perte d'information ({@link #evictIdle()}). Au-delà de {@code maxKeys} clés actives, une nouvelle clé
+ * est refusée sans être suivie : seule la clé en trop attend, les clés déjà suivies gardent leur quota.
+ */
+public final class RateLimiter {
+
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    /** Prochaine purge possible depuis le chemin d'acquisition (map pleine) : au plus une par intervalle. */
+    private final AtomicLong nextInlineEviction = new AtomicLong(UNSET);
+
+    public RateLimiter(int burst, Duration refillPerToken, int maxKeys, LongSupplier nanoClock) {
+        if (burst < 1) throw new IllegalArgumentException("burst must be >= 1");
+        this.emissionIntervalNanos = Math.max(1, refillPerToken.toNanos());
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /** {@code perMinute} jetons par minute, rafale de {@code burst}. */
+    public static RateLimiter perMinute(int burst, int perMinute, int maxKeys) {
+        return new RateLimiter(burst, Duration.ofMinutes(1).dividedBy(Math.max(1, perMinute)), maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Consomme un jeton pour {@code key}.
+     *
+     * @return 0 si autorisé, sinon le délai (ns) avant qu'un jeton soit disponible
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong tat = bucket(key, now);
+        if (tat == null) {
+            // Map pleine de clés actives : au plus tôt, une clé redevient inactive après un intervalle
+            return emissionIntervalNanos;
+        }
+        while (true) {
+            long current = tat.get();
+            long base = current == UNSET || current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos;
+            long allowAt = next - burstNanos;
+            if (allowAt - now > 0) {
+                return allowAt - now;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Supprime les buckets pleins (inactifs depuis au moins une rafale). Retourne le nombre supprimé. */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(tat -> {
+            long t = tat.get();
+            return t == UNSET || t - now <= 0;
+        });
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /** Bucket de la clé, créé si besoin ; null si la map est pleine de clés actives. */
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong tat = buckets.get(key);
+        if (tat != null) {
+            return tat;
+        }
+        if (buckets.size() >= maxKeys) {
+            long next = nextInlineEviction.get();
+            if ((next == UNSET || next - now <= 0) && nextInlineEviction.compareAndSet(next, now + emissionIntervalNanos)) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(UNSET));
+    }
+}
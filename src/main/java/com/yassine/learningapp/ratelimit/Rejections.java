@@ -0,0 +1,27 @@
+package com.yassine.learningapp.ratelimit;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Réponse de rejet écrite directement par les filtres (pas de sérialisation : chemin le plus court possible).
+ */
+final class Rejections {
+
+    private Rejections() {
+    }
+
+    static void write(HttpServletResponse response, int status, long retryAfterSeconds, String code) throws IOException {
+        byte[] body = ("{\"errorCode\":\"" + code + "\",\"retryAfterSeconds\":" + retryAfterSeconds + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
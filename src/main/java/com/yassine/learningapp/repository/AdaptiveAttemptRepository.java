@@ -0,0 +1,68 @@
+package com.yassine.learningapp.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** Questions servies par chaque tentative de quiz adaptatif ({@code adaptive_attempts}, {@code adaptive_attempt_questions}). */
+@Repository
+public class AdaptiveAttemptRepository {
+
+    private static final String LOCK_SQL = """
+            SELECT id FROM adaptive_attempts
+            WHERE id = ? AND user_id = ? AND document_id = ? AND created_at >= ?
+            FOR UPDATE
+            """;
+
+    private static final String CLAIM_SQL = """
+            UPDATE adaptive_attempt_questions SET answered_at = ?
+            WHERE attempt_id = ? AND question_id = ? AND answered_at IS NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdaptiveAttemptRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void create(String attemptId, Long userId, Long documentId, Collection<Long> questionIds, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO adaptive_attempts (id, user_id, document_id, created_at) VALUES (?, ?, ?, ?)",
+                attemptId, userId, documentId, Timestamp.valueOf(now));
+        jdbcTemplate.batchUpdate("INSERT INTO adaptive_attempt_questions (attempt_id, question_id) VALUES (?, ?)",
+                questionIds.stream().map(id -> new Object[]{attemptId, id}).toList());
+    }
+
+    /**
+     * Verrouille la tentative si elle appartient à l'utilisateur pour ce document et a été créée après
+     * {@code notBefore} : deux corrections concurrentes de la même tentative passent l'une après l'autre.
+     */
+    public boolean lock(String attemptId, Long userId, Long documentId, LocalDateTime notBefore) {
+        return !jdbcTemplate.queryForList(LOCK_SQL, String.class, attemptId, userId, documentId,
+                Timestamp.valueOf(notBefore)).isEmpty();
+    }
+
+    /**
+     * Marque les questions comme corrigées ; renvoie celles qui ne l'ont pas été (non servies par la tentative
+     * ou déjà corrigées). À appeler dans la transaction de {@link #lock}.
+     */
+    public List<Long> claim(String attemptId, List<Long> questionIds, LocalDateTime now) {
+        Timestamp answeredAt = Timestamp.valueOf(now);
+        int[] updated = jdbcTemplate.batchUpdate(CLAIM_SQL,
+                questionIds.stream().map(id -> new Object[]{answeredAt, attemptId, id}).toList());
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) rejected.add(questionIds.get(i));
+        }
+        return rejected;
+    }
+
+    public int deleteCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM adaptive_attempts WHERE created_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
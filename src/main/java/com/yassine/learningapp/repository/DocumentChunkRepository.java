@@ -0,0 +1,48 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.dto.RetrievedChunk;
+import com.yassine.learningapp.entity.DocumentChunk;
+import com.yassine.learningapp.retrieval.ChunkStamp;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface DocumentChunkRepository extends JpaRepository<DocumentChunk, Long> {
+
+    @Query("SELECT c.id FROM DocumentChunk c WHERE c.document.id = :documentId ORDER BY c.chunkIndex")
+    List<Long> findIdsByDocumentId(Long documentId);
+
+    @Modifying
+    @Query("DELETE FROM DocumentChunk c WHERE c.document.id = :documentId")
+    int deleteByDocumentId(Long documentId);
+
+    // Vérifiée à chaque recherche : parcours d'index seul sur (user_id, id)
+    @Query("SELECT new com.yassine.learningapp.retrieval.ChunkStamp(COUNT(c), MAX(c.id)) " +
+            "FROM DocumentChunk c WHERE c.user.id = :userId")
+    ChunkStamp stampByUserId(Long userId);
+
+    @Query("SELECT c.id FROM DocumentChunk c WHERE c.user.id = :userId ORDER BY c.id")
+    List<Long> findIdsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.RetrievedChunk(c.id, c.document.id, c.chunkIndex, c.content) " +
+            "FROM DocumentChunk c WHERE c.id IN :ids AND c.user.id = :userId")
+    List<RetrievedChunk> findRetrievedByIds(Collection<Long> ids, Long userId);
+
+    // Reconstruction de l'index : curseur JDBC (à consommer dans une transaction, puis fermer le Stream)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.RetrievedChunk(c.id, c.document.id, c.chunkIndex, c.content) " +
+            "FROM DocumentChunk c WHERE c.user.id = :userId ORDER BY c.id")
+    Stream<RetrievedChunk> streamByUserId(Long userId);
+}
@@ -1,23 +1,75 @@
 package com.yassine.learningapp.repository;
 
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.DocumentResponse;
+import com.yassine.learningapp.dto.export.DocumentExportRow;
 import com.yassine.learningapp.entity.Document;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     Page<Document> findByUserId(Long userId, Pageable pageable);
 
     Optional<Document> findById(Long id);
 
-    Page<Document> findByUserIdTitleContainingIgnoreCase(Long id, String title, Pageable pageable);
+    Page<Document> findByUserIdAndTitleContainingIgnoreCase(Long id, String title, Pageable pageable);
 
     @Query("SELECT SUM(d.fileSize) FROM Document d WHERE d.user.id = :userId")
     Double countTotalSize(Long userId);
 
     List<Document> findTop5ByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Export : curseur JDBC (à consommer dans une transaction, puis fermer le Stream)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.DocumentExportRow(" +
+            "d.id, d.title, d.path, d.fileSize, d.createdAt, d.updatedAt) " +
+            "FROM Document d WHERE d.user.id = :userId ORDER BY d.id")
+    Stream<DocumentExportRow> streamExportRowsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(d), MAX(COALESCE(d.updatedAt, d.createdAt))) " +
+            "FROM Document d WHERE d.user.id = :userId")
+    ContentVersion versionByUserId(Long userId);
+
+    // Bundle hors-ligne : version d'un document, limitée à son propriétaire (count = 0 => absent ou pas à lui)
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(d), MAX(COALESCE(d.updatedAt, d.createdAt))) " +
+            "FROM Document d WHERE d.id = :documentId AND d.user.id = :userId")
+    ContentVersion versionByIdAndUserId(Long documentId, Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.export.DocumentExportRow(" +
+            "d.id, d.title, d.path, d.fileSize, d.createdAt, d.updatedAt) " +
+            "FROM Document d WHERE d.id = :documentId")
+    Optional<DocumentExportRow> findExportRowById(Long documentId);
+
+    // Lecture API : projection directe, sans charger les entités (ni leur user EAGER)
+    @Query(value = "SELECT new com.yassine.learningapp.dto.DocumentResponse(d.id, d.title, d.fileSize, d.createdAt, d.updatedAt) " +
+            "FROM Document d WHERE d.user.id = :userId",
+            countQuery = "SELECT COUNT(d) FROM Document d WHERE d.user.id = :userId")
+    Page<DocumentResponse> findResponsesByUserId(Long userId, Pageable pageable);
+
+    // Tableau de bord : derniers documents, sans requête de comptage (Pageable ne sert qu'à la limite)
+    @Query("SELECT new com.yassine.learningapp.dto.DocumentResponse(d.id, d.title, d.fileSize, d.createdAt, d.updatedAt) " +
+            "FROM Document d WHERE d.user.id = :userId ORDER BY d.createdAt DESC, d.id DESC")
+    List<DocumentResponse> findRecentResponsesByUserId(Long userId, Pageable pageable);
+
+    // Indexation : chemin du fichier, limité au propriétaire
+    @Query("SELECT d.path FROM Document d WHERE d.id = :documentId AND d.user.id = :userId")
+    Optional<String> findPathByIdAndUserId(Long documentId, Long userId);
+
+    // Indexation : verrou de la ligne du document le temps de remplacer ses morceaux (ré-indexations sérialisées)
+    @Query(value = "SELECT id FROM documents WHERE id = :documentId AND user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockIdByIdAndUserId(Long documentId, Long userId);
 }
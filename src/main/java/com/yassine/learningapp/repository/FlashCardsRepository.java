@@ -1,13 +1,79 @@
 package com.yassine.learningapp.repository;
 
 
+import com.yassine.learningapp.dedup.DedupRow;
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.FlashCardResponse;
+import com.yassine.learningapp.dto.export.FlashCardExportRow;
 import com.yassine.learningapp.entity.FlashCards;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface FlashCardsRepository extends JpaRepository<FlashCards, Long> {
     List<FlashCards> findByDocumentId(Long documentId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.FlashCardExportRow(" +
+            "f.id, f.document.id, f.title, f.content, f.isFavorite, f.createdAt, f.updatedAt) " +
+            "FROM FlashCards f WHERE f.document.user.id = :userId ORDER BY f.id")
+    Stream<FlashCardExportRow> streamExportRowsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(f), MAX(COALESCE(f.updatedAt, f.createdAt))) " +
+            "FROM FlashCards f WHERE f.document.user.id = :userId")
+    ContentVersion versionByUserId(Long userId);
+
+    // Bundle hors-ligne d'un document
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.FlashCardExportRow(" +
+            "f.id, f.document.id, f.title, f.content, f.isFavorite, f.createdAt, f.updatedAt) " +
+            "FROM FlashCards f WHERE f.document.id = :documentId ORDER BY f.id")
+    Stream<FlashCardExportRow> streamExportRowsByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(f), MAX(COALESCE(f.updatedAt, f.createdAt))) " +
+            "FROM FlashCards f WHERE f.document.id = :documentId")
+    ContentVersion versionByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.FlashCardResponse(" +
+            "f.id, f.document.id, f.title, f.content, f.isFavorite, f.createdAt, f.updatedAt) " +
+            "FROM FlashCards f WHERE f.document.id = :documentId ORDER BY f.id")
+    List<FlashCardResponse> findResponsesByDocumentId(Long documentId);
+
+    // Déduplication : curseurs (à consommer dans une transaction, puis fermer le Stream)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dedup.DedupRow(" +
+            "f.id, f.document.user.id, CONCAT(COALESCE(f.title, ''), ' ', COALESCE(f.content, '')), f.isFavorite) " +
+            "FROM FlashCards f ORDER BY f.document.user.id, f.id")
+    Stream<DedupRow> streamDedupRows();
+
+    @Modifying
+    @Query("UPDATE FlashCards f SET f.isFavorite = true WHERE f.id IN :ids")
+    int markFavorite(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM FlashCards f WHERE f.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    // Tableau de bord
+    long countByDocumentUserId(Long userId);
 }
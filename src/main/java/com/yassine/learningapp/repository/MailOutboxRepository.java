@@ -0,0 +1,53 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.entity.MailOutbox;
+import com.yassine.learningapp.sharding.HomeShard;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@HomeShard
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * Insère le mail sauf si sa clé d'idempotence existe déjà ({@code ON CONFLICT DO NOTHING} : deux demandes
+     * concurrentes ne peuvent pas insérer deux fois, ni échouer sur la contrainte unique).
+     *
+     * @return 1 si inséré, 0 si la clé existait
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO mail_outbox (dedupe_key, recipient, subject, body, status, attempts, next_attempt_at, created_at)
+            VALUES (:dedupeKey, :recipient, :subject, :body, 'PENDING', 0, :now, :now)
+            ON CONFLICT (dedupe_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(String dedupeKey, String recipient, String subject, String body, LocalDateTime now);
+
+    /**
+     * Lignes à envoyer, verrouillées en {@code FOR UPDATE SKIP LOCKED} : plusieurs instances peuvent
+     * dépiler en parallèle sans se bloquer ni envoyer deux fois le même mail.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM MailOutbox m " +
+            "WHERE m.status IN (com.yassine.learningapp.entity.MailOutbox.Status.PENDING, " +
+            "                   com.yassine.learningapp.entity.MailOutbox.Status.SENDING) " +
+            "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<MailOutbox> findDueForUpdate(LocalDateTime now, Pageable page);
+
+    @Query("SELECT COUNT(m) FROM MailOutbox m WHERE m.status IN (" +
+            "com.yassine.learningapp.entity.MailOutbox.Status.PENDING, com.yassine.learningapp.entity.MailOutbox.Status.SENDING)")
+    long countPending();
+
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status = com.yassine.learningapp.entity.MailOutbox.Status.SENT AND m.sentAt < :threshold")
+    int deleteSentBefore(LocalDateTime threshold);
+}
@@ -0,0 +1,29 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.entity.PasswordResetToken;
+import com.yassine.learningapp.sharding.HomeShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@HomeShard
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    /** Consommation atomique : un token ne sert qu'une fois, même sur deux requêtes concurrentes. */
+    @Modifying
+    @Query("UPDATE PasswordResetToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.expiresAt > :now")
+    int markUsed(Long id, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PasswordResetToken t SET t.usedAt = :now WHERE t.userId = :userId AND t.usedAt IS NULL")
+    int invalidateAllForUser(Long userId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.expiresAt < :threshold")
+    int deleteExpired(LocalDateTime threshold);
+}
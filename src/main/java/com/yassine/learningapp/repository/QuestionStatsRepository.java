@@ -0,0 +1,85 @@
+package com.yassine.learningapp.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistiques de réponse par question ({@code question_stats}) et difficulté calibrée. Les compteurs sont
+ * incrémentés en base ({@code ON CONFLICT DO UPDATE}) : plusieurs instances peuvent écrire leurs deltas.
+ * À appeler dans une transaction.
+ */
+@Repository
+public class QuestionStatsRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO question_stats (question_id, attempts, correct, response_millis, ability_sum, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (question_id) DO UPDATE SET
+                attempts = question_stats.attempts + EXCLUDED.attempts,
+                correct = question_stats.correct + EXCLUDED.correct,
+                response_millis = question_stats.response_millis + EXCLUDED.response_millis,
+                ability_sum = question_stats.ability_sum + EXCLUDED.ability_sum,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String DIFFICULTY_SQL = "UPDATE question_stats SET difficulty = ? WHERE question_id = ?";
+
+    public record Delta(long questionId, long attempts, long correct, long responseMillis, double abilitySum) {}
+
+    public record Totals(long questionId, long attempts, long correct, double abilitySum) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionStatsRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void addDeltas(List<Delta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Delta d : deltas) {
+            args.add(new Object[]{d.questionId(), d.attempts(), d.correct(), d.responseMillis(), d.abilitySum(), now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    public List<Totals> findTotals(Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) return List.of();
+        String placeholders = String.join(",", Collections.nCopies(questionIds.size(), "?"));
+        return jdbcTemplate.query(
+                "SELECT question_id, attempts, correct, ability_sum FROM question_stats WHERE question_id IN (" + placeholders + ")",
+                (rs, i) -> new Totals(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4)),
+                questionIds.toArray());
+    }
+
+    public void updateDifficulties(Map<Long, Double> difficulties) {
+        List<Object[]> args = new ArrayList<>(difficulties.size());
+        difficulties.forEach((questionId, difficulty) -> args.add(new Object[]{difficulty, questionId}));
+        jdbcTemplate.batchUpdate(DIFFICULTY_SQL, args);
+    }
+
+    /** Difficultés calibrées des questions d'un document (les questions sans statistique sont absentes). */
+    public Map<Long, Double> findDifficultiesByDocumentId(Long documentId) {
+        Map<Long, Double> difficulties = new HashMap<>();
+        jdbcTemplate.query("""
+                        SELECT s.question_id, s.difficulty
+                        FROM question_stats s
+                        JOIN quiz_questions qq ON qq.id = s.question_id
+                        JOIN quizzes q ON q.id = qq.quiz_id
+                        WHERE q.document_id = ?
+                        """,
+                rs -> { difficulties.put(rs.getLong(1), rs.getDouble(2)); },
+                documentId);
+        return difficulties;
+    }
+}
@@ -1,11 +1,87 @@
 package com.yassine.learningapp.repository;
 
+import com.yassine.learningapp.dedup.DedupRow;
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.dto.export.QuizQuestionExportRow;
 import com.yassine.learningapp.entity.QuizQuestion;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface QuizQuestionRepository extends JpaRepository<QuizQuestion,Long> {
     List<QuizQuestion> findByQuizIdOrderByQuestionOrderAsc(Long quizId);
     long countByQuizId(Long quizId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.QuizQuestionExportRow(" +
+            "qq.id, qq.quiz.id, qq.questionOrder, qq.question, qq.optionA, qq.optionB, qq.optionC, qq.optionD, " +
+            "qq.correctAnswer, qq.explanation) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.document.user.id = :userId ORDER BY qq.quiz.id, qq.questionOrder")
+    Stream<QuizQuestionExportRow> streamExportRowsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(qq), MAX(COALESCE(qq.updatedAt, qq.createdAt))) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.document.user.id = :userId")
+    ContentVersion versionByUserId(Long userId);
+
+    // Bundle hors-ligne d'un document
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.QuizQuestionExportRow(" +
+            "qq.id, qq.quiz.id, qq.questionOrder, qq.question, qq.optionA, qq.optionB, qq.optionC, qq.optionD, " +
+            "qq.correctAnswer, qq.explanation) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.document.id = :documentId ORDER BY qq.quiz.id, qq.questionOrder")
+    Stream<QuizQuestionExportRow> streamExportRowsByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(qq), MAX(COALESCE(qq.updatedAt, qq.createdAt))) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.document.id = :documentId")
+    ContentVersion versionByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.QuizQuestionResponse(" +
+            "qq.id, qq.questionOrder, qq.question, qq.optionA, qq.optionB, qq.optionC, qq.optionD, " +
+            "qq.correctAnswer, qq.explanation) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.id = :quizId ORDER BY qq.questionOrder")
+    List<QuizQuestionResponse> findResponsesByQuizId(Long quizId);
+
+    // Quiz adaptatif : toutes les questions des quiz d'un document
+    @Query("SELECT new com.yassine.learningapp.dto.QuizQuestionResponse(" +
+            "qq.id, qq.questionOrder, qq.question, qq.optionA, qq.optionB, qq.optionC, qq.optionD, " +
+            "qq.correctAnswer, qq.explanation) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.document.id = :documentId")
+    List<QuizQuestionResponse> findResponsesByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(qq), MAX(COALESCE(qq.updatedAt, qq.createdAt))) " +
+            "FROM QuizQuestion qq WHERE qq.quiz.id = :quizId")
+    ContentVersion versionByQuizId(Long quizId);
+
+    // Déduplication : détection par utilisateur (doublons entre quiz d'une régénération), quiz et taille du quiz
+    // pour ne jamais le vider ; les quiz les plus anciens d'abord, leurs questions sont conservées
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    // Énoncé + options : deux questions au même énoncé mais aux réponses différentes ne sont pas des doublons
+    @Query("SELECT new com.yassine.learningapp.dedup.DedupRow(qq.id, d.user.id, q.id, " +
+            "(SELECT COUNT(other) FROM QuizQuestion other WHERE other.quiz = q), " +
+            "CONCAT(COALESCE(qq.question, ''), ' ', qq.optionA, ' ', qq.optionB, ' ', qq.optionC, ' ', qq.optionD), FALSE) " +
+            "FROM QuizQuestion qq JOIN qq.quiz q JOIN q.document d ORDER BY d.user.id, q.id, qq.id")
+    Stream<DedupRow> streamDedupRows();
+
+    @Modifying
+    @Query("DELETE FROM QuizQuestion qq WHERE qq.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
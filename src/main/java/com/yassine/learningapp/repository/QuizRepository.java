@@ -1,14 +1,27 @@
 package com.yassine.learningapp.repository;
 
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.QuizResponse;
+import com.yassine.learningapp.dto.export.QuizExportRow;
 import com.yassine.learningapp.entity.Quiz;
 import com.yassine.learningapp.entity.QuizQuestion;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz,Long> {
@@ -19,4 +32,59 @@ public interface QuizRepository extends JpaRepository<Quiz,Long> {
     Page<Quiz> findByDocumentIdAndUserId(Long documentId, Long userId, Pageable pageable);
 
     long countByDocumentId(Long documentId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.QuizExportRow(" +
+            "q.id, q.document.id, q.title, q.questionCount, q.createdAt, q.updatedAt) " +
+            "FROM Quiz q WHERE q.document.user.id = :userId ORDER BY q.id")
+    Stream<QuizExportRow> streamExportRowsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(q), MAX(COALESCE(q.updatedAt, q.createdAt))) " +
+            "FROM Quiz q WHERE q.document.user.id = :userId")
+    ContentVersion versionByUserId(Long userId);
+
+    // Bundle hors-ligne d'un document
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.QuizExportRow(" +
+            "q.id, q.document.id, q.title, q.questionCount, q.createdAt, q.updatedAt) " +
+            "FROM Quiz q WHERE q.document.id = :documentId ORDER BY q.id")
+    Stream<QuizExportRow> streamExportRowsByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(q), MAX(COALESCE(q.updatedAt, q.createdAt))) " +
+            "FROM Quiz q WHERE q.document.id = :documentId")
+    ContentVersion versionByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.QuizResponse(" +
+            "q.id, q.document.id, q.title, q.questionCount, q.createdAt, q.updatedAt) " +
+            "FROM Quiz q WHERE q.document.id = :documentId ORDER BY q.id")
+    List<QuizResponse> findResponsesByDocumentId(Long documentId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.QuizResponse(" +
+            "q.id, q.document.id, q.title, q.questionCount, q.createdAt, q.updatedAt) " +
+            "FROM Quiz q WHERE q.id = :quizId")
+    Optional<QuizResponse> findResponseById(Long quizId);
+
+    // count = 0 => quiz absent ou document d'un autre utilisateur
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(q), MAX(COALESCE(q.updatedAt, q.createdAt))) " +
+            "FROM Quiz q WHERE q.id = :quizId AND q.document.user.id = :userId")
+    ContentVersion versionByIdAndUserId(Long quizId, Long userId);
+
+    // Tableau de bord
+    long countByDocumentUserId(Long userId);
+
+    // Synchro des tentatives : quiz du lot qui appartiennent bien à l'utilisateur (une requête pour tout le lot)
+    @Query("SELECT q.id FROM Quiz q WHERE q.id IN :quizIds AND q.document.user.id = :userId")
+    List<Long> findIdsOwnedBy(Collection<Long> quizIds, Long userId);
+
+    // Balayage des doublons : recompte des questions restantes, updatedAt avancé pour invalider les ETags
+    @Modifying
+    @Query("UPDATE Quiz q SET q.questionCount = CAST((SELECT COUNT(qq) FROM QuizQuestion qq WHERE qq.quiz = q) AS String), " +
+            "q.updatedAt = :now WHERE q.id IN :quizIds")
+    int refreshQuestionCounts(Collection<Long> quizIds, LocalDateTime now);
 }
@@ -0,0 +1,51 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.entity.QuizResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insertion JDBC en batch de résultats de quiz, idempotente sur (user_id, client_attempt_id) :
+ * une ligne déjà présente est ignorée ({@code ON CONFLICT DO NOTHING}, compte 0 pour cette ligne).
+ * À appeler dans une transaction.
+ */
+@Repository
+public class QuizResultBatchInserter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO quiz_results (user_id, quiz_id, score, question_count, percentage_score,
+                                      time_taken_seconds, client_attempt_id, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, client_attempt_id) DO NOTHING
+            """;
+
+    public record Row(Long userId, Long quizId, int score, int questionCount, Double timeTakenSeconds,
+                      String clientAttemptId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuizResultBatchInserter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** @return nombre de lignes insérées pour chaque ligne, dans l'ordre (0 = déjà présente) */
+    public int[] insert(List<Row> rows) {
+        if (rows.isEmpty()) return new int[0];
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            args.add(new Object[]{
+                    row.userId(), row.quizId(), row.score(), row.questionCount(),
+                    QuizResult.percentageScore(row.score(), row.questionCount()),
+                    row.timeTakenSeconds(), row.clientAttemptId(), now
+            });
+        }
+        return jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+}
@@ -1,10 +1,53 @@
 package com.yassine.learningapp.repository;
 
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.QuizResultSummary;
+import com.yassine.learningapp.dto.export.QuizResultExportRow;
 import com.yassine.learningapp.entity.QuizResult;
+import com.yassine.learningapp.sync.SyncedAttempt;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface QuizResultRepository extends JpaRepository<QuizResult,Long> {
     Page<QuizResult> findByUserId(Long quizId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.yassine.learningapp.dto.export.QuizResultExportRow(" +
+            "r.id, r.quiz.id, r.score, r.questionCount, r.percentageScore, r.timeTakenSeconds, r.createdAt) " +
+            "FROM QuizResult r WHERE r.user.id = :userId ORDER BY r.id")
+    Stream<QuizResultExportRow> streamExportRowsByUserId(Long userId);
+
+    @Query("SELECT new com.yassine.learningapp.dto.ContentVersion(COUNT(r), MAX(COALESCE(r.updatedAt, r.createdAt))) " +
+            "FROM QuizResult r WHERE r.user.id = :userId")
+    ContentVersion versionByUserId(Long userId);
+
+    // Tableau de bord : dernières tentatives avec le titre du quiz, sans requête de comptage
+    @Query("SELECT new com.yassine.learningapp.dto.QuizResultSummary(" +
+            "r.id, r.quiz.id, r.quiz.title, r.score, r.questionCount, r.percentageScore, r.createdAt) " +
+            "FROM QuizResult r WHERE r.user.id = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<QuizResultSummary> findRecentSummariesByUserId(Long userId, Pageable pageable);
+
+    // Administration : dernières tentatives du shard courant, fusionnées entre shards par l'appelant
+    @Query("SELECT new com.yassine.learningapp.dto.QuizResultSummary(" +
+            "r.id, r.quiz.id, r.quiz.title, r.score, r.questionCount, r.percentageScore, r.createdAt) " +
+            "FROM QuizResult r ORDER BY r.createdAt DESC, r.id DESC")
+    List<QuizResultSummary> findRecentSummaries(Pageable pageable);
+
+    @Query("SELECT new com.yassine.learningapp.sync.SyncedAttempt(r.clientAttemptId, r.id) " +
+            "FROM QuizResult r WHERE r.user.id = :userId AND r.clientAttemptId IN :clientAttemptIds")
+    List<SyncedAttempt> findSyncedAttempts(Long userId, Collection<String> clientAttemptIds);
 }
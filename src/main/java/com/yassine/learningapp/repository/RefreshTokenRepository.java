@@ -2,6 +2,7 @@ package com.yassine.learningapp.repository;
 
 import com.yassine.learningapp.entity.RefreshToken;
 import com.yassine.learningapp.dto.TokenType;
+import com.yassine.learningapp.sharding.HomeShard;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+@HomeShard
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     Optional<RefreshToken> findByTokenHash(String tokenHash);
@@ -0,0 +1,55 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.adaptive.Rasch;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Niveau estimé de chaque utilisateur sur chaque document ({@code user_abilities}). */
+@Repository
+public class UserAbilityRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_abilities (user_id, document_id, ability, information, answers, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, document_id) DO UPDATE SET
+                ability = EXCLUDED.ability,
+                information = EXCLUDED.information,
+                answers = EXCLUDED.answers,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserAbilityRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** Niveau connu, ou l'a priori {@link Rasch.Ability#PRIOR} pour un premier quiz. */
+    public Rasch.Ability find(Long userId, Long documentId) {
+        return query("SELECT ability, information, answers FROM user_abilities WHERE user_id = ? AND document_id = ?",
+                userId, documentId);
+    }
+
+    /** Idem, ligne verrouillée jusqu'à la fin de la transaction (deux corrections concurrentes ne s'écrasent pas). */
+    public Rasch.Ability findForUpdate(Long userId, Long documentId) {
+        return query("SELECT ability, information, answers FROM user_abilities WHERE user_id = ? AND document_id = ? FOR UPDATE",
+                userId, documentId);
+    }
+
+    public void save(Long userId, Long documentId, Rasch.Ability ability) {
+        jdbcTemplate.update(UPSERT_SQL, userId, documentId, ability.theta(), ability.information(), ability.answers(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private Rasch.Ability query(String sql, Long userId, Long documentId) {
+        List<Rasch.Ability> found = jdbcTemplate.query(sql,
+                (rs, i) -> new Rasch.Ability(rs.getDouble(1), rs.getDouble(2), rs.getInt(3)),
+                userId, documentId);
+        return found.isEmpty() ? Rasch.Ability.PRIOR : found.getFirst();
+    }
+}
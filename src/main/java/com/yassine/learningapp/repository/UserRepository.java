@@ -1,13 +1,30 @@
 package com.yassine.learningapp.repository;
 
 import com.yassine.learningapp.entity.User;
+import com.yassine.learningapp.sharding.HomeShard;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
+@HomeShard
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Appelé à chaque requête authentifiée (JWT) : toujours lu en base (index unique), jamais mis en cache
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    // Compare-and-set : un login concurrent qui a déjà rehashé ne sera pas écrasé
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :userId AND u.password = :oldHash")
+    int updatePasswordHash(Long userId, String oldHash, String newHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :userId")
+    int resetPasswordHash(Long userId, String newHash);
 }
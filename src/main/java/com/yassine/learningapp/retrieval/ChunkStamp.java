@@ -0,0 +1,7 @@
+package com.yassine.learningapp.retrieval;
+
+/**
+ * Version des morceaux d'un utilisateur : nombre + plus grand id. Les ids étant croissants et un morceau jamais
+ * modifié (une réindexation remplace les lignes), tout ajout ou suppression change l'un des deux.
+ */
+public record ChunkStamp(Long count, Long maxId) {}
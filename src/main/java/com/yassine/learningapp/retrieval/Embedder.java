@@ -0,0 +1,23 @@
+package com.yassine.learningapp.retrieval;
+
+import java.util.List;
+
+/**
+ * Transforme un texte en vecteur dense normalisé (norme 1), comparable par produit scalaire.
+ * Implémentation par défaut : {@link HashingEmbedder} (locale, déterministe) ; un modèle distant se branche
+ * en déclarant un autre bean {@code Embedder}.
+ */
+public interface Embedder {
+
+    /** Identifiant du modèle : un index construit avec un autre embedder est reconstruit. */
+    String name();
+
+    int dimension();
+
+    float[] embed(String text);
+
+    /** Surcharger pour les embedders distants qui acceptent des lots (un appel réseau par lot). */
+    default List<float[]> embedAll(List<String> texts) {
+        return texts.stream().map(this::embed).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.yassine.learningapp.retrieval;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Embedder local sans modèle : "feature hashing" des mots et des paires de mots consécutifs.
+ *
+ * <p>Chaque terme est haché vers une dimension, avec un signe lui aussi haché (les collisions se compensent
+ * en moyenne), pondéré par 1 + log(tf), puis le vecteur est normalisé. Pas de sémantique (synonymes), mais
+ * déterministe, rapide et suffisant pour retrouver les passages qui partagent le vocabulaire de la question.
+ */
+public final class HashingEmbedder implements Embedder {
+
+    private final int dimension;
+
+    public HashingEmbedder(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public String name() {
+        return "hashing-" + dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] counts = new float[dimension];
+        String previous = null;
+        for (String token : tokenize(text)) {
+            if (token.length() < 2) continue;
+            add(counts, token);
+            if (previous != null) add(counts, previous + ' ' + token);
+            previous = token;
+        }
+        float norm = 0f;
+        for (int i = 0; i < dimension; i++) {
+            if (counts[i] != 0f) {
+                float sign = Math.signum(counts[i]);
+                counts[i] = sign * (1f + (float) Math.log(Math.abs(counts[i])));
+            }
+            norm += counts[i] * counts[i];
+        }
+        if (norm > 0f) {
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) counts[i] *= inv;
+        }
+        return counts;
+    }
+
+    private void add(float[] counts, String term) {
+        int h = murmurMix(term.hashCode());
+        counts[Math.floorMod(h, dimension)] += (h & 0x40000000) == 0 ? 1f : -1f;
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) return new String[0];
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        return folded.split("[^\\p{L}\\p{N}]+");
+    }
+
+    /** Finaliseur de MurmurHash3 : disperse les bits de String.hashCode (trop régulier pour un modulo). */
+    private static int murmurMix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,459 @@
+package com.yassine.learningapp.retrieval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index HNSW (Hierarchical Navigable Small World) en mémoire, similarité cosinus sur vecteurs normalisés.
+ *
+ * <p>Graphe multi-niveaux : les niveaux hauts, clairsemés, amènent vite la recherche dans la bonne zone,
+ * le niveau 0 (tous les nœuds, {@code 2·M} voisins) affine. Recherche en O(log n) distances environ,
+ * au lieu de n pour un parcours exhaustif.
+ *
+ * <p>Une suppression marque le nœud (il reste un point de passage du graphe mais n'est plus renvoyé) ;
+ * {@link #deletedRatio()} indique quand reconstruire. Lectures concurrentes, écritures exclusives.
+ *
+ * <p>Persistance : {@link #save(Path)} / {@link #load(Path, int, long)} via un fichier mappé en mémoire
+ * (écriture {@code .part} puis renommage atomique).
+ */
+public final class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 7;
+
+    public record Hit(long id, float score) {}
+
+    private final int dimension;
+    private final int m;
+    private final int maxLinks0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final SplittableRandom random;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors = new float[0];
+    private long[] ids = new long[0];
+    private int[] levels = new int[0];
+    private boolean[] deleted = new boolean[0];
+    /** links[node][level] : [nombre, voisin1, voisin2, ...] */
+    private int[][][] links = new int[0][][];
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction, long seed) {
+        if (dimension < 1 || m < 2) throw new IllegalArgumentException("dimension >= 1 and m >= 2 required");
+        this.dimension = dimension;
+        this.m = m;
+        this.maxLinks0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelFactor = 1.0 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    // -------------------------
+    // Public API
+    // -------------------------
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Nombre d'éléments vivants. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids des éléments vivants (copie). */
+    public Set<Long> ids() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(nodeById.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : (double) deletedCount / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ajoute (ou remplace) le vecteur {@code id}. Le vecteur doit être normalisé (norme 1). */
+    public void add(long id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + ", got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeById.get(id);
+            if (existing != null) markDeleted(existing);
+            insert(id, vector, randomLevel());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeById.get(id);
+            if (node == null) return false;
+            markDeleted(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Les {@code k} plus proches voisins de {@code query} (normalisé), du plus au moins similaire.
+     *
+     * @param ef taille de la liste de candidats (>= k) : plus grand = meilleur rappel, plus lent
+     */
+    public List<Hit> search(float[] query, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) return List.of();
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedyClosest(query, ep, level);
+            }
+            // Les nœuds supprimés occupent des places : on élargit d'autant la liste de candidats
+            int width = Math.max(ef, k) + Math.min(deletedCount, Math.max(ef, k));
+            PriorityQueue<Candidate> found = searchLayer(query, ep, width, 0);
+
+            List<Candidate> sorted = new ArrayList<>(found);
+            sorted.sort(Comparator.comparingDouble(Candidate::distance));
+            List<Hit> hits = new ArrayList<>(k);
+            for (Candidate c : sorted) {
+                if (deleted[c.node()]) continue;
+                hits.add(new Hit(ids[c.node()], 1f - c.distance()));
+                if (hits.size() == k) break;
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Nouvel index sans les éléments supprimés (graphe reconstruit à partir des vecteurs vivants). */
+    public HnswIndex compact(long seed) {
+        lock.readLock().lock();
+        try {
+            HnswIndex fresh = new HnswIndex(dimension, m, efConstruction, seed);
+            fresh.ensureCapacity(size - deletedCount);
+            for (int i = 0; i < size; i++) {
+                if (!deleted[i]) {
+                    fresh.insert(ids[i], Arrays.copyOfRange(vectors, i * dimension, (i + 1) * dimension), fresh.randomLevel());
+                }
+            }
+            return fresh;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -------------------------
+    // Persistance (fichier mappé)
+    // -------------------------
+
+    /** Écrit l'index (éléments supprimés exclus des résultats mais conservés dans le graphe). */
+    public void save(Path file) throws IOException {
+        lock.readLock().lock();
+        try {
+            long bytes = HEADER_BYTES + (long) size * (8 + 4 + 1) + (long) size * dimension * 4 + linkBytes();
+            Path part = file.resolveSibling(file.getFileName() + ".part");
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(dimension).putInt(m)
+                        .putInt(size).putInt(entryPoint).putInt(maxLevel);
+                for (int i = 0; i < size; i++) {
+                    out.putLong(ids[i]).putInt(levels[i]).put((byte) (deleted[i] ? 1 : 0));
+                }
+                out.asFloatBuffer().put(vectors, 0, size * dimension);
+                out.position(out.position() + size * dimension * 4);
+                for (int i = 0; i < size; i++) {
+                    for (int level = 0; level <= levels[i]; level++) {
+                        int[] l = links[i][level];
+                        out.putInt(l[0]);
+                        for (int j = 1; j <= l[0]; j++) out.putInt(l[j]);
+                    }
+                }
+                out.force();
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static HnswIndex load(Path file, int efConstruction, long seed) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not an HNSW index file: " + file);
+            }
+            HnswIndex index = new HnswIndex(in.getInt(), in.getInt(), efConstruction, seed);
+            int count = in.getInt();
+            index.ensureCapacity(count);
+            index.size = count;
+            index.entryPoint = in.getInt();
+            index.maxLevel = in.getInt();
+            for (int i = 0; i < count; i++) {
+                index.ids[i] = in.getLong();
+                index.levels[i] = in.getInt();
+                index.deleted[i] = in.get() == 1;
+                if (index.deleted[i]) index.deletedCount++;
+                else index.nodeById.put(index.ids[i], i);
+            }
+            in.asFloatBuffer().get(index.vectors, 0, count * index.dimension);
+            in.position(in.position() + count * index.dimension * 4);
+            for (int i = 0; i < count; i++) {
+                index.links[i] = new int[index.levels[i] + 1][];
+                for (int level = 0; level <= index.levels[i]; level++) {
+                    int[] l = new int[index.maxLinks(level) + 1];
+                    l[0] = in.getInt();
+                    for (int j = 1; j <= l[0]; j++) l[j] = in.getInt();
+                    index.links[i][level] = l;
+                }
+            }
+            return index;
+        }
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private record Candidate(int node, float distance) {}
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelFactor);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? maxLinks0 : m;
+    }
+
+    private void insert(long id, float[] vector, int level) {
+        int node = size;
+        ensureCapacity(size + 1);
+        System.arraycopy(vector, 0, vectors, node * dimension, dimension);
+        ids[node] = id;
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) links[node][l] = new int[maxLinks(l) + 1];
+        size++;
+        nodeById.put(id, node);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLayer(vector, ep, efConstruction, l);
+            List<Candidate> selected = selectNeighbors(candidates, m);
+            for (Candidate c : selected) {
+                addLink(node, c.node(), l);
+                addLink(c.node(), node, l);
+            }
+            ep = closest(candidates);
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /** Ajoute un lien ; si la liste déborde, la réduit avec l'heuristique de sélection. */
+    private void addLink(int from, int to, int level) {
+        int[] l = links[from][level];
+        int max = maxLinks(level);
+        if (l[0] < max) {
+            l[++l[0]] = to;
+            return;
+        }
+        PriorityQueue<Candidate> all = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+        for (int j = 1; j <= l[0]; j++) all.add(new Candidate(l[j], distanceBetween(from, l[j])));
+        all.add(new Candidate(to, distanceBetween(from, to)));
+        List<Candidate> kept = selectNeighbors(all, max);
+        l[0] = kept.size();
+        for (int j = 0; j < kept.size(); j++) l[j + 1] = kept.get(j).node();
+    }
+
+    /**
+     * Heuristique HNSW : garde un candidat s'il est plus proche de la base que de tous les voisins déjà
+     * gardés (évite M voisins tous dans la même direction), puis complète avec les plus proches.
+     */
+    private List<Candidate> selectNeighbors(PriorityQueue<Candidate> candidates, int max) {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(Comparator.comparingDouble(Candidate::distance));
+        List<Candidate> kept = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate c : sorted) {
+            if (kept.size() >= max) break;
+            boolean diverse = true;
+            for (Candidate k : kept) {
+                if (distanceBetween(c.node(), k.node()) < c.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) kept.add(c);
+            else skipped.add(c);
+        }
+        for (int i = 0; i < skipped.size() && kept.size() < max; i++) kept.add(skipped.get(i));
+        return kept;
+    }
+
+    private int greedyClosest(float[] query, int ep, int level) {
+        int current = ep;
+        float best = distance(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] l = links[current][level];
+            for (int j = 1; j <= l[0]; j++) {
+                float d = distance(query, l[j]);
+                if (d < best) {
+                    best = d;
+                    current = l[j];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** @return les {@code ef} meilleurs trouvés (tas max : le pire en tête) */
+    private PriorityQueue<Candidate> searchLayer(float[] query, int ep, int ef, int level) {
+        boolean[] visited = new boolean[size];
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> found = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate start = new Candidate(ep, distance(query, ep));
+        visited[ep] = true;
+        toVisit.add(start);
+        found.add(start);
+
+        while (!toVisit.isEmpty()) {
+            Candidate current = toVisit.poll();
+            if (current.distance() > found.peek().distance() && found.size() >= ef) break;
+            int[] l = links[current.node()][level];
+            for (int j = 1; j <= l[0]; j++) {
+                int next = l[j];
+                if (visited[next]) continue;
+                visited[next] = true;
+                float d = distance(query, next);
+                if (found.size() < ef || d < found.peek().distance()) {
+                    Candidate c = new Candidate(next, d);
+                    toVisit.add(c);
+                    found.add(c);
+                    if (found.size() > ef) found.poll();
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int closest(PriorityQueue<Candidate> candidates) {
+        Candidate best = null;
+        for (Candidate c : candidates) {
+            if (best == null || c.distance() < best.distance()) best = c;
+        }
+        return best.node();
+    }
+
+    private void markDeleted(int node) {
+        if (!deleted[node]) {
+            deleted[node] = true;
+            deletedCount++;
+            nodeById.remove(ids[node]);
+        }
+    }
+
+    /** Distance cosinus (vecteurs normalisés) : 1 - produit scalaire. */
+    private float distance(float[] query, int node) {
+        int offset = node * dimension;
+        float dot = 0f;
+        for (int i = 0; i < dimension; i++) dot += query[i] * vectors[offset + i];
+        return 1f - dot;
+    }
+
+    private float distanceBetween(int a, int b) {
+        int offsetA = a * dimension;
+        int offsetB = b * dimension;
+        float dot = 0f;
+        for (int i = 0; i < dimension; i++) dot += vectors[offsetA + i] * vectors[offsetB + i];
+        return 1f - dot;
+    }
+
+    private long linkBytes() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            for (int level = 0; level <= levels[i]; level++) bytes += 4L * (1 + links[i][level][0]);
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int wanted) {
+        if (wanted <= ids.length) return;
+        int capacity = Math.max(wanted, Math.max(16, ids.length + (ids.length >> 1)));
+        vectors = Arrays.copyOf(vectors, capacity * dimension);
+        ids = Arrays.copyOf(ids, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        deleted = Arrays.copyOf(deleted, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+}
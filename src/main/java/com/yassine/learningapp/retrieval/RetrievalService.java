@@ -0,0 +1,195 @@
+package com.yassine.learningapp.retrieval;
+
+import com.yassine.learningapp.dto.RetrievedChunk;
+import com.yassine.learningapp.exception.DocumentNotFoundException;
+import com.yassine.learningapp.extraction.TextExtractionService;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.DocumentChunkRepository;
+import com.yassine.learningapp.repository.DocumentRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Découpage, embedding et recherche des morceaux de documents.
+ *
+ * <p>L'indexation (extraction, découpage, embeddings) se fait hors transaction ; seule l'écriture des
+ * morceaux est transactionnelle, et l'index HNSW n'est mis à jour qu'après commit. La recherche n'interroge
+ * la base que pour la version des morceaux (index seul) puis le texte des {@code k} morceaux retenus : le
+ * classement est entièrement en mémoire.
+ */
+@Slf4j
+@Service
+public class RetrievalService {
+
+    /** Sur-échantillonnage quand la recherche est restreinte à un document (filtre appliqué après HNSW). */
+    private static final int DOCUMENT_FILTER_OVERFETCH = 8;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO document_chunks (document_id, user_id, chunk_index, start_offset, end_offset, content, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentChunkRepository chunkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserVectorIndexes indexes;
+    private final Embedder embedder;
+    private final TextExtractionService textExtraction;
+    private final HotPathMetrics metrics;
+    private final TransactionTemplate tx;
+    private final TextChunker chunker;
+    private final int efSearch;
+    private final int maxK;
+
+    public RetrievalService(DocumentRepository documentRepository,
+                            DocumentChunkRepository chunkRepository,
+                            DataSource dataSource,
+                            UserVectorIndexes indexes,
+                            Embedder embedder,
+                            TextExtractionService textExtraction,
+                            HotPathMetrics metrics,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.retrieval.chunk.max-chars:1200}") int chunkMaxChars,
+                            @Value("${app.retrieval.chunk.overlap-chars:200}") int chunkOverlapChars,
+                            @Value("${app.retrieval.hnsw.ef-search:64}") int efSearch,
+                            @Value("${app.retrieval.max-k:20}") int maxK) {
+        this.documentRepository = documentRepository;
+        this.chunkRepository = chunkRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.indexes = indexes;
+        this.embedder = embedder;
+        this.textExtraction = textExtraction;
+        this.metrics = metrics;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunker = new TextChunker(chunkMaxChars, chunkOverlapChars);
+        this.efSearch = efSearch;
+        this.maxK = maxK;
+    }
+
+    /** (Ré)indexe un document : ses anciens morceaux sont remplacés. Renvoie le nombre de morceaux. */
+    public int index(Long documentId, Long userId) {
+        Timer.Sample sample = metrics.start();
+        String path = documentRepository.findPathByIdAndUserId(documentId, userId)
+                .orElseThrow(() -> new DocumentNotFoundException(documentId));
+
+        // Texte lu en flux depuis le cache d'extraction : seuls les morceaux sont en mémoire
+        List<TextChunker.Chunk> chunks = new ArrayList<>();
+        try (Reader reader = textExtraction.open(Paths.get(path)).reader()) {
+            chunker.split(reader, chunks::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read text of documentId=" + documentId, e);
+        }
+        List<float[]> vectors = embedder.embedAll(chunks.stream().map(TextChunker.Chunk::text).toList());
+
+        Map<Long, float[]> added = new LinkedHashMap<>();
+        List<Long> removed = tx.execute(status -> {
+            // Ré-indexations concurrentes du même document : la seconde attend le commit de la première
+            documentRepository.lockIdByIdAndUserId(documentId, userId)
+                    .orElseThrow(() -> new DocumentNotFoundException(documentId));
+            List<Long> previous = chunkRepository.findIdsByDocumentId(documentId);
+            chunkRepository.deleteByDocumentId(documentId);
+            List<Long> ids = insert(documentId, userId, chunks);
+            for (int i = 0; i < ids.size(); i++) {
+                added.put(ids.get(i), vectors.get(i));
+            }
+            return previous;
+        });
+
+        indexes.update(userId, removed, added);
+        sample.stop(metrics.retrieval("index"));
+        log.info("Document indexed: documentId={}, chunks={}, replaced={}", documentId, chunks.size(), removed.size());
+        return chunks.size();
+    }
+
+    /**
+     * Les {@code k} morceaux les plus proches de {@code query} parmi les documents de l'utilisateur,
+     * ou d'un seul document si {@code documentId} est renseigné.
+     */
+    public List<RetrievedChunk> search(Long userId, String query, int k, Long documentId) {
+        if (query == null || query.isBlank()) return List.of();
+        int limit = Math.max(1, Math.min(k, maxK));
+
+        Timer.Sample embedSample = metrics.start();
+        float[] vector = embedder.embed(query);
+        embedSample.stop(metrics.retrieval("embed"));
+
+        int fetch = documentId == null ? limit : limit * DOCUMENT_FILTER_OVERFETCH;
+        Timer.Sample searchSample = metrics.start();
+        List<HnswIndex.Hit> hits = indexes.forUser(userId).search(vector, fetch, Math.max(efSearch, fetch));
+        searchSample.stop(metrics.retrieval("search"));
+        if (hits.isEmpty()) return List.of();
+
+        Map<Long, Float> scores = new HashMap<>();
+        for (HnswIndex.Hit hit : hits) scores.put(hit.id(), hit.score());
+
+        // Le filtre userId protège aussi d'un index en retard sur la base (morceau supprimé entre-temps)
+        return chunkRepository.findRetrievedByIds(scores.keySet(), userId).stream()
+                .filter(chunk -> documentId == null || documentId.equals(chunk.documentId()))
+                .map(chunk -> chunk.withScore(scores.get(chunk.id())))
+                .sorted(Comparator.comparingDouble(RetrievedChunk::score).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /**
+     * INSERT JDBC en batch : avec des ids IDENTITY, Hibernate enverrait un INSERT par morceau. Renvoie les ids
+     * générés ({@code RETURNING id}), dans l'ordre des morceaux.
+     */
+    private List<Long> insert(Long documentId, Long userId, List<TextChunker.Chunk> chunks) {
+        if (chunks.isEmpty()) return List.of();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TextChunker.Chunk chunk = chunks.get(i);
+                        ps.setLong(1, documentId);
+                        ps.setLong(2, userId);
+                        ps.setInt(3, chunk.index());
+                        ps.setInt(4, chunk.start());
+                        ps.setInt(5, chunk.end());
+                        ps.setString(6, chunk.text());
+                        ps.setTimestamp(7, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunks.size();
+                    }
+                }, keys);
+        List<Long> ids = keys.getKeyList().stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        if (ids.size() != chunks.size()) {
+            throw new IllegalStateException("Expected " + chunks.size() + " chunk ids, got " + ids.size());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,104 @@
+package com.yassine.learningapp.retrieval;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Découpe un texte en morceaux de taille bornée qui se chevauchent.
+ *
+ * <p>Le chevauchement garde une phrase coupée en fin de morceau entière dans le suivant. Les coupures se font
+ * de préférence en fin de paragraphe, puis de phrase, puis d'espace, dans le dernier quart du morceau.
+ */
+public final class TextChunker {
+
+    public record Chunk(int index, int start, int end, String text) {}
+
+    private final int maxChars;
+    private final int overlapChars;
+
+    public TextChunker(int maxChars, int overlapChars) {
+        if (maxChars < 16 || overlapChars < 0 || overlapChars >= maxChars / 2) {
+            throw new IllegalArgumentException("Require maxChars >= 16 and 0 <= overlap < maxChars / 2");
+        }
+        this.maxChars = maxChars;
+        this.overlapChars = overlapChars;
+    }
+
+    public List<Chunk> split(String text) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (text == null) return chunks;
+        try {
+            split(new StringReader(text), chunks::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // impossible avec un StringReader
+        }
+        return chunks;
+    }
+
+    /**
+     * Découpe en flux : seule une fenêtre d'environ {@code maxChars} caractères est gardée en mémoire.
+     * Les offsets des morceaux restent relatifs au début du texte complet.
+     */
+    public void split(Reader reader, Consumer<Chunk> sink) throws IOException {
+        StringBuilder window = new StringBuilder(maxChars * 2);
+        char[] block = new char[8 * 1024];
+        int base = 0;   // position, dans le texte complet, de window[0]
+        int start = 0;  // début du morceau courant (texte complet)
+        int index = 0;
+        boolean eof = false;
+        while (true) {
+            // maxChars + 1 caractères après start : le dernier sert à reconnaître une fin de phrase
+            while (!eof && base + window.length() <= start + maxChars) {
+                int n = reader.read(block);
+                if (n < 0) eof = true;
+                else window.append(block, 0, n);
+            }
+            int length = base + window.length();
+            while (start < length && Character.isWhitespace(window.charAt(start - base))) start++;
+            if (start == length) {
+                if (eof) return;
+                window.setLength(0);
+                base = start;
+                continue;
+            }
+            if (!eof && length <= start + maxChars) continue; // fenêtre à compléter après les blancs sautés
+
+            int end = Math.min(start + maxChars, length);
+            boolean last = end == length;
+            if (!last) end = base + breakPoint(window, start - base, end - base);
+            String chunk = window.substring(start - base, end - base).strip();
+            if (!chunk.isEmpty()) sink.accept(new Chunk(index++, start, end, chunk));
+            if (last) return;
+
+            int next = Math.max(end - overlapChars, start + 1);
+            // Ne pas reprendre au milieu d'un mot
+            while (next < end && !Character.isWhitespace(window.charAt(next - 1 - base))) next++;
+            window.delete(0, next - base);
+            base = next;
+            start = next;
+        }
+    }
+
+    private static int breakPoint(CharSequence text, int start, int end) {
+        int floor = start + (end - start) * 3 / 4;
+        // "\n\n" entièrement dans le morceau : le morceau ne dépasse jamais maxChars
+        for (int i = end - 2; i >= floor; i--) {
+            if (text.charAt(i) == '\n' && text.charAt(i + 1) == '\n') return i + 2;
+        }
+        for (int i = end - 1; i >= floor; i--) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && i + 1 < text.length() && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 1;
+            }
+        }
+        for (int i = end - 1; i >= floor; i--) {
+            if (Character.isWhitespace(text.charAt(i))) return i + 1;
+        }
+        return end;
+    }
+}
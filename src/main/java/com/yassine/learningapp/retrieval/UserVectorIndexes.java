@@ -0,0 +1,261 @@
+package com.yassine.learningapp.retrieval;
+
+import com.yassine.learningapp.dto.RetrievedChunk;
+import com.yassine.learningapp.files.AtomicFiles;
+import com.yassine.learningapp.repository.DocumentChunkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Index HNSW par utilisateur : chargés à la demande depuis {@code app.retrieval.dir}, écrits périodiquement
+ * quand ils ont changé, déchargés après inactivité.
+ *
+ * <p>L'index n'est qu'un cache de {@code document_chunks}. Chaque recherche compare le {@link ChunkStamp} en base
+ * (nombre + plus grand id, une requête d'index seul) à celui de l'index : s'ils diffèrent (autre instance, arrêt
+ * brutal avant écriture du fichier), l'index est resynchronisé sur la liste des ids en base, en n'embeddant que
+ * les morceaux manquants. Fichier absent, d'un autre embedder ou trop en retard : reconstruction complète.
+ */
+@Slf4j
+@Component
+public class UserVectorIndexes {
+
+    private static final double COMPACT_DELETED_RATIO = 0.3;
+    /** Au-delà, la resynchronisation relit tous les morceaux par curseur plutôt que par liste d'ids. */
+    private static final int SYNC_MAX_MISSING = 500;
+
+    private final DocumentChunkRepository chunkRepository;
+    private final Embedder embedder;
+    private final TransactionTemplate readOnlyTx;
+    private final Path dir;
+    private final int m;
+    private final int efConstruction;
+    private final long idleNanos;
+
+    private final Map<Long, Loaded> loaded = new ConcurrentHashMap<>();
+
+    /** Verrou de l'entrée : chargement, mise à jour, compaction et déchargement sont exclusifs. */
+    private static final class Loaded {
+        volatile HnswIndex index;
+        /** Version des morceaux contenus dans {@link #index}. */
+        volatile ChunkStamp stamp;
+        volatile boolean dirty;
+        volatile boolean unloaded;
+        volatile long lastAccess = System.nanoTime();
+    }
+
+    public UserVectorIndexes(DocumentChunkRepository chunkRepository,
+                             Embedder embedder,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.retrieval.dir:}") String dir,
+                             @Value("${app.retrieval.hnsw.m:16}") int m,
+                             @Value("${app.retrieval.hnsw.ef-construction:200}") int efConstruction,
+                             @Value("${app.retrieval.idle-unload-minutes:30}") long idleUnloadMinutes) {
+        this.chunkRepository = chunkRepository;
+        this.embedder = embedder;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dir = AtomicFiles.directory(dir, "app.retrieval.dir (APP_RETRIEVAL_DIR)");
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.idleNanos = Duration.ofMinutes(idleUnloadMinutes).toNanos();
+    }
+
+    /** Index à jour de l'utilisateur (resynchronisé si la base a changé depuis son dernier état connu). */
+    public HnswIndex forUser(Long userId) {
+        ChunkStamp current = readOnlyTx.execute(status -> chunkRepository.stampByUserId(userId));
+        while (true) {
+            Loaded entry = entry(userId, current);
+            synchronized (entry) {
+                if (entry.unloaded) continue;
+                if (!current.equals(entry.stamp)) sync(userId, entry);
+                return entry.index;
+            }
+        }
+    }
+
+    /** Remplace les vecteurs {@code removedIds} par {@code added} dans l'index de l'utilisateur. */
+    public void update(Long userId, List<Long> removedIds, Map<Long, float[]> added) {
+        while (true) {
+            Loaded entry = entry(userId, null);
+            synchronized (entry) {
+                if (entry.unloaded) continue;
+                HnswIndex index = entry.index;
+                removedIds.forEach(index::remove);
+                // Déjà présents si une recherche a resynchronisé l'index entre le commit et cet appel
+                added.forEach((id, vector) -> {
+                    if (!index.contains(id)) index.add(id, vector);
+                });
+                entry.stamp = stampOf(index);
+                entry.dirty = true;
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.retrieval.flush-interval-ms:30000}")
+    public void flush() {
+        long now = System.nanoTime();
+        loaded.forEach((userId, entry) -> {
+            synchronized (entry) {
+                if (entry.index == null || entry.unloaded) return;
+                if (entry.dirty) {
+                    if (entry.index.deletedRatio() > COMPACT_DELETED_RATIO) {
+                        // Mêmes éléments vivants : le stamp reste valable
+                        entry.index = entry.index.compact(userId);
+                    }
+                    save(userId, entry);
+                }
+                if (now - entry.lastAccess > idleNanos && !entry.dirty) {
+                    entry.unloaded = true;
+                    loaded.remove(userId, entry);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushAll() {
+        loaded.forEach((userId, entry) -> {
+            synchronized (entry) {
+                if (entry.dirty) save(userId, entry);
+            }
+        });
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /**
+     * Entrée chargée (sous son verrou : un seul chargement, sans bloquer la map pendant la reconstruction).
+     * {@code current} : stamp en base déjà lu par l'appelant, sinon relu au chargement.
+     */
+    private Loaded entry(Long userId, ChunkStamp current) {
+        Loaded entry = loaded.computeIfAbsent(userId, id -> new Loaded());
+        synchronized (entry) {
+            if (entry.index == null && !entry.unloaded) {
+                load(userId, entry, current != null ? current
+                        : readOnlyTx.execute(status -> chunkRepository.stampByUserId(userId)));
+            }
+            entry.lastAccess = System.nanoTime();
+        }
+        return entry;
+    }
+
+    private Path fileFor(Long userId) {
+        return dir.resolve("user-" + userId + "-" + embedder.name() + ".hnsw");
+    }
+
+    private void save(Long userId, Loaded entry) {
+        entry.dirty = false;
+        try {
+            entry.index.save(fileFor(userId));
+        } catch (IOException e) {
+            entry.dirty = true;
+            log.warn("Could not save vector index of userId={}", userId, e);
+        }
+    }
+
+    private void load(Long userId, Loaded entry, ChunkStamp current) {
+        Path file = fileFor(userId);
+        if (Files.isRegularFile(file)) {
+            try {
+                HnswIndex index = HnswIndex.load(file, efConstruction, userId);
+                if (index.dimension() == embedder.dimension()) {
+                    entry.index = index;
+                    entry.stamp = stampOf(index);
+                    if (!current.equals(entry.stamp)) {
+                        log.info("Vector index of userId={} is stale (index={}, chunks={}), syncing", userId, entry.stamp, current);
+                        sync(userId, entry);
+                    }
+                    return;
+                }
+                log.info("Vector index of userId={} has dimension {}, rebuilding", userId, index.dimension());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unreadable vector index {}, rebuilding", file, e);
+            }
+        }
+        entry.index = rebuild(userId);
+        entry.stamp = stampOf(entry.index);
+        try {
+            entry.index.save(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save vector index of userId=" + userId, e);
+        }
+    }
+
+    /** Aligne l'index sur les ids en base : retire les morceaux disparus, n'embedde que les nouveaux. */
+    private void sync(Long userId, Loaded entry) {
+        List<Long> ids = readOnlyTx.execute(status -> chunkRepository.findIdsByUserId(userId));
+        Set<Long> stale = entry.index.ids();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (!stale.remove(id)) missing.add(id);
+        }
+        if (missing.size() > SYNC_MAX_MISSING) {
+            entry.index = rebuild(userId);
+        } else {
+            stale.forEach(entry.index::remove);
+            if (!missing.isEmpty()) {
+                List<RetrievedChunk> chunks = readOnlyTx.execute(status -> chunkRepository.findRetrievedByIds(missing, userId));
+                List<RetrievedChunk> batch = new ArrayList<>(64);
+                for (RetrievedChunk chunk : chunks) {
+                    batch.add(chunk);
+                    if (batch.size() == 64) addBatch(entry.index, batch);
+                }
+                addBatch(entry.index, batch);
+            }
+        }
+        entry.stamp = stampOf(entry.index);
+        if (!missing.isEmpty() || !stale.isEmpty()) entry.dirty = true;
+        log.debug("Vector index synced: userId={}, added={}, removed={}", userId, missing.size(), stale.size());
+    }
+
+    private static ChunkStamp stampOf(HnswIndex index) {
+        Set<Long> ids = index.ids();
+        return new ChunkStamp((long) ids.size(), ids.isEmpty() ? null : Collections.max(ids));
+    }
+
+    private HnswIndex rebuild(Long userId) {
+        HnswIndex index = new HnswIndex(embedder.dimension(), m, efConstruction, userId);
+        List<RetrievedChunk> batch = new ArrayList<>(64);
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<RetrievedChunk> chunks = chunkRepository.streamByUserId(userId)) {
+                chunks.forEach(chunk -> {
+                    batch.add(chunk);
+                    if (batch.size() == 64) addBatch(index, batch);
+                });
+            }
+        });
+        addBatch(index, batch);
+        log.info("Vector index rebuilt: userId={}, chunks={}", userId, index.size());
+        return index;
+    }
+
+    private void addBatch(HnswIndex index, List<RetrievedChunk> batch) {
+        if (batch.isEmpty()) return;
+        List<float[]> vectors = embedder.embedAll(batch.stream().map(RetrievedChunk::content).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            index.add(batch.get(i).id(), vectors.get(i));
+        }
+        batch.clear();
+    }
+}
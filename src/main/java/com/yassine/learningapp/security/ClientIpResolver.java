@@ -0,0 +1,20 @@
+package com.yassine.learningapp.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * IP du client : l'adresse distante de la requête.
+ *
+ * <p>{@code X-Forwarded-For} n'est pas lu ici : Tomcat ne l'applique ({@code server.forward-headers-strategy=native},
+ * RemoteIpValve) que si la connexion vient d'un proxy de confiance ({@code server.tomcat.remoteip.internal-proxies}).
+ * Un client direct ne peut donc pas choisir sa "propre" IP (ni sa clé de rate limiting).
+ */
+public final class ClientIpResolver {
+
+    private ClientIpResolver() {
+    }
+
+    public static String resolve(HttpServletRequest request) {
+        return request == null ? null : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,20 @@
+package com.yassine.learningapp.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Utilisateur authentifié du thread courant, pour les composants qui n'ont pas de paramètre
+ * {@code @AuthenticationPrincipal} (routage des datasources, listeners de transaction).
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    /** Id de l'utilisateur courant, ou null hors requête authentifiée (login, jobs planifiés). */
+    public static Long id() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof CustomUserDetails user ? user.getUserId() : null;
+    }
+}
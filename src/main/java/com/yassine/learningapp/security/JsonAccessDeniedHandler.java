@@ -1,6 +1,7 @@
 package com.yassine.learningapp.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -18,9 +20,11 @@ import java.util.Map;
 public class JsonAccessDeniedHandler implements AccessDeniedHandler {
 
     private final ObjectMapper objectMapper;
+    private final HotPathMetrics metrics;
 
-    public JsonAccessDeniedHandler(ObjectMapper objectMapper) {
+    public JsonAccessDeniedHandler(ObjectMapper objectMapper, HotPathMetrics metrics) {
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
     }
 
     // ════════════════════════════════════════════════════════
@@ -62,9 +66,11 @@ public class JsonAccessDeniedHandler implements AccessDeniedHandler {
                 errorInfo.details()    // ← Détails supplémentaires
         );
 
+        Timer.Sample sample = metrics.start();
         response.setStatus(HttpServletResponse.SC_FORBIDDEN);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         objectMapper.writeValue(response.getOutputStream(), body);
+        sample.stop(metrics.errorRender(HttpServletResponse.SC_FORBIDDEN));
     }
 
     // ════════════════════════════════════════════════════════
@@ -1,6 +1,7 @@
 package com.yassine.learningapp.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
@@ -12,6 +13,7 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -23,9 +25,11 @@ public class JsonAuthenticationEntryPoint implements AuthenticationEntryPoint {
     private static final String ATTR_MESSAGE = "auth_error_message";
 
     private final ObjectMapper objectMapper;
+    private final HotPathMetrics metrics;
 
-    public JsonAuthenticationEntryPoint(ObjectMapper objectMapper) {
+    public JsonAuthenticationEntryPoint(ObjectMapper objectMapper, HotPathMetrics metrics) {
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
     }
 
     public record ApiError(
@@ -72,9 +76,11 @@ public class JsonAuthenticationEntryPoint implements AuthenticationEntryPoint {
                 traceId
         );
 
+        Timer.Sample sample = metrics.start();
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         objectMapper.writeValue(response.getOutputStream(), body);
+        sample.stop(metrics.errorRender(HttpServletResponse.SC_UNAUTHORIZED));
     }
 
     private String mapCode(AuthenticationException ex) {
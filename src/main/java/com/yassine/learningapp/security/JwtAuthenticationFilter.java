@@ -3,7 +3,10 @@ package com.yassine.learningapp.security;
 import com.yassine.learningapp.exception.ErrorCode;
 import com.yassine.learningapp.exception.InvalidTokenException;
 import com.yassine.learningapp.exception.TokenExpiredException;
+import com.yassine.learningapp.metrics.HotPathMetrics;
 import com.yassine.learningapp.service.JwtService;
+import com.yassine.learningapp.tracing.TraceContext;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,13 +33,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final HotPathMetrics metrics;
 
     public JwtAuthenticationFilter(JwtService jwtService,
                                    UserDetailsService userDetailsService,
-                                   AuthenticationEntryPoint authenticationEntryPoint) {
+                                   AuthenticationEntryPoint authenticationEntryPoint,
+                                   HotPathMetrics metrics) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.metrics = metrics;
     }
 
     @Override
@@ -61,15 +67,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Mesure uniquement le travail d'authentification (pas le reste de la chaîne)
+        Timer.Sample sample = metrics.start();
         String token = resolveBearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
 
         // Pas de token => on laisse passer (les routes protégées déclencheront 401 via Security)
         if (token == null) {
+            sample.stop(metrics.authFilter("anonymous"));
             chain.doFilter(request, response);
             return;
         }
 
-        try {
+        boolean authenticated = false;
+        try (TraceContext.Span ignored = TraceContext.span("auth", "jwt")) {
             // 1) subject (souvent email/username) depuis le JWT
             String username = jwtService.extractUsername(token);
 
@@ -87,10 +97,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             );
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(auth);
-
-            chain.doFilter(request, response);
+            authenticated = true;
+            sample.stop(metrics.authFilter("authenticated"));
 
         } catch (TokenExpiredException e) {
+            sample.stop(metrics.authFilter("expired"));
             setAuthErrorAttributes(request, e.getErrorCode(), e.getMessage());
             authenticationEntryPoint.commence(
                     request,
@@ -99,6 +110,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             );
 
         } catch (InvalidTokenException e) {
+            sample.stop(metrics.authFilter("invalid"));
             setAuthErrorAttributes(request, e.getErrorCode(), e.getMessage());
             authenticationEntryPoint.commence(
                     request,
@@ -107,6 +119,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             );
 
         } catch (Exception e) {
+            sample.stop(metrics.authFilter("invalid"));
             // Pas de détails au front (sécurité)
             setAuthErrorAttributes(request, INVALID_TOKEN, "Token invalide");
             authenticationEntryPoint.commence(
@@ -115,6 +128,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     new BadCredentialsException("INVALID_TOKEN", e)
             );
         }
+
+        // Hors du try : une exception levée plus loin dans la chaîne ne doit pas être prise pour une erreur de token
+        if (authenticated) {
+            chain.doFilter(request, response);
+        }
     }
 
     private String resolveBearerToken(String authorizationHeader) {
@@ -0,0 +1,99 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.entity.User;
+import com.yassine.learningapp.exception.ErrorCode;
+import com.yassine.learningapp.exception.InvalidCredentialsException;
+import com.yassine.learningapp.exception.InvalidTokenException;
+import com.yassine.learningapp.exception.ServiceOverloadedException;
+import com.yassine.learningapp.ratelimit.AuthRateLimits;
+import com.yassine.learningapp.repository.UserRepository;
+import com.yassine.learningapp.security.CustomUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Login / refresh / logout.
+ *
+ * <p>Volontairement non transactionnel : la vérification du mot de passe (centaines de ms) ne doit pas
+ * garder une connexion JDBC empruntée au pool.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthRateLimits rateLimits;
+
+    public record Session(String accessToken, RefreshTokenService.Issued refresh) {}
+
+    public Session login(String username, String rawPassword, boolean rememberMe, HttpServletRequest request) {
+        // Avant toute requête DB et tout hash : un compte ciblé depuis de nombreuses IP reste protégé
+        rateLimits.checkUsername(username);
+        User user = userRepository.findByUsername(username).orElse(null);
+
+        // Utilisateur inconnu : vérification contre un hash factice (même temps de réponse)
+        boolean valid = passwordHashingService.matches(rawPassword, user == null ? null : user.getPassword());
+        if (!valid) {
+            throw new InvalidCredentialsException();
+        }
+        checkAccount(user);
+        rehashIfNeeded(user, rawPassword);
+
+        return new Session(jwtService.generateToken(toUserDetails(user)),
+                refreshTokenService.issue(user.getId(), rememberMe, request));
+    }
+
+    public Session refresh(String rawRefreshToken, HttpServletRequest request) {
+        RefreshTokenService.Issued issued = refreshTokenService.rotate(rawRefreshToken, request);
+        User user = userRepository.findById(issued.userId())
+                .orElseThrow(() -> new InvalidTokenException("Refresh token invalide", ErrorCode.REFRESH_TOKEN_INVALID));
+        checkAccount(user);
+        return new Session(jwtService.generateToken(toUserDetails(user)), issued);
+    }
+
+    public long expiresInSeconds(String accessToken) {
+        return jwtService.getTimeUntilExpirationSeconds(accessToken);
+    }
+
+    public void logout(String rawRefreshToken) {
+        refreshTokenService.revoke(rawRefreshToken);
+    }
+
+    /**
+     * Le coût BCrypt configuré a changé : on profite du mot de passe en clair (login réussi) pour rehasher.
+     * Best effort : sous charge, le login n'échoue pas pour autant, le rehash sera retenté au prochain login.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingService.hash(rawPassword);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash) == 1) {
+                log.info("Password rehashed with current cost: userId={}", user.getId());
+            }
+        } catch (ServiceOverloadedException e) {
+            log.debug("Rehash skipped (overloaded): userId={}", user.getId());
+        }
+    }
+
+    private static void checkAccount(User user) {
+        if (user.isLocked()) {
+            throw new InvalidCredentialsException("Compte verrouillé", ErrorCode.ACCOUNT_LOCKED);
+        }
+        if (!user.isActive()) {
+            throw new InvalidCredentialsException("Compte désactivé", ErrorCode.ACCOUNT_DISABLED);
+        }
+    }
+
+    private static CustomUserDetails toUserDetails(User user) {
+        return new CustomUserDetails(user.getId(), user.getUsername(), user.getPassword(),
+                user.isActive(), user.isLocked(), user.getRole());
+    }
+}
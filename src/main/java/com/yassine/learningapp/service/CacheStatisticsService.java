@@ -0,0 +1,78 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.dto.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lecture des statistiques du cache de second niveau : compteurs Hibernate par région
+ * (hits / misses / puts / taille) + évictions Ehcache exposées par JCache via JMX.
+ *
+ * <p>Les mêmes compteurs Hibernate sont publiés dans Micrometer (hibernate.second.level.cache.*).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public List<CacheRegionStats> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        List<String> names = Arrays.asList(statistics.getSecondLevelCacheRegionNames());
+
+        List<CacheRegionStats> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            long lookups = hits + misses;
+            result.add(new CacheRegionStats(
+                    name,
+                    hits,
+                    misses,
+                    region.getPutCount(),
+                    region.getElementCountInMemory(),
+                    evictions(server, name),
+                    lookups == 0 ? 0d : (double) hits / lookups
+            ));
+        }
+        result.sort(Comparator.comparing(CacheRegionStats::region));
+        return result;
+    }
+
+    /** Nécessite enable-statistics="true" dans ehcache.xml (MBean javax.cache:type=CacheStatistics). */
+    private long evictions(MBeanServer server, String region) {
+        try {
+            Set<ObjectName> beans = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            long total = 0;
+            for (ObjectName bean : beans) {
+                total += ((Number) server.getAttribute(bean, "CacheEvictions")).longValue();
+            }
+            return beans.isEmpty() ? -1 : total;
+        } catch (Exception e) {
+            log.debug("Évictions JCache indisponibles pour {}: {}", region, e.getMessage());
+            return -1;
+        }
+    }
+}
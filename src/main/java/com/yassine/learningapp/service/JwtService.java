@@ -3,6 +3,7 @@ package com.yassine.learningapp.service;
 import com.yassine.learningapp.exception.ErrorCode;
 import com.yassine.learningapp.exception.InvalidTokenException;
 import com.yassine.learningapp.exception.TokenExpiredException;
+import com.yassine.learningapp.metrics.HotPathMetrics;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
@@ -30,13 +31,16 @@ public class JwtService {
 
     private final SecretKey signingKey;
     private final long expirationMs;
+    private final HotPathMetrics metrics;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expirationMs
+            @Value("${jwt.expiration}") long expirationMs,
+            HotPathMetrics metrics
     ) {
         this.signingKey = buildSigningKey(secret);
         this.expirationMs = expirationMs;
+        this.metrics = metrics;
     }
 
     // -------------------------
@@ -126,13 +130,13 @@ public class JwtService {
         Date now = new Date(System.currentTimeMillis());
         Date exp = new Date(System.currentTimeMillis() + expirationMs);
 
-        return Jwts.builder()
+        return metrics.jwtSign().record(() -> Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(exp)
                 .signWith(signingKey, Jwts.SIG.HS256)
-                .compact();
+                .compact());
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> resolver) {
@@ -165,11 +169,11 @@ public class JwtService {
 
     private Claims parseAllClaims(String token) {
         // Ici tu peux rajouter un "trim" / check blank si tu veux être strict
-        return Jwts.parser()
+        return metrics.jwtParse().record(() -> Jwts.parser()
                 .verifyWith(signingKey)
                 .build()
                 .parseSignedClaims(token)
-                .getPayload();
+                .getPayload());
     }
 
     private static SecretKey buildSigningKey(String secret) {
@@ -0,0 +1,177 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.exception.ServiceOverloadedException;
+import com.yassine.learningapp.health.QueueDepthProbe;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash / vérification de mots de passe sur un pool dédié et borné.
+ *
+ * <p>BCrypt coûte plusieurs centaines de ms de CPU : exécuté sur les threads HTTP, un afflux de logins
+ * monopolise tous les cœurs et affame les autres endpoints. Ici :
+ * <ul>
+ *   <li>concurrence plafonnée (par défaut la moitié des cœurs) : le reste de l'appli garde du CPU ;</li>
+ *   <li>file bornée : au-delà, rejet immédiat (503 + Retry-After) ;</li>
+ *   <li>délai max : une tâche restée trop longtemps en file n'est pas exécutée (le client a déjà eu son 503).</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements QueueDepthProbe {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final PasswordEncoder passwordEncoder;
+    private final HotPathMetrics metrics;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutNanos;
+
+    /** Hash de référence : vérifié quand l'utilisateur n'existe pas, pour un temps de réponse identique. */
+    private final String dummyHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  HotPathMetrics metrics,
+                                  @Value("${app.password.hash.threads:0}") int threads,
+                                  @Value("${app.password.hash.queue-capacity:0}") int queueCapacity,
+                                  @Value("${app.password.hash.timeout-ms:2000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.passwordEncoder = passwordEncoder;
+        this.metrics = metrics;
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : poolSize * 16;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), daemonThreads("pwd-hash-"), new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordEncoder.encode("dummy-password-for-timing");
+
+        metrics.gauge("app.password.hash.queue", executor, e -> e.getQueue().size());
+        metrics.gauge("app.password.hash.active", executor, ThreadPoolExecutor::getActiveCount);
+        log.info("Password hashing pool: threads={}, queueCapacity={}, timeoutMs={}", poolSize, this.queueCapacity, timeoutMs);
+    }
+
+    public String hash(CharSequence rawPassword) {
+        return submit("hash", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /** {@code encodedPassword} null (utilisateur inconnu) : vérifie contre un hash factice et renvoie false. */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            submit("verify", () -> passwordEncoder.matches(rawPassword, dummyHash));
+            return false;
+        }
+        return submit("verify", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Vrai si le hash a été produit avec un coût inférieur à celui configuré ({@link PasswordEncoder#upgradeEncoding}) :
+     * baisser le coût ne réécrit pas les hashs existants. Pas de calcul coûteux.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // -------------------------
+    // QueueDepthProbe
+    // -------------------------
+
+    @Override
+    public String name() {
+        return "password-hashing";
+    }
+
+    @Override
+    public int depth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int capacity() {
+        return queueCapacity;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // -------------------------
+    // Exécution bornée
+    // -------------------------
+
+    private <T> T submit(String op, Callable<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                metrics.passwordHash("wait").record(waited, TimeUnit.NANOSECONDS);
+                if (waited >= timeoutNanos) {
+                    // L'appelant a déjà abandonné : ne pas brûler du CPU pour rien
+                    return null;
+                }
+                Timer.Sample sample = metrics.start();
+                try {
+                    return work.call();
+                } finally {
+                    sample.stop(metrics.passwordHash(op));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.passwordHashRejected("queue_full").increment();
+            throw overloaded();
+        }
+
+        try {
+            T result = future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            if (result == null) {
+                // Tâche sautée (trop attendu en file) mais démarrée juste avant notre propre échéance
+                metrics.passwordHashRejected("timeout").increment();
+                throw overloaded();
+            }
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            metrics.passwordHashRejected("timeout").increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Trop de connexions simultanées, réessayez", RETRY_AFTER_SECONDS);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
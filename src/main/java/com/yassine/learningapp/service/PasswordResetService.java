@@ -0,0 +1,157 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.entity.PasswordResetToken;
+import com.yassine.learningapp.entity.User;
+import com.yassine.learningapp.exception.ErrorCode;
+import com.yassine.learningapp.exception.InvalidTokenException;
+import com.yassine.learningapp.mail.MailOutboxService;
+import com.yassine.learningapp.ratelimit.AuthRateLimits;
+import com.yassine.learningapp.repository.PasswordResetTokenRepository;
+import com.yassine.learningapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Mot de passe oublié : le lien est mis en file dans l'outbox mail (même transaction que le token),
+ * la requête ne dépend donc jamais de la latence du relais SMTP.
+ *
+ * <p>Au plus un mail par utilisateur et par fenêtre de {@code app.password-reset.mail-window-minutes} : les
+ * demandes suivantes de la fenêtre sont ignorées et le lien déjà envoyé reste le seul valide.
+ */
+@Slf4j
+@Service
+public class PasswordResetService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final UserRepository userRepository;
+    private final PasswordResetTokenRepository tokenRepository;
+    private final MailOutboxService mailOutbox;
+    private final PasswordHashingService passwordHashingService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthRateLimits rateLimits;
+    private final TransactionTemplate tx;
+    private final Duration tokenTtl;
+    private final Duration mailWindow;
+    private final String frontendBaseUrl;
+
+    public PasswordResetService(UserRepository userRepository,
+                                PasswordResetTokenRepository tokenRepository,
+                                MailOutboxService mailOutbox,
+                                PasswordHashingService passwordHashingService,
+                                RefreshTokenService refreshTokenService,
+                                AuthRateLimits rateLimits,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.password-reset.ttl-minutes:30}") long ttlMinutes,
+                                @Value("${app.password-reset.mail-window-minutes:5}") long mailWindowMinutes,
+                                @Value("${app.frontend.base-url:http://localhost:4200}") String frontendBaseUrl) {
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.mailOutbox = mailOutbox;
+        this.passwordHashingService = passwordHashingService;
+        this.refreshTokenService = refreshTokenService;
+        this.rateLimits = rateLimits;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tokenTtl = Duration.ofMinutes(ttlMinutes);
+        this.mailWindow = Duration.ofMinutes(mailWindowMinutes);
+        this.frontendBaseUrl = frontendBaseUrl;
+    }
+
+    /**
+     * Même réponse que le compte existe ou non (pas d'énumération). Le username sert d'adresse email.
+     */
+    public void requestReset(String username) {
+        rateLimits.checkUsername(username);
+        tx.executeWithoutResult(status -> userRepository.findByUsername(username)
+                .filter(User::isActive)
+                .ifPresent(this::issueToken));
+    }
+
+    public void resetPassword(String rawToken, String newPassword) {
+        LocalDateTime now = LocalDateTime.now();
+        PasswordResetToken token = tokenRepository.findByTokenHash(sha256(rawToken))
+                .filter(t -> t.getUsedAt() == null && t.getExpiresAt().isAfter(now))
+                .orElseThrow(PasswordResetService::invalidToken);
+
+        // Hash hors transaction : aucune connexion JDBC tenue pendant le calcul BCrypt
+        String newHash = passwordHashingService.hash(newPassword);
+
+        tx.executeWithoutResult(status -> {
+            if (tokenRepository.markUsed(token.getId(), now) != 1) {
+                throw invalidToken();
+            }
+            userRepository.resetPasswordHash(token.getUserId(), newHash);
+            tokenRepository.invalidateAllForUser(token.getUserId(), now);
+            refreshTokenService.revokeAll(token.getUserId());
+        });
+        log.info("Password reset: userId={}", token.getUserId());
+    }
+
+    @Scheduled(cron = "0 15 3 * * *")
+    public void cleanupExpiredTokens() {
+        Integer deleted = tx.execute(status -> tokenRepository.deleteExpired(LocalDateTime.now().minusDays(1)));
+        log.info("Cleanup password reset tokens: deleted={}", deleted);
+    }
+
+    private void issueToken(User user) {
+        if (!user.getUsername().contains("@")) {
+            log.warn("Password reset requested for a username without email: userId={}", user.getId());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        boolean queued = mailOutbox.enqueue(mailDedupeKey(user.getId(), now), user.getUsername(),
+                "Réinitialisation de votre mot de passe",
+                """
+                Bonjour,
+
+                Pour choisir un nouveau mot de passe, ouvrez ce lien (valable %d minutes) :
+                %s/reset-password?token=%s
+
+                Si vous n'êtes pas à l'origine de cette demande, ignorez ce message.
+                """.formatted(tokenTtl.toMinutes(), frontendBaseUrl, raw));
+        if (!queued) {
+            log.info("Password reset mail already queued in this window: userId={}", user.getId());
+            return;
+        }
+
+        // Un seul lien valide à la fois
+        tokenRepository.invalidateAllForUser(user.getId(), now);
+        tokenRepository.save(new PasswordResetToken(user.getId(), sha256(raw), now, now.plus(tokenTtl)));
+    }
+
+    /** Même clé pour toutes les demandes d'un utilisateur dans une fenêtre fixe de {@code mailWindow}. */
+    private String mailDedupeKey(Long userId, LocalDateTime now) {
+        long window = now.toEpochSecond(ZoneOffset.UTC) / Math.max(1, mailWindow.toSeconds());
+        return "password-reset:" + userId + ":" + window;
+    }
+
+    private static InvalidTokenException invalidToken() {
+        return new InvalidTokenException("Lien de réinitialisation invalide ou expiré", ErrorCode.RESET_TOKEN_INVALID);
+    }
+
+    private static String sha256(String raw) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,12 +2,16 @@ package com.yassine.learningapp.service;
 
 import com.yassine.learningapp.exception.ErrorCode;
 import com.yassine.learningapp.exception.InvalidTokenException;
+import com.yassine.learningapp.health.SchedulerHeartbeats;
+import com.yassine.learningapp.metrics.HotPathMetrics;
 import com.yassine.learningapp.entity.RefreshToken;
 import com.yassine.learningapp.dto.TokenType;
-import com.yassine.learningapp.repository.RefreshTokenRepository;
+import com.yassine.learningapp.security.ClientIpResolver;
+import com.yassine.learningapp.tokenstore.RefreshTokenStore;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -15,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HexFormat;
 import java.util.List;
@@ -25,7 +30,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
+    private final HotPathMetrics metrics;
+    private final SchedulerHeartbeats heartbeats;
+
+    private static final String CLEANUP_JOB = "refreshTokens.cleanup";
 
     @Value("${security.refresh.days:30}")
     private int refreshDays;
@@ -39,11 +48,21 @@ public class RefreshTokenService {
     @Value("${security.refresh.max-active-sessions:5}")
     private int maxActiveSessions;
 
+    @PostConstruct
+    void registerJobs() {
+        // Cron quotidien : en retard s'il n'a pas tourné depuis 25h
+        heartbeats.expect(CLEANUP_JOB, Duration.ofHours(25));
+    }
+
     /** Token brut (cookie) + date d’expiration + type + userId */
     public record Issued(String rawToken, LocalDateTime expiresAt, TokenType type, Long userId) {}
 
     @Transactional
     public Issued issue(Long userId, boolean rememberMe, HttpServletRequest request) {
+        return metrics.refreshToken("issue").record(() -> doIssue(userId, rememberMe, request));
+    }
+
+    private Issued doIssue(Long userId, boolean rememberMe, HttpServletRequest request) {
         TokenType type = rememberMe ? TokenType.REMEMBER_ME : TokenType.REFRESH;
         int days = rememberMe ? rememberDays : refreshDays;
 
@@ -68,17 +87,21 @@ public class RefreshTokenService {
                 .deviceName(extractDeviceName(request))
                 .build();
 
-        refreshTokenRepository.save(entity);
+        refreshTokenStore.save(entity);
         return new Issued(raw, exp, type, userId);
     }
 
     @Transactional
     public RefreshToken validate(String rawToken) {
+        return metrics.refreshToken("validate").record(() -> doValidate(rawToken));
+    }
+
+    private RefreshToken doValidate(String rawToken) {
         if (rawToken == null || rawToken.isBlank()) {
             throw new InvalidTokenException("Refresh token invalide", ErrorCode.REFRESH_TOKEN_INVALID);
         }
 
-        RefreshToken token = refreshTokenRepository.findByTokenHash(sha256(rawToken))
+        RefreshToken token = refreshTokenStore.findByTokenHash(sha256(rawToken))
                 .orElseThrow(() -> new InvalidTokenException("Refresh token invalide", ErrorCode.REFRESH_TOKEN_INVALID));
 
         if (token.isRevoked()) {
@@ -89,7 +112,7 @@ public class RefreshTokenService {
         }
 
         token.markAsUsed();
-        return refreshTokenRepository.save(token);
+        return refreshTokenStore.save(token);
     }
 
     /**
@@ -101,6 +124,10 @@ public class RefreshTokenService {
      */
     @Transactional
     public Issued rotate(String rawToken, HttpServletRequest request) {
+        return metrics.refreshToken("rotate").record(() -> doRotate(rawToken, request));
+    }
+
+    private Issued doRotate(String rawToken, HttpServletRequest request) {
         RefreshToken old = validate(rawToken);
 
         if (!rotate) {
@@ -108,7 +135,7 @@ public class RefreshTokenService {
         }
 
         old.revoke();
-        refreshTokenRepository.save(old);
+        refreshTokenStore.save(old);
 
         boolean rememberMe = old.getTokenType() == TokenType.REMEMBER_ME;
         return issue(old.getUserId(), rememberMe, request);
@@ -118,35 +145,36 @@ public class RefreshTokenService {
     public void revoke(String rawToken) {
         if (rawToken == null || rawToken.isBlank()) return;
 
-        refreshTokenRepository.findByTokenHash(sha256(rawToken)).ifPresent(t -> {
+        refreshTokenStore.findByTokenHash(sha256(rawToken)).ifPresent(t -> {
             t.revoke();
-            refreshTokenRepository.save(t);
+            refreshTokenStore.save(t);
         });
     }
 
     @Transactional
     public void revokeAll(Long userId) {
-        refreshTokenRepository.revokeAllByUserId(userId);
+        refreshTokenStore.revokeAllByUserId(userId);
     }
 
     @Scheduled(cron = "0 0 3 * * *")
     @Transactional
     public void cleanupExpiredTokens() {
         LocalDateTime threshold = LocalDateTime.now().minusDays(7);
-        int deleted = refreshTokenRepository.deleteExpiredTokens(threshold);
+        int deleted = refreshTokenStore.deleteExpired(threshold);
         log.info("Cleanup refresh tokens: deleted={}, threshold={}", deleted, threshold);
+        heartbeats.beat(CLEANUP_JOB);
     }
 
     private void enforceMaxSessions(Long userId) {
-        long active = refreshTokenRepository.countActiveSessions(userId, LocalDateTime.now());
+        long active = refreshTokenStore.countActiveSessions(userId, LocalDateTime.now());
         if (active < maxActiveSessions) return;
 
-        List<RefreshToken> tokens = refreshTokenRepository.findValidTokensByUserId(userId, LocalDateTime.now());
+        List<RefreshToken> tokens = refreshTokenStore.findValidByUserId(userId, LocalDateTime.now());
         tokens.stream()
                 .min((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
                 .ifPresent(oldest -> {
                     oldest.revoke();
-                    refreshTokenRepository.save(oldest);
+                    refreshTokenStore.save(oldest);
                 });
     }
 
@@ -161,11 +189,7 @@ public class RefreshTokenService {
     }
 
     private String extractIp(HttpServletRequest request) {
-        if (request == null) return null;
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isBlank()) ip = request.getHeader("X-Real-IP");
-        if (ip == null || ip.isBlank()) ip = request.getRemoteAddr();
-        return (ip != null && ip.contains(",")) ? ip.split(",")[0].trim() : ip;
+        return ClientIpResolver.resolve(request);
     }
 
     private String extractUserAgent(HttpServletRequest request) {
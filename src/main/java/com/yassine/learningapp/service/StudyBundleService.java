@@ -0,0 +1,223 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.export.DocumentExportRow;
+import com.yassine.learningapp.dto.export.ExportRowJson;
+import com.yassine.learningapp.exception.DocumentNotFoundException;
+import com.yassine.learningapp.files.AtomicFiles;
+import com.yassine.learningapp.files.SingleFlight;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonEncoding;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.exc.JacksonIOException;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bundle d'étude hors-ligne d'un document : fiches, quiz et questions dans un seul JSON gzip.
+ *
+ * <p>Le bundle est identifié par une version (empreinte des agrégats {@link ContentVersion} du document et
+ * de son contenu), construit à la première demande puis servi depuis le disque tant que la version ne
+ * change pas. Il est compressé une fois au niveau maximal : le coût CPU est payé au build, pas à chaque
+ * requête.
+ *
+ * <p>Une version remplacée reste sur disque {@code app.bundle.superseded-grace-minutes} : une réponse
+ * commencée avant le remplacement peut encore la lire.
+ */
+@Slf4j
+@Service
+public class StudyBundleService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final DocumentRepository documentRepository;
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizRepository quizRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate snapshotTx;
+    private final Path bundleDir;
+    private final Duration supersededGrace;
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /** Bundles en cours de construction, par documentId : les demandes concurrentes partagent le même build. */
+    private final SingleFlight<Long, Bundle> builds = new SingleFlight<>();
+
+    /** {@code file} : JSON gzip ; {@code version} : version du contenu réellement écrit. */
+    public record Bundle(Path file, String version) {}
+
+    public StudyBundleService(DocumentRepository documentRepository,
+                              FlashCardsRepository flashCardsRepository,
+                              QuizRepository quizRepository,
+                              QuizQuestionRepository quizQuestionRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.bundle.dir:}") String bundleDir,
+                              @Value("${app.bundle.superseded-grace-minutes:15}") long supersededGraceMinutes) {
+        this.documentRepository = documentRepository;
+        this.flashCardsRepository = flashCardsRepository;
+        this.quizRepository = quizRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // Build : version et contenu lus sur le même snapshot, le fichier ne peut pas mentir sur sa version
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.bundleDir = AtomicFiles.directory(bundleDir, "app.bundle.dir (APP_BUNDLE_DIR)");
+        this.supersededGrace = Duration.ofMinutes(supersededGraceMinutes);
+    }
+
+    // -------------------------
+    // Public API
+    // -------------------------
+
+    /**
+     * Version courante du bundle (4 requêtes d'agrégat, aucune entité chargée).
+     *
+     * @throws DocumentNotFoundException si le document n'existe pas ou n'appartient pas à {@code userId}
+     */
+    public String version(Long documentId, Long userId) {
+        return readOnlyTx.execute(status -> {
+            ContentVersion document = documentRepository.versionByIdAndUserId(documentId, userId);
+            if (document == null || document.count() == null || document.count() == 0) {
+                throw new DocumentNotFoundException(documentId);
+            }
+            return contentVersion(documentId, document);
+        });
+    }
+
+    /**
+     * Bundle à jour du document (propriété déjà vérifiée par {@link #version}) : réutilise le fichier de la
+     * version {@code expectedVersion} s'il existe, sinon le construit.
+     */
+    public Bundle bundle(Long documentId, String expectedVersion) {
+        Path expected = fileFor(documentId, expectedVersion);
+        if (Files.exists(expected)) {
+            return new Bundle(expected, expectedVersion);
+        }
+        return builds.run(documentId, () -> {
+            Bundle built = build(documentId);
+            deleteSupersededBundles(documentId, built.file());
+            return built;
+        });
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private String contentVersion(Long documentId, ContentVersion document) {
+        StringBuilder versions = new StringBuilder();
+        append(versions, document);
+        append(versions, flashCardsRepository.versionByDocumentId(documentId));
+        append(versions, quizRepository.versionByDocumentId(documentId));
+        append(versions, quizQuestionRepository.versionByDocumentId(documentId));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(versions.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void append(StringBuilder sb, ContentVersion version) {
+        sb.append((version == null ? ContentVersion.EMPTY : version).fingerprint()).append('|');
+    }
+
+    private Path fileFor(Long documentId, String version) {
+        return bundleDir.resolve(documentId.toString()).resolve(version + ".json.gz");
+    }
+
+    private Bundle build(Long documentId) {
+        return snapshotTx.execute(status -> {
+            DocumentExportRow document = documentRepository.findExportRowById(documentId)
+                    .orElseThrow(() -> new DocumentNotFoundException(documentId));
+            String version = contentVersion(documentId, documentVersion(document));
+            Path target = fileFor(documentId, version);
+            if (Files.exists(target)) {
+                return new Bundle(target, version);
+            }
+            write(document, version, target);
+            return new Bundle(target, version);
+        });
+    }
+
+    /** Même agrégat que {@code versionByIdAndUserId}, recalculé depuis la ligne déjà lue. */
+    private static ContentVersion documentVersion(DocumentExportRow document) {
+        return new ContentVersion(1L, document.updatedAt() != null ? document.updatedAt() : document.createdAt());
+    }
+
+    private void write(DocumentExportRow document, String version, Path target) {
+        try {
+            AtomicFiles.write(target, part -> {
+                try (OutputStream out = new MaxGzipOutputStream(Files.newOutputStream(part))) {
+                    writeJson(document, version, out);
+                }
+            });
+            log.info("Study bundle built: documentId={}, version={}, bytes={}", document.id(), version, Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bundle failed for documentId=" + document.id(), e);
+        }
+    }
+
+    private void writeJson(DocumentExportRow document, String version, OutputStream out) throws IOException {
+        Long documentId = document.id();
+        try (JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeNumberProperty("documentId", documentId);
+            gen.writeStringProperty("version", version);
+            gen.writeName("document");
+            ExportRowJson.writeDocument(gen, document);
+            gen.writeName("flashCards");
+            ExportRowJson.writeArray(gen, flashCardsRepository.streamExportRowsByDocumentId(documentId), ExportRowJson::writeFlashCard);
+            gen.writeName("quizzes");
+            ExportRowJson.writeArray(gen, quizRepository.streamExportRowsByDocumentId(documentId), ExportRowJson::writeQuiz);
+            // Triées par quiz puis par ordre : le client regroupe par quizId en une passe
+            gen.writeName("questions");
+            ExportRowJson.writeArray(gen, quizQuestionRepository.streamExportRowsByDocumentId(documentId), ExportRowJson::writeQuestion);
+            gen.writeEndObject();
+        } catch (JacksonIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void deleteSupersededBundles(Long documentId, Path keep) {
+        try {
+            AtomicFiles.deleteSuperseded(keep.getParent(), "*.json.gz", keep, supersededGrace);
+        } catch (IOException e) {
+            log.warn("Could not purge previous bundles of documentId={}", documentId, e);
+        }
+    }
+
+    /** Écrit une fois, servi N fois : niveau de compression maximal. */
+    private static final class MaxGzipOutputStream extends GZIPOutputStream {
+        MaxGzipOutputStream(OutputStream out) throws IOException {
+            super(out, GZIP_BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.DocumentResponse;
+import com.yassine.learningapp.dto.FlashCardResponse;
+import com.yassine.learningapp.dto.PageResponse;
+import com.yassine.learningapp.dto.QuizDetailResponse;
+import com.yassine.learningapp.dto.QuizResponse;
+import com.yassine.learningapp.exception.DocumentNotFoundException;
+import com.yassine.learningapp.exception.QuizNotFoundException;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Lectures des documents, fiches et quiz d'un utilisateur.
+ *
+ * <p>Chaque lecture a sa méthode {@code *Version} : requête d'agrégat seule, appelée avant le chargement
+ * pour répondre 304 (voir {@link com.yassine.learningapp.web.ConditionalGet}). Les versions vérifient aussi
+ * la propriété : un document ou quiz d'un autre utilisateur est introuvable.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StudyContentService {
+
+    private final DocumentRepository documentRepository;
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizRepository quizRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+
+    // -------------------------
+    // Documents
+    // -------------------------
+
+    public ContentVersion documentsVersion(Long userId) {
+        return documentRepository.versionByUserId(userId);
+    }
+
+    public PageResponse<DocumentResponse> documents(Long userId, Pageable pageable) {
+        return PageResponse.of(documentRepository.findResponsesByUserId(userId, pageable));
+    }
+
+    // -------------------------
+    // Fiches / quiz d'un document
+    // -------------------------
+
+    public ContentVersion flashCardsVersion(Long documentId, Long userId) {
+        requireOwnedDocument(documentId, userId);
+        return flashCardsRepository.versionByDocumentId(documentId);
+    }
+
+    public List<FlashCardResponse> flashCards(Long documentId) {
+        return flashCardsRepository.findResponsesByDocumentId(documentId);
+    }
+
+    public ContentVersion quizzesVersion(Long documentId, Long userId) {
+        requireOwnedDocument(documentId, userId);
+        return quizRepository.versionByDocumentId(documentId);
+    }
+
+    public List<QuizResponse> quizzes(Long documentId) {
+        return quizRepository.findResponsesByDocumentId(documentId);
+    }
+
+    // -------------------------
+    // Quiz + questions
+    // -------------------------
+
+    public ContentVersion quizVersion(Long quizId, Long userId) {
+        ContentVersion quiz = quizRepository.versionByIdAndUserId(quizId, userId);
+        if (isEmpty(quiz)) {
+            throw new QuizNotFoundException(quizId);
+        }
+        return quiz.combine(quizQuestionRepository.versionByQuizId(quizId));
+    }
+
+    public QuizDetailResponse quiz(Long quizId) {
+        QuizResponse quiz = quizRepository.findResponseById(quizId)
+                .orElseThrow(() -> new QuizNotFoundException(quizId));
+        return new QuizDetailResponse(quiz, quizQuestionRepository.findResponsesByQuizId(quizId));
+    }
+
+    private void requireOwnedDocument(Long documentId, Long userId) {
+        if (isEmpty(documentRepository.versionByIdAndUserId(documentId, userId))) {
+            throw new DocumentNotFoundException(documentId);
+        }
+    }
+
+    private static boolean isEmpty(ContentVersion version) {
+        return version == null || version.count() == null || version.count() == 0;
+    }
+}
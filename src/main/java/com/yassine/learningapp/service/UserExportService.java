@@ -0,0 +1,265 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.dto.ContentVersion;
+import com.yassine.learningapp.dto.export.DocumentExportRow;
+import com.yassine.learningapp.dto.export.ExportRowJson;
+import com.yassine.learningapp.dto.export.QuizResultExportRow;
+import com.yassine.learningapp.files.AtomicFiles;
+import com.yassine.learningapp.files.SingleFlight;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import com.yassine.learningapp.sharding.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonEncoding;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.exc.JacksonIOException;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export RGPD de toutes les données d'un utilisateur sous forme d'archive ZIP.
+ *
+ * <p>Les lignes sont lues par curseur JDBC ({@code Stream<>} + fetch size) et écrites une par une
+ * avec le générateur streaming de Jackson : la mémoire reste constante quelle que soit la taille du compte.
+ * L'archive est écrite sur disque puis servie comme fichier (Range / reprise côté client), et
+ * réutilisée tant que le contenu du compte n'a pas changé (même empreinte = même fichier). Une archive
+ * remplacée reste sur disque {@code app.export.superseded-grace-minutes} : un téléchargement en cours (ou
+ * repris par Range) peut encore la lire.
+ *
+ * <p>Les résultats de sessions en direct sont enregistrés sur le shard de l'hôte, à côté du quiz : ceux de
+ * l'utilisateur sur d'autres shards sont lus à part (peu de lignes) et ajoutés à {@code quiz_results.json}.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DocumentRepository documentRepository;
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizRepository quizRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final Shards shards;
+    private final TransactionTemplate readOnlyTx;
+    private final Path exportDir;
+    private final Duration supersededGrace;
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /** Exports en cours de construction, par clé (userId + empreinte) : les demandes concurrentes partagent le même build. */
+    private final SingleFlight<Path, Path> builds = new SingleFlight<>();
+
+    public record Export(Path file, String fingerprint) {}
+
+    public UserExportService(DocumentRepository documentRepository,
+                             FlashCardsRepository flashCardsRepository,
+                             QuizRepository quizRepository,
+                             QuizQuestionRepository quizQuestionRepository,
+                             QuizResultRepository quizResultRepository,
+                             Shards shards,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.export.dir:}") String exportDir,
+                             @Value("${app.export.superseded-grace-minutes:60}") long supersededGraceMinutes) {
+        this.documentRepository = documentRepository;
+        this.flashCardsRepository = flashCardsRepository;
+        this.quizRepository = quizRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.shards = shards;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.exportDir = AtomicFiles.directory(exportDir, "app.export.dir (APP_EXPORT_DIR)");
+        this.supersededGrace = Duration.ofMinutes(supersededGraceMinutes);
+    }
+
+    // -------------------------
+    // Public API
+    // -------------------------
+
+    /**
+     * Retourne l'archive à jour du compte : réutilise le fichier existant si l'empreinte n'a pas changé,
+     * sinon la (re)construit. Deux demandes identiques simultanées ne déclenchent qu'une construction.
+     */
+    public Export export(Long userId) {
+        String fingerprint = fingerprint(userId);
+        Path target = exportDir.resolve("user-" + userId + "-" + fingerprint + ".zip");
+
+        if (Files.exists(target)) {
+            log.debug("Export reused: userId={}, fingerprint={}", userId, fingerprint);
+            return new Export(target, fingerprint);
+        }
+        return new Export(builds.run(target, () -> {
+            build(userId, target);
+            deleteSupersededExports(userId, target);
+            return target;
+        }), fingerprint);
+    }
+
+    /**
+     * Écrit l'archive complète dans {@code out} (qui n'est pas fermé).
+     */
+    public void writeArchive(Long userId, OutputStream out) {
+        List<QuizResultExportRow> elsewhere = resultsOnOtherShards(userId);
+        readOnlyTx.executeWithoutResult(status -> {
+            try {
+                ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+                writeJsonEntry(zip, "documents.json", documentRepository.streamExportRowsByUserId(userId), ExportRowJson::writeDocument);
+                writeJsonEntry(zip, "flashcards.json", flashCardsRepository.streamExportRowsByUserId(userId), ExportRowJson::writeFlashCard);
+                writeJsonEntry(zip, "quizzes.json", quizRepository.streamExportRowsByUserId(userId), ExportRowJson::writeQuiz);
+                writeJsonEntry(zip, "quiz_questions.json", quizQuestionRepository.streamExportRowsByUserId(userId), ExportRowJson::writeQuestion);
+                writeJsonEntry(zip, "quiz_results.json",
+                        Stream.concat(quizResultRepository.streamExportRowsByUserId(userId), elsewhere.stream()),
+                        ExportRowJson::writeResult);
+                writeDocumentFiles(zip, userId);
+
+                zip.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private String fingerprint(Long userId) {
+        StringBuilder versions = new StringBuilder();
+        readOnlyTx.executeWithoutResult(status -> {
+            append(versions, documentRepository.versionByUserId(userId));
+            append(versions, flashCardsRepository.versionByUserId(userId));
+            append(versions, quizRepository.versionByUserId(userId));
+            append(versions, quizQuestionRepository.versionByUserId(userId));
+            append(versions, quizResultRepository.versionByUserId(userId));
+        });
+        otherShards(userId, () -> quizResultRepository.versionByUserId(userId))
+                .forEach(version -> append(versions, version));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(versions.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void append(StringBuilder sb, ContentVersion version) {
+        sb.append((version == null ? ContentVersion.EMPTY : version).fingerprint()).append('|');
+    }
+
+    private List<QuizResultExportRow> resultsOnOtherShards(Long userId) {
+        return otherShards(userId, () -> {
+            try (Stream<QuizResultExportRow> rows = quizResultRepository.streamExportRowsByUserId(userId)) {
+                return rows.toList();
+            }
+        }).stream().flatMap(List::stream).toList();
+    }
+
+    /** Même lecture sur chaque shard autre que celui de l'utilisateur, chacune dans sa transaction. */
+    private <T> List<T> otherShards(Long userId, Supplier<T> read) {
+        if (shards.count() == 1) return List.of();
+        int home = shards.shardOf(userId);
+        return shards.scatter(shard -> shard == home ? null : readOnlyTx.execute(status -> read.get())).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void build(Long userId, Path target) {
+        try {
+            AtomicFiles.write(target, part -> {
+                try (OutputStream out = Files.newOutputStream(part)) {
+                    writeArchive(userId, out);
+                }
+            });
+            log.info("Export built: userId={}, file={}, bytes={}", userId, target.getFileName(), Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export failed for userId=" + userId, e);
+        }
+    }
+
+    private void deleteSupersededExports(Long userId, Path keep) {
+        try {
+            AtomicFiles.deleteSuperseded(exportDir, "user-" + userId + "-*.zip", keep, supersededGrace);
+        } catch (IOException e) {
+            log.warn("Could not purge previous exports of userId={}", userId, e);
+        }
+    }
+
+    private <T> void writeJsonEntry(ZipOutputStream zip, String name, Stream<T> rows, ExportRowJson.RowWriter<T> writer) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        try (rows; JsonGenerator gen = jsonFactory.createGenerator(zip, JsonEncoding.UTF8)) {
+            ExportRowJson.writeArray(gen, rows, writer);
+        } catch (JacksonIOException e) {
+            throw e.getCause();
+        }
+        zip.closeEntry();
+    }
+
+    private void writeDocumentFiles(ZipOutputStream zip, Long userId) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (Stream<DocumentExportRow> documents = documentRepository.streamExportRowsByUserId(userId)) {
+            documents.forEach(unchecked(doc -> copyFile(zip, doc, buffer)));
+        }
+    }
+
+    private void copyFile(ZipOutputStream zip, DocumentExportRow doc, byte[] buffer) throws IOException {
+        if (doc.path() == null) return;
+        Path source = Paths.get(doc.path());
+        if (!Files.isRegularFile(source)) {
+            log.warn("Export: missing file for documentId={}", doc.id());
+            return;
+        }
+
+        zip.putNextEntry(new ZipEntry("files/" + doc.id() + "-" + source.getFileName()));
+        try (var in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+        }
+        zip.closeEntry();
+    }
+
+    @FunctionalInterface
+    private interface IoConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+
+    private static <T> Consumer<T> unchecked(IoConsumer<T> consumer) {
+        return value -> {
+            try {
+                consumer.accept(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.yassine.learningapp.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Dépôt Spring Data de données globales (comptes, jetons, outbox) : ses appels vont toujours sur la base
+ * d'accueil, quel que soit le shard de l'utilisateur courant. Sans effet sans partitionnement.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HomeShard {
+}
@@ -0,0 +1,72 @@
+package com.yassine.learningapp.sharding;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Épingle les dépôts {@link HomeShard} sur la base d'accueil : un intercepteur, placé avant celui des
+ * transactions, exécute chaque appel dans {@link ShardContext#HOME}.
+ *
+ * <p>Dans une transaction déjà ouverte sur un autre shard (sa connexion y est liée), l'appel part dans une
+ * transaction séparée ({@code REQUIRES_NEW}, même flag read-only). Les entités lues sont alors détachées :
+ * les dépôts globaux s'utilisent par requêtes explicites ({@code update...}, {@code save}), pas par
+ * dirty checking.
+ */
+public class HomeShardRepositories implements BeanPostProcessor {
+
+    private final ObjectProvider<ShardDirectory> directory;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    public HomeShardRepositories(ObjectProvider<ShardDirectory> directory,
+                                 ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.directory = directory;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean
+                && factoryBean.getObjectType() != null
+                && AnnotatedElementUtils.hasAnnotation(factoryBean.getObjectType(), HomeShard.class)) {
+            MethodInterceptor interceptor = this::invokeOnHome;
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(0, interceptor)));
+        }
+        return bean;
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private Object invokeOnHome(MethodInvocation invocation) throws Throwable {
+        if (directory.getObject().currentShard() == ShardContext.HOME) return invocation.proceed();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return ShardContext.callOn(ShardContext.HOME, () -> proceed(invocation));
+        }
+        TransactionTemplate separate = new TransactionTemplate(transactionManager.getObject());
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        separate.setReadOnly(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        return ShardContext.callOn(ShardContext.HOME, () -> separate.execute(status -> proceed(invocation)));
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+}
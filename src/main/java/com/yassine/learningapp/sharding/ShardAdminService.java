@@ -0,0 +1,85 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.dto.QuizResultSummary;
+import com.yassine.learningapp.dto.ShardStats;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vues d'administration sur l'ensemble des shards (scatter-gather : une requête par shard en parallèle,
+ * fusion en mémoire) et déplacements d'utilisateurs.
+ */
+public class ShardAdminService {
+
+    private static final Comparator<QuizResultSummary> MOST_RECENT_FIRST = Comparator
+            .comparing(QuizResultSummary::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(QuizResultSummary::id, Comparator.reverseOrder());
+
+    private final Shards shards;
+    private final ShardDirectory directory;
+    private final ShardRebalancer rebalancer;
+    private final List<String> names;
+    private final DocumentRepository documentRepository;
+    private final QuizRepository quizRepository;
+    private final FlashCardsRepository flashCardsRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    public ShardAdminService(Shards shards,
+                             ShardDirectory directory,
+                             ShardRebalancer rebalancer,
+                             List<String> names,
+                             DocumentRepository documentRepository,
+                             QuizRepository quizRepository,
+                             FlashCardsRepository flashCardsRepository,
+                             QuizResultRepository quizResultRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.shards = shards;
+        this.directory = directory;
+        this.rebalancer = rebalancer;
+        this.names = names;
+        this.documentRepository = documentRepository;
+        this.quizRepository = quizRepository;
+        this.flashCardsRepository = flashCardsRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public List<ShardStats> stats() {
+        Map<Integer, Long> pinned = directory.pinnedCounts();
+        return shards.scatter(shard -> readOnlyTx.execute(status -> new ShardStats(
+                shard, names.get(shard), pinned.getOrDefault(shard, 0L),
+                documentRepository.count(), quizRepository.count(),
+                flashCardsRepository.count(), quizResultRepository.count())));
+    }
+
+    /** Dernières tentatives tous utilisateurs confondus : top {@code limit} de chaque shard, puis fusion. */
+    public List<QuizResultSummary> recentResults(int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return shards.scatter(shard -> readOnlyTx.execute(status -> quizResultRepository.findRecentSummaries(page)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(MOST_RECENT_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    public ShardDirectory.Placement placement(Long userId) {
+        directory.invalidate(userId);
+        return directory.placement(userId);
+    }
+
+    public ShardRebalancer.MoveResult move(Long userId, int target) {
+        return rebalancer.move(userId, target);
+    }
+}
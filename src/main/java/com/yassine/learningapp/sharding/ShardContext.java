@@ -0,0 +1,41 @@
+package com.yassine.learningapp.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard imposé au thread courant, prioritaire sur le placement de l'utilisateur authentifié : jobs qui
+ * parcourent chaque shard, requêtes d'administration, dépôts globaux forcés sur la base d'accueil.
+ * La transaction doit démarrer à l'intérieur de l'appel (une connexion déjà prise reste sur son shard).
+ */
+public final class ShardContext {
+
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /** Shard imposé, ou null (placement de l'utilisateur courant). */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    public static void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.yassine.learningapp.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datasources par numéro de shard : index 0 = base d'accueil (bean géré à part), puis un pool Hikari par
+ * shard déclaré, fermé avec le contexte.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<DataSource> all;
+    private final List<String> names;
+    private final List<HikariDataSource> owned;
+
+    public ShardDataSources(DataSource home, List<ShardingProperties.Shard> shards) {
+        List<DataSource> all = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<HikariDataSource> owned = new ArrayList<>();
+        all.add(home);
+        names.add("home");
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            String name = shard.name() != null ? shard.name() : "shard-" + (i + 1);
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName(name);
+            ds.setJdbcUrl(shard.url());
+            ds.setUsername(shard.username());
+            ds.setPassword(shard.password());
+            if (shard.maximumPoolSize() != null) ds.setMaximumPoolSize(shard.maximumPoolSize());
+            all.add(ds);
+            names.add(name);
+            owned.add(ds);
+        }
+        this.all = List.copyOf(all);
+        this.names = List.copyOf(names);
+        this.owned = owned;
+    }
+
+    public List<DataSource> all() {
+        return all;
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    /** Shards déclarés, sans la base d'accueil (migrée par Spring Boot). */
+    public List<DataSource> declared() {
+        return all.subList(1, all.size());
+    }
+
+    @Override
+    public void close() {
+        owned.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,133 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.security.CurrentUser;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Annuaire des placements : un utilisateur absent de {@code shard_directory} est sur le shard donné par le
+ * hash de son id ; une ligne l'épingle (déplacement, rééquilibrage) et porte l'état {@code MOVING} pendant
+ * la copie. L'annuaire est lu sur la base d'accueil directement, hors routage et hors transaction
+ * applicative, avec un cache local à durée de vie courte.
+ */
+public class ShardDirectory {
+
+    public enum State { ACTIVE, MOVING }
+
+    /**
+     * @param pinned vrai si le placement vient de l'annuaire, faux s'il est déduit du hash
+     */
+    public record Placement(int shard, State state, boolean pinned) {}
+
+    private record Cached(Placement placement, long loadedAtNanos) {}
+
+    private final JdbcTemplate home;
+    private final int shardCount;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    public ShardDirectory(DataSource homeDataSource, int shardCount, Duration cacheTtl, int maxEntries) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be >= 1");
+        this.home = new JdbcTemplate(homeDataSource);
+        this.shardCount = shardCount;
+        this.ttlNanos = cacheTtl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public Placement placement(Long userId) {
+        long now = System.nanoTime();
+        Cached cached = cache.get(userId);
+        if (cached != null && now - cached.loadedAtNanos() < ttlNanos) return cached.placement();
+
+        Placement placement = load(userId);
+        if (cache.size() < maxEntries || cache.containsKey(userId)) cache.put(userId, new Cached(placement, now));
+        return placement;
+    }
+
+    /** Shard du thread courant : imposé par {@link ShardContext}, sinon celui de l'utilisateur authentifié, sinon l'accueil. */
+    public int currentShard() {
+        Integer forced = ShardContext.current();
+        if (forced != null) return forced;
+        Long userId = CurrentUser.id();
+        return userId == null ? ShardContext.HOME : placement(userId).shard();
+    }
+
+    /** Gèle les écritures de l'utilisateur sur son shard actuel (effectif partout après la durée du cache). */
+    public void markMoving(Long userId, int shard) {
+        upsert(userId, shard, State.MOVING);
+    }
+
+    /** Épingle l'utilisateur sur {@code shard}, écritures autorisées. */
+    public void place(Long userId, int shard) {
+        upsert(userId, shard, State.ACTIVE);
+    }
+
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+    }
+
+    /** Utilisateurs épinglés par shard. */
+    public Map<Integer, Long> pinnedCounts() {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        home.query("SELECT shard, COUNT(*) FROM shard_directory GROUP BY shard ORDER BY shard",
+                rs -> {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sharding.directory-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> now - cached.loadedAtNanos() >= ttlNanos);
+    }
+
+    /** Shard par défaut : mélange fmix64 (MurmurHash3) pour répartir des ids séquentiels, stable entre instances. */
+    public static int hashShard(long userId, int shardCount) {
+        long h = userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) shardCount);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private Placement load(Long userId) {
+        List<Placement> rows = home.query("SELECT shard, state FROM shard_directory WHERE user_id = ?",
+                (rs, i) -> new Placement(rs.getInt(1), State.valueOf(rs.getString(2)), true), userId);
+        if (!rows.isEmpty()) return rows.get(0);
+        return new Placement(hashShard(userId, shardCount), State.ACTIVE, false);
+    }
+
+    /** UPDATE puis INSERT : portable (PostgreSQL, H2), un seul administrateur déplace un utilisateur à la fois. */
+    private void upsert(Long userId, int shard, State state) {
+        if (shard < 0 || shard >= shardCount) throw new IllegalArgumentException("Unknown shard " + shard);
+        Timestamp now = Timestamp.from(Instant.now());
+        int updated = home.update("UPDATE shard_directory SET shard = ?, state = ?, updated_at = ? WHERE user_id = ?",
+                shard, state.name(), now, userId);
+        if (updated == 0) {
+            home.update("INSERT INTO shard_directory (user_id, shard, state, updated_at) VALUES (?, ?, ?, ?)",
+                    userId, shard, state.name(), now);
+        }
+        cache.remove(userId);
+    }
+}
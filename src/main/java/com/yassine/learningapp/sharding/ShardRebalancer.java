@@ -0,0 +1,188 @@
+package com.yassine.learningapp.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Déplacement en ligne des données d'un utilisateur vers un autre shard :
+ * <ol>
+ *   <li>placement {@code MOVING} : les écritures de l'utilisateur sont refusées (503), les lectures continuent ;</li>
+ *   <li>attente de {@code drainDelay} : caches d'annuaire expirés, écritures en vol terminées ;</li>
+ *   <li>copie des lignes (ids conservés) dans une transaction sur la cible, après purge d'un essai précédent ;</li>
+ *   <li>placement {@code ACTIVE} sur la cible ;</li>
+ *   <li>nouvelle attente (lectures en vol sur la source), puis suppression sur la source.</li>
+ * </ol>
+ * En cas d'échec de la copie l'utilisateur est remis sur la source. Les résultats de quiz suivent le quiz
+ * (résultats des participants d'une session en direct compris), pas l'utilisateur qui les a obtenus.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String OWNED_DOCUMENTS = "SELECT id FROM documents WHERE user_id = ?";
+    private static final String OWNED_QUIZZES = "SELECT q.id FROM quizzes q JOIN documents d ON d.id = q.document_id WHERE d.user_id = ?";
+    private static final String OWNED_QUESTIONS = "SELECT qq.id FROM quiz_questions qq JOIN quizzes q ON q.id = qq.quiz_id "
+            + "JOIN documents d ON d.id = q.document_id WHERE d.user_id = ?";
+
+    /** Tables de l'utilisateur, parents d'abord ; chaque filtre prend l'id de l'utilisateur en unique paramètre. */
+    private static final List<Table> TABLES = List.of(
+            new Table("documents", "user_id = ?"),
+            new Table("quizzes", "document_id IN (" + OWNED_DOCUMENTS + ")"),
+            new Table("quiz_questions", "quiz_id IN (" + OWNED_QUIZZES + ")"),
+            new Table("question_stats", "question_id IN (" + OWNED_QUESTIONS + ")"),
+            new Table("flash_cards", "document_id IN (" + OWNED_DOCUMENTS + ")"),
+            new Table("quiz_results", "quiz_id IN (" + OWNED_QUIZZES + ")"),
+            new Table("document_chunks", "user_id = ?"),
+            new Table("user_abilities", "user_id = ?"),
+            new Table("adaptive_attempts", "user_id = ?"),
+            new Table("adaptive_attempt_questions", "attempt_id IN (SELECT id FROM adaptive_attempts WHERE user_id = ?)"));
+
+    private record Table(String name, String filter) {}
+
+    public record MoveResult(Long userId, int from, int to, Map<String, Integer> rows) {}
+
+    private final List<? extends DataSource> shards;
+    private final ShardDirectory directory;
+    private final long drainMillis;
+
+    public ShardRebalancer(List<? extends DataSource> shards, ShardDirectory directory, Duration drainDelay) {
+        this.shards = shards;
+        this.directory = directory;
+        this.drainMillis = drainDelay.toMillis();
+    }
+
+    /** Un déplacement à la fois par instance ; bloque environ deux fois {@code drainDelay}. */
+    public synchronized MoveResult move(Long userId, int target) {
+        if (target < 0 || target >= shards.size()) throw new IllegalArgumentException("Unknown shard " + target);
+        directory.invalidate(userId);
+        // Un déplacement interrompu (état MOVING) est repris : la copie purge d'abord la cible
+        int source = directory.placement(userId).shard();
+        if (source == target) {
+            directory.place(userId, target);
+            return new MoveResult(userId, source, target, Map.of());
+        }
+
+        log.info("Shard move started: userId={}, from={}, to={}", userId, source, target);
+        directory.markMoving(userId, source);
+        Map<String, Integer> copied;
+        try {
+            pause();
+            copied = copy(userId, source, target);
+        } catch (RuntimeException e) {
+            directory.place(userId, source);
+            log.warn("Shard move failed, user left on source: userId={}, from={}, to={}", userId, source, target, e);
+            throw e;
+        }
+        directory.place(userId, target);
+
+        pause();
+        transaction(source).executeWithoutResult(status -> deleteRows(jdbc(source), userId));
+        log.info("Shard move done: userId={}, from={}, to={}, rows={}", userId, source, target, copied);
+        return new MoveResult(userId, source, target, copied);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private Map<String, Integer> copy(Long userId, int source, int target) {
+        JdbcTemplate from = jdbc(source);
+        JdbcTemplate to = jdbc(target);
+        return transaction(target).execute(status -> {
+            deleteRows(to, userId);
+            Map<String, Integer> copied = new LinkedHashMap<>();
+            for (Table table : TABLES) {
+                BatchCopy batch = new BatchCopy(to, table.name());
+                from.query("SELECT * FROM " + table.name() + " WHERE " + table.filter(), batch::accept, userId);
+                copied.put(table.name(), batch.finish());
+            }
+            return copied;
+        });
+    }
+
+    /** Enfants d'abord : les filtres des tables filles passent encore par leurs parents. */
+    private static void deleteRows(JdbcTemplate jdbc, Long userId) {
+        List<Table> reversed = new ArrayList<>(TABLES);
+        Collections.reverse(reversed);
+        for (Table table : reversed) {
+            jdbc.update("DELETE FROM " + table.name() + " WHERE " + table.filter(), userId);
+        }
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shards.get(shard));
+    }
+
+    private TransactionTemplate transaction(int shard) {
+        return new TransactionTemplate(new DataSourceTransactionManager(shards.get(shard)));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(drainMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during shard move", e);
+        }
+    }
+
+    /** Insertion par lots des lignes lues, colonnes reprises des métadonnées du {@code SELECT *}. */
+    private static final class BatchCopy {
+        private final JdbcTemplate target;
+        private final String table;
+        private final List<Object[]> pending = new ArrayList<>(BATCH_SIZE);
+        private String insertSql;
+        private int columns;
+        private int count;
+
+        BatchCopy(JdbcTemplate target, String table) {
+            this.target = target;
+            this.table = table;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            if (insertSql == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                columns = meta.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner marks = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(meta.getColumnName(i));
+                    marks.add("?");
+                }
+                insertSql = "INSERT INTO " + table + " (" + names + ") VALUES (" + marks + ")";
+            }
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) row[i] = rs.getObject(i + 1);
+            pending.add(row);
+            if (pending.size() >= BATCH_SIZE) flush();
+        }
+
+        int finish() {
+            flush();
+            return count;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) return;
+            target.batchUpdate(insertSql, pending);
+            count += pending.size();
+            pending.clear();
+        }
+    }
+}
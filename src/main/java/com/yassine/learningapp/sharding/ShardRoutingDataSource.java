@@ -0,0 +1,71 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.exception.ShardMovingException;
+import com.yassine.learningapp.security.CurrentUser;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Choisit le shard à la prise de connexion : shard imposé par {@link ShardContext}, sinon celui de
+ * l'utilisateur authentifié, sinon la base d'accueil (login, jobs). Une connexion hors transaction
+ * {@code readOnly} pour un utilisateur en cours de déplacement est refusée : filet de sécurité derrière
+ * {@link ShardWriteGuard}, pour les écritures qui ne passent pas par une requête HTTP mutante.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardDirectory directory;
+    private final long retryAfterSeconds;
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards, ShardDirectory directory, long retryAfterSeconds) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) targets.put(i, shards.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardContext.HOME));
+        setLenientFallback(false);
+        this.directory = directory;
+        this.retryAfterSeconds = retryAfterSeconds;
+        afterPropertiesSet();
+    }
+
+    /**
+     * Datasource exposée : connexion physique prise au premier statement, une fois la transaction
+     * (et son flag read-only) démarrée dans le bon {@link ShardContext}. Les réglages par défaut des connexions
+     * (auto-commit, isolation) sont lus tout de suite sur la base d'accueil : sinon la première connexion
+     * de l'application, prise hors de tout contexte, pourrait tomber sur un utilisateur en déplacement.
+     */
+    public static DataSource lazy(List<? extends DataSource> shards, ShardDirectory directory, long retryAfterSeconds) {
+        LazyConnectionDataSourceProxy proxy =
+                new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards, directory, retryAfterSeconds));
+        ShardContext.runOn(ShardContext.HOME, () -> {
+            try (Connection ignored = proxy.getConnection()) {
+                // getConnection() mémorise les réglages par défaut
+            } catch (SQLException e) {
+                throw new IllegalStateException("Home shard unavailable", e);
+            }
+        });
+        return proxy;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer forced = ShardContext.current();
+        if (forced != null) return forced;
+        Long userId = CurrentUser.id();
+        if (userId == null) return ShardContext.HOME;
+
+        ShardDirectory.Placement placement = directory.placement(userId);
+        if (placement.state() == ShardDirectory.State.MOVING
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new ShardMovingException(userId, retryAfterSeconds);
+        }
+        return placement.shard();
+    }
+}
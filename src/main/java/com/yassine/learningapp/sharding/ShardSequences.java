@@ -0,0 +1,92 @@
+package com.yassine.learningapp.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plages d'identifiants disjointes par shard : les séquences du shard n produisent des ids dans
+ * [n << 48, (n + 1) << 48) (à partir de 1 pour la base d'accueil). Un déplacement conserve les ids, et les
+ * caches (L2, bundles hors-ligne, pools du quiz adaptatif) sont indexés par id seul : deux shards ne doivent
+ * jamais générer le même.
+ */
+@Slf4j
+public final class ShardSequences {
+
+    static final int RANGE_BITS = 48;
+
+    /** Tables des données utilisateur dont l'id est généré (BIGSERIAL : séquence {@code <table>_id_seq}). */
+    static final List<String> TABLES = List.of(
+            "documents", "quizzes", "quiz_questions", "flash_cards", "quiz_results", "document_chunks");
+
+    private static final String RANGE_SQL = "SELECT minimum_value, maximum_value FROM information_schema.sequences "
+            + "WHERE LOWER(sequence_name) = ? AND sequence_schema = CURRENT_SCHEMA";
+
+    record Range(long min, long max) {
+
+        boolean overlaps(Range other) {
+            return min <= other.max && other.min <= max;
+        }
+    }
+
+    private ShardSequences() {
+    }
+
+    static Range rangeOf(int shard) {
+        long min = shard == 0 ? 1 : (long) shard << RANGE_BITS;
+        return new Range(min, ((long) (shard + 1) << RANGE_BITS) - 1);
+    }
+
+    /**
+     * Place les séquences d'un shard migré dans sa plage. Sans effet si elles y sont déjà ; sinon un shard
+     * déclaré repart du début de sa plage (la base d'accueil garde sa position).
+     */
+    public static void assign(DataSource dataSource, int shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Range target = rangeOf(shard);
+        for (String table : TABLES) {
+            String sequence = table + "_id_seq";
+            if (target.equals(current(jdbc, sequence))) continue;
+            String restart = shard == 0 ? "" : " START WITH " + target.min() + " RESTART WITH " + target.min();
+            jdbc.execute("ALTER SEQUENCE " + sequence + " MINVALUE " + target.min() + " MAXVALUE " + target.max() + restart);
+            log.info("Shard id range assigned: shard={}, sequence={}, range=[{}, {}]", shard, sequence, target.min(), target.max());
+        }
+    }
+
+    /** Échoue si deux shards peuvent générer le même id pour une table (séquences non placées ou modifiées). */
+    public static void verify(List<? extends DataSource> shards) {
+        List<String> overlaps = new ArrayList<>();
+        for (String table : TABLES) {
+            String sequence = table + "_id_seq";
+            List<Range> ranges = new ArrayList<>();
+            for (DataSource shard : shards) {
+                ranges.add(current(new JdbcTemplate(shard), sequence));
+            }
+            for (int a = 0; a < ranges.size(); a++) {
+                for (int b = a + 1; b < ranges.size(); b++) {
+                    if (ranges.get(a).overlaps(ranges.get(b))) {
+                        overlaps.add(String.format(Locale.ROOT, "%s: shard %d %s / shard %d %s",
+                                sequence, a, ranges.get(a), b, ranges.get(b)));
+                    }
+                }
+            }
+        }
+        if (!overlaps.isEmpty()) {
+            throw new IllegalStateException("Shard id sequences overlap (migrate the shards to assign their ranges): " + overlaps);
+        }
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private static Range current(JdbcTemplate jdbc, String sequence) {
+        List<Range> found = jdbc.query(RANGE_SQL, (rs, i) -> new Range(rs.getLong(1), rs.getLong(2)), sequence);
+        if (found.isEmpty()) throw new IllegalStateException("Missing sequence " + sequence);
+        return found.getFirst();
+    }
+}
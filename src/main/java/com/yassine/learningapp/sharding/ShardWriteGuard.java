@@ -0,0 +1,37 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.exception.ShardMovingException;
+import com.yassine.learningapp.security.CurrentUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Rejette (503 + Retry-After) les requêtes mutantes d'un utilisateur dont les données sont en cours de
+ * déplacement, avant tout traitement : pas d'écriture partielle ni de fichier orphelin. Les lectures
+ * continuent sur le shard source.
+ */
+public class ShardWriteGuard implements HandlerInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ShardDirectory directory;
+    private final long retryAfterSeconds;
+
+    public ShardWriteGuard(ShardDirectory directory, long retryAfterSeconds) {
+        this.directory = directory;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (SAFE_METHODS.contains(request.getMethod())) return true;
+        Long userId = CurrentUser.id();
+        if (userId != null && directory.placement(userId).state() == ShardDirectory.State.MOVING) {
+            throw new ShardMovingException(userId, retryAfterSeconds);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Partitionnement par utilisateur (activé par {@code app.sharding.enabled=true}).
+ *
+ * <p>La datasource exposée route chaque connexion vers le shard de l'utilisateur courant
+ * ({@link ShardRoutingDataSource}) : les dépôts et services gardent leurs interfaces. Les dépôts
+ * {@link HomeShard} restent sur la base d'accueil. Incompatible avec le routage vers des réplicas
+ * ({@code app.datasource.routing.enabled}), qui remplace la même datasource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${app.datasource.routing.enabled:false}") boolean replicaRouting) {
+        if (replicaRouting) {
+            throw new IllegalStateException("app.sharding.enabled and app.datasource.routing.enabled are mutually exclusive");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource homeDataSource(DataSourceProperties properties) {
+        HikariDataSource home = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        home.setPoolName("home");
+        return home;
+    }
+
+    /**
+     * Toutes les bases migrées ici, avant la création de l'EntityManagerFactory (la migration de l'accueil par
+     * Spring Boot n'a ensuite plus rien à faire), puis leurs séquences placées dans la plage d'ids du shard.
+     * Au démarrage sans migration (job séparé), des plages qui se chevauchent font échouer le démarrage.
+     */
+    @Bean
+    public ShardDataSources shardDataSources(HikariDataSource homeDataSource,
+                                             ShardingProperties properties,
+                                             @Value("${spring.flyway.enabled:true}") boolean flywayEnabled,
+                                             @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+        ShardDataSources dataSources = new ShardDataSources(homeDataSource, properties.shards());
+        try {
+            if (flywayEnabled) {
+                List<DataSource> all = dataSources.all();
+                for (int shard = 0; shard < all.size(); shard++) {
+                    Flyway.configure().dataSource(all.get(shard)).locations(locations).load().migrate();
+                    ShardSequences.assign(all.get(shard), shard);
+                }
+            }
+            ShardSequences.verify(dataSources.all());
+        } catch (RuntimeException e) {
+            dataSources.close();
+            throw e;
+        }
+        return dataSources;
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(HikariDataSource homeDataSource, ShardingProperties properties) {
+        return new ShardDirectory(homeDataSource, 1 + properties.shards().size(),
+                properties.directoryCacheTtl(), properties.directoryCacheSize());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources, ShardDirectory shardDirectory,
+                                 ShardingProperties properties) {
+        return ShardRoutingDataSource.lazy(shardDataSources.all(), shardDirectory, retryAfterSeconds(properties));
+    }
+
+    @Bean
+    public static HomeShardRepositories homeShardRepositories(ObjectProvider<ShardDirectory> shardDirectory,
+                                                              ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new HomeShardRepositories(shardDirectory, transactionManager);
+    }
+
+    @Bean
+    public ShardWriteGuard shardWriteGuard(ShardDirectory shardDirectory, ShardingProperties properties) {
+        return new ShardWriteGuard(shardDirectory, retryAfterSeconds(properties));
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardDataSources shardDataSources, ShardDirectory shardDirectory,
+                                           ShardingProperties properties) {
+        return new ShardRebalancer(shardDataSources.all(), shardDirectory, properties.drainDelay());
+    }
+
+    @Bean
+    public ShardAdminService shardAdminService(Shards shards,
+                                               ShardDirectory shardDirectory,
+                                               ShardRebalancer shardRebalancer,
+                                               ShardDataSources shardDataSources,
+                                               DocumentRepository documentRepository,
+                                               QuizRepository quizRepository,
+                                               FlashCardsRepository flashCardsRepository,
+                                               QuizResultRepository quizResultRepository,
+                                               PlatformTransactionManager transactionManager) {
+        return new ShardAdminService(shards, shardDirectory, shardRebalancer, shardDataSources.names(),
+                documentRepository, quizRepository, flashCardsRepository, quizResultRepository, transactionManager);
+    }
+
+    /** Un déplacement dure deux fois {@code drain-delay} : le client réessaie après ce délai. */
+    private static long retryAfterSeconds(ShardingProperties properties) {
+        return Math.max(1, properties.drainDelay().multipliedBy(2).toSeconds());
+    }
+}
@@ -0,0 +1,41 @@
+package com.yassine.learningapp.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Partitionnement des données utilisateur : {@code app.sharding.*}.
+ *
+ * <p>Le shard 0 est la base d'accueil ({@code spring.datasource.*}) : tables globales (utilisateurs, jetons,
+ * outbox), annuaire {@code shard_directory} et données des utilisateurs qui y sont placés. {@code shards}
+ * décrit les shards 1..N-1. Les séquences d'identifiants de chaque base sont placées dans des plages
+ * disjointes à la migration et vérifiées au démarrage ({@link ShardSequences} : un déplacement conserve les ids) ;
+ * ajouter un shard change le hash : épingler d'abord les utilisateurs existants dans l'annuaire.
+ *
+ * @param enabled            active le partitionnement (sinon une seule datasource, comportement historique)
+ * @param shards             shards 1..N-1
+ * @param directoryCacheTtl  durée de vie d'un placement en cache ; borne le délai de prise en compte d'un déplacement
+ * @param directoryCacheSize nombre maximal de placements en cache
+ * @param drainDelay         attente entre le gel des écritures et la copie, puis avant la purge de la source
+ */
+@ConfigurationProperties("app.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        List<Shard> shards,
+        Duration directoryCacheTtl,
+        int directoryCacheSize,
+        Duration drainDelay
+) {
+
+    public ShardingProperties {
+        shards = shards == null ? List.of() : List.copyOf(shards);
+        directoryCacheTtl = directoryCacheTtl == null ? Duration.ofSeconds(5) : directoryCacheTtl;
+        directoryCacheSize = directoryCacheSize > 0 ? directoryCacheSize : 100_000;
+        // Au moins la durée du cache : plus aucune instance ne route d'écriture vers l'ancien placement
+        drainDelay = drainDelay == null || drainDelay.compareTo(directoryCacheTtl) < 0 ? directoryCacheTtl : drainDelay;
+    }
+
+    public record Shard(String name, String url, String username, String password, Integer maximumPoolSize) {}
+}
@@ -0,0 +1,78 @@
+package com.yassine.learningapp.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Point d'entrée des traitements qui ne suivent pas l'utilisateur authentifié : jobs qui parcourent chaque
+ * shard, écritures pour le compte d'un autre utilisateur, agrégats d'administration. Sans partitionnement
+ * ({@code app.sharding.enabled=false}) il n'y a qu'un shard, la base unique.
+ */
+@Component
+public class Shards {
+
+    private final ShardDirectory directory;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("shard-scatter-", 0).factory());
+
+    public Shards(ObjectProvider<ShardDirectory> directory) {
+        this.directory = directory.getIfAvailable();
+    }
+
+    public int count() {
+        return directory == null ? 1 : directory.shardCount();
+    }
+
+    public int shardOf(Long userId) {
+        return directory == null ? ShardContext.HOME : directory.placement(userId).shard();
+    }
+
+    /** Exécute {@code action} sur un shard ; la transaction doit être ouverte à l'intérieur. */
+    public <T> T callOn(int shard, Supplier<T> action) {
+        return ShardContext.callOn(shard, action);
+    }
+
+    public void runOn(int shard, Runnable action) {
+        ShardContext.runOn(shard, action);
+    }
+
+    /** Même requête sur chaque shard, en parallèle ; résultats dans l'ordre des shards. */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        int count = count();
+        if (count == 1) return List.of(callOn(ShardContext.HOME, () -> query.apply(ShardContext.HOME)));
+
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int s = shard;
+            futures.add(executor.submit(() -> callOn(s, () -> query.apply(s))));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (Future<T> future : futures) results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.yassine.learningapp.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Budget SQL d'un endpoint (méthode de controller, ou classe entière).
+ * Dépassement : log en production, échec du test en profil test (voir {@link SqlBudgetRecorder}).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlBudget {
+
+    /** Nombre maximum de statements JDBC exécutés par la requête. */
+    int maxStatements();
+
+    /** Nombre maximum d'exécutions d'une même forme de requête (N+1). */
+    int maxRepeatedShape() default 3;
+}
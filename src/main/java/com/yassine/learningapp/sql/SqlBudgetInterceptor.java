@@ -0,0 +1,55 @@
+package com.yassine.learningapp.sql;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Démarre le comptage SQL au début du handler et vérifie le {@link SqlBudget} déclaré à la fin.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private final SqlBudgetRecorder recorder;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        String endpoint = request.getMethod() + " " + request.getRequestURI();
+        if (handler instanceof HandlerMethod hm) {
+            endpoint = hm.getBeanType().getSimpleName() + "." + hm.getMethod().getName();
+        }
+        SqlStatementStats.start(endpoint);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request,
+                                @NonNull HttpServletResponse response,
+                                @NonNull Object handler,
+                                Exception ex) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        SqlStatementStats.clear();
+        if (stats == null) return;
+
+        log.debug("SQL stats: endpoint={} statements={} time={}ms", stats.endpoint(), stats.statements(), stats.totalMillis());
+
+        SqlBudget budget = budgetOf(handler);
+        if (budget != null) recorder.check(budget, stats);
+    }
+
+    private static SqlBudget budgetOf(Object handler) {
+        if (!(handler instanceof HandlerMethod hm)) return null;
+        SqlBudget budget = AnnotatedElementUtils.findMergedAnnotation(hm.getMethod(), SqlBudget.class);
+        return budget != null ? budget : AnnotatedElementUtils.findMergedAnnotation(hm.getBeanType(), SqlBudget.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.yassine.learningapp.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collecte les dépassements de {@link SqlBudget}.
+ * Avec {@code app.sql.budget.enforce=true} (profil test), les violations sont gardées
+ * pour être vérifiées par les tests ; sinon elles sont seulement loggées.
+ */
+@Slf4j
+@Component
+public class SqlBudgetRecorder {
+
+    public record Violation(String endpoint, String reason, int statements, int maxShapeRepetitions, List<String> repeatedShapes) {}
+
+    private final boolean enforce;
+    private final List<Violation> violations = new CopyOnWriteArrayList<>();
+
+    public SqlBudgetRecorder(@Value("${app.sql.budget.enforce:false}") boolean enforce) {
+        this.enforce = enforce;
+    }
+
+    void check(SqlBudget budget, SqlStatementStats stats) {
+        if (stats.statements() > budget.maxStatements()) {
+            report(stats, "statements " + stats.statements() + " > budget " + budget.maxStatements());
+        }
+        if (stats.maxShapeRepetitions() > budget.maxRepeatedShape()) {
+            report(stats, "same statement repeated " + stats.maxShapeRepetitions() + " times > budget " + budget.maxRepeatedShape());
+        }
+    }
+
+    private void report(SqlStatementStats stats, String reason) {
+        Violation violation = new Violation(stats.endpoint(), reason, stats.statements(),
+                stats.maxShapeRepetitions(), List.copyOf(stats.repeatedShapes()));
+        log.error("SQL budget exceeded: endpoint={} {} repeated={}", violation.endpoint(), reason, violation.repeatedShapes());
+        if (enforce) violations.add(violation);
+    }
+
+    public List<Violation> violations() {
+        return List.copyOf(violations);
+    }
+
+    public void reset() {
+        violations.clear();
+    }
+}
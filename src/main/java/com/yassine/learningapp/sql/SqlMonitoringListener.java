@@ -0,0 +1,74 @@
+package com.yassine.learningapp.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Compte les statements par requête HTTP, signale les formes répétées (N+1)
+ * et loggue les requêtes lentes avec la forme de leurs paramètres (types, jamais les valeurs).
+ * Branché sur le proxy JDBC (voir {@code DataSourceProxyPostProcessor}).
+ */
+@Slf4j
+@Component
+public class SqlMonitoringListener implements QueryExecutionListener {
+
+    private static final String START_KEY = "sql.startNanos";
+
+    private final long slowThresholdNanos;
+    private final int repeatedShapeThreshold;
+
+    public SqlMonitoringListener(@Value("${app.sql.slow-query-ms:200}") long slowQueryMs,
+                                 @Value("${app.sql.n-plus-one-threshold:5}") int repeatedShapeThreshold) {
+        this.slowThresholdNanos = slowQueryMs * 1_000_000;
+        this.repeatedShapeThreshold = repeatedShapeThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_KEY, Long.class);
+        long elapsed = start == null ? execInfo.getElapsedTime() * 1_000_000 : System.nanoTime() - start;
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+
+        if (elapsed >= slowThresholdNanos) {
+            log.warn("Slow query: {}ms batch={} params={} sql={}",
+                    elapsed / 1_000_000, execInfo.isBatch(), parameterShapes(queryInfoList), SqlShape.of(sql));
+        }
+
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats == null) return;
+
+        String shape = SqlShape.of(sql);
+        int count = stats.record(shape, elapsed);
+        if (count >= repeatedShapeThreshold && stats.flagRepeated(shape)) {
+            log.warn("Possible N+1: endpoint={} executed {} times: {}", stats.endpoint(), count, shape);
+        }
+    }
+
+    /** Types des paramètres liés, ex. "[Long, String(12)]" : assez pour diagnostiquer, sans fuite de données. */
+    static String parameterShapes(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) return "[]";
+        List<ParameterSetOperation> params = queryInfoList.get(0).getParametersList().get(0);
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (ParameterSetOperation op : params) {
+            Object[] args = op.getArgs();
+            Object value = args != null && args.length > 1 ? args[1] : null;
+            if (value == null) joiner.add(op.getMethod().getName().equals("setNull") ? "null" : "?");
+            else if (value instanceof CharSequence s) joiner.add("String(" + s.length() + ")");
+            else joiner.add(value.getClass().getSimpleName());
+        }
+        return joiner.toString();
+    }
+}
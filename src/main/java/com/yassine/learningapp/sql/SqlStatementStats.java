@@ -0,0 +1,88 @@
+package com.yassine.learningapp.sql;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Compteurs SQL de la requête HTTP courante : nombre de statements, temps cumulé, répétitions par forme.
+ * Le thread de la requête écrit, ainsi que les tâches qu'elle lance en parallèle ({@link #propagate}).
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private int statements;
+    private long totalNanos;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+    private final Set<String> repeatedShapes = new LinkedHashSet<>();
+
+    SqlStatementStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    static SqlStatementStats start(String endpoint) {
+        SqlStatementStats stats = new SqlStatementStats(endpoint);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Tâche lancée pour la requête courante sur un autre thread : ses statements comptent dans le même budget. */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) return task;
+        return () -> {
+            CURRENT.set(stats);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * @return le nombre d'exécutions de cette forme dans la requête (après incrément)
+     */
+    synchronized int record(String shape, long elapsedNanos) {
+        statements++;
+        totalNanos += elapsedNanos;
+        return shapeCounts.merge(shape, 1, Integer::sum);
+    }
+
+    /** @return true la première fois que la forme dépasse le seuil (pour ne logguer qu'une fois) */
+    synchronized boolean flagRepeated(String shape) {
+        return repeatedShapes.add(shape);
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public synchronized int statements() {
+        return statements;
+    }
+
+    public synchronized long totalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    public synchronized int maxShapeRepetitions() {
+        return shapeCounts.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    public synchronized Set<String> repeatedShapes() {
+        return new LinkedHashSet<>(repeatedShapes);
+    }
+}
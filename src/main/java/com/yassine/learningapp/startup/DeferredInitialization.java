@@ -0,0 +1,74 @@
+package com.yassine.learningapp.startup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Initialisation différée des beans non critiques (springdoc, contrôleurs d'administration, ...) : ils sont
+ * marqués {@code lazy-init} et créés au premier usage, hors du chemin de démarrage. Un bean est retenu si
+ * son nom figure dans {@code beans}, ou si sa classe, son type de retour {@code @Bean} ou sa classe de
+ * configuration commence par l'un des {@code prefixes}.
+ *
+ * <p>Sans effet sur un bean injecté dans un bean créé au démarrage (il est alors créé avec lui) ; à ne pas
+ * appliquer aux beans porteurs de {@code @Scheduled} ou d'écouteurs d'événements, qui ne seraient jamais créés.
+ */
+public class DeferredInitialization implements BeanFactoryPostProcessor {
+
+    private final List<String> prefixes;
+    private final Set<String> beans;
+
+    public DeferredInitialization(List<String> prefixes, Set<String> beans) {
+        this.prefixes = List.copyOf(prefixes);
+        this.beans = Set.copyOf(beans);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE || definition.isLazyInit()) continue;
+            if (beans.contains(name) || matches(typeNames(beanFactory, definition))) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private boolean matches(List<String> typeNames) {
+        for (String typeName : typeNames) {
+            for (String prefix : prefixes) {
+                if (typeName.startsWith(prefix)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Noms de types connus sans charger de classe : classe du bean, type de retour et classe de la méthode {@code @Bean}. */
+    private static List<String> typeNames(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        List<String> names = new ArrayList<>(3);
+        if (definition.getBeanClassName() != null) names.add(definition.getBeanClassName());
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                names.add(factoryMethod.getReturnTypeName());
+                names.add(factoryMethod.getDeclaringClassName());
+            }
+        }
+        String factoryBean = definition.getFactoryBeanName();
+        if (factoryBean != null && beanFactory.containsBeanDefinition(factoryBean)) {
+            String factoryClass = beanFactory.getBeanDefinition(factoryBean).getBeanClassName();
+            if (factoryClass != null) names.add(factoryClass);
+        }
+        return names;
+    }
+}
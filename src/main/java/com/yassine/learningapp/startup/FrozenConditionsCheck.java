@@ -0,0 +1,69 @@
+package com.yassine.learningapp.startup;
+
+import com.yassine.learningapp.datasource.ReadWriteRoutingConfig;
+import com.yassine.learningapp.sharding.ShardingConfig;
+import com.yassine.learningapp.tokenstore.EmbeddedRefreshTokenStore;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Avec un build AOT (profil Maven {@code fast-start}), les conditions sur propriétés sont évaluées au build : la
+ * présence des beans conditionnels est figée. Au démarrage, chaque propriété figée est comparée à la présence de
+ * son bean, et une divergence fait échouer le démarrage (ex. {@code APP_SHARDING_ENABLED=true} sur une image
+ * construite sans partitionnement servirait silencieusement une seule base). Sans AOT, les deux concordent toujours.
+ *
+ * <p>Les valeurs figées sont fixées par les {@code ARG} de {@code Dockerfile.fast-start}.
+ */
+@Component
+public class FrozenConditionsCheck implements SmartInitializingSingleton {
+
+    /** {@code enabled} : valeur courante de la propriété ; {@code beanType} : bean créé seulement si elle est vraie. */
+    record FrozenCondition(String property, boolean enabled, Class<?> beanType) {}
+
+    private final ListableBeanFactory beanFactory;
+    private final Environment environment;
+
+    public FrozenConditionsCheck(ListableBeanFactory beanFactory, Environment environment) {
+        this.beanFactory = beanFactory;
+        this.environment = environment;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> mismatches = mismatches(conditions(environment),
+                type -> beanFactory.getBeanNamesForType(type, true, false).length > 0);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Properties differ from the values this build was made with (Spring AOT "
+                    + "freezes them, rebuild the image with matching Dockerfile.fast-start ARGs): " + mismatches);
+        }
+    }
+
+    static List<FrozenCondition> conditions(Environment environment) {
+        boolean embeddedStore = "embedded".equals(environment.getProperty("app.refresh-store.type", "jpa"))
+                || "embedded".equals(environment.getProperty("app.refresh-store.migrate-from", ""));
+        return List.of(
+                new FrozenCondition("app.sharding.enabled",
+                        environment.getProperty("app.sharding.enabled", Boolean.class, false), ShardingConfig.class),
+                new FrozenCondition("app.datasource.routing.enabled",
+                        environment.getProperty("app.datasource.routing.enabled", Boolean.class, false), ReadWriteRoutingConfig.class),
+                new FrozenCondition("app.refresh-store.type/migrate-from=embedded",
+                        embeddedStore, EmbeddedRefreshTokenStore.class));
+    }
+
+    static List<String> mismatches(List<FrozenCondition> conditions, Predicate<Class<?>> present) {
+        List<String> mismatches = new ArrayList<>();
+        for (FrozenCondition condition : conditions) {
+            boolean built = present.test(condition.beanType());
+            if (built != condition.enabled()) {
+                mismatches.add(condition.property() + " is " + condition.enabled() + " but was " + built + " at build time");
+            }
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,31 @@
+package com.yassine.learningapp.startup;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Démarrage rapide ({@code app.startup.defer.enabled=true}, activé par le profil Maven {@code fast-start}) :
+ * voir {@link DeferredInitialization}. Lu avant la création des beans, d'où le {@link Binder} plutôt
+ * que {@code @Value}. Avec un build AOT, la valeur retenue est celle du build.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    @Bean
+    public static DeferredInitialization deferredInitialization(Environment environment) {
+        Binder binder = Binder.get(environment);
+        if (!binder.bind("app.startup.defer.enabled", Boolean.class).orElse(false)) {
+            return new DeferredInitialization(List.of(), Set.of());
+        }
+        List<String> prefixes = binder.bind("app.startup.defer.prefixes", Bindable.listOf(String.class)).orElse(List.of());
+        List<String> beans = binder.bind("app.startup.defer.beans", Bindable.listOf(String.class)).orElse(List.of());
+        return new DeferredInitialization(prefixes, new HashSet<>(beans));
+    }
+}
@@ -0,0 +1,51 @@
+package com.yassine.learningapp.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Une ligne de log au démarrage : temps depuis le lancement de la JVM, RSS du processus et mode de
+ * démarrage (AOT, archive CDS), pour comparer les pods entre eux. La mesure de référence, jusqu'à la
+ * première requête servie, est faite par {@code scripts/startup-benchmark.sh}.
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        boolean cds = jvmArgs.stream().anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+        log.info("Startup: ready after {} ms, rss={} MB, aot={}, cds={}",
+                ManagementFactory.getRuntimeMXBean().getUptime(), rssMegabytes(), AotDetector.useGeneratedArtifacts(), cds);
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** VmRSS de {@code /proc} (Linux) ; -1 ailleurs. */
+    private static long rssMegabytes() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // pas de /proc : hors Linux
+        }
+        return -1;
+    }
+}
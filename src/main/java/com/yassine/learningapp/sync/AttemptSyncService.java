@@ -0,0 +1,207 @@
+package com.yassine.learningapp.sync;
+
+import com.yassine.learningapp.dto.AttemptSyncRequest;
+import com.yassine.learningapp.dto.AttemptSyncResponse;
+import com.yassine.learningapp.dto.AttemptSyncResponse.Status;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultBatchInserter;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Synchronisation en lot des tentatives de quiz passées hors-ligne.
+ *
+ * <p>Un lot = une transaction : quiz possédés (1 requête), clés déjà en base (1 requête), insertion JDBC
+ * en batch ({@link QuizResultBatchInserter}) avec {@code ON CONFLICT DO NOTHING} sur (user_id, client_attempt_id),
+ * relecture des ids (1 requête).
+ * La contrainte d'unicité fait foi : rejouer un lot, entièrement ou après un échec partiel, ne crée jamais
+ * de doublon et renvoie les ids d'origine. L'index mémoire ne sert qu'à court-circuiter les rejeux récents ;
+ * il n'est alimenté qu'après commit.
+ */
+@Slf4j
+@Service
+public class AttemptSyncService {
+
+    /** Sans {@code ':'} : réservé aux clés posées par le serveur ({@code LiveQuizService.ATTEMPT_KEY_PREFIX}). */
+    private static final Pattern KEY_FORMAT = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+    private static final int MAX_QUESTIONS = 1000;
+
+    private final QuizRepository quizRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final QuizResultBatchInserter inserter;
+    private final TransactionTemplate tx;
+    private final HotPathMetrics metrics;
+    private final IdempotencyKeyIndex keyIndex;
+
+    public AttemptSyncService(QuizRepository quizRepository,
+                              QuizResultRepository quizResultRepository,
+                              QuizResultBatchInserter inserter,
+                              PlatformTransactionManager transactionManager,
+                              HotPathMetrics metrics,
+                              @Value("${app.sync.attempts.key-ttl-hours:24}") long keyTtlHours,
+                              @Value("${app.sync.attempts.max-keys:100000}") int maxKeys) {
+        this.quizRepository = quizRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.inserter = inserter;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.keyIndex = new IdempotencyKeyIndex(Duration.ofHours(keyTtlHours), maxKeys, System::nanoTime);
+        metrics.gauge("app.sync.attempts.keys", keyIndex, IdempotencyKeyIndex::size);
+    }
+
+    public AttemptSyncResponse sync(Long userId, List<AttemptSyncRequest.Item> attempts) {
+        AttemptSyncResponse.Item[] results = new AttemptSyncResponse.Item[attempts.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> pending = new ArrayList<>();
+
+        // 1. Validation et rejeux connus, sans base
+        for (int i = 0; i < attempts.size(); i++) {
+            AttemptSyncRequest.Item item = attempts.get(i);
+            String error = validate(item);
+            if (error != null) {
+                results[i] = AttemptSyncResponse.Item.rejected(item == null ? null : item.idempotencyKey(), error);
+                continue;
+            }
+            if (firstByKey.putIfAbsent(item.idempotencyKey(), i) != null) {
+                continue; // doublon dans le lot : résolu à la fin depuis la première occurrence
+            }
+            Long known = keyIndex.find(userId, item.idempotencyKey());
+            if (known != null) {
+                results[i] = AttemptSyncResponse.Item.of(item.idempotencyKey(), Status.DUPLICATE, known);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // 2. Base : une transaction pour tout le reste du lot
+        if (!pending.isEmpty()) {
+            tx.executeWithoutResult(status -> persist(userId, attempts, pending, results));
+            for (int i : pending) {
+                if (results[i].resultId() != null) {
+                    keyIndex.remember(userId, results[i].idempotencyKey(), results[i].resultId());
+                }
+            }
+        }
+
+        // 3. Doublons internes au lot : même issue que la première occurrence
+        for (int i = 0; i < attempts.size(); i++) {
+            if (results[i] != null) continue;
+            AttemptSyncResponse.Item first = results[firstByKey.get(attempts.get(i).idempotencyKey())];
+            results[i] = first.status() == Status.REJECTED
+                    ? first
+                    : AttemptSyncResponse.Item.of(first.idempotencyKey(), Status.DUPLICATE, first.resultId());
+        }
+
+        List<AttemptSyncResponse.Item> list = Arrays.asList(results);
+        for (AttemptSyncResponse.Item item : list) {
+            metrics.attemptSync(item.status().name().toLowerCase(Locale.ROOT)).increment();
+        }
+        return new AttemptSyncResponse(list);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sync.attempts.sweep-interval-ms:300000}")
+    public void evictExpiredKeys() {
+        int evicted = keyIndex.evictExpired();
+        if (evicted > 0) log.debug("Attempt key index: evicted={}, remaining={}", evicted, keyIndex.size());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private void persist(Long userId, List<AttemptSyncRequest.Item> attempts, List<Integer> pending,
+                         AttemptSyncResponse.Item[] results) {
+        Set<Long> quizIds = new HashSet<>();
+        for (int i : pending) quizIds.add(attempts.get(i).quizId());
+        Set<Long> owned = new HashSet<>(quizRepository.findIdsOwnedBy(quizIds, userId));
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int i : pending) {
+            AttemptSyncRequest.Item item = attempts.get(i);
+            if (owned.contains(item.quizId())) {
+                candidates.add(i);
+            } else {
+                results[i] = AttemptSyncResponse.Item.rejected(item.idempotencyKey(), "Quiz introuvable");
+            }
+        }
+        if (candidates.isEmpty()) return;
+
+        // Rejeu après une réponse perdue : déjà en base, pas besoin de tenter l'insertion
+        Map<String, Long> existing = resultIds(userId, attempts, candidates);
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i : candidates) {
+            String key = attempts.get(i).idempotencyKey();
+            Long resultId = existing.get(key);
+            if (resultId != null) {
+                results[i] = AttemptSyncResponse.Item.of(key, Status.DUPLICATE, resultId);
+            } else {
+                toInsert.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) return;
+
+        int[] counts = insert(userId, attempts, toInsert);
+        Map<String, Long> inserted = resultIds(userId, attempts, toInsert);
+        for (int n = 0; n < toInsert.size(); n++) {
+            int i = toInsert.get(n);
+            String key = attempts.get(i).idempotencyKey();
+            // 0 : une requête concurrente a inséré la même clé entre-temps (ON CONFLICT DO NOTHING)
+            Status status = counts[n] == 0 ? Status.DUPLICATE : Status.CREATED;
+            results[i] = AttemptSyncResponse.Item.of(key, status, inserted.get(key));
+        }
+    }
+
+    private int[] insert(Long userId, List<AttemptSyncRequest.Item> attempts, List<Integer> indexes) {
+        List<QuizResultBatchInserter.Row> rows = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            AttemptSyncRequest.Item item = attempts.get(i);
+            rows.add(new QuizResultBatchInserter.Row(userId, item.quizId(), item.score(), item.questionCount(),
+                    item.timeTakenSeconds(), item.idempotencyKey()));
+        }
+        return inserter.insert(rows);
+    }
+
+    private Map<String, Long> resultIds(Long userId, List<AttemptSyncRequest.Item> attempts, List<Integer> indexes) {
+        List<String> keys = indexes.stream().map(i -> attempts.get(i).idempotencyKey()).toList();
+        Map<String, Long> ids = new HashMap<>();
+        for (SyncedAttempt synced : quizResultRepository.findSyncedAttempts(userId, keys)) {
+            ids.put(synced.clientAttemptId(), synced.resultId());
+        }
+        return ids;
+    }
+
+    private static String validate(AttemptSyncRequest.Item item) {
+        if (item == null) return "Tentative vide";
+        if (item.idempotencyKey() == null || !KEY_FORMAT.matcher(item.idempotencyKey()).matches()) {
+            return "Clé d'idempotence invalide (8 à 64 caractères [A-Za-z0-9_-])";
+        }
+        if (item.quizId() == null) return "quizId manquant";
+        if (item.questionCount() == null || item.questionCount() < 1 || item.questionCount() > MAX_QUESTIONS) {
+            return "questionCount invalide";
+        }
+        if (item.score() == null || item.score() < 0 || item.score() > item.questionCount()) {
+            return "score invalide";
+        }
+        if (item.timeTakenSeconds() != null && (item.timeTakenSeconds() < 0 || item.timeTakenSeconds().isNaN())) {
+            return "timeTakenSeconds invalide";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.yassine.learningapp.sync;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Index mémoire des clés d'idempotence récemment vues : clé -> id du résultat créé.
+ *
+ * <p>Simple cache devant la contrainte d'unicité en base : il évite une requête quand un client rejoue
+ * le même lot juste après (réponse perdue, reconnexion). Une clé absente (expirée, autre instance,
+ * redémarrage) n'est pas une erreur : la base tranche. Taille bornée : au-delà de {@code maxKeys},
+ * les nouvelles clés ne sont plus mémorisées jusqu'à la prochaine purge.
+ */
+public final class IdempotencyKeyIndex {
+
+    private record Entry(long resultId, long expiresAtNanos) {}
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    public IdempotencyKeyIndex(Duration ttl, int maxKeys, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /** @return l'id du résultat déjà enregistré pour cette clé, ou null si inconnue / expirée */
+    public Long find(Long userId, String key) {
+        Entry entry = entries.get(indexKey(userId, key));
+        if (entry == null) return null;
+        if (entry.expiresAtNanos() - nanoClock.getAsLong() <= 0) {
+            entries.remove(indexKey(userId, key), entry);
+            return null;
+        }
+        return entry.resultId();
+    }
+
+    public void remember(Long userId, String key, long resultId) {
+        if (entries.size() >= maxKeys && evictExpired() == 0) return;
+        entries.put(indexKey(userId, key), new Entry(resultId, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    /** Supprime les clés expirées. Retourne le nombre supprimé. */
+    public int evictExpired() {
+        long now = nanoClock.getAsLong();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+        return before - entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String indexKey(Long userId, String key) {
+        return userId + ":" + key;
+    }
+}
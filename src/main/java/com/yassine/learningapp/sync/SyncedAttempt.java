@@ -0,0 +1,4 @@
+package com.yassine.learningapp.sync;
+
+/** Tentative déjà enregistrée : clé client -> id du QuizResult. */
+public record SyncedAttempt(String clientAttemptId, Long resultId) {}
@@ -0,0 +1,488 @@
+package com.yassine.learningapp.tokenstore;
+
+import com.yassine.learningapp.dto.TokenType;
+import com.yassine.learningapp.entity.RefreshToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Backend embarqué : index en mémoire + journal append-only sur disque.
+ *
+ * <ul>
+ *   <li>Index primaire {@code tokenHash -> token} et index secondaire {@code userId -> hashes} : lectures sans verrou.</li>
+ *   <li>Chaque mutation est ajoutée au journal (un enregistrement PUT/DEL encadré par longueur + CRC32C) puis
+ *       appliquée à l'index, sous un verrou unique : l'ordre du journal est celui des mutations.</li>
+ *   <li>Le journal est écrit dans le cache OS à chaque mutation (survit à un crash du process) et
+ *       synchronisé sur disque périodiquement ({@link #sync()}) : au pire {@code fsync-interval} de perte
+ *       sur coupure machine — un utilisateur devra se reconnecter.</li>
+ *   <li>Au démarrage le journal est rejoué ; une fin d'enregistrement tronquée (crash pendant l'écriture) est ignorée.</li>
+ *   <li>Compaction : quand le journal dépasse {@code compaction-ratio} × le nombre de tokens vivants, il est
+ *       réécrit (un PUT par token) dans un fichier temporaire puis remplacé atomiquement. La réécriture et son
+ *       fsync se font hors verrou ; seuls la recopie des enregistrements ajoutés entre-temps et l'échange des
+ *       fichiers bloquent les mutations.</li>
+ * </ul>
+ *
+ * <p>État local à l'instance : à réserver à un déploiement mono-instance (ou sessions collantes).
+ */
+@Slf4j
+public class EmbeddedRefreshTokenStore implements RefreshTokenStore, Closeable {
+
+    static final String LOG_FILE = "refresh-tokens.log";
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final Map<String, RefreshToken> byHash = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> byUser = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Path dir;
+    private final Path logFile;
+    private final int compactionMinRecords;
+    private final double compactionRatio;
+
+    private final Object writeLock = new Object();
+    /** Une compaction à la fois ; pris avant {@code writeLock}, jamais après. */
+    private final Object compactLock = new Object();
+    private FileChannel channel;
+    private long logRecords;
+    private boolean dirty;
+
+    public EmbeddedRefreshTokenStore(Path dir, int compactionMinRecords, double compactionRatio) {
+        this.dir = dir;
+        this.logFile = dir.resolve(LOG_FILE);
+        this.compactionMinRecords = compactionMinRecords;
+        this.compactionRatio = compactionRatio;
+        try {
+            Files.createDirectories(dir);
+            replay();
+            this.channel = openAppend(logFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open refresh token log " + logFile, e);
+        }
+        log.info("Embedded refresh token store: dir={}, tokens={}, logRecords={}", dir, byHash.size(), logRecords);
+    }
+
+    @Override
+    public String name() {
+        return "embedded";
+    }
+
+    // -------------------------
+    // Lectures (sans verrou)
+    // -------------------------
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return Optional.ofNullable(byHash.get(tokenHash)).map(EmbeddedRefreshTokenStore::copy);
+    }
+
+    @Override
+    public List<RefreshToken> findValidByUserId(Long userId, LocalDateTime now) {
+        List<RefreshToken> result = new ArrayList<>();
+        for (String hash : byUser.getOrDefault(userId, Set.of())) {
+            RefreshToken token = byHash.get(hash);
+            if (token != null && isActive(token, now)) {
+                result.add(copy(token));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long countActiveSessions(Long userId, LocalDateTime now) {
+        long count = 0;
+        for (String hash : byUser.getOrDefault(userId, Set.of())) {
+            RefreshToken token = byHash.get(hash);
+            if (token != null && isActive(token, now)) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void forEach(Consumer<RefreshToken> action) {
+        byHash.values().forEach(token -> action.accept(copy(token)));
+    }
+
+    public int size() {
+        return byHash.size();
+    }
+
+    // -------------------------
+    // Mutations (journal puis index, sous verrou)
+    // -------------------------
+
+    @Override
+    public RefreshToken save(RefreshToken token) {
+        synchronized (writeLock) {
+            RefreshToken stored = token.getId() != null ? copy(token) : withId(token);
+            append(OP_PUT, stored);
+            put(stored);
+            return copy(stored);
+        }
+    }
+
+    @Override
+    public int revokeAllByUserId(Long userId) {
+        synchronized (writeLock) {
+            int revoked = 0;
+            for (String hash : byUser.getOrDefault(userId, Set.of())) {
+                RefreshToken token = byHash.get(hash);
+                if (token == null || token.isRevoked()) continue;
+                RefreshToken updated = copy(token);
+                updated.revoke();
+                append(OP_PUT, updated);
+                put(updated);
+                revoked++;
+            }
+            return revoked;
+        }
+    }
+
+    @Override
+    public int deleteExpired(LocalDateTime threshold) {
+        int deleted = 0;
+        synchronized (writeLock) {
+            for (RefreshToken token : List.copyOf(byHash.values())) {
+                if (token.getExpiresAt().isBefore(threshold)) {
+                    append(OP_DELETE, token);
+                    remove(token.getTokenHash());
+                    deleted++;
+                }
+            }
+        }
+        maybeCompact();
+        return deleted;
+    }
+
+    /**
+     * Force le journal sur disque s'il a changé depuis le dernier appel.
+     * Le fsync se fait hors verrou : les écritures concurrentes ne l'attendent pas.
+     */
+    public void sync() {
+        FileChannel current;
+        synchronized (writeLock) {
+            if (!dirty || channel == null) return;
+            current = channel;
+            dirty = false;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Canal remplacé par une compaction (déjà synchronisée) ou fermé
+        } catch (IOException e) {
+            log.error("Refresh token log fsync failed: {}", e.getMessage());
+            synchronized (writeLock) {
+                dirty = true;
+            }
+        }
+    }
+
+    /** Réécrit le journal (un PUT par token vivant) si le ratio journal / tokens vivants est dépassé. */
+    public boolean maybeCompact() {
+        synchronized (compactLock) {
+            List<RefreshToken> live;
+            long logEnd;
+            long recordsAtSnapshot;
+            synchronized (writeLock) {
+                if (channel == null
+                        || logRecords < compactionMinRecords
+                        || logRecords < compactionRatio * Math.max(1, byHash.size())) {
+                    return false;
+                }
+                // Les tokens de l'index ne sont jamais modifiés en place : l'instantané est cohérent avec logEnd
+                live = List.copyOf(byHash.values());
+                recordsAtSnapshot = logRecords;
+                try {
+                    logEnd = channel.size();
+                } catch (IOException e) {
+                    log.error("Refresh token log compaction skipped: {}", e.getMessage());
+                    return false;
+                }
+            }
+            return compact(live, logEnd, recordsAtSnapshot);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (channel == null) return;
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Refresh token log close failed: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    // -------------------------
+    // Journal
+    // -------------------------
+
+    private void append(byte op, RefreshToken token) {
+        if (channel == null) {
+            throw new IllegalStateException("Refresh token log is closed");
+        }
+        try {
+            channel.write(frame(op, token));
+            logRecords++;
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Refresh token log write failed", e);
+        }
+    }
+
+    /**
+     * Écrit l'instantané {@code live} (pris à la position {@code logEnd} du journal) et le synchronise hors
+     * verrou, puis, sous verrou, y recopie les enregistrements ajoutés depuis {@code logEnd} (dans l'ordre :
+     * le rejeu donne le même état) et remplace le journal. Un échec laisse le journal courant en service.
+     */
+    private boolean compact(List<RefreshToken> live, long logEnd, long recordsAtSnapshot) {
+        Path tmp = dir.resolve(LOG_FILE + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (RefreshToken token : live) {
+                out.write(frame(OP_PUT, token));
+            }
+            out.force(true);
+        } catch (IOException e) {
+            log.error("Refresh token log compaction failed, keeping current log: {}", e.getMessage());
+            deleteQuietly(tmp);
+            return false;
+        }
+
+        synchronized (writeLock) {
+            if (channel == null) {
+                deleteQuietly(tmp);
+                return false;
+            }
+            long before = logRecords;
+            try (FileChannel in = FileChannel.open(logFile, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long end = channel.size();
+                for (long position = logEnd; position < end; ) {
+                    position += in.transferTo(position, end - position, out);
+                }
+            } catch (IOException e) {
+                log.error("Refresh token log compaction failed, keeping current log: {}", e.getMessage());
+                deleteQuietly(tmp);
+                return false;
+            }
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Refresh token log close failed: {}", e.getMessage());
+            }
+            try {
+                Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.error("Refresh token log swap failed, keeping current log: {}", e.getMessage());
+                deleteQuietly(tmp);
+                reopen();
+                return false;
+            }
+            reopen();
+            logRecords = live.size() + (before - recordsAtSnapshot);
+            // Les enregistrements recopiés n'ont pas encore été synchronisés dans le nouveau fichier
+            dirty = true;
+            log.info("Refresh token log compacted: records {} -> {}", before, logRecords);
+            return true;
+        }
+    }
+
+    /** Rouvre le journal après un échange de fichiers (réussi ou non) ; sans journal, les mutations échouent. */
+    private void reopen() {
+        try {
+            channel = openAppend(logFile);
+        } catch (IOException e) {
+            channel = null;
+            throw new UncheckedIOException("Cannot reopen refresh token log " + logFile, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(logFile)) return;
+        long validBytes = 0;
+        try (FileChannel in = FileChannel.open(logFile, StandardOpenOption.READ);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in)))) {
+            while (true) {
+                int length;
+                try {
+                    length = data.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) break;
+                byte[] payload = new byte[length];
+                int crc;
+                try {
+                    data.readFully(payload);
+                    crc = data.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (crc != crc(payload)) break;
+                apply(payload);
+                logRecords++;
+                validBytes += 4 + length + 4;
+            }
+        }
+        long size = Files.size(logFile);
+        if (validBytes < size) {
+            log.warn("Refresh token log: truncating {} trailing corrupt bytes", size - validBytes);
+            try (FileChannel truncate = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                truncate.truncate(validBytes);
+            }
+        }
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        if (op == OP_DELETE) {
+            remove(in.readUTF());
+            return;
+        }
+        RefreshToken token = RefreshToken.builder()
+                .id(in.readLong())
+                .tokenHash(in.readUTF())
+                .userId(in.readLong())
+                .tokenType(TokenType.valueOf(in.readUTF()))
+                .createdAt(readTime(in))
+                .lastUsedAt(readTime(in))
+                .expiresAt(readTime(in))
+                .revoked(in.readBoolean())
+                .ipAddress(readNullable(in))
+                .userAgent(readNullable(in))
+                .deviceName(readNullable(in))
+                .build();
+        put(token);
+        ids.accumulateAndGet(token.getId(), Math::max);
+    }
+
+    private static ByteBuffer frame(byte op, RefreshToken token) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(op);
+        if (op == OP_DELETE) {
+            out.writeUTF(token.getTokenHash());
+        } else {
+            out.writeLong(token.getId());
+            out.writeUTF(token.getTokenHash());
+            out.writeLong(token.getUserId());
+            out.writeUTF(token.getTokenType().name());
+            writeTime(out, token.getCreatedAt());
+            writeTime(out, token.getLastUsedAt());
+            writeTime(out, token.getExpiresAt());
+            out.writeBoolean(token.isRevoked());
+            writeNullable(out, token.getIpAddress());
+            writeNullable(out, token.getUserAgent());
+            writeNullable(out, token.getDeviceName());
+        }
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + payload.length + 4);
+        buffer.putInt(payload.length).put(payload).putInt(crc(payload)).flip();
+        return buffer;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static FileChannel openAppend(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // -------------------------
+    // Index
+    // -------------------------
+
+    private void put(RefreshToken token) {
+        byHash.put(token.getTokenHash(), token);
+        byUser.computeIfAbsent(token.getUserId(), k -> ConcurrentHashMap.newKeySet()).add(token.getTokenHash());
+    }
+
+    private void remove(String tokenHash) {
+        RefreshToken removed = byHash.remove(tokenHash);
+        if (removed == null) return;
+        byUser.computeIfPresent(removed.getUserId(), (userId, hashes) -> {
+            hashes.remove(tokenHash);
+            return hashes.isEmpty() ? null : hashes;
+        });
+    }
+
+    private RefreshToken withId(RefreshToken token) {
+        RefreshToken existing = byHash.get(token.getTokenHash());
+        long id = existing != null ? existing.getId() : ids.incrementAndGet();
+        return token.toBuilder().id(id).build();
+    }
+
+    private static boolean isActive(RefreshToken token, LocalDateTime now) {
+        return !token.isRevoked() && token.getExpiresAt().isAfter(now);
+    }
+
+    private static RefreshToken copy(RefreshToken token) {
+        return token.toBuilder().build();
+    }
+}
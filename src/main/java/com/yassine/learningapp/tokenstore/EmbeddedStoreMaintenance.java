@@ -0,0 +1,29 @@
+package com.yassine.learningapp.tokenstore;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * fsync périodique et compaction du journal du backend embarqué (thread du scheduler, jamais sur une requête).
+ */
+@Component
+@ConditionalOnExpression("'${app.refresh-store.type:jpa}' == 'embedded' or '${app.refresh-store.migrate-from:}' == 'embedded'")
+public class EmbeddedStoreMaintenance {
+
+    private final EmbeddedRefreshTokenStore store;
+
+    public EmbeddedStoreMaintenance(EmbeddedRefreshTokenStore store) {
+        this.store = store;
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-store.embedded.fsync-interval-ms:1000}")
+    public void sync() {
+        store.sync();
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-store.embedded.compaction-check-ms:60000}")
+    public void compact() {
+        store.maybeCompact();
+    }
+}
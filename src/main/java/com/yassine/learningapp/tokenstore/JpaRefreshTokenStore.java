@@ -0,0 +1,75 @@
+package com.yassine.learningapp.tokenstore;
+
+import com.yassine.learningapp.entity.RefreshToken;
+import com.yassine.learningapp.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Backend par défaut : table {@code refresh_tokens}. Partagé entre instances.
+ */
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final RefreshTokenRepository repository;
+
+    @Override
+    public String name() {
+        return "jpa";
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken token) {
+        if (token.getId() == null) {
+            // Token importé d'un autre backend : l'id existant éventuel est remplacé par celui de la table
+            return repository.findByTokenHash(token.getTokenHash())
+                    .map(existing -> repository.save(token.toBuilder().id(existing.getId()).build()))
+                    .orElseGet(() -> repository.save(token));
+        }
+        return repository.save(token);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return repository.findByTokenHash(tokenHash);
+    }
+
+    @Override
+    public List<RefreshToken> findValidByUserId(Long userId, LocalDateTime now) {
+        return repository.findValidTokensByUserId(userId, now);
+    }
+
+    @Override
+    public long countActiveSessions(Long userId, LocalDateTime now) {
+        return repository.countActiveSessions(userId, now);
+    }
+
+    @Override
+    public int revokeAllByUserId(Long userId) {
+        return repository.revokeAllByUserId(userId);
+    }
+
+    @Override
+    public int deleteExpired(LocalDateTime threshold) {
+        return repository.deleteExpiredTokens(threshold);
+    }
+
+    @Override
+    public void forEach(Consumer<RefreshToken> action) {
+        Page<RefreshToken> page = repository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        while (true) {
+            page.forEach(action);
+            if (!page.hasNext()) return;
+            page = repository.findAll(page.nextPageable());
+        }
+    }
+}
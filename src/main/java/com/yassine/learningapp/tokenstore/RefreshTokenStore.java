@@ -0,0 +1,46 @@
+package com.yassine.learningapp.tokenstore;
+
+import com.yassine.learningapp.entity.RefreshToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des refresh tokens : accès clé-valeur par hash + index secondaire par utilisateur.
+ *
+ * <p>Une modification ({@code revoke()}, {@code markAsUsed()}) n'est garantie persistée qu'après {@link #save} :
+ * le backend embarqué renvoie des copies, le backend JPA des entités gérées (écrites au commit).
+ */
+public interface RefreshTokenStore {
+
+    /** jpa | embedded */
+    String name();
+
+    /**
+     * Enregistre sous le hash du token, en remplaçant celui de même hash. Id null : l'id du token remplacé est
+     * conservé, sinon un nouvel id est attribué. Renvoie le token tel que stocké.
+     */
+    RefreshToken save(RefreshToken token);
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /** Tokens non révoqués expirant après {@code now}. */
+    List<RefreshToken> findValidByUserId(Long userId, LocalDateTime now);
+
+    /** Même filtre que {@link #findValidByUserId}, sans charger les tokens. */
+    long countActiveSessions(Long userId, LocalDateTime now);
+
+    /**
+     * Révoque tous les tokens de l'utilisateur. Renvoie le nombre de tokens passés à révoqué (embarqué) ; le
+     * backend JPA compte aussi ceux qui l'étaient déjà.
+     */
+    int revokeAllByUserId(Long userId);
+
+    /** Supprime les tokens expirés avant {@code threshold}, révoqués ou non ; renvoie leur nombre. */
+    int deleteExpired(LocalDateTime threshold);
+
+    /** Parcours complet, révoqués et expirés compris (migration entre backends). */
+    void forEach(Consumer<RefreshToken> action);
+}
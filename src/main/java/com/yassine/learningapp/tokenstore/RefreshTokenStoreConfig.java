@@ -0,0 +1,52 @@
+package com.yassine.learningapp.tokenstore;
+
+import com.yassine.learningapp.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+/**
+ * Sélection du backend des refresh tokens : {@code app.refresh-store.type=jpa|embedded}.
+ * Le backend embarqué est aussi créé quand il est la source d'une migration ({@code app.refresh-store.migrate-from}) ;
+ * son répertoire ({@code app.refresh-store.embedded.dir}) est alors obligatoire : un défaut dans le tmpdir
+ * perdrait toutes les sessions au premier nettoyage du système.
+ */
+@Configuration
+public class RefreshTokenStoreConfig {
+
+    @Bean
+    public JpaRefreshTokenStore jpaRefreshTokenStore(RefreshTokenRepository repository) {
+        return new JpaRefreshTokenStore(repository);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("'${app.refresh-store.type:jpa}' == 'embedded' or '${app.refresh-store.migrate-from:}' == 'embedded'")
+    public EmbeddedRefreshTokenStore embeddedRefreshTokenStore(
+            @Value("${app.refresh-store.embedded.dir:}") String dir,
+            @Value("${app.refresh-store.embedded.compaction-min-records:10000}") int compactionMinRecords,
+            @Value("${app.refresh-store.embedded.compaction-ratio:3.0}") double compactionRatio) {
+        if (dir.isBlank()) {
+            throw new IllegalStateException(
+                    "app.refresh-store.embedded.dir (APP_REFRESH_STORE_DIR) must point to a persistent directory for the embedded refresh token store");
+        }
+        return new EmbeddedRefreshTokenStore(Path.of(dir), compactionMinRecords, compactionRatio);
+    }
+
+    /** Backend actif, injecté dans {@code RefreshTokenService}. Même instance que l'un des beans ci-dessus. */
+    @Bean(destroyMethod = "")
+    @Primary
+    public RefreshTokenStore refreshTokenStore(@Value("${app.refresh-store.type:jpa}") String type,
+                                               JpaRefreshTokenStore jpa,
+                                               ObjectProvider<EmbeddedRefreshTokenStore> embedded) {
+        return switch (type) {
+            case "jpa" -> jpa;
+            case "embedded" -> embedded.getObject();
+            default -> throw new IllegalStateException("Unknown app.refresh-store.type: " + type);
+        };
+    }
+}
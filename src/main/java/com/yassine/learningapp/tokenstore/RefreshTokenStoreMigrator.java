@@ -0,0 +1,57 @@
+package com.yassine.learningapp.tokenstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migration au démarrage : {@code app.refresh-store.migrate-from=jpa|embedded} copie les tokens encore
+ * valides de ce backend vers le backend actif. Idempotente (un token déjà présent n'est pas réécrit) :
+ * on peut laisser la propriété le temps d'un déploiement puis la retirer.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStoreMigrator implements ApplicationRunner {
+
+    private final RefreshTokenStore target;
+    private final List<RefreshTokenStore> stores;
+    private final String migrateFrom;
+
+    public RefreshTokenStoreMigrator(RefreshTokenStore target,
+                                     List<RefreshTokenStore> stores,
+                                     @Value("${app.refresh-store.migrate-from:}") String migrateFrom) {
+        this.target = target;
+        this.stores = stores;
+        this.migrateFrom = migrateFrom;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (migrateFrom.isBlank() || migrateFrom.equals(target.name())) return;
+
+        RefreshTokenStore source = stores.stream()
+                .filter(s -> s.name().equals(migrateFrom))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown app.refresh-store.migrate-from: " + migrateFrom));
+
+        long copied = migrate(source, target, LocalDateTime.now());
+        log.info("Refresh tokens migrated: {} -> {}, copied={}", source.name(), target.name(), copied);
+    }
+
+    static long migrate(RefreshTokenStore source, RefreshTokenStore target, LocalDateTime now) {
+        AtomicLong copied = new AtomicLong();
+        source.forEach(token -> {
+            if (token.isRevoked() || !token.getExpiresAt().isAfter(now) || target.findByTokenHash(token.getTokenHash()).isPresent()) return;
+            // Les ids ne sont pas portables entre backends
+            target.save(token.toBuilder().id(null).build());
+            copied.incrementAndGet();
+        });
+        return copied.get();
+    }
+}
@@ -0,0 +1,39 @@
+package com.yassine.learningapp.tracing;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Enveloppe la {@link DataSource} applicative (bean {@code dataSource}) dans un proxy JDBC (datasource-proxy)
+ * qui notifie les {@link QueryExecutionListener} déclarés comme beans (spans SQL, ...).
+ * Les datasources internes (pools primaire/réplicas du routage) ne sont pas enveloppées : tout passe déjà par celle-ci.
+ * Le pool reste accessible via {@code unwrap()} (métriques Hikari, health checks).
+ */
+@Component
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+    private static final String APPLICATION_DATASOURCE = "dataSource";
+
+    private final ObjectProvider<QueryExecutionListener> listeners;
+
+    public DataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource || !APPLICATION_DATASOURCE.equals(beanName)) {
+            return bean;
+        }
+
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+        listeners.orderedStream().forEach(builder::listener);
+        return builder.build();
+    }
+}
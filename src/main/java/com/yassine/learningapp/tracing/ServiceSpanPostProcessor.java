@@ -0,0 +1,28 @@
+package com.yassine.learningapp.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+/**
+ * Span "service" autour de chaque méthode publique des beans {@code @Service}
+ * (ajouté au proxy existant, ex. {@code @Transactional}, ou proxy créé si besoin).
+ */
+@Component
+public class ServiceSpanPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public ServiceSpanPostProcessor() {
+        MethodInterceptor interceptor = invocation -> {
+            String name = invocation.getMethod().getDeclaringClass().getSimpleName() + "." + invocation.getMethod().getName();
+            try (TraceContext.Span ignored = TraceContext.span("service", name)) {
+                return invocation.proceed();
+            }
+        };
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), interceptor);
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+}
@@ -0,0 +1,57 @@
+package com.yassine.learningapp.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer des dernières traces lentes. Écriture sans verrou : un slot par incrément du curseur,
+ * les plus anciennes traces sont écrasées.
+ */
+@Component
+public class SlowTraceBuffer {
+
+    private final AtomicReferenceArray<TraceSnapshot> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final long thresholdMicros;
+
+    public SlowTraceBuffer(@Value("${app.tracing.slow-buffer-size:200}") int capacity,
+                           @Value("${app.tracing.slow-threshold-ms:500}") long thresholdMs) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.thresholdMicros = thresholdMs * 1_000;
+    }
+
+    public boolean isSlow(long durationMicros) {
+        return durationMicros >= thresholdMicros;
+    }
+
+    public void offer(TraceSnapshot trace) {
+        int slot = (int) (cursor.getAndIncrement() % slots.length());
+        slots.set(slot, trace);
+    }
+
+    /** Traces lentes récentes, les plus lentes d'abord. */
+    public List<TraceSnapshot> snapshot(int limit) {
+        List<TraceSnapshot> traces = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            TraceSnapshot t = slots.get(i);
+            if (t != null) traces.add(t);
+        }
+        traces.sort(Comparator.comparingLong(TraceSnapshot::durationMicros).reversed());
+        return traces.size() > limit ? traces.subList(0, limit) : traces;
+    }
+
+    public Optional<TraceSnapshot> find(String traceId) {
+        for (int i = 0; i < slots.length(); i++) {
+            TraceSnapshot t = slots.get(i);
+            if (t != null && t.traceId().equals(traceId)) return Optional.of(t);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,37 @@
+package com.yassine.learningapp.tracing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Un span "sql" par statement JDBC exécuté (nom = début de la requête).
+ */
+@Component
+public class SqlSpanListener implements QueryExecutionListener {
+
+    private static final String START_KEY = "trace.startNanos";
+    private static final int MAX_NAME_LENGTH = 120;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (TraceContext.current() != null) {
+            execInfo.addCustomValue(START_KEY, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        TraceContext ctx = TraceContext.current();
+        Long start = execInfo.getCustomValue(START_KEY, Long.class);
+        if (ctx == null || start == null) return;
+
+        String sql = queryInfoList.isEmpty() ? "?" : queryInfoList.get(0).getQuery();
+        String name = sql.length() > MAX_NAME_LENGTH ? sql.substring(0, MAX_NAME_LENGTH) + "…" : sql;
+        if (execInfo.isBatch()) name = "[batch x" + execInfo.getBatchSize() + "] " + name;
+        ctx.record("sql", name, start, System.nanoTime());
+    }
+}
@@ -0,0 +1,133 @@
+package com.yassine.learningapp.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trace de la requête courante : identifiant + spans par étape (auth, sql, service, serialization).
+ *
+ * <p>Attachée au thread de la requête par {@link TracingFilter}. Hors requête (jobs planifiés, démarrage),
+ * {@link #span(String, String)} retourne un span neutre : l'instrumentation ne coûte alors presque rien.
+ */
+public final class TraceContext {
+
+    /** Borne le nombre de spans gardés par requête (une requête N+1 ne doit pas faire exploser la mémoire). */
+    static final int MAX_SPANS = 256;
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<SpanRecord> spans = new ArrayList<>();
+    private int droppedSpans;
+    private volatile long serializationStartNanos;
+
+    public record SpanRecord(String stage, String name, long offsetMicros, long durationMicros) {}
+
+    TraceContext(String traceId) {
+        this.traceId = traceId;
+    }
+
+    // -------------------------
+    // Accès thread-local
+    // -------------------------
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    public static String currentTraceId() {
+        TraceContext ctx = CURRENT.get();
+        return ctx == null ? null : ctx.traceId;
+    }
+
+    static void attach(TraceContext ctx) {
+        CURRENT.set(ctx);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Ouvre un span sur la trace courante (à fermer via try-with-resources).
+     */
+    public static Span span(String stage, String name) {
+        TraceContext ctx = CURRENT.get();
+        return ctx == null ? Span.NOOP : new Span(ctx, stage, name, System.nanoTime());
+    }
+
+    // -------------------------
+    // Enregistrement
+    // -------------------------
+
+    public void record(String stage, String name, long startNanos, long endNanos) {
+        SpanRecord span = new SpanRecord(stage, name,
+                (startNanos - this.startNanos) / 1_000,
+                (endNanos - startNanos) / 1_000);
+        synchronized (spans) {
+            if (spans.size() < MAX_SPANS) spans.add(span);
+            else droppedSpans++;
+        }
+    }
+
+    void markSerializationStart() {
+        if (serializationStartNanos == 0) serializationStartNanos = System.nanoTime();
+    }
+
+    long serializationStartNanos() {
+        return serializationStartNanos;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    Instant startedAt() {
+        return startedAt;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    List<SpanRecord> spansSnapshot() {
+        synchronized (spans) {
+            return List.copyOf(spans);
+        }
+    }
+
+    int droppedSpans() {
+        synchronized (spans) {
+            return droppedSpans;
+        }
+    }
+
+    /**
+     * Span en cours. {@link #close()} enregistre la durée dans la trace d'origine
+     * (même si le span est fermé depuis un autre thread).
+     */
+    public static final class Span implements AutoCloseable {
+
+        static final Span NOOP = new Span(null, null, null, 0);
+
+        private final TraceContext ctx;
+        private final String stage;
+        private final String name;
+        private final long startNanos;
+
+        private Span(TraceContext ctx, String stage, String name, long startNanos) {
+            this.ctx = ctx;
+            this.stage = stage;
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (ctx != null) ctx.record(stage, name, startNanos, System.nanoTime());
+        }
+    }
+}
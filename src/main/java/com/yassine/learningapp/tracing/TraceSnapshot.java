@@ -0,0 +1,21 @@
+package com.yassine.learningapp.tracing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trace terminée, figée pour le buffer des requêtes lentes.
+ * {@code stageTotalsMicros} : temps cumulé par étape (auth, sql, service, serialization).
+ */
+public record TraceSnapshot(
+        String traceId,
+        String method,
+        String path,
+        int status,
+        Instant startedAt,
+        long durationMicros,
+        Map<String, Long> stageTotalsMicros,
+        List<TraceContext.SpanRecord> spans,
+        int droppedSpans
+) {}
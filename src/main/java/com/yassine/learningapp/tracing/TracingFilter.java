@@ -0,0 +1,135 @@
+package com.yassine.learningapp.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Premier filtre de la chaîne : attribue (ou propage) le traceId, le place dans le MDC
+ * ({@code traceId}, lu par les handlers d'erreur JSON et les logs), et garde les traces lentes.
+ *
+ * <p>Ordre de priorité : {@code traceparent} (W3C) → {@code X-Request-Id} → id généré.
+ * Le traceId est renvoyé dans {@code X-Request-Id} et {@code traceparent}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String MDC_KEY = "traceId";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final Pattern TRACEPARENT = Pattern.compile("^[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}$");
+    private static final Pattern SAFE_REQUEST_ID = Pattern.compile("^[A-Za-z0-9._:-]{1,64}$");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+    private final SlowTraceBuffer slowTraces;
+
+    public TracingFilter(SlowTraceBuffer slowTraces) {
+        this.slowTraces = slowTraces;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain
+    ) throws ServletException, IOException {
+
+        TraceContext ctx = new TraceContext(resolveTraceId(request));
+        TraceContext.attach(ctx);
+        MDC.put(MDC_KEY, ctx.traceId());
+        response.setHeader(REQUEST_ID_HEADER, ctx.traceId());
+        response.setHeader(TRACEPARENT_HEADER, "00-" + toW3cTraceId(ctx.traceId()) + "-" + randomHex(8) + "-01");
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            long serializationStart = ctx.serializationStartNanos();
+            if (serializationStart != 0) {
+                ctx.record("serialization", "response", serializationStart, end);
+            }
+
+            long durationMicros = (end - ctx.startNanos()) / 1_000;
+            if (slowTraces.isSlow(durationMicros)) {
+                TraceSnapshot snapshot = snapshot(ctx, request, response, durationMicros);
+                slowTraces.offer(snapshot);
+                log.warn("Slow request: {} {} status={} duration={}ms stages={}",
+                        snapshot.method(), snapshot.path(), snapshot.status(),
+                        durationMicros / 1_000, snapshot.stageTotalsMicros());
+            }
+
+            MDC.remove(MDC_KEY);
+            TraceContext.detach();
+        }
+    }
+
+    private static TraceSnapshot snapshot(TraceContext ctx, HttpServletRequest request,
+                                          HttpServletResponse response, long durationMicros) {
+        List<TraceContext.SpanRecord> spans = ctx.spansSnapshot();
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (TraceContext.SpanRecord span : spans) {
+            totals.merge(span.stage(), span.durationMicros(), Long::sum);
+        }
+        return new TraceSnapshot(
+                ctx.traceId(),
+                request.getMethod(),
+                request.getRequestURI(),
+                response.getStatus(),
+                ctx.startedAt(),
+                durationMicros,
+                totals,
+                spans,
+                ctx.droppedSpans()
+        );
+    }
+
+    private static String resolveTraceId(HttpServletRequest request) {
+        String traceparent = request.getHeader(TRACEPARENT_HEADER);
+        if (traceparent != null) {
+            var m = TRACEPARENT.matcher(traceparent.trim());
+            if (m.matches() && !INVALID_TRACE_ID.equals(m.group(1))) return m.group(1);
+        }
+
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId != null && SAFE_REQUEST_ID.matcher(requestId.trim()).matches()) {
+            return requestId.trim();
+        }
+
+        return randomHex(16);
+    }
+
+    /** Un X-Request-Id arbitraire n'est pas un trace-id W3C valide : on le dérive alors de façon stable. */
+    private static String toW3cTraceId(String traceId) {
+        if (traceId.length() == 32 && traceId.chars().allMatch(c -> Character.digit(c, 16) >= 0 && !Character.isUpperCase(c))) {
+            return traceId;
+        }
+        long hi = traceId.hashCode();
+        long lo = new StringBuilder(traceId).reverse().toString().hashCode();
+        return HexFormat.of().toHexDigits(hi) + HexFormat.of().toHexDigits(lo);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] b = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(b);
+        return HexFormat.of().formatHex(b);
+    }
+}
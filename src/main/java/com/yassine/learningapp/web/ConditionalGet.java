@@ -0,0 +1,66 @@
+package com.yassine.learningapp.web;
+
+import com.yassine.learningapp.dto.ContentVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET conditionnel à partir d'une {@link ContentVersion} (nombre de lignes + dernier {@code updatedAt}).
+ *
+ * <p>La version est obtenue par une requête d'agrégat ; si le client a déjà cette version
+ * ({@code If-None-Match}, ou à défaut {@code If-Modified-Since}), on répond 304 sans charger ni sérialiser
+ * le contenu. L'ETag est faible : il identifie un état des lignes, pas des octets.
+ *
+ * <p>{@code Last-Modified} ne voit pas les suppressions (le max ne bouge pas) : il n'est qu'un repli,
+ * l'ETag (qui inclut le nombre de lignes) est prioritaire quand le client envoie les deux.
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param variant paramètres qui changent la réponse pour une même version (pagination, tri...), ou null
+     * @param body    chargé uniquement si le client n'est pas à jour
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, ContentVersion version, String variant, Supplier<T> body) {
+        ContentVersion v = version == null ? ContentVersion.EMPTY : version;
+        String etag = etag(v, variant);
+        long lastModified = v.lastModified() == null ? -1 : v.lastModifiedEpochMillis();
+
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(revalidate())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(revalidate())
+                .varyBy(HttpHeaders.ACCEPT); // JSON / Smile / CBOR négociés sur la même URL
+        if (lastModified >= 0) {
+            ok.lastModified(lastModified);
+        }
+        return ok.body(body.get());
+    }
+
+    static String etag(ContentVersion version, String variant) {
+        String tag = version.fingerprint();
+        if (variant != null && !variant.isEmpty()) {
+            tag += "-" + variant.replaceAll("[^A-Za-z0-9_.,:-]", "_");
+        }
+        return "W/\"" + tag + "\"";
+    }
+
+    /** Réponse propre à l'utilisateur, toujours revalidée : le 304 coûte une requête d'agrégat. */
+    private static CacheControl revalidate() {
+        return CacheControl.noCache().cachePrivate();
+    }
+}
@@ -0,0 +1,16 @@
+package com.yassine.learningapp.web;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Types négociables des lectures quiz / fiches : JSON par défaut (premier converter, choisi pour
+ * {@code Accept: *}{@code /*}), Smile ou CBOR sur demande explicite.
+ */
+public final class MediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private MediaTypes() {
+    }
+}
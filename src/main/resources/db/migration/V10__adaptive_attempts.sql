@@ -0,0 +1,20 @@
+-- Quiz adaptatif : questions servies par chaque tentative. La correction n'accepte que ces questions, une fois
+-- chacune (la bonne réponse n'est révélée que pour une question servie, et le niveau n'est mis à jour qu'une fois).
+-- Identifiant aléatoire (UUID) : non devinable, et sans séquence à placer dans la plage du shard.
+CREATE TABLE adaptive_attempts (
+    id          VARCHAR(36) PRIMARY KEY,
+    user_id     BIGINT      NOT NULL,
+    document_id BIGINT      NOT NULL,
+    created_at  TIMESTAMP   NOT NULL
+);
+
+-- Rééquilibrage (par utilisateur) et purge des tentatives expirées
+CREATE INDEX idx_adaptive_attempts_user ON adaptive_attempts (user_id);
+CREATE INDEX idx_adaptive_attempts_created_at ON adaptive_attempts (created_at);
+
+CREATE TABLE adaptive_attempt_questions (
+    attempt_id  VARCHAR(36) NOT NULL REFERENCES adaptive_attempts (id) ON DELETE CASCADE,
+    question_id BIGINT      NOT NULL,
+    answered_at TIMESTAMP,
+    PRIMARY KEY (attempt_id, question_id)
+);
@@ -0,0 +1,22 @@
+-- Outbox transactionnelle des emails : insérée dans la transaction métier, envoyée par MailDispatcher
+CREATE TABLE mail_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    dedupe_key      VARCHAR(190) NOT NULL,
+    recipient       VARCHAR(320) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            TEXT         NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    last_error      VARCHAR(500),
+    sent_at         TIMESTAMP,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP,
+
+    CONSTRAINT uq_mail_outbox_dedupe_key UNIQUE (dedupe_key)
+);
+
+-- Polling du dispatcher : seules les lignes à envoyer (ou dont le bail d'envoi a expiré) sont indexées
+CREATE INDEX idx_mail_outbox_due
+    ON mail_outbox (next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
@@ -0,0 +1,20 @@
+-- Idempotence de la synchro des tentatives hors-ligne : une clé client par (utilisateur, tentative).
+-- Les résultats saisis en ligne ont une clé NULL : jamais en conflit (NULL distincts).
+-- quiz_results n'est pas encore créée par les migrations sur toutes les bases : elle l'est ici si besoin (colonnes
+-- de l'entité QuizResult, ids BIGINT), sans clé étrangère vers quizzes qui peut ne pas exister encore (ajoutée
+-- par V9). La colonne et l'index unique existent ainsi dès cette version, cible de l'ON CONFLICT de la synchro.
+CREATE TABLE IF NOT EXISTS quiz_results (
+    id                 BIGSERIAL        PRIMARY KEY,
+    user_id            BIGINT           NOT NULL,
+    quiz_id            BIGINT           NOT NULL,
+    score              INT,
+    question_count     INT,
+    time_taken_seconds DOUBLE PRECISION,
+    percentage_score   DOUBLE PRECISION,
+    created_at         TIMESTAMP,
+    updated_at         TIMESTAMP
+);
+
+ALTER TABLE quiz_results ADD COLUMN IF NOT EXISTS client_attempt_id VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_quiz_results_user_attempt
+    ON quiz_results (user_id, client_attempt_id);
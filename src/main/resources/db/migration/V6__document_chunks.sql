@@ -0,0 +1,16 @@
+-- Morceaux de texte des documents (recherche par similarité). Les vecteurs sont dans des fichiers d'index
+-- HNSW par utilisateur, reconstructibles depuis cette table.
+CREATE TABLE document_chunks (
+    id           BIGSERIAL PRIMARY KEY,
+    document_id  BIGINT    NOT NULL,
+    user_id      BIGINT    NOT NULL,
+    chunk_index  INT       NOT NULL,
+    start_offset INT       NOT NULL,
+    end_offset   INT       NOT NULL,
+    content      TEXT      NOT NULL,
+    created_at   TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at   TIMESTAMP
+);
+
+CREATE INDEX idx_document_chunks_document ON document_chunks (document_id);
+CREATE INDEX idx_document_chunks_user ON document_chunks (user_id);
@@ -0,0 +1,22 @@
+-- Quiz adaptatif : statistiques de réponse par question (compteurs incrémentés par lots) et difficulté
+-- calibrée (modèle de Rasch, échelle logit).
+CREATE TABLE question_stats (
+    question_id     BIGINT           PRIMARY KEY,
+    attempts        BIGINT           NOT NULL DEFAULT 0,
+    correct         BIGINT           NOT NULL DEFAULT 0,
+    response_millis BIGINT           NOT NULL DEFAULT 0,
+    ability_sum     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    difficulty      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP        NOT NULL DEFAULT now()
+);
+
+-- Niveau estimé par (utilisateur, document) ; information = précision de l'estimation (a priori inclus)
+CREATE TABLE user_abilities (
+    user_id     BIGINT           NOT NULL,
+    document_id BIGINT           NOT NULL,
+    ability     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    information DOUBLE PRECISION NOT NULL DEFAULT 1,
+    answers     INT              NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP        NOT NULL DEFAULT now(),
+    PRIMARY KEY (user_id, document_id)
+);
@@ -0,0 +1,10 @@
+-- Partitionnement par utilisateur : placements explicites (les utilisateurs absents sont répartis par hash).
+-- Table de la base d'accueil ; créée aussi sur les autres shards par la même migration, sans y être lue.
+CREATE TABLE shard_directory (
+    user_id    BIGINT      PRIMARY KEY,
+    shard      INT         NOT NULL,
+    state      VARCHAR(16) NOT NULL DEFAULT 'ACTIVE',
+    updated_at TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_shard_directory_shard ON shard_directory (shard);
@@ -0,0 +1,205 @@
+-- Schéma des entités (ids BIGINT) et index de chaque chemin d'accès des dépôts.
+--
+-- V1 à V3 créaient le schéma d'un autre projet (categories, expenses, users/refresh_tokens/password_reset_tokens
+-- en UUID) : l'application n'a jamais pu y écrire. Ces tables sont supprimées puis recréées ; les bases dont
+-- les tables ont été créées par Hibernate (ids BIGINT) sont conservées et reçoivent seulement les index.
+--
+-- Textes générés (questions, propositions, explications, fiches) en TEXT : souvent plus longs que 255 caractères.
+--
+-- Pas de clé étrangère vers users : les utilisateurs restent sur la base d'accueil alors que leurs données
+-- peuvent être sur un autre shard (et les résultats d'une session en direct suivent le quiz, pas le joueur).
+-- Les clés étrangères internes au graphe document -> quiz -> questions/résultats sont copiées ensemble par le
+-- rééquilibrage, parents d'abord.
+--
+-- Les index sont créés dans la transaction de migration (verrou en écriture le temps de la construction) :
+-- à lancer avec le job de migration, hors trafic, sur une base existante volumineuse.
+
+DROP TABLE IF EXISTS expenses;
+DROP TABLE IF EXISTS categories;
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['password_reset_tokens', 'refresh_tokens', 'users'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = t
+                     AND column_name = 'id' AND data_type = 'uuid') THEN
+            EXECUTE format('DROP TABLE %I CASCADE', t);
+        END IF;
+    END LOOP;
+END
+$$;
+
+-- -------------------------
+-- Comptes et jetons
+-- -------------------------
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGSERIAL    PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(16),
+    active     BOOLEAN      NOT NULL DEFAULT TRUE,
+    locked     BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+
+    CONSTRAINT uq_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id           BIGSERIAL    PRIMARY KEY,
+    token_hash   VARCHAR(64)  NOT NULL,
+    user_id      BIGINT       NOT NULL,
+    token_type   VARCHAR(20)  NOT NULL,
+    created_at   TIMESTAMP    NOT NULL,
+    last_used_at TIMESTAMP    NOT NULL,
+    expires_at   TIMESTAMP    NOT NULL,
+    revoked      BOOLEAN      NOT NULL DEFAULT FALSE,
+    ip_address   VARCHAR(45),
+    user_agent   VARCHAR(500),
+    device_name  VARCHAR(100),
+
+    CONSTRAINT uq_refresh_tokens_token_hash UNIQUE (token_hash)
+);
+
+-- Sessions actives d'un utilisateur (compte et liste), révocation par utilisateur : index seul pour le compte
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_expires
+    ON refresh_tokens (user_id, expires_at) INCLUDE (revoked, token_type);
+-- Purge des jetons expirés
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at
+    ON refresh_tokens (expires_at);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    id         BIGSERIAL    PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    token_hash VARCHAR(128) NOT NULL,
+    expires_at TIMESTAMP    NOT NULL,
+    created_at TIMESTAMP    NOT NULL DEFAULT now(),
+    used_at    TIMESTAMP,
+
+    CONSTRAINT uq_password_reset_tokens_token_hash UNIQUE (token_hash)
+);
+
+-- Invalidation des jetons non consommés d'un utilisateur
+CREATE INDEX IF NOT EXISTS idx_password_reset_tokens_user
+    ON password_reset_tokens (user_id) WHERE used_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_password_reset_tokens_expires_at
+    ON password_reset_tokens (expires_at);
+
+-- -------------------------
+-- Contenu d'étude
+-- -------------------------
+
+CREATE TABLE IF NOT EXISTS documents (
+    id         BIGSERIAL        PRIMARY KEY,
+    user_id    BIGINT,
+    title      VARCHAR(255),
+    path       VARCHAR(255),
+    file_size  DOUBLE PRECISION,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+-- Liste paginée, derniers documents, taille totale, version : index seul (DocumentResponse + file_size)
+CREATE INDEX IF NOT EXISTS idx_documents_user_created
+    ON documents (user_id, created_at DESC, id DESC) INCLUDE (title, file_size, updated_at);
+
+CREATE TABLE IF NOT EXISTS quizzes (
+    id             BIGSERIAL    PRIMARY KEY,
+    document_id    BIGINT       NOT NULL REFERENCES documents (id) ON DELETE CASCADE,
+    title          VARCHAR(255),
+    question_count VARCHAR(255),
+    created_at     TIMESTAMP,
+    updated_at     TIMESTAMP
+);
+
+-- Quiz d'un document (liste, version, export) et jointures document -> quiz : index seul (QuizResponse)
+CREATE INDEX IF NOT EXISTS idx_quizzes_document
+    ON quizzes (document_id, id) INCLUDE (title, question_count, created_at, updated_at);
+
+CREATE TABLE IF NOT EXISTS quiz_questions (
+    id             BIGSERIAL    PRIMARY KEY,
+    quiz_id        BIGINT       NOT NULL REFERENCES quizzes (id) ON DELETE CASCADE,
+    question_order INT,
+    question       TEXT,
+    answer         TEXT,
+    option_a       TEXT         NOT NULL,
+    option_b       TEXT         NOT NULL,
+    option_c       TEXT         NOT NULL,
+    option_d       TEXT         NOT NULL,
+    correct_answer VARCHAR(255) NOT NULL,
+    explanation    TEXT,
+    created_at     TIMESTAMP,
+    updated_at     TIMESTAMP
+);
+
+-- Questions d'un quiz dans l'ordre ; compte et version en index seul
+CREATE INDEX IF NOT EXISTS idx_quiz_questions_quiz_order
+    ON quiz_questions (quiz_id, question_order) INCLUDE (created_at, updated_at);
+
+CREATE TABLE IF NOT EXISTS flash_cards (
+    id          BIGSERIAL    PRIMARY KEY,
+    document_id BIGINT       NOT NULL REFERENCES documents (id) ON DELETE CASCADE,
+    title       VARCHAR(255),
+    content     TEXT,
+    is_favorite BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at  TIMESTAMP,
+    updated_at  TIMESTAMP
+);
+
+-- Fiches d'un document triées par id ; version en index seul
+CREATE INDEX IF NOT EXISTS idx_flash_cards_document
+    ON flash_cards (document_id, id) INCLUDE (created_at, updated_at);
+
+CREATE TABLE IF NOT EXISTS quiz_results (
+    id                 BIGSERIAL        PRIMARY KEY,
+    user_id            BIGINT           NOT NULL,
+    quiz_id            BIGINT           NOT NULL REFERENCES quizzes (id) ON DELETE CASCADE,
+    score              INT,
+    question_count     INT,
+    time_taken_seconds DOUBLE PRECISION,
+    percentage_score   DOUBLE PRECISION,
+    client_attempt_id  VARCHAR(64),
+    created_at         TIMESTAMP,
+    updated_at         TIMESTAMP
+);
+
+-- Table créée par V5 sans clé étrangère (quizzes n'existait pas forcément)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint c
+                   JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+                   WHERE c.conrelid = 'quiz_results'::regclass AND c.contype = 'f' AND a.attname = 'quiz_id') THEN
+        ALTER TABLE quiz_results ADD CONSTRAINT fk_quiz_results_quiz
+            FOREIGN KEY (quiz_id) REFERENCES quizzes (id) ON DELETE CASCADE;
+    END IF;
+END
+$$;
+-- Idempotence de la synchro (ON CONFLICT) et recherche des clés déjà reçues : index créé par V5
+-- Dernières tentatives d'un utilisateur (tableau de bord, historique, version) : index seul sauf le titre du quiz
+CREATE INDEX IF NOT EXISTS idx_quiz_results_user_created
+    ON quiz_results (user_id, created_at DESC, id DESC)
+    INCLUDE (quiz_id, score, question_count, percentage_score, updated_at);
+-- Résultats d'un quiz (suppression en cascade, rééquilibrage des shards)
+CREATE INDEX IF NOT EXISTS idx_quiz_results_quiz
+    ON quiz_results (quiz_id);
+-- Dernières tentatives toutes confondues (administration)
+CREATE INDEX IF NOT EXISTS idx_quiz_results_created
+    ON quiz_results (created_at DESC, id DESC);
+
+-- -------------------------
+-- Tables des migrations précédentes
+-- -------------------------
+
+-- Morceaux d'un document dans l'ordre ; reconstruction de l'index par utilisateur triée par id
+DROP INDEX IF EXISTS idx_document_chunks_document;
+DROP INDEX IF EXISTS idx_document_chunks_user;
+CREATE INDEX idx_document_chunks_document ON document_chunks (document_id, chunk_index);
+CREATE INDEX idx_document_chunks_user ON document_chunks (user_id, id);
+
+-- Purge des mails envoyés
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_sent
+    ON mail_outbox (sent_at)
+    WHERE status = 'SENT';
@@ -0,0 +1,84 @@
+package com.yassine.learningapp.adaptive;
+
+import com.yassine.learningapp.repository.QuestionStatsRepository.Delta;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveSelectionTest {
+
+    @Test
+    void picksNearestUnusedQuestionAndFollowsRecalibration() {
+        DifficultyIndex index = new DifficultyIndex();
+        index.put(1, -2.0);
+        index.put(2, -0.5);
+        index.put(3, 0.4);
+        index.put(4, 2.5);
+
+        assertEquals(3, index.nearest(0.3, Set.of()));
+        assertEquals(2, index.nearest(0.3, Set.of(3L)));
+        assertEquals(4, index.nearest(9.0, Set.of()));
+        assertEquals(-1, index.nearest(0.0, Set.of(1L, 2L, 3L, 4L)));
+
+        index.put(4, 0.25);
+        assertEquals(4, index.nearest(0.2, Set.of()));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void calibrationRecoversDifficultyOrderAndAbilityConverges() {
+        // Population simulée : les difficultés calibrées doivent retrouver l'ordre des vraies
+        double[] trueDifficulty = {-1.5, 0.0, 1.5};
+        Random random = new Random(7);
+        long[] attempts = new long[3];
+        long[] correct = new long[3];
+        for (int n = 0; n < 2000; n++) {
+            double theta = random.nextGaussian();
+            for (int q = 0; q < 3; q++) {
+                attempts[q]++;
+                if (random.nextDouble() < Rasch.probability(theta, trueDifficulty[q])) correct[q]++;
+            }
+        }
+        double easy = Rasch.difficulty(attempts[0], correct[0], 0);
+        double medium = Rasch.difficulty(attempts[1], correct[1], 0);
+        double hard = Rasch.difficulty(attempts[2], correct[2], 0);
+        assertTrue(easy < medium && medium < hard, easy + " " + medium + " " + hard);
+        assertEquals(0.0, Rasch.difficulty(0, 0, 0));
+
+        // Utilisateur de niveau 1.2 face à des questions de difficulté connue
+        Rasch.Ability ability = Rasch.Ability.PRIOR;
+        for (int i = 0; i < 400; i++) {
+            double b = random.nextGaussian();
+            ability = Rasch.update(ability, b, random.nextDouble() < Rasch.probability(1.2, b));
+        }
+        assertEquals(1.2, ability.theta(), 0.35);
+        assertTrue(ability.standardError() < 0.15);
+    }
+
+    @Test
+    void bufferDrainsDeltasOnceAndRestoresOnFailure() {
+        QuestionStatsBuffer buffer = new QuestionStatsBuffer();
+        buffer.record(10, true, 1200, 0.5);
+        buffer.record(10, false, 800, -0.5);
+        buffer.record(11, true, 300, 0.0);
+
+        List<Delta> deltas = buffer.drain();
+        assertEquals(2, deltas.size());
+        Delta q10 = deltas.stream().filter(d -> d.questionId() == 10).findFirst().orElseThrow();
+        assertEquals(2, q10.attempts());
+        assertEquals(1, q10.correct());
+        assertEquals(2000, q10.responseMillis());
+        assertTrue(buffer.drain().isEmpty());
+
+        buffer.restore(deltas);
+        Set<Long> ids = new HashSet<>();
+        buffer.drain().forEach(d -> ids.add(d.questionId()));
+        assertEquals(Set.of(10L, 11L), ids);
+    }
+}
@@ -0,0 +1,185 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.Role;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bundle hors-ligne servi par l'application complète : représentation gzip ou identité selon
+ * {@code Accept-Encoding}, ETag fort par représentation, 304 sans reconstruction. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudyBundleControllerTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    private String token;
+    private long documentId;
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) throws IOException {
+        Path root = Files.createTempDirectory("bundle-test-");
+        for (String dir : List.of("export", "bundle", "retrieval", "extraction")) {
+            registry.add("app." + dir + ".dir", () -> root.resolve(dir).toString());
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        long userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        token = jwtService.generateToken(new CustomUserDetails(userId, "alice", "x", true, false, Role.USER));
+        documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', '/nowhere.txt', 12.0, now()) RETURNING id", Long.class, userId);
+        addFlashCard("Fiche 1");
+        addFlashCard("Fiche 2");
+    }
+
+    @Test
+    void gzipRepresentationIsServedAsStoredAndRevalidatedWith304() throws Exception {
+        MockHttpServletResponse first = mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.endsWith("-gz\""), etag);
+
+        JsonNode body = json.readTree(gunzip(first.getContentAsByteArray()));
+        assertEquals(documentId, body.get("documentId").asLong());
+        assertEquals(2, body.get("flashCards").size());
+        assertEquals(etag, "\"" + body.get("version").asString() + "-gz\"");
+
+        mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void identityRepresentationHasItsOwnEtag() throws Exception {
+        String gzipEtag = mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse identity = mvc.perform(bundle().header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(gzipEtag, identity.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, json.readTree(identity.getContentAsByteArray()).get("flashCards").size());
+
+        mvc.perform(bundle().header(HttpHeaders.IF_NONE_MATCH, identity.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void gzipRefusedWithZeroQualityGetsIdentity() throws Exception {
+        MockHttpServletResponse response = mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertFalse(response.getHeader(HttpHeaders.ETAG).endsWith("-gz\""));
+    }
+
+    @Test
+    void contentChangeInvalidatesTheEtag() throws Exception {
+        String etag = mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        addFlashCard("Fiche 3");
+
+        MockHttpServletResponse response = mvc.perform(bundle().header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(3, json.readTree(gunzip(response.getContentAsByteArray())).get("flashCards").size());
+    }
+
+    @Test
+    void acceptEncodingQualities() {
+        assertTrue(StudyBundleController.acceptsGzip("gzip"));
+        assertTrue(StudyBundleController.acceptsGzip("br, GZIP;q=0.8"));
+        assertTrue(StudyBundleController.acceptsGzip("*"));
+        assertTrue(StudyBundleController.acceptsGzip("gzip;level=9;q=0.1"));
+        assertFalse(StudyBundleController.acceptsGzip(null));
+        assertFalse(StudyBundleController.acceptsGzip("br, deflate"));
+        assertFalse(StudyBundleController.acceptsGzip("gzip;q=0"));
+        assertFalse(StudyBundleController.acceptsGzip("gzip; q=0.000"));
+        assertFalse(StudyBundleController.acceptsGzip("*;q=1, gzip;q=0"));
+        assertFalse(StudyBundleController.acceptsGzip("gzip;q=0, *"));
+        assertFalse(StudyBundleController.acceptsGzip("*;q=0"));
+        assertFalse(StudyBundleController.acceptsGzip("gzip;q=abc"));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private MockHttpServletRequestBuilder bundle() {
+        return get("/api/documents/" + documentId + "/bundle").header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private void addFlashCard(String title) {
+        jdbc.update("INSERT INTO flash_cards (document_id, title, content, created_at) VALUES (?, ?, 'contenu', now())",
+                documentId, title);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.yassine.learningapp.controller;
+
+import com.yassine.learningapp.dto.Role;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.JwtService;
+import com.yassine.learningapp.web.MediaTypes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Négociation du format des lectures fiches / quiz : JSON par défaut, Smile ou CBOR seulement sur demande
+ * explicite ({@code Accept}), avec le même contenu. Nommage non standard : les mappers binaires doivent reprendre
+ * les réglages du mapper JSON de l'application. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = "spring.jackson.property-naming-strategy=SNAKE_CASE")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudyContentControllerTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    private String token;
+    private List<String> paths;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        long userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        token = jwtService.generateToken(new CustomUserDetails(userId, "alice", "x", true, false, Role.USER));
+        long documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', '/nowhere.txt', 12.0, now()) RETURNING id", Long.class, userId);
+        jdbc.update("INSERT INTO flash_cards (document_id, title, content, created_at) VALUES (?, 'Cellule', 'Unité', now())",
+                documentId);
+        long quizId = jdbc.queryForObject("INSERT INTO quizzes (document_id, title, question_count, created_at) "
+                + "VALUES (?, 'Cellule', '1', now()) RETURNING id", Long.class, documentId);
+        jdbc.update("INSERT INTO quiz_questions (quiz_id, question_order, question, option_a, option_b, option_c, "
+                + "option_d, correct_answer, created_at) VALUES (?, 1, 'Unité du vivant ?', 'Cellule', 'Atome', "
+                + "'Organe', 'Tissu', 'A', now())", quizId);
+        paths = List.of("/api/documents/" + documentId + "/flashcards", "/api/documents/" + documentId + "/quizzes",
+                "/api/quizzes/" + quizId);
+    }
+
+    @Test
+    void jsonIsTheDefault() throws Exception {
+        for (String path : paths) {
+            assertEquals(MediaType.APPLICATION_JSON, contentType(fetch(path, null)), path);
+            assertEquals(MediaType.APPLICATION_JSON, contentType(fetch(path, "*/*")), path);
+            // Navigateur ou client générique : le binaire n'est jamais choisi sans préférence explicite
+            assertEquals(MediaType.APPLICATION_JSON, contentType(fetch(path, "application/json, */*;q=0.8")), path);
+        }
+    }
+
+    @Test
+    void smileOnRequest() throws Exception {
+        assertNegotiated(MediaTypes.APPLICATION_SMILE, SmileMapper.builder().build());
+    }
+
+    @Test
+    void cborOnRequest() throws Exception {
+        assertNegotiated(MediaType.APPLICATION_CBOR, CBORMapper.builder().build());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Même contenu que la réponse JSON, décodé avec le mapper du format demandé. */
+    private void assertNegotiated(MediaType type, ObjectMapper mapper) throws Exception {
+        for (String path : paths) {
+            JsonNode expected = json.readTree(fetch(path, null).getContentAsByteArray());
+
+            MockHttpServletResponse response = fetch(path, type.toString());
+
+            assertEquals(type, contentType(response), path);
+            assertEquals(expected, mapper.readTree(response.getContentAsByteArray()), path);
+        }
+    }
+
+    private MockHttpServletResponse fetch(String path, String accept) throws Exception {
+        MockHttpServletRequestBuilder request = get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        if (accept != null) request.header(HttpHeaders.ACCEPT, accept);
+        return mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private static MediaType contentType(MockHttpServletResponse response) {
+        MediaType type = MediaType.parseMediaType(response.getContentType());
+        return new MediaType(type.getType(), type.getSubtype());
+    }
+}
@@ -0,0 +1,105 @@
+package com.yassine.learningapp.dashboard;
+
+import com.yassine.learningapp.dto.DashboardResponse;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DashboardServiceTest {
+
+    private static final PlatformTransactionManager NO_TX = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private DashboardService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void sectionsRunInParallelAndCompleteViewIsCached() {
+        service = service(Map.of(), 2000);
+        long start = System.nanoTime();
+        DashboardResponse view = service.dashboard(1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 5 sections de 200 ms : ~200 ms en parallèle, 1 s en séquence
+        assertTrue(elapsedMillis < 700, "elapsed " + elapsedMillis + "ms");
+        assertEquals(List.of(), view.unavailable());
+        assertEquals(42.0, view.totalStorageBytes());
+        assertEquals(3L, view.quizCount());
+        assertEquals(5, calls.get());
+
+        service.dashboard(1L);
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    void slowSectionIsReportedUnavailableAndViewIsNotCached() {
+        service = service(Map.of("countByDocumentUserId", 5_000L), 400);
+        DashboardResponse view = service.dashboard(1L);
+
+        assertNull(view.quizCount());
+        assertNull(view.flashCardCount());
+        assertEquals(List.of("quiz_count", "flash_card_count"), view.unavailable());
+        assertEquals(42.0, view.totalStorageBytes());
+        assertEquals(1.0, registry.get("app.dashboard.unavailable").tag("section", "quiz_count").counter().count());
+
+        service.dashboard(1L);
+        assertEquals(10, calls.get());
+    }
+
+    private DashboardService service(Map<String, Long> delays, long timeoutMillis) {
+        return new DashboardService(
+                repository(DocumentRepository.class, delays), repository(QuizRepository.class, delays),
+                repository(FlashCardsRepository.class, delays), repository(QuizResultRepository.class, delays),
+                new HotPathMetrics(registry), NO_TX, timeoutMillis, Duration.ofSeconds(10), 100, 10, 10);
+    }
+
+    /** Dépôt factice : chaque requête dure 200 ms (ou le délai donné pour cette méthode). */
+    private <T> T repository(Class<T> type, Map<String, Long> delays) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            calls.incrementAndGet();
+            Thread.sleep(delays.getOrDefault(method.getName(), 200L));
+            return switch (method.getName()) {
+                case "countTotalSize" -> 42.0;
+                case "countByDocumentUserId" -> 3L;
+                default -> List.of();
+            };
+        }));
+    }
+}
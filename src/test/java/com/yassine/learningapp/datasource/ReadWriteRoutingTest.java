@@ -0,0 +1,109 @@
+package com.yassine.learningapp.datasource;
+
+import com.yassine.learningapp.dto.Role;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Routage contre deux bases H2 locales : "primary" et "replica" contiennent chacune leur nom.
+ */
+class ReadWriteRoutingTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaPool replicaPool;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+
+        RecentWriteTracker recentWrites = new RecentWriteTracker(Duration.ofSeconds(30));
+        replicaPool = new ReplicaPool(primary, List.of(new ReplicaPool.Replica("r1", replica)), recentWrites);
+        DataSource routing = ReadWriteRoutingConfig.routingDataSource(primary, replicaPool);
+
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+        txManager.addListener(recentWrites);
+        jdbc = new JdbcTemplate(routing);
+        writeTx = new TransactionTemplate(txManager);
+        readTx = new TransactionTemplate(txManager);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", readTx.execute(s -> whoAmI()));
+        assertEquals("primary", writeTx.execute(s -> whoAmI()));
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() {
+        authenticate(42L);
+        writeTx.executeWithoutResult(s -> jdbc.update("UPDATE marker SET touched = TRUE"));
+
+        assertEquals("primary", readTx.execute(s -> whoAmI()));
+
+        authenticate(7L);
+        assertEquals("replica", readTx.execute(s -> whoAmI()));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        new ReplicaLagMonitor(replicaPool, Duration.ofSeconds(5), "SELECT 60").check();
+        assertEquals("primary", readTx.execute(s -> whoAmI()));
+
+        new ReplicaLagMonitor(replicaPool, Duration.ofSeconds(5), "").check();
+        assertEquals("replica", readTx.execute(s -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    @Test
+    void explicitCredentialsAreNotSupported() {
+        assertThrows(SQLFeatureNotSupportedException.class, () -> replicaPool.getConnection("user", "secret"));
+    }
+
+    private static void authenticate(Long userId) {
+        CustomUserDetails user = new CustomUserDetails(userId, "user" + userId, "x", true, false, Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        ds.setMaximumPoolSize(2);
+        JdbcTemplate init = new JdbcTemplate(ds);
+        init.execute("CREATE TABLE marker (name VARCHAR(20), touched BOOLEAN DEFAULT FALSE)");
+        init.update("INSERT INTO marker (name) VALUES (?)", name);
+        return ds;
+    }
+}
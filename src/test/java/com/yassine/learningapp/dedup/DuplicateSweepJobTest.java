@@ -0,0 +1,156 @@
+package com.yassine.learningapp.dedup;
+
+import com.yassine.learningapp.health.SchedulerHeartbeats;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Balayage des doublons sur PostgreSQL : signature des questions (énoncé + options), doublons entre quiz d'un
+ * même utilisateur, nombre minimal de questions par quiz, suppression et recompte du quiz. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(Shards.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // le job commite sur sa propre transaction
+class DuplicateSweepJobTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String STEM = "Quelle est la capitale de ce pays ?";
+
+    @Autowired
+    private FlashCardsRepository flashCardsRepository;
+
+    @Autowired
+    private QuizQuestionRepository quizQuestionRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+    private long quizId;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        quizId = addQuiz("3");
+        addQuestion(quizId, STEM, List.of("Paris", "Lyon", "Marseille", "Nice"));
+        addQuestion(quizId, STEM, List.of("Paris", "Lyon", "Marseille", "Nice"));
+        // Même énoncé, autres réponses : question distincte
+        addQuestion(quizId, STEM, List.of("Rome", "Milan", "Naples", "Turin"));
+    }
+
+    @Test
+    void duplicateQuestionIsRemovedAndQuizRecounted() {
+        job(true).sweep();
+
+        assertEquals(List.of("Paris", "Rome"),
+                jdbc.queryForList("SELECT option_a FROM quiz_questions ORDER BY id", String.class));
+        Map<String, Object> quiz = jdbc.queryForMap("SELECT question_count, updated_at FROM quizzes WHERE id = ?", quizId);
+        assertEquals("2", quiz.get("question_count"));
+        assertNotNull(quiz.get("updated_at"));
+    }
+
+    @Test
+    void dryRunOnlyCounts() {
+        assertEquals(new DuplicateSweepJob.SweepResult(3, 1, 0), job(false).sweep(ContentKind.QUIZ_QUESTION));
+
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM quiz_questions", Integer.class));
+        Map<String, Object> quiz = jdbc.queryForMap("SELECT question_count, updated_at FROM quizzes WHERE id = ?", quizId);
+        assertEquals("3", quiz.get("question_count"));
+        assertNull(quiz.get("updated_at"));
+    }
+
+    @Test
+    void duplicatesAcrossQuizzesOfTheUserAreRemovedFromTheNewerQuiz() {
+        // Régénération depuis un autre document : nouveau quiz, questions en partie identiques
+        long regenerated = addQuiz("2");
+        addQuestion(regenerated, STEM, List.of("Rome", "Milan", "Naples", "Turin"));
+        addQuestion(regenerated, "Quel fleuve traverse cette ville ?", List.of("Seine", "Loire", "Rhône", "Garonne"));
+
+        job(true).sweep();
+
+        // Le quiz le plus ancien garde ses questions
+        assertEquals(List.of("Paris", "Rome"), jdbc.queryForList("SELECT option_a FROM quiz_questions WHERE quiz_id = ? "
+                + "ORDER BY id", String.class, quizId));
+        assertEquals(List.of("Seine"), jdbc.queryForList("SELECT option_a FROM quiz_questions WHERE quiz_id = ?",
+                String.class, regenerated));
+        assertEquals("1", jdbc.queryForObject("SELECT question_count FROM quizzes WHERE id = ?", String.class, regenerated));
+    }
+
+    @Test
+    void quizIsNeverEmptied() {
+        long copy = addQuiz("1");
+        addQuestion(copy, STEM, List.of("Paris", "Lyon", "Marseille", "Nice"));
+
+        assertEquals(new DuplicateSweepJob.SweepResult(4, 1, 1), job(true).sweep(ContentKind.QUIZ_QUESTION));
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM quiz_questions WHERE quiz_id = ?", Integer.class, copy));
+        assertEquals("1", jdbc.queryForObject("SELECT question_count FROM quizzes WHERE id = ?", String.class, copy));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private DuplicateSweepJob job(boolean apply) {
+        HotPathMetrics metrics = new HotPathMetrics(new SimpleMeterRegistry());
+        return new DuplicateSweepJob(flashCardsRepository, quizQuestionRepository, quizRepository,
+                new NearDuplicateDetector(16, 8, 0.8), metrics, new SchedulerHeartbeats(metrics), shards,
+                transactionManager, apply, 500, 1);
+    }
+
+    /** Nouveau document de l'utilisateur et son quiz. */
+    private long addQuiz(String questionCount) {
+        long documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Géographie', '/nowhere.txt', 12.0, now()) RETURNING id", Long.class, userId);
+        return jdbc.queryForObject("INSERT INTO quizzes (document_id, title, question_count, created_at) "
+                + "VALUES (?, 'Capitales', ?, now()) RETURNING id", Long.class, documentId, questionCount);
+    }
+
+    private void addQuestion(long quizId, String question, List<String> options) {
+        jdbc.update("INSERT INTO quiz_questions (quiz_id, question_order, question, option_a, option_b, option_c, "
+                        + "option_d, correct_answer, created_at) VALUES (?, 1, ?, ?, ?, ?, ?, 'A', now())",
+                quizId, question, options.get(0), options.get(1), options.get(2), options.get(3));
+    }
+}
@@ -0,0 +1,76 @@
+package com.yassine.learningapp.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LshIndexTest {
+
+    private final MinHasher hasher = new MinHasher(128, 5, 42);
+
+    @Test
+    void findsRewordedCardsButNotDistinctOnes() {
+        LshIndex index = new LshIndex(16, 8);
+        index.add(1, hasher.signature("La photosynthèse convertit l'énergie lumineuse en énergie chimique dans les chloroplastes."));
+        index.add(2, hasher.signature("La mitochondrie produit l'ATP par respiration cellulaire."));
+
+        LshIndex.Match match = index.findDuplicate(
+                hasher.signature("la PHOTOSYNTHESE convertit l'energie lumineuse en energie chimique, dans les chloroplastes !"), 0.8);
+        assertNotNull(match);
+        assertEquals(1L, match.id());
+
+        assertNull(index.findDuplicate(
+                hasher.signature("Le cycle de Krebs oxyde l'acétyl-CoA en dioxyde de carbone."), 0.8));
+    }
+
+    @Test
+    void signatureAgreementEstimatesJaccard() {
+        // Deux textes de 200 mots aléatoires qui partagent leurs 150 premiers mots
+        Random random = new Random(3);
+        StringBuilder common = new StringBuilder();
+        for (int i = 0; i < 150; i++) common.append("mot").append(random.nextInt(100_000)).append(' ');
+        StringBuilder left = new StringBuilder(common);
+        StringBuilder right = new StringBuilder(common);
+        for (int i = 0; i < 50; i++) {
+            left.append("gauche").append(random.nextInt(100_000)).append(' ');
+            right.append("droite").append(random.nextInt(100_000)).append(' ');
+        }
+
+        double estimated = MinHasher.similarity(hasher.signature(left.toString()), hasher.signature(right.toString()));
+        double exact = jaccard(shingles(left.toString()), shingles(right.toString()));
+        assertTrue(Math.abs(estimated - exact) < 0.1, "estimated=" + estimated + ", exact=" + exact);
+    }
+
+    private static Set<String> shingles(String text) {
+        String normalized = MinHasher.normalize(text);
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + 5 <= normalized.length(); i++) shingles.add(normalized.substring(i, i + 5));
+        return shingles;
+    }
+
+    private static double jaccard(Set<String> left, Set<String> right) {
+        Set<String> union = new HashSet<>(left);
+        union.addAll(right);
+        long common = left.stream().filter(right::contains).count();
+        return (double) common / union.size();
+    }
+
+    @Test
+    void removedItemsAreNoLongerCandidates() {
+        LshIndex index = new LshIndex(16, 8);
+        int[] signature = hasher.signature("Quelle est la capitale de l'Australie ?");
+        index.add(7, signature);
+        assertEquals(7L, index.findDuplicate(signature, 0.8).id());
+
+        index.remove(7);
+        assertEquals(0, index.size());
+        assertNull(index.findDuplicate(signature, 0.8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.yassine.learningapp.extraction;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextExtractionServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final PdfTextExtractor pdf = new PdfTextExtractor(2, 3);
+
+    @AfterEach
+    void shutdown() {
+        pdf.shutdown();
+    }
+
+    @Test
+    void extractsPdfPagesInOrderAcrossParallelRanges() throws IOException {
+        Path file = writePdf(dir.resolve("cours.pdf"), 10);
+        TextExtractionService service = service();
+
+        ExtractedText text = service.open(file);
+
+        assertEquals(10, text.pageCount());
+        for (int page = 0; page < 10; page++) {
+            assertEquals("Page " + (page + 1) + " du cours", read(text.reader(page, page + 1)).strip());
+        }
+        String all = read(text.reader());
+        assertTrue(all.indexOf("Page 2 du cours") < all.indexOf("Page 10 du cours"));
+    }
+
+    @Test
+    void extractsOncePerContentHash() throws IOException {
+        Path first = Files.writeString(dir.resolve("a.txt"), "Énoncé : 𝛼 + β = γ\n".repeat(5000));
+        Path copy = Files.copy(first, dir.resolve("b.txt"));
+        TextExtractionService service = service();
+
+        ExtractedText text = service.open(first);
+        service.open(copy);
+
+        assertEquals(1, text.pageCount());
+        assertEquals(Files.readString(first), read(text.reader()));
+        try (Stream<Path> files = Files.walk(dir.resolve("cache"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    private TextExtractionService service() {
+        return new TextExtractionService(List.of(pdf, new PlainTextExtractor()), dir.resolve("cache").toString(), 30);
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringWriter out = new StringWriter();
+        try (reader) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+
+    private static Path writePdf(Path file, int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.newLineAtOffset(72, 720);
+                    content.showText("Page " + i + " du cours");
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+}
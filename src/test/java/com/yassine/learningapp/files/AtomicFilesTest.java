@@ -0,0 +1,87 @@
+package com.yassine.learningapp.files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AtomicFilesTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(15);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedWriteLeavesNeitherTargetNorPart() throws IOException {
+        Path target = dir.resolve("a/v1.json.gz");
+
+        assertThrows(IOException.class, () -> AtomicFiles.write(target, part -> {
+            Files.writeString(part, "partiel");
+            throw new IOException("disque plein");
+        }));
+
+        assertFalse(Files.exists(target));
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void writeReplacesTheTargetWhole() throws IOException {
+        Path target = dir.resolve("v1.json.gz");
+        Files.writeString(target, "ancien");
+
+        AtomicFiles.write(target, part -> Files.writeString(part, "nouveau"));
+
+        assertEquals("nouveau", Files.readString(target));
+    }
+
+    @Test
+    void versionSupersededWithinTheGraceIsKept() throws IOException {
+        Instant now = Instant.now();
+        Path v1 = version("v1", now.minus(Duration.ofHours(3)));
+        Path v2 = version("v2", now.minus(Duration.ofHours(2)));
+        Path v3 = version("v3", now.minus(Duration.ofMinutes(5)));
+        Path keep = version("v4", now);
+
+        // v1 remplacée il y a 2 h, v2 il y a 5 min, v3 à l'instant
+        assertEquals(1, AtomicFiles.deleteSuperseded(dir, "*.json.gz", keep, GRACE));
+
+        assertFalse(Files.exists(v1));
+        assertTrue(Files.exists(v2));
+        assertTrue(Files.exists(v3));
+        assertTrue(Files.exists(keep));
+    }
+
+    @Test
+    void onlyMatchingFilesAreConsidered() throws IOException {
+        Instant old = Instant.now().minus(Duration.ofDays(1));
+        Path other = dir.resolve("notes.txt");
+        Files.writeString(other, "x");
+        Files.setLastModifiedTime(other, FileTime.from(old));
+        Path keep = version("v2", old.plus(Duration.ofHours(1)));
+
+        assertEquals(0, AtomicFiles.deleteSuperseded(dir, "*.json.gz", keep, GRACE));
+        assertTrue(Files.exists(other));
+    }
+
+    private Path version(String name, Instant modified) throws IOException {
+        Path file = dir.resolve(name + ".json.gz");
+        Files.writeString(file, name);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+}
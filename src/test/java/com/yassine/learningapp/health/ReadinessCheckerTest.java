@@ -0,0 +1,85 @@
+package com.yassine.learningapp.health;
+
+import com.yassine.learningapp.datasource.RecentWriteTracker;
+import com.yassine.learningapp.datasource.ReplicaLagMonitor;
+import com.yassine.learningapp.datasource.ReplicaPool;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadinessCheckerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SchedulerHeartbeats heartbeats = new SchedulerHeartbeats(new HotPathMetrics(registry));
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:readiness-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+    @Test
+    void fullQueueIsReportedWithoutFailingReadiness() {
+        ReadinessChecker checker = new ReadinessChecker(dataSource, replicas(null), heartbeats,
+                List.of(new FixedQueue("password-hashing", 16, 16)), 5000, 2, 30, 10);
+
+        checker.refresh();
+
+        HealthSnapshot snapshot = checker.current();
+        assertTrue(snapshot.isUp(), snapshot.toString());
+        assertEquals("16/16", snapshot.components().get("queues").details().get("password-hashing"));
+    }
+
+    @Test
+    void lateJobIsReportedWithoutFailingReadiness() throws InterruptedException {
+        heartbeats.expect("dedup-sweep", Duration.ZERO);
+        heartbeats.expect("mail-outbox", Duration.ofHours(1));
+        heartbeats.beat("mail-outbox");
+        Thread.sleep(1100);
+        ReadinessChecker checker = new ReadinessChecker(dataSource, replicas(null), heartbeats, List.of(), 5000, 2, 0,
+                10);
+
+        checker.refresh();
+
+        HealthSnapshot snapshot = checker.current();
+        assertTrue(snapshot.isUp(), snapshot.toString());
+        assertEquals(List.of("dedup-sweep"), snapshot.components().get("scheduler").details().get("late"));
+        assertTrue(registry.get(HotPathMetrics.SCHEDULER_LAG).tag("job", "dedup-sweep").gauge().value() >= 1);
+        assertEquals(0, registry.get(HotPathMetrics.SCHEDULER_LAG).tag("job", "mail-outbox").gauge().value());
+    }
+
+    @Test
+    void laggingReplicaIsReportedWithoutFailingReadiness() {
+        ReplicaPool pool = new ReplicaPool(dataSource, List.of(new ReplicaPool.Replica("r1", dataSource),
+                new ReplicaPool.Replica("r2", dataSource)), new RecentWriteTracker(Duration.ofSeconds(5)));
+        new ReplicaLagMonitor(pool, Duration.ofSeconds(5), "SELECT 60").check();
+        ReadinessChecker checker = new ReadinessChecker(dataSource, replicas(pool), heartbeats, List.of(), 5000, 2,
+                30, 10);
+
+        checker.refresh();
+
+        HealthSnapshot snapshot = checker.current();
+        assertTrue(snapshot.isUp(), snapshot.toString());
+        assertEquals(List.of("r1", "r2"), snapshot.components().get("replicas").details().get("down"));
+        assertEquals(60_000L, snapshot.components().get("replicas").details().get("r1.lagMs"));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** {@code null} : routage désactivé, aucun bean {@link ReplicaPool}. */
+    private static ObjectProvider<ReplicaPool> replicas(ReplicaPool pool) {
+        StaticListableBeanFactory beans = pool == null ? new StaticListableBeanFactory()
+                : new StaticListableBeanFactory(Map.of("replicaPool", pool));
+        return beans.getBeanProvider(ReplicaPool.class);
+    }
+
+    private record FixedQueue(String name, int depth, int capacity) implements QueueDepthProbe {}
+}
@@ -0,0 +1,25 @@
+package com.yassine.learningapp.live;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Trames SSE sérialisées avec le mapper Jackson 3 fourni par Boot 4 (le service n'en reçoit pas d'autre).
+ */
+class LiveFramesTest {
+
+    @Test
+    void encodesOneSingleLineSseFrame() {
+        LiveFrames.Finished finished = new LiveFrames.Finished(2, List.of(new LiveFrames.Standing(1, "alice\nbob", 2)));
+
+        byte[] frame = LiveFrames.encode(JsonMapper.builder().build(), "finished", finished);
+
+        assertEquals("event: finished\ndata: {\"questionCount\":2,\"standings\":[{\"rank\":1,\"nickname\":\"alice\\nbob\",\"score\":2}]}\n\n",
+                new String(frame, StandardCharsets.UTF_8));
+    }
+}
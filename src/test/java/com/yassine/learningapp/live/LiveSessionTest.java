@@ -0,0 +1,113 @@
+package com.yassine.learningapp.live;
+
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.exception.LiveSessionStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveSessionTest {
+
+    private static final List<QuizQuestionResponse> QUESTIONS = List.of(
+            new QuizQuestionResponse(1L, 1, "2 + 2 ?", "3", "4", "5", "6", "B", "Addition"),
+            new QuizQuestionResponse(2L, 2, "Capitale de la France ?", "Lyon", "Nice", "Paris", "Lille", "C", null));
+
+    private LiveSession session() {
+        LiveSession session = new LiveSession("ABC234", 10L, 1L, "Quiz", QUESTIONS, 3, 0);
+        session.join(2L, "alice", 0);
+        session.join(3L, "bob", 0);
+        return session;
+    }
+
+    @Test
+    void gradesAnswersAndRejectsLateDuplicateOrStaleOnes() {
+        LiveSession session = session();
+        LiveFrames.Question question = session.openNext(1_000, 10_000);
+        assertEquals(0, question.index());
+        assertEquals(2, question.total());
+
+        assertFalse(session.answer(2L, 1, "B", 2_000), "mauvaise question");
+        assertTrue(session.answer(2L, 0, "b", 2_000));
+        assertFalse(session.answer(2L, 0, "A", 2_500), "déjà répondu");
+        assertFalse(session.answer(3L, 0, "B", 11_001), "hors délai");
+        assertFalse(session.answer(99L, 0, "B", 2_000), "participant inconnu");
+        assertFalse(session.everyoneAnswered());
+
+        LiveFrames.Reveal reveal = session.closeQuestion(0, 10);
+        assertNotNull(reveal);
+        assertEquals("B", reveal.correctAnswer());
+        assertEquals(1, reveal.answered());
+        assertEquals(2, reveal.participants());
+        assertEquals("alice", reveal.standings().get(0).nickname());
+        assertEquals(1, reveal.standings().get(0).score());
+        assertFalse(session.answer(3L, 0, "B", 3_000), "question close");
+    }
+
+    @Test
+    void ranksByScoreThenByAnswerTime() {
+        LiveSession session = session();
+        session.openNext(0, 10_000);
+        session.answer(3L, 0, "B", 1_000);
+        session.answer(2L, 0, "B", 4_000);
+        assertTrue(session.everyoneAnswered());
+        LiveFrames.Reveal reveal = session.closeQuestion(0, 10);
+
+        // Même score : le plus rapide d'abord
+        assertEquals(List.of("bob", "alice"), reveal.standings().stream().map(LiveFrames.Standing::nickname).toList());
+        assertEquals(1, session.standings(1).size());
+    }
+
+    @Test
+    void closeAndFinishAreIdempotent() {
+        LiveSession session = session();
+        session.openNext(0, 10_000);
+        assertNotNull(session.closeQuestion(0, 10));
+        assertNull(session.closeQuestion(0, 10), "délai et clôture anticipée en concurrence");
+        assertEquals(1, session.askedCount());
+
+        assertEquals(2, session.beginFinish().size());
+        assertNull(session.beginFinish(), "clôture déjà en cours");
+        session.finished();
+        assertNull(session.beginFinish());
+        assertEquals(LiveSession.Phase.FINISHED, session.phase());
+        assertThrows(LiveSessionStateException.class, () -> session.openNext(0, 10_000));
+        assertThrows(LiveSessionStateException.class, () -> session.join(4L, "carol", 0));
+    }
+
+    @Test
+    void failedFinishKeepsScoresForRetry() {
+        LiveSession session = session();
+        session.openNext(0, 10_000);
+        assertTrue(session.answer(2L, 0, "B", 1_000));
+
+        assertEquals(2, session.beginFinish().size());
+        // Clôture en cours : question close, plus d'arrivée ni de question
+        assertFalse(session.answer(3L, 0, "B", 1_500));
+        assertThrows(LiveSessionStateException.class, () -> session.join(4L, "carol", 0));
+        assertThrows(LiveSessionStateException.class, () -> session.openNext(2_000, 10_000));
+
+        session.finishFailed();
+        assertEquals(LiveSession.Phase.REVEAL, session.phase());
+        List<LiveSession.Participant> retried = session.beginFinish();
+        assertEquals(2, retried.size());
+        assertEquals(1, retried.stream().filter(p -> p.userId().equals(2L)).findFirst().orElseThrow().correct());
+        session.finished();
+        assertEquals(LiveSession.Phase.FINISHED, session.phase());
+    }
+
+    @Test
+    void enforcesCapacityButLetsParticipantsRejoin() {
+        LiveSession session = session();
+        session.join(4L, "carol", 0);
+        assertThrows(LiveSessionStateException.class, () -> session.join(5L, "dave", 0));
+        session.join(2L, "alice", 0);
+        assertEquals(3, session.participantCount());
+    }
+}
@@ -0,0 +1,72 @@
+package com.yassine.learningapp.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.yassine.learningapp.entity.MailOutbox;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailBatchSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void sendsWholeBatchWithStableMessageIds() throws Exception {
+        MailBatchSender sender = new MailBatchSender(mailSender(smtp.getSmtp().getPort()), "noreply@learningapp.test");
+
+        Map<Long, String> failures = sender.send(List.of(
+                mail(1L, "alice@example.com"),
+                mail(2L, "bob@example.com"),
+                mail(3L, "carol@example.com")));
+
+        assertTrue(failures.isEmpty());
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertTrue(List.of(received[0].getMessageID(), received[1].getMessageID(), received[2].getMessageID())
+                .contains("<outbox-2@learningapp>"));
+    }
+
+    @Test
+    void reportsEveryMessageAsFailedWhenRelayIsDown() {
+        MailBatchSender sender = new MailBatchSender(mailSender(1), "noreply@learningapp.test");
+
+        Map<Long, String> failures = sender.send(List.of(mail(1L, "alice@example.com"), mail(2L, "bob@example.com")));
+
+        assertEquals(2, failures.size());
+    }
+
+    @Test
+    void backoffDoublesUpToCap() {
+        Duration base = Duration.ofSeconds(30);
+        Duration max = Duration.ofMinutes(60);
+        assertEquals(Duration.ofSeconds(30), MailDispatcher.backoff(1, base, max));
+        assertEquals(Duration.ofSeconds(120), MailDispatcher.backoff(3, base, max));
+        assertEquals(max, MailDispatcher.backoff(12, base, max));
+        assertEquals(max, MailDispatcher.backoff(Integer.MAX_VALUE, base, max));
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return sender;
+    }
+
+    private static MailOutbox mail(Long id, String to) {
+        MailOutbox mail = new MailOutbox("test:" + id, to, "Sujet " + id, "Corps " + id, LocalDateTime.now());
+        mail.setId(id);
+        return mail;
+    }
+}
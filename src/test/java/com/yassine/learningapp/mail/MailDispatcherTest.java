@@ -0,0 +1,217 @@
+package com.yassine.learningapp.mail;
+
+import com.yassine.learningapp.entity.MailOutbox;
+import com.yassine.learningapp.health.SchedulerHeartbeats;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox mail sur PostgreSQL : mise en file idempotente, réservation par bail, backoff et abandon. L'envoi SMTP
+ * est remplacé par un expéditeur qui échoue pour les destinataires listés dans {@link #failures}. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // chaque étape du dispatcher commite, comme en production
+class MailDispatcherTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Autowired
+    private MailOutboxRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    /** Destinataire -> erreur renvoyée par l'expéditeur. */
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private volatile Runnable duringSend = () -> {
+    };
+
+    private TransactionTemplate tx;
+    private MailOutboxService outbox;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM mail_outbox");
+        tx = new TransactionTemplate(transactionManager);
+        outbox = new MailOutboxService(repository);
+    }
+
+    @Test
+    void enqueueIgnoresAnExistingKeyEvenConcurrently() {
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(CompletableFuture.supplyAsync(() ->
+                    tx.execute(status -> outbox.enqueue("password-reset:1:42", "alice@example.com", "Sujet", "Corps"))));
+        }
+
+        long queued = calls.stream().map(CompletableFuture::join).filter(Boolean::booleanValue).count();
+
+        assertEquals(1, queued);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM mail_outbox", Integer.class));
+    }
+
+    @Test
+    void sentMailIsAcknowledged() {
+        enqueue("alice@example.com");
+        MailDispatcher dispatcher = dispatcher();
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        Map<String, Object> row = row("alice@example.com");
+        assertEquals("SENT", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertNotNull(row.get("sent_at"));
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void claimedBatchIsLeasedForTheWholeSend() {
+        enqueue("alice@example.com");
+        enqueue("bob@example.com");
+        MailDispatcher first = dispatcher();
+        MailDispatcher second = dispatcher();
+        Map<String, Map<String, Object>> seen = new HashMap<>();
+        duringSend = () -> {
+            duringSend = () -> {
+            };
+            // Pendant l'envoi du premier lot, une autre instance ne reprend rien
+            seen.put("second", Map.of("claimed", second.dispatchBatch()));
+            seen.put("alice", row("alice@example.com"));
+        };
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(2, first.dispatchBatch());
+
+        assertEquals(0, seen.get("second").get("claimed"));
+        assertEquals("SENDING", seen.get("alice").get("status"));
+        // Bail = pire cas du lot : 5 s + 10 × (10 s + 10 s), au-delà des 120 s configurés
+        LocalDateTime leasedUntil = ((Timestamp) seen.get("alice").get("next_attempt_at")).toLocalDateTime();
+        assertTrue(leasedUntil.isAfter(before.plusSeconds(200)), leasedUntil::toString);
+        assertEquals("SENT", row("alice@example.com").get("status"));
+    }
+
+    @Test
+    void expiredLeaseIsClaimedAgain() {
+        enqueue("alice@example.com");
+        // Instance morte entre la réservation et l'acquittement
+        jdbc.update("UPDATE mail_outbox SET status = 'SENDING', attempts = 1, next_attempt_at = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+
+        assertEquals(1, dispatcher().dispatchBatch());
+
+        Map<String, Object> row = row("alice@example.com");
+        assertEquals("SENT", row.get("status"));
+        assertEquals(2, row.get("attempts"));
+    }
+
+    @Test
+    void failedSendBacksOffThenGivesUp() {
+        enqueue("alice@example.com");
+        failures.put("alice@example.com", "relay down");
+        MailDispatcher dispatcher = dispatcher();
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        Map<String, Object> row = row("alice@example.com");
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertEquals("relay down", row.get("last_error"));
+        // 1re nouvelle tentative : 30 s ± 20 %
+        LocalDateTime retryAt = ((Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        assertTrue(retryAt.isAfter(before.plusSeconds(23)) && retryAt.isBefore(LocalDateTime.now().plusSeconds(37)),
+                retryAt::toString);
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        makeDue();
+        assertEquals(1, dispatcher.dispatchBatch());
+        row = row("alice@example.com");
+        assertEquals("FAILED", row.get("status"));
+        assertEquals(MAX_ATTEMPTS, row.get("attempts"));
+
+        makeDue();
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void leaseCoversTheWorstCaseOfABatch() {
+        Duration configured = Duration.ofSeconds(120);
+        assertEquals(Duration.ofSeconds(1005),
+                MailDispatcher.lease(configured, 50, Duration.ofSeconds(5), Duration.ofSeconds(20)));
+        assertEquals(configured, MailDispatcher.lease(configured, 2, Duration.ofSeconds(5), Duration.ofSeconds(20)));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private MailDispatcher dispatcher() {
+        HotPathMetrics metrics = new HotPathMetrics(new SimpleMeterRegistry());
+        MailBatchSender sender = new MailBatchSender(null, "noreply@learningapp.test") {
+            @Override
+            public Map<Long, String> send(List<MailOutbox> batch) {
+                duringSend.run();
+                Map<Long, String> failed = new HashMap<>();
+                for (MailOutbox mail : batch) {
+                    String error = failures.get(mail.getRecipient());
+                    if (error != null) failed.put(mail.getId(), error);
+                }
+                return failed;
+            }
+        };
+        return new MailDispatcher(repository, sender, transactionManager, new SchedulerHeartbeats(metrics), metrics,
+                BATCH_SIZE, 1, 300, MAX_ATTEMPTS, 120, 5_000, 10_000, 10_000, 30, 60);
+    }
+
+    private void enqueue(String recipient) {
+        assertEquals(Boolean.TRUE, tx.execute(status -> outbox.enqueue("test:" + recipient, recipient, "Sujet", "Corps")));
+    }
+
+    private void makeDue() {
+        jdbc.update("UPDATE mail_outbox SET next_attempt_at = ?", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+    }
+
+    private Map<String, Object> row(String recipient) {
+        return jdbc.queryForMap("SELECT status, attempts, next_attempt_at, last_error, sent_at FROM mail_outbox "
+                + "WHERE recipient = ?", recipient);
+    }
+}
@@ -0,0 +1,72 @@
+package com.yassine.learningapp.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotPathMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HotPathMetrics metrics = new HotPathMetrics(registry);
+
+    @Test
+    void jwtTimersAreRegisteredUpFront() {
+        assertSame(metrics.jwtParse(), registry.get(HotPathMetrics.JWT_PARSE).tag("outcome", "any").timer());
+        assertSame(metrics.jwtSign(), registry.get(HotPathMetrics.JWT_SIGN).tag("outcome", "any").timer());
+    }
+
+    @Test
+    void oneTimerPerTagValueReusedAcrossCalls() {
+        Timer issue = metrics.refreshToken("issue");
+
+        assertSame(issue, metrics.refreshToken("issue"));
+        assertNotSame(issue, metrics.refreshToken("rotate"));
+        assertSame(issue, registry.get(HotPathMetrics.REFRESH_TOKEN).tag("op", "issue").timer());
+        assertEquals(2, registry.get(HotPathMetrics.REFRESH_TOKEN).timers().size());
+    }
+
+    @Test
+    void tagsCarryTheirValue() {
+        metrics.errorRender(404).record(Duration.ofMillis(1));
+        metrics.authFilter("expired").record(Duration.ofMillis(2));
+
+        assertEquals(1, registry.get(HotPathMetrics.ERROR_RENDER).tag("status", "404").timer().count());
+        assertEquals(1, registry.get(HotPathMetrics.AUTH_FILTER).tag("outcome", "expired").timer().count());
+        // Même nom, autre clé de tag : timer distinct
+        assertNotSame(metrics.retrieval("search"), metrics.adaptive("search"));
+    }
+
+    @Test
+    void timersPublishHistogramBucketsToPrometheus() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new HotPathMetrics(prometheus).passwordHash("verify").record(Duration.ofMillis(30));
+
+        List<Double> bounds = prometheus.scrape().lines()
+                .filter(line -> line.startsWith("app_password_hash_seconds_bucket{") && !line.contains("le=\"+Inf\""))
+                .map(line -> Double.parseDouble(line.replaceAll(".*le=\"([^\"]+)\".*", "$1")))
+                .toList();
+        assertTrue(bounds.size() > 10, bounds::toString);
+        // Buckets bornés par les valeurs attendues (50 µs .. 5 s)
+        assertTrue(bounds.stream().allMatch(le -> le >= 0.00005 && le <= 5.0), bounds::toString);
+    }
+
+    @Test
+    void countersAreTagged() {
+        metrics.rateLimited("ip").increment();
+        metrics.dedup("quiz_question", "swept").increment(3);
+
+        assertEquals(1, registry.get(HotPathMetrics.RATE_LIMITED).tag("scope", "ip").counter().count());
+        assertEquals(3, registry.get(HotPathMetrics.DEDUP).tag("kind", "quiz_question").tag("outcome", "swept")
+                .counter().count());
+    }
+}
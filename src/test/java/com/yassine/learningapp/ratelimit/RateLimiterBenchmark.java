@@ -0,0 +1,52 @@
+package com.yassine.learningapp.ratelimit;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Micro-benchmark manuel (hors suite de tests) : coût d'un {@link RateLimiter#tryAcquire} sous contention.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.yassine.learningapp.ratelimit.RateLimiterBenchmark [threads] [keys]
+ * </pre>
+ */
+public final class RateLimiterBenchmark {
+
+    private static final int OPS_PER_THREAD = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        String[] ips = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            ips[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+
+        for (int round = 0; round < 3; round++) { // 2 tours de chauffe JIT
+            RateLimiter limiter = RateLimiter.perMinute(20, 30, 100_000);
+            LongAdder allowed = new LongAdder();
+            CountDownLatch done = new CountDownLatch(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread.ofPlatform().start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long ok = 0;
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        if (limiter.tryAcquire(ips[random.nextInt(ips.length)]) == 0) ok++;
+                    }
+                    allowed.add(ok);
+                    done.countDown();
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            long ops = (long) threads * OPS_PER_THREAD;
+            System.out.printf("round=%d threads=%d keys=%d ops=%d allowed=%d  %.1f ns/op (par thread)  %.1f Mops/s%n",
+                    round, threads, keys, ops, allowed.sum(),
+                    (double) elapsed * threads / ops, ops / (elapsed / 1e3));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.yassine.learningapp.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L); // nanoTime peut être négatif
+    private final RateLimiter limiter = new RateLimiter(3, Duration.ofSeconds(1), 2, clock::get);
+
+    @Test
+    void allowsBurstThenRefillsOneTokenPerInterval() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("1.2.3.4"));
+        }
+        long wait = limiter.tryAcquire("1.2.3.4");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4") > 0);
+
+        // Clés indépendantes
+        assertEquals(0, limiter.tryAcquire("5.6.7.8"));
+    }
+
+    @Test
+    void deniesOnlyExcessKeysWhenFull() {
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        // Map pleine (maxKeys=2), aucun bucket inactif : la nouvelle clé est refusée sans être suivie
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("c"));
+        assertEquals(2, limiter.size());
+        // Les clés suivies gardent leur quota
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        // Dès qu'un bucket redevient plein, il est purgé et la nouvelle clé est admise
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(1, limiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.size());
+    }
+}
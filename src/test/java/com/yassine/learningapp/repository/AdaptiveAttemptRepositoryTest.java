@@ -0,0 +1,59 @@
+package com.yassine.learningapp.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tentatives de quiz adaptatif sur H2 (mode PostgreSQL), schéma de la migration V10.
+ */
+class AdaptiveAttemptRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private AdaptiveAttemptRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:attempts-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V10__adaptive_attempts.sql"));
+        }
+        repository = new AdaptiveAttemptRepository(dataSource);
+        repository.create("a1", 7L, 100L, List.of(1L, 2L, 3L), NOW);
+    }
+
+    @Test
+    void gradesOnlyServedQuestionsOnce() {
+        assertTrue(repository.lock("a1", 7L, 100L, NOW.minusHours(2)));
+
+        assertEquals(List.of(), repository.claim("a1", List.of(1L, 2L), NOW));
+        assertEquals(List.of(2L, 9L), repository.claim("a1", List.of(2L, 3L, 9L), NOW));
+        assertEquals(List.of(3L), repository.claim("a1", List.of(3L), NOW));
+    }
+
+    @Test
+    void attemptIsScopedToItsUserDocumentAndLifetime() {
+        assertFalse(repository.lock("a1", 8L, 100L, NOW.minusHours(2)));
+        assertFalse(repository.lock("a1", 7L, 101L, NOW.minusHours(2)));
+        assertFalse(repository.lock("unknown", 7L, 100L, NOW.minusHours(2)));
+        assertFalse(repository.lock("a1", 7L, 100L, NOW.plusMinutes(1)));
+
+        assertEquals(0, repository.deleteCreatedBefore(NOW));
+        assertEquals(1, repository.deleteCreatedBefore(NOW.plusMinutes(1)));
+        assertFalse(repository.lock("a1", 7L, 100L, NOW.minusHours(2)));
+        assertEquals(List.of(1L), repository.claim("a1", List.of(1L), NOW));
+    }
+}
@@ -0,0 +1,417 @@
+package com.yassine.learningapp.repository;
+
+import com.yassine.learningapp.adaptive.Rasch;
+import com.yassine.learningapp.dto.TokenType;
+import com.yassine.learningapp.tracing.DataSourceProxyPostProcessor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Plans d'exécution des requêtes des dépôts sur une base PostgreSQL créée par les migrations Flyway et peuplée à
+ * un volume réaliste : chaque statement émis par un appel de dépôt (JPA ou JDBC, capturé sur le proxy JDBC) est
+ * rejoué en {@code EXPLAIN} avec ses paramètres, et le test échoue sur un parcours séquentiel d'une grande table.
+ * Les balayages complets voulus (déduplication) sont déclarés avec {@link #sweep}. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        // Les migrations doivent décrire exactement les entités
+        "spring.jpa.hibernate.ddl-auto=validate",
+        // Chaque appel doit atteindre la base (pas de cache de requêtes ni de cache L2)
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DataSourceProxyPostProcessor.class, RepositoryQueryPlanTest.CapturedStatements.class,
+        QuestionStatsRepository.class, UserAbilityRepository.class, QuizResultBatchInserter.class})
+class RepositoryQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    /** À partir de cette taille (estimée après ANALYZE), un parcours séquentiel est un défaut d'index. */
+    private static final long LARGE_TABLE_ROWS = 10_000;
+
+    private static final int USERS = 10_000;
+    private static final int DOCUMENTS = USERS * 5;
+    private static final int QUIZZES = DOCUMENTS * 2;
+    private static final int QUESTIONS = QUIZZES * 3;
+
+    private static final long USER_ID = 4_242;
+    private static final long DOCUMENT_ID = 14_242;
+    private static final long QUIZ_ID = 24_242;
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private static Set<String> largeTables;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private CapturedStatements captured;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private DocumentRepository documentRepository;
+    @Autowired
+    private DocumentChunkRepository documentChunkRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private QuizQuestionRepository quizQuestionRepository;
+    @Autowired
+    private FlashCardsRepository flashCardsRepository;
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+    @Autowired
+    private QuizResultBatchInserter quizResultBatchInserter;
+    @Autowired
+    private QuestionStatsRepository questionStatsRepository;
+    @Autowired
+    private UserAbilityRepository userAbilityRepository;
+
+    private final List<String> violations = new ArrayList<>();
+
+    @BeforeAll
+    static void seed(@Autowired DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("""
+                INSERT INTO users (username, password, role, active, locked, created_at)
+                SELECT 'learner-' || i, 'hash', 'USER', TRUE, FALSE, now() FROM generate_series(1, ?) i
+                """, USERS);
+        jdbc.update("""
+                INSERT INTO refresh_tokens (token_hash, user_id, token_type, created_at, last_used_at, expires_at, revoked)
+                SELECT md5(i::text), i % ? + 1, 'REFRESH', now(), now(), now() + (i % 10080) * INTERVAL '1 minute', i % 5 = 0
+                FROM generate_series(1, ?) i
+                """, USERS, USERS * 3);
+        jdbc.update("""
+                INSERT INTO password_reset_tokens (user_id, token_hash, expires_at, created_at, used_at)
+                SELECT i % ? + 1, md5('reset' || i), now() + INTERVAL '1 hour', now(), CASE WHEN i % 3 = 0 THEN NULL ELSE now() END
+                FROM generate_series(1, ?) i
+                """, USERS, USERS);
+        jdbc.update("""
+                INSERT INTO mail_outbox (dedupe_key, recipient, subject, body, status, attempts, next_attempt_at, sent_at)
+                SELECT 'mail-' || i, 'learner@example.com', 'Sujet', 'Corps', CASE WHEN i % 100 = 0 THEN 'PENDING' ELSE 'SENT' END,
+                       1, now() + (i % 60) * INTERVAL '1 minute',
+                       CASE WHEN i % 100 = 0 THEN NULL ELSE now() - (i % 10080) * INTERVAL '1 minute' END
+                FROM generate_series(1, ?) i
+                """, USERS * 5);
+        jdbc.update("""
+                INSERT INTO documents (user_id, title, path, file_size, created_at)
+                SELECT i % ? + 1, 'Cours ' || i, 'uploads/' || i || '.pdf', 100000 + i, now() - i * INTERVAL '1 minute'
+                FROM generate_series(1, ?) i
+                """, USERS, DOCUMENTS);
+        jdbc.update("""
+                INSERT INTO document_chunks (document_id, user_id, chunk_index, start_offset, end_offset, content)
+                SELECT d.id, d.user_id, c, c * 1000, c * 1000 + 1000, 'Texte ' || d.id || '/' || c
+                FROM documents d CROSS JOIN generate_series(0, 4) c
+                """);
+        jdbc.update("""
+                INSERT INTO flash_cards (document_id, title, content, is_favorite, created_at)
+                SELECT i % ? + 1, 'Fiche ' || i, 'Contenu de la fiche ' || i, i % 7 = 0, now()
+                FROM generate_series(1, ?) i
+                """, DOCUMENTS, DOCUMENTS * 5);
+        jdbc.update("""
+                INSERT INTO quizzes (document_id, title, question_count, created_at)
+                SELECT i % ? + 1, 'Quiz ' || i, '3', now() FROM generate_series(1, ?) i
+                """, DOCUMENTS, QUIZZES);
+        jdbc.update("""
+                INSERT INTO quiz_questions (quiz_id, question_order, question, answer, option_a, option_b, option_c, option_d,
+                                            correct_answer, explanation, created_at)
+                SELECT i % ? + 1, i / ? + 1, 'Question ' || i || ' ?', 'A', 'a', 'b', 'c', 'd', 'A', 'Parce que.', now()
+                FROM generate_series(0, ? - 1) i
+                """, QUIZZES, QUIZZES, QUESTIONS);
+        jdbc.update("""
+                INSERT INTO question_stats (question_id, attempts, correct, response_millis, ability_sum, difficulty)
+                SELECT id, 10, 5, 30000, 0, 0 FROM quiz_questions
+                """);
+        jdbc.update("""
+                INSERT INTO quiz_results (user_id, quiz_id, score, question_count, time_taken_seconds, percentage_score,
+                                          client_attempt_id, created_at)
+                SELECT i % ? + 1, i % ? + 1, 2, 3, 60, 66.67, 'attempt-' || i, now() - i * INTERVAL '1 second'
+                FROM generate_series(1, ?) i
+                """, USERS, QUIZZES, USERS * 20);
+        jdbc.update("""
+                INSERT INTO user_abilities (user_id, document_id, ability, information, answers)
+                SELECT user_id, id, 0, 1, 0 FROM documents
+                """);
+        jdbc.execute("ANALYZE");
+        largeTables = new HashSet<>(jdbc.queryForList(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' AND reltuples >= ?", String.class, LARGE_TABLE_ROWS));
+    }
+
+    @AfterEach
+    void reportViolations() {
+        if (!violations.isEmpty()) {
+            fail("Sequential scans on large tables:\n" + String.join("\n", violations));
+        }
+    }
+
+    @Test
+    void accountQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertIndexed("UserRepository.findByUsername", () -> userRepository.findByUsername("learner-42"));
+        assertIndexed("UserRepository.existsByUsername", () -> userRepository.existsByUsername("learner-42"));
+        assertIndexed("UserRepository.updatePasswordHash", () -> userRepository.updatePasswordHash(MISSING_ID, "old", "new"));
+        assertIndexed("UserRepository.resetPasswordHash", () -> userRepository.resetPasswordHash(MISSING_ID, "new"));
+
+        assertIndexed("RefreshTokenRepository.findByTokenHash", () -> refreshTokenRepository.findByTokenHash("missing"));
+        assertIndexed("RefreshTokenRepository.findValidTokensByUserId", () -> refreshTokenRepository.findValidTokensByUserId(USER_ID, now));
+        assertIndexed("RefreshTokenRepository.countActiveSessions", () -> refreshTokenRepository.countActiveSessions(USER_ID, now));
+        assertIndexed("RefreshTokenRepository.revokeAllByUserId", () -> refreshTokenRepository.revokeAllByUserId(MISSING_ID));
+        assertIndexed("RefreshTokenRepository.revokeAllByUserIdAndType",
+                () -> refreshTokenRepository.revokeAllByUserIdAndType(MISSING_ID, TokenType.REMEMBER_ME));
+        assertIndexed("RefreshTokenRepository.deleteExpiredTokens", () -> refreshTokenRepository.deleteExpiredTokens(now.minusDays(7)));
+
+        assertIndexed("PasswordResetTokenRepository.findByTokenHash", () -> passwordResetTokenRepository.findByTokenHash("missing"));
+        assertIndexed("PasswordResetTokenRepository.markUsed", () -> passwordResetTokenRepository.markUsed(MISSING_ID, now));
+        assertIndexed("PasswordResetTokenRepository.invalidateAllForUser",
+                () -> passwordResetTokenRepository.invalidateAllForUser(MISSING_ID, now));
+        assertIndexed("PasswordResetTokenRepository.deleteExpired", () -> passwordResetTokenRepository.deleteExpired(now.minusDays(1)));
+
+        assertIndexed("MailOutboxRepository.findDueForUpdate", () -> mailOutboxRepository.findDueForUpdate(now, PageRequest.of(0, 50)));
+        assertIndexed("MailOutboxRepository.countPending", () -> mailOutboxRepository.countPending());
+        assertIndexed("MailOutboxRepository.deleteSentBefore", () -> mailOutboxRepository.deleteSentBefore(now.minusDays(7)));
+    }
+
+    @Test
+    void documentQueriesUseIndexes() {
+        PageRequest listing = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        assertIndexed("DocumentRepository.findByUserId", () -> documentRepository.findByUserId(USER_ID, listing));
+        assertIndexed("DocumentRepository.findById", () -> documentRepository.findById(DOCUMENT_ID));
+        assertIndexed("DocumentRepository.findByUserIdAndTitleContainingIgnoreCase",
+                () -> documentRepository.findByUserIdAndTitleContainingIgnoreCase(USER_ID, "cours", listing));
+        assertIndexed("DocumentRepository.countTotalSize", () -> documentRepository.countTotalSize(USER_ID));
+        assertIndexed("DocumentRepository.findTop5ByUserIdOrderByCreatedAtDesc",
+                () -> documentRepository.findTop5ByUserIdOrderByCreatedAtDesc(USER_ID));
+        assertIndexed("DocumentRepository.streamExportRowsByUserId",
+                () -> consume(documentRepository.streamExportRowsByUserId(USER_ID)));
+        assertIndexed("DocumentRepository.versionByUserId", () -> documentRepository.versionByUserId(USER_ID));
+        assertIndexed("DocumentRepository.versionByIdAndUserId", () -> documentRepository.versionByIdAndUserId(DOCUMENT_ID, USER_ID));
+        assertIndexed("DocumentRepository.findExportRowById", () -> documentRepository.findExportRowById(DOCUMENT_ID));
+        assertIndexed("DocumentRepository.findResponsesByUserId", () -> documentRepository.findResponsesByUserId(USER_ID, listing));
+        assertIndexed("DocumentRepository.findRecentResponsesByUserId",
+                () -> documentRepository.findRecentResponsesByUserId(USER_ID, PageRequest.of(0, 5)));
+        assertIndexed("DocumentRepository.findPathByIdAndUserId", () -> documentRepository.findPathByIdAndUserId(DOCUMENT_ID, USER_ID));
+        assertIndexed("DocumentRepository.lockIdByIdAndUserId", () -> documentRepository.lockIdByIdAndUserId(DOCUMENT_ID, USER_ID));
+
+        assertIndexed("DocumentChunkRepository.findIdsByDocumentId", () -> documentChunkRepository.findIdsByDocumentId(DOCUMENT_ID));
+        assertIndexed("DocumentChunkRepository.deleteByDocumentId", () -> documentChunkRepository.deleteByDocumentId(MISSING_ID));
+        assertIndexed("DocumentChunkRepository.stampByUserId", () -> documentChunkRepository.stampByUserId(USER_ID));
+        assertIndexed("DocumentChunkRepository.findIdsByUserId", () -> documentChunkRepository.findIdsByUserId(USER_ID));
+        assertIndexed("DocumentChunkRepository.findRetrievedByIds",
+                () -> documentChunkRepository.findRetrievedByIds(List.of(1L, 2L, 3L), USER_ID));
+        assertIndexed("DocumentChunkRepository.streamByUserId", () -> consume(documentChunkRepository.streamByUserId(USER_ID)));
+
+        assertIndexed("FlashCardsRepository.findByDocumentId", () -> flashCardsRepository.findByDocumentId(DOCUMENT_ID));
+        assertIndexed("FlashCardsRepository.streamExportRowsByUserId",
+                () -> consume(flashCardsRepository.streamExportRowsByUserId(USER_ID)));
+        assertIndexed("FlashCardsRepository.versionByUserId", () -> flashCardsRepository.versionByUserId(USER_ID));
+        assertIndexed("FlashCardsRepository.streamExportRowsByDocumentId",
+                () -> consume(flashCardsRepository.streamExportRowsByDocumentId(DOCUMENT_ID)));
+        assertIndexed("FlashCardsRepository.versionByDocumentId", () -> flashCardsRepository.versionByDocumentId(DOCUMENT_ID));
+        assertIndexed("FlashCardsRepository.findResponsesByDocumentId", () -> flashCardsRepository.findResponsesByDocumentId(DOCUMENT_ID));
+        sweep("FlashCardsRepository.streamDedupRows", () -> consume(flashCardsRepository.streamDedupRows()));
+        assertIndexed("FlashCardsRepository.markFavorite", () -> flashCardsRepository.markFavorite(List.of(MISSING_ID)));
+        assertIndexed("FlashCardsRepository.deleteByIdIn", () -> flashCardsRepository.deleteByIdIn(List.of(MISSING_ID)));
+        assertIndexed("FlashCardsRepository.countByDocumentUserId", () -> flashCardsRepository.countByDocumentUserId(USER_ID));
+    }
+
+    @Test
+    void quizQueriesUseIndexes() {
+        PageRequest page = PageRequest.of(0, 20);
+
+        assertIndexed("QuizRepository.findByDocumentId", () -> quizRepository.findByDocumentId(DOCUMENT_ID, page));
+        assertIndexed("QuizRepository.findByDocumentIdAndUserId",
+                () -> quizRepository.findByDocumentIdAndUserId(DOCUMENT_ID, USER_ID, page));
+        assertIndexed("QuizRepository.countByDocumentId", () -> quizRepository.countByDocumentId(DOCUMENT_ID));
+        assertIndexed("QuizRepository.streamExportRowsByUserId", () -> consume(quizRepository.streamExportRowsByUserId(USER_ID)));
+        assertIndexed("QuizRepository.versionByUserId", () -> quizRepository.versionByUserId(USER_ID));
+        assertIndexed("QuizRepository.streamExportRowsByDocumentId",
+                () -> consume(quizRepository.streamExportRowsByDocumentId(DOCUMENT_ID)));
+        assertIndexed("QuizRepository.versionByDocumentId", () -> quizRepository.versionByDocumentId(DOCUMENT_ID));
+        assertIndexed("QuizRepository.findResponsesByDocumentId", () -> quizRepository.findResponsesByDocumentId(DOCUMENT_ID));
+        assertIndexed("QuizRepository.findResponseById", () -> quizRepository.findResponseById(QUIZ_ID));
+        assertIndexed("QuizRepository.versionByIdAndUserId", () -> quizRepository.versionByIdAndUserId(QUIZ_ID, USER_ID));
+        assertIndexed("QuizRepository.countByDocumentUserId", () -> quizRepository.countByDocumentUserId(USER_ID));
+        assertIndexed("QuizRepository.findIdsOwnedBy", () -> quizRepository.findIdsOwnedBy(List.of(QUIZ_ID, QUIZ_ID + 1), USER_ID));
+        assertIndexed("QuizRepository.refreshQuestionCounts",
+                () -> quizRepository.refreshQuestionCounts(List.of(MISSING_ID), LocalDateTime.now()));
+
+        assertIndexed("QuizQuestionRepository.findByQuizIdOrderByQuestionOrderAsc",
+                () -> quizQuestionRepository.findByQuizIdOrderByQuestionOrderAsc(QUIZ_ID));
+        assertIndexed("QuizQuestionRepository.countByQuizId", () -> quizQuestionRepository.countByQuizId(QUIZ_ID));
+        assertIndexed("QuizQuestionRepository.streamExportRowsByUserId",
+                () -> consume(quizQuestionRepository.streamExportRowsByUserId(USER_ID)));
+        assertIndexed("QuizQuestionRepository.versionByUserId", () -> quizQuestionRepository.versionByUserId(USER_ID));
+        assertIndexed("QuizQuestionRepository.streamExportRowsByDocumentId",
+                () -> consume(quizQuestionRepository.streamExportRowsByDocumentId(DOCUMENT_ID)));
+        assertIndexed("QuizQuestionRepository.versionByDocumentId", () -> quizQuestionRepository.versionByDocumentId(DOCUMENT_ID));
+        assertIndexed("QuizQuestionRepository.findResponsesByQuizId", () -> quizQuestionRepository.findResponsesByQuizId(QUIZ_ID));
+        assertIndexed("QuizQuestionRepository.findResponsesByDocumentId",
+                () -> quizQuestionRepository.findResponsesByDocumentId(DOCUMENT_ID));
+        assertIndexed("QuizQuestionRepository.versionByQuizId", () -> quizQuestionRepository.versionByQuizId(QUIZ_ID));
+        sweep("QuizQuestionRepository.streamDedupRows", () -> consume(quizQuestionRepository.streamDedupRows()));
+        assertIndexed("QuizQuestionRepository.deleteByIdIn", () -> quizQuestionRepository.deleteByIdIn(List.of(MISSING_ID)));
+
+        assertIndexed("QuestionStatsRepository.addDeltas",
+                () -> questionStatsRepository.addDeltas(List.of(new QuestionStatsRepository.Delta(1L, 1, 1, 1000, 0.5))));
+        assertIndexed("QuestionStatsRepository.findTotals", () -> questionStatsRepository.findTotals(List.of(1L, 2L)));
+        assertIndexed("QuestionStatsRepository.updateDifficulties", () -> questionStatsRepository.updateDifficulties(Map.of(1L, 0.5)));
+        assertIndexed("QuestionStatsRepository.findDifficultiesByDocumentId",
+                () -> questionStatsRepository.findDifficultiesByDocumentId(DOCUMENT_ID));
+
+        assertIndexed("UserAbilityRepository.find", () -> userAbilityRepository.find(USER_ID, DOCUMENT_ID));
+        assertIndexed("UserAbilityRepository.findForUpdate", () -> userAbilityRepository.findForUpdate(USER_ID, DOCUMENT_ID));
+        assertIndexed("UserAbilityRepository.save", () -> userAbilityRepository.save(USER_ID, DOCUMENT_ID, Rasch.Ability.PRIOR));
+    }
+
+    @Test
+    void quizResultQueriesUseIndexes() {
+        PageRequest history = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        assertIndexed("QuizResultRepository.findByUserId", () -> quizResultRepository.findByUserId(USER_ID, history));
+        assertIndexed("QuizResultRepository.streamExportRowsByUserId",
+                () -> consume(quizResultRepository.streamExportRowsByUserId(USER_ID)));
+        assertIndexed("QuizResultRepository.versionByUserId", () -> quizResultRepository.versionByUserId(USER_ID));
+        assertIndexed("QuizResultRepository.findRecentSummariesByUserId",
+                () -> quizResultRepository.findRecentSummariesByUserId(USER_ID, PageRequest.of(0, 5)));
+        assertIndexed("QuizResultRepository.findRecentSummaries", () -> quizResultRepository.findRecentSummaries(PageRequest.of(0, 50)));
+        assertIndexed("QuizResultRepository.findSyncedAttempts",
+                () -> quizResultRepository.findSyncedAttempts(USER_ID, List.of("attempt-1", "attempt-2")));
+        assertIndexed("QuizResultBatchInserter.insert", () -> quizResultBatchInserter.insert(List.of(
+                new QuizResultBatchInserter.Row(USER_ID, QUIZ_ID, 2, 3, 60.0, "attempt-new"))));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Statements JDBC exécutés, avec les paramètres liés (premier élément pour un batch). */
+    static class CapturedStatements implements QueryExecutionListener {
+
+        record Statement(String sql, List<ParameterSetOperation> parameters) {}
+
+        private final List<Statement> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo query : queryInfoList) {
+                List<List<ParameterSetOperation>> parameters = query.getParametersList();
+                statements.add(new Statement(query.getQuery(), parameters.isEmpty() ? List.of() : List.copyOf(parameters.getFirst())));
+            }
+        }
+
+        List<Statement> drain() {
+            List<Statement> drained = List.copyOf(statements);
+            statements.clear();
+            return drained;
+        }
+    }
+
+    private void assertIndexed(String label, Runnable call) {
+        for (String scanned : sequentialScans(label, call)) {
+            violations.add(label + ": Seq Scan on " + scanned);
+        }
+    }
+
+    /** Balayage complet assumé : la requête doit seulement s'exécuter et s'expliquer. */
+    private void sweep(String label, Runnable call) {
+        sequentialScans(label, call);
+    }
+
+    private List<String> sequentialScans(String label, Runnable call) {
+        captured.drain();
+        call.run();
+        List<CapturedStatements.Statement> statements = captured.drain();
+        assertFalse(statements.isEmpty(), label + " did not reach the database");
+
+        List<String> scanned = new ArrayList<>();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        for (CapturedStatements.Statement statement : statements) {
+            collectSequentialScans(explain(connection, statement).path(0).path("Plan"), scanned);
+        }
+        captured.drain();
+        return scanned;
+    }
+
+    private static JsonNode explain(Connection connection, CapturedStatements.Statement statement) {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+            for (ParameterSetOperation parameter : statement.parameters()) {
+                parameter.getMethod().invoke(explain, parameter.getArgs());
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return JSON.readTree(rs.getString(1));
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            throw new IllegalStateException("EXPLAIN failed for: " + statement.sql(), e);
+        }
+    }
+
+    private static void collectSequentialScans(JsonNode plan, List<String> scanned) {
+        String relation = plan.path("Relation Name").asString("");
+        if ("Seq Scan".equals(plan.path("Node Type").asString("")) && largeTables.contains(relation)) {
+            scanned.add(relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSequentialScans(child, scanned);
+        }
+    }
+
+    private static void consume(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(row -> { });
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.yassine.learningapp.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void recallAgainstBruteForce() {
+        List<float[]> vectors = randomVectors(2000);
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 200, 1);
+        for (int i = 0; i < vectors.size(); i++) index.add(i, vectors.get(i));
+
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector();
+            Set<Long> expected = bruteForce(vectors, query, k);
+            for (HnswIndex.Hit hit : index.search(query, k, 64)) {
+                if (expected.contains(hit.id())) found++;
+            }
+        }
+        double recall = found / (50.0 * k);
+        assertTrue(recall >= 0.95, "recall@10 = " + recall);
+    }
+
+    @Test
+    void removedVectorsAreNotReturnedAndCompactionDropsThem() {
+        List<float[]> vectors = randomVectors(300);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 1);
+        for (int i = 0; i < vectors.size(); i++) index.add(i, vectors.get(i));
+        for (int i = 0; i < 150; i++) index.remove(i);
+
+        assertEquals(150, index.size());
+        assertEquals(0.5, index.deletedRatio(), 1e-9);
+        assertTrue(index.search(vectors.get(0), 20, 64).stream().allMatch(hit -> hit.id() >= 150));
+
+        HnswIndex compacted = index.compact(2);
+        assertEquals(150, compacted.size());
+        assertEquals(0.0, compacted.deletedRatio(), 1e-9);
+        assertEquals(200L, compacted.search(vectors.get(200), 1, 32).getFirst().id());
+    }
+
+    @Test
+    void addReplacesExistingId() {
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 1);
+        float[] first = randomVector();
+        float[] second = randomVector();
+        index.add(1, first);
+        index.add(1, second);
+
+        assertEquals(1, index.size());
+        HnswIndex.Hit hit = index.search(second, 1, 16).getFirst();
+        assertEquals(1L, hit.id());
+        assertEquals(1f, hit.score(), 1e-5);
+    }
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path dir) throws IOException {
+        List<float[]> vectors = randomVectors(500);
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 100, 1);
+        for (int i = 0; i < vectors.size(); i++) index.add(i, vectors.get(i));
+        index.remove(3);
+
+        Path file = dir.resolve("user-1.hnsw");
+        index.save(file);
+        HnswIndex loaded = HnswIndex.load(file, 100, 1);
+
+        assertEquals(index.size(), loaded.size());
+        assertEquals(DIMENSION, loaded.dimension());
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector();
+            assertEquals(index.search(query, 5, 32), loaded.search(query, 5, 32));
+        }
+        assertFalse(loaded.search(vectors.get(3), 5, 32).stream().anyMatch(hit -> hit.id() == 3));
+    }
+
+    private Set<Long> bruteForce(List<float[]> vectors, float[] query, int k) {
+        Set<Long> ids = new HashSet<>();
+        IntStream.range(0, vectors.size()).boxed()
+                .sorted(Comparator.comparingDouble(i -> -dot(vectors.get(i), query)))
+                .limit(k)
+                .forEach(i -> ids.add((long) i));
+        return ids;
+    }
+
+    private List<float[]> randomVectors(int count) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) vectors.add(randomVector());
+        return vectors;
+    }
+
+    private float[] randomVector() {
+        float[] v = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float inv = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < DIMENSION; i++) v[i] *= inv;
+        return v;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
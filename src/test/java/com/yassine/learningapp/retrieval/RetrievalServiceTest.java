@@ -0,0 +1,137 @@
+package com.yassine.learningapp.retrieval;
+
+import com.yassine.learningapp.extraction.PlainTextExtractor;
+import com.yassine.learningapp.extraction.TextExtractionService;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.DocumentChunkRepository;
+import com.yassine.learningapp.repository.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Indexation sur PostgreSQL : les ré-indexations concurrentes d'un même document sont sérialisées (verrou de la
+ * ligne du document), les ids viennent de l'insertion. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // chaque indexation commite sur sa propre transaction
+class RetrievalServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentChunkRepository chunkRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    private UserVectorIndexes indexes;
+
+    private long userId;
+    private long documentId;
+
+    @BeforeEach
+    void seed() throws IOException {
+        jdbc.update("DELETE FROM document_chunks");
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        Path file = Files.writeString(dir.resolve("cours.txt"),
+                "La cellule est l'unité structurelle et fonctionnelle du vivant. ".repeat(200));
+        documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', ?, 12.0, now()) RETURNING id", Long.class, userId, file.toString());
+    }
+
+    @Test
+    void concurrentReindexesLeaveOneSetOfChunks() throws Exception {
+        RetrievalService service = service();
+        int expected = service.index(documentId, userId);
+        assertTrue(expected > 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return service.index(documentId, userId);
+            }));
+        }
+        start.countDown();
+        for (CompletableFuture<Integer> run : runs) {
+            assertEquals(expected, run.get(30, TimeUnit.SECONDS));
+        }
+
+        List<Long> ids = chunkRepository.findIdsByDocumentId(documentId);
+        assertEquals(expected, ids.size());
+        assertEquals(expected, jdbc.queryForObject("SELECT COUNT(DISTINCT chunk_index) FROM document_chunks "
+                + "WHERE document_id = ?", Integer.class, documentId));
+        // L'index vectoriel ne garde que les morceaux en base
+        assertEquals(new HashSet<>(ids), indexes.forUser(userId).ids());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private RetrievalService service() {
+        HashingEmbedder embedder = new HashingEmbedder(64);
+        indexes = new UserVectorIndexes(chunkRepository, embedder, transactionManager,
+                dir.resolve("vectors").toString(), 16, 200, 30);
+        TextExtractionService extraction = new TextExtractionService(List.of(new PlainTextExtractor()),
+                dir.resolve("text").toString(), 30);
+        return new RetrievalService(documentRepository, chunkRepository, dataSource, indexes, embedder, extraction,
+                new HotPathMetrics(new SimpleMeterRegistry()), transactionManager, 300, 50, 64, 20);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Not released");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.yassine.learningapp.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextChunkerTest {
+
+    private final TextChunker chunker = new TextChunker(200, 40);
+
+    @Test
+    void streamingSplitMatchesTextOffsets() throws IOException {
+        String text = randomText(20_000);
+        List<TextChunker.Chunk> chunks = new ArrayList<>();
+        // Lecteur qui ne rend que quelques caractères par appel : la fenêtre est remplie en plusieurs fois
+        chunker.split(new TrickleReader(text), chunks::add);
+
+        assertEquals(chunker.split(text), chunks);
+        for (TextChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.end() - chunk.start() <= 200);
+            assertEquals(text.substring(chunk.start(), chunk.end()).strip(), chunk.text());
+        }
+        assertEquals(text.length(), chunks.getLast().end());
+    }
+
+    @Test
+    void prefersParagraphThenSentenceBreaks() {
+        String paragraph = "a".repeat(160) + ".\n\n" + "b".repeat(100);
+        assertEquals(163, chunker.split(paragraph).getFirst().end());
+
+        String sentence = "mot ".repeat(40) + "fin. " + "suite ".repeat(20);
+        assertTrue(chunker.split(sentence).getFirst().text().endsWith("fin."));
+    }
+
+    private static String randomText(int length) {
+        Random random = new Random(11);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append("mot").append(random.nextInt(1000));
+            int r = random.nextInt(20);
+            sb.append(r == 0 ? ".\n\n" : r < 3 ? ". " : " ");
+        }
+        return sb.toString();
+    }
+
+    private static final class TrickleReader extends Reader {
+        private final StringReader delegate;
+        private final Random random = new Random(5);
+
+        TrickleReader(String text) {
+            this.delegate = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return delegate.read(cbuf, off, Math.min(len, 1 + random.nextInt(37)));
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
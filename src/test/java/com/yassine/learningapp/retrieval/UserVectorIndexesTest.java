@@ -0,0 +1,118 @@
+package com.yassine.learningapp.retrieval;
+
+import com.yassine.learningapp.repository.DocumentChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Index vectoriels face à une base modifiée hors de l'instance (autre instance, arrêt avant écriture du
+ * fichier) : chaque recherche compare la version des morceaux et resynchronise l'index. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // les morceaux sont visibles des lectures de l'index
+class UserVectorIndexesTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DocumentChunkRepository chunkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    private final Embedder embedder = new HashingEmbedder(64);
+
+    private long userId;
+    private long documentId;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM document_chunks");
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', '/nowhere.txt', 12.0, now()) RETURNING id", Long.class, userId);
+    }
+
+    @Test
+    void chunksChangedElsewhereAreSeenByTheNextQuery() {
+        long first = addChunk(0, "La photosynthèse convertit la lumière en énergie chimique.");
+        UserVectorIndexes indexes = indexes();
+        assertEquals(Set.of(first), indexes.forUser(userId).ids());
+
+        long second = addChunk(1, "La respiration cellulaire libère l'énergie du glucose.");
+        assertEquals(Set.of(first, second), indexes.forUser(userId).ids());
+
+        jdbc.update("DELETE FROM document_chunks WHERE id = ?", first);
+        assertEquals(Set.of(second), indexes.forUser(userId).ids());
+    }
+
+    @Test
+    void staleFileIsSyncedOnLoad() {
+        long first = addChunk(0, "La photosynthèse convertit la lumière en énergie chimique.");
+        indexes().forUser(userId); // écrit le fichier
+        long second = addChunk(1, "La respiration cellulaire libère l'énergie du glucose.");
+
+        assertEquals(Set.of(first, second), indexes().forUser(userId).ids());
+    }
+
+    @Test
+    void updateSkipsChunksAlreadySynced() {
+        UserVectorIndexes indexes = indexes();
+        indexes.forUser(userId);
+        String text = "La photosynthèse convertit la lumière en énergie chimique.";
+        long id = addChunk(0, text);
+        indexes.forUser(userId); // une recherche passe entre le commit et la mise à jour
+
+        indexes.update(userId, List.of(), Map.of(id, embedder.embed(text)));
+
+        HnswIndex index = indexes.forUser(userId);
+        assertEquals(Set.of(id), index.ids());
+        assertEquals(0.0, index.deletedRatio());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private UserVectorIndexes indexes() {
+        return new UserVectorIndexes(chunkRepository, embedder, transactionManager, dir.toString(), 16, 200, 30);
+    }
+
+    private long addChunk(int index, String content) {
+        return jdbc.queryForObject("INSERT INTO document_chunks (document_id, user_id, chunk_index, start_offset, "
+                        + "end_offset, content) VALUES (?, ?, ?, 0, ?, ?) RETURNING id",
+                Long.class, documentId, userId, index, content.length(), content);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.entity.User;
+import com.yassine.learningapp.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chemin d'authentification avec la configuration de cache de l'application : une modification du compte faite
+ * hors de cette instance (SQL direct, comme une autre instance ou l'administration) est vue à l'appel suivant.
+ * Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // un EntityManager par appel, comme en production
+class CustomUserDetailsServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private CustomUserDetailsService service;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', '{bcrypt}old', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        service = new CustomUserDetailsService(userRepository);
+    }
+
+    @Test
+    void passwordChangeIsVisibleToTheNextLookup() {
+        assertEquals("{bcrypt}old", service.loadUserByUsername("alice").getPassword());
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId), "User ne doit pas être en cache L2");
+
+        jdbc.update("UPDATE users SET password = '{bcrypt}new' WHERE id = ?", userId);
+
+        UserDetails reloaded = service.loadUserByUsername("alice");
+        assertEquals("{bcrypt}new", reloaded.getPassword());
+    }
+
+    @Test
+    void lockAndDisableAreVisibleToTheNextLookup() {
+        service.loadUserByUsername("alice");
+
+        jdbc.update("UPDATE users SET locked = TRUE WHERE id = ?", userId);
+        assertThrows(LockedException.class, () -> service.loadUserByUsername("alice"));
+
+        jdbc.update("UPDATE users SET locked = FALSE, active = FALSE WHERE id = ?", userId);
+        assertThrows(DisabledException.class, () -> service.loadUserByUsername("alice"));
+    }
+}
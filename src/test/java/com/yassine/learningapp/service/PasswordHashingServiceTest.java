@@ -0,0 +1,120 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.exception.ServiceOverloadedException;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void rehashNeededWhenConfiguredCostIncreases() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(5),
+                new HotPathMetrics(registry), 1, 4, 2000);
+
+        assertTrue(service.matches("secret", oldHash));
+        assertFalse(service.matches("wrong", oldHash));
+        assertFalse(service.matches("secret", null));
+        assertTrue(service.needsRehash(oldHash));
+        assertFalse(service.needsRehash(service.hash("secret")));
+        // Coût plus élevé que la configuration : conservé
+        assertFalse(service.needsRehash(new BCryptPasswordEncoder(6).encode("secret")));
+        service.shutdown();
+    }
+
+    @Test
+    void failsFastWhenQueueIsFull() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        PasswordHashingService service = new PasswordHashingService(encoder, new HotPathMetrics(registry), 1, 1, 5000);
+        encoder.block();
+
+        Future<Boolean> running = callers.submit(() -> service.matches("a", "a"));
+        assertTrue(encoder.started.await(2, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> service.matches("b", "b"));
+        waitUntil(() -> service.depth() == 1);
+
+        // 1 en cours + 1 en file : le 3e est rejeté sans attendre
+        assertThrows(ServiceOverloadedException.class, () -> service.matches("c", "c"));
+        assertEquals(1.0, registry.get("app.password.hash.rejected").tag("reason", "queue_full").counter().count());
+
+        encoder.release.countDown();
+        assertTrue(running.get(2, TimeUnit.SECONDS));
+        assertTrue(queued.get(2, TimeUnit.SECONDS));
+        service.shutdown();
+    }
+
+    @Test
+    void timesOutWhileQueued() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        PasswordHashingService service = new PasswordHashingService(encoder, new HotPathMetrics(registry), 1, 4, 500);
+        encoder.block();
+
+        callers.submit(() -> service.matches("a", "a"));
+        assertTrue(encoder.started.await(2, TimeUnit.SECONDS));
+
+        assertThrows(ServiceOverloadedException.class, () -> service.matches("b", "b"));
+        encoder.release.countDown();
+        service.shutdown();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /** Encodeur trivial dont la vérification peut être bloquée pour saturer le pool. */
+    private static final class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocking;
+
+        void block() {
+            blocking = true;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (blocking) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.yassine.learningapp.service;
+
+import com.yassine.learningapp.repository.DocumentRepository;
+import com.yassine.learningapp.repository.FlashCardsRepository;
+import com.yassine.learningapp.repository.QuizQuestionRepository;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import com.yassine.learningapp.sharding.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Export RGPD sur PostgreSQL : contenu de l'archive, réutilisation tant que le compte n'a pas changé, et une
+ * seule construction pour des demandes simultanées. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(Shards.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // l'export lit dans ses propres transactions
+class UserExportServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FlashCardsRepository flashCardsRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizQuestionRepository quizQuestionRepository;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private long userId;
+    private long documentId;
+
+    @BeforeEach
+    void seed() throws IOException {
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        Path file = Files.writeString(dir.resolve("cours.txt"), "La cellule est l'unité du vivant.");
+        documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', ?, 33.0, now()) RETURNING id", Long.class, userId, file.toString());
+        jdbc.update("INSERT INTO flash_cards (document_id, title, content, created_at) VALUES (?, 'Cellule', 'Unité', now())",
+                documentId);
+        long quizId = jdbc.queryForObject("INSERT INTO quizzes (document_id, title, question_count, created_at) "
+                + "VALUES (?, 'Cellule', '1', now()) RETURNING id", Long.class, documentId);
+        jdbc.update("INSERT INTO quiz_questions (quiz_id, question_order, question, option_a, option_b, option_c, "
+                + "option_d, correct_answer, created_at) VALUES (?, 1, 'Unité du vivant ?', 'Cellule', 'Atome', "
+                + "'Organe', 'Tissu', 'A', now())", quizId);
+        jdbc.update("INSERT INTO quiz_results (user_id, quiz_id, score, question_count, percentage_score, created_at) "
+                + "VALUES (?, ?, 1, 1, 100.0, now())", userId, quizId);
+    }
+
+    @Test
+    void archiveHoldsEveryTableAndTheDocumentFiles() throws IOException {
+        Map<String, byte[]> entries = unzip(service(null).export(userId).file());
+
+        assertEquals(List.of("documents.json", "flashcards.json", "quizzes.json", "quiz_questions.json",
+                "quiz_results.json", "files/" + documentId + "-cours.txt"), List.copyOf(entries.keySet()));
+        JsonNode documents = json.readTree(entries.get("documents.json"));
+        assertEquals(1, documents.size());
+        assertEquals("Biologie", documents.get(0).get("title").asString());
+        assertEquals("Unité", json.readTree(entries.get("flashcards.json")).get(0).get("content").asString());
+        assertEquals("Cellule", json.readTree(entries.get("quiz_questions.json")).get(0).get("optionA").asString());
+        assertEquals(1, json.readTree(entries.get("quiz_results.json")).get(0).get("score").asInt());
+        assertEquals("La cellule est l'unité du vivant.",
+                new String(entries.get("files/" + documentId + "-cours.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void unchangedAccountReusesTheArchive() {
+        UserExportService service = service(null);
+        UserExportService.Export first = service.export(userId);
+        UserExportService.Export again = service.export(userId);
+
+        assertEquals(first, again);
+        assertEquals(1, builds.get());
+
+        jdbc.update("INSERT INTO flash_cards (document_id, title, content, created_at) VALUES (?, 'Noyau', 'ADN', now())",
+                documentId);
+        UserExportService.Export changed = service.export(userId);
+
+        assertNotEquals(first.fingerprint(), changed.fingerprint());
+        assertEquals(2, builds.get());
+        // L'archive remplacée reste lisible pendant le délai de grâce
+        assertTrue(Files.exists(first.file()));
+    }
+
+    @Test
+    void concurrentRequestsShareOneBuild() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserExportService service = service(() -> {
+            building.countDown();
+            await(release);
+        });
+
+        CompletableFuture<UserExportService.Export> first = CompletableFuture.supplyAsync(() -> service.export(userId));
+        assertTrue(building.await(10, TimeUnit.SECONDS));
+        List<Thread> waiters = new ArrayList<>();
+        List<CompletableFuture<UserExportService.Export>> others = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<UserExportService.Export> other = new CompletableFuture<>();
+            Thread thread = new Thread(() -> other.complete(service.export(userId)));
+            thread.start();
+            waiters.add(thread);
+            others.add(other);
+        }
+        // Les trois demandes attendent la construction en cours (fichier final pas encore là)
+        for (Thread thread : waiters) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals(Thread.State.WAITING, thread.getState());
+        }
+        release.countDown();
+
+        UserExportService.Export built = first.get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<UserExportService.Export> other : others) {
+            assertEquals(built, other.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, builds.get());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Service qui compte ses constructions ; {@code beforeWrite} s'exécute au début de chacune. */
+    private UserExportService service(Runnable beforeWrite) {
+        return new UserExportService(documentRepository, flashCardsRepository, quizRepository, quizQuestionRepository,
+                quizResultRepository, shards, transactionManager, dir.resolve("exports").toString(), 60) {
+            @Override
+            public void writeArchive(Long userId, OutputStream out) {
+                builds.incrementAndGet();
+                if (beforeWrite != null) beforeWrite.run();
+                super.writeArchive(userId, out);
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Not released");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, byte[]> unzip(Path archive) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(archive); ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,210 @@
+package com.yassine.learningapp.sharding;
+
+import com.yassine.learningapp.dto.Role;
+import com.yassine.learningapp.exception.ShardMovingException;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routage contre trois bases H2 locales ("s0" = accueil, "s1", "s2"), chacune contenant son nom.
+ */
+class ShardRoutingTest {
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE TABLE marker (name VARCHAR(20), touched BOOLEAN DEFAULT FALSE)",
+            "CREATE TABLE shard_directory (user_id BIGINT PRIMARY KEY, shard INT NOT NULL, "
+                    + "state VARCHAR(16) NOT NULL, updated_at TIMESTAMP NOT NULL)",
+            "CREATE TABLE documents (id BIGINT PRIMARY KEY, user_id BIGINT, title VARCHAR(100))",
+            "CREATE TABLE quizzes (id BIGINT PRIMARY KEY, document_id BIGINT NOT NULL REFERENCES documents (id))",
+            "CREATE TABLE quiz_questions (id BIGINT PRIMARY KEY, quiz_id BIGINT NOT NULL REFERENCES quizzes (id))",
+            "CREATE TABLE question_stats (question_id BIGINT PRIMARY KEY, attempts BIGINT)",
+            "CREATE TABLE flash_cards (id BIGINT PRIMARY KEY, document_id BIGINT NOT NULL REFERENCES documents (id))",
+            "CREATE TABLE quiz_results (id BIGINT PRIMARY KEY, user_id BIGINT, quiz_id BIGINT NOT NULL REFERENCES quizzes (id))",
+            "CREATE TABLE document_chunks (id BIGINT PRIMARY KEY, document_id BIGINT, user_id BIGINT, content VARCHAR(100))",
+            "CREATE TABLE user_abilities (user_id BIGINT, document_id BIGINT, ability DOUBLE, PRIMARY KEY (user_id, document_id))",
+            "CREATE TABLE adaptive_attempts (id VARCHAR(36) PRIMARY KEY, user_id BIGINT)",
+            "CREATE TABLE adaptive_attempt_questions (attempt_id VARCHAR(36) NOT NULL REFERENCES adaptive_attempts (id), "
+                    + "question_id BIGINT, PRIMARY KEY (attempt_id, question_id))",
+            "CREATE SEQUENCE documents_id_seq",
+            "CREATE SEQUENCE quizzes_id_seq",
+            "CREATE SEQUENCE quiz_questions_id_seq",
+            "CREATE SEQUENCE flash_cards_id_seq",
+            "CREATE SEQUENCE quiz_results_id_seq",
+            "CREATE SEQUENCE document_chunks_id_seq");
+
+    private List<HikariDataSource> shards;
+    private ShardDirectory directory;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() {
+        shards = List.of(h2("s0"), h2("s1"), h2("s2"));
+        directory = new ShardDirectory(shards.get(0), shards.size(), Duration.ZERO, 1000);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(
+                ShardRoutingDataSource.lazy(shards, directory, 10));
+        jdbc = new JdbcTemplate(txManager.getDataSource());
+        writeTx = new TransactionTemplate(txManager);
+        readTx = new TransactionTemplate(txManager);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        shards.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void anonymousGoesHomeAndContextForcesShard() {
+        assertEquals("s0", readTx.execute(s -> whoAmI()));
+        authenticate(1L);
+        assertEquals("s2", ShardContext.callOn(2, () -> readTx.execute(s -> whoAmI())));
+        assertEquals("s0", ShardContext.callOn(0, () -> readTx.execute(s -> whoAmI())));
+    }
+
+    @Test
+    void usersFollowStableHashUnlessPinned() {
+        int[] perShard = new int[3];
+        for (long userId = 1; userId <= 300; userId++) {
+            authenticate(userId);
+            int expected = ShardDirectory.hashShard(userId, 3);
+            assertEquals("s" + expected, readTx.execute(s -> whoAmI()));
+            perShard[expected]++;
+        }
+        for (int count : perShard) assertTrue(count > 60, "répartition " + List.of(perShard[0], perShard[1], perShard[2]));
+
+        long userId = 7L;
+        int pinned = (ShardDirectory.hashShard(userId, 3) + 1) % 3;
+        directory.place(userId, pinned);
+        authenticate(userId);
+        assertEquals("s" + pinned, writeTx.execute(s -> whoAmI()));
+    }
+
+    @Test
+    void movingUserReadsButCannotWrite() throws Exception {
+        long userId = 11L;
+        int shard = directory.placement(userId).shard();
+        directory.markMoving(userId, shard);
+        authenticate(userId);
+
+        assertEquals("s" + shard, readTx.execute(s -> whoAmI()));
+        assertThrows(ShardMovingException.class,
+                () -> writeTx.executeWithoutResult(s -> jdbc.update("UPDATE marker SET touched = TRUE")));
+
+        ShardWriteGuard guard = new ShardWriteGuard(directory, 10);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(guard.preHandle(new MockHttpServletRequest("GET", "/api/documents"), response, null));
+        assertThrows(ShardMovingException.class,
+                () -> guard.preHandle(new MockHttpServletRequest("POST", "/api/documents"), response, null));
+    }
+
+    @Test
+    void rebalancerMovesOnlyTheUsersRows() {
+        long mover = 21L;
+        long neighbour = 22L;
+        directory.place(mover, 1);
+        directory.place(neighbour, 1);
+        JdbcTemplate source = new JdbcTemplate(shards.get(1));
+        seed(source, mover, 100);
+        seed(source, neighbour, 200);
+
+        ShardRebalancer.MoveResult result = new ShardRebalancer(shards, directory, Duration.ZERO).move(mover, 2);
+
+        assertEquals(Map.of("documents", 1, "quizzes", 1, "quiz_questions", 2, "question_stats", 2,
+                "flash_cards", 1, "quiz_results", 1, "document_chunks", 1, "user_abilities", 1,
+                "adaptive_attempts", 1, "adaptive_attempt_questions", 2), result.rows());
+        assertEquals(new ShardDirectory.Placement(2, ShardDirectory.State.ACTIVE, true), directory.placement(mover));
+        JdbcTemplate target = new JdbcTemplate(shards.get(2));
+        assertEquals(2, target.queryForObject("SELECT COUNT(*) FROM quiz_questions", Integer.class));
+        assertEquals(0, source.queryForObject("SELECT COUNT(*) FROM documents WHERE user_id = ?", Integer.class, mover));
+        assertEquals(1, source.queryForObject("SELECT COUNT(*) FROM documents WHERE user_id = ?", Integer.class, neighbour));
+        assertEquals(2, source.queryForObject("SELECT COUNT(*) FROM question_stats", Integer.class));
+
+        authenticate(mover);
+        assertEquals("doc-" + mover, readTx.execute(s -> jdbc.queryForObject("SELECT title FROM documents", String.class)));
+    }
+
+    @Test
+    void overlappingSequencesAreRejectedUntilRangesAreAssigned() {
+        // Séquences par défaut : chaque shard générerait 1, 2, 3... comme les autres
+        assertThrows(IllegalStateException.class, () -> ShardSequences.verify(shards));
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            ShardSequences.assign(shards.get(shard), shard);
+        }
+        ShardSequences.verify(shards);
+
+        JdbcTemplate home = new JdbcTemplate(shards.get(0));
+        JdbcTemplate second = new JdbcTemplate(shards.get(2));
+        assertEquals(1L, nextId(home));
+        assertEquals(2L << 48, nextId(second));
+        assertEquals((2L << 48) + 1, nextId(second));
+
+        // Déjà placées : pas de retour au début de la plage
+        ShardSequences.assign(shards.get(2), 2);
+        assertEquals((2L << 48) + 2, nextId(second));
+
+        // Une base restaurée ou modifiée à la main fait de nouveau échouer la vérification
+        second.execute("ALTER SEQUENCE documents_id_seq MINVALUE 1 RESTART WITH 1");
+        assertThrows(IllegalStateException.class, () -> ShardSequences.verify(shards));
+    }
+
+    private static long nextId(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT NEXT VALUE FOR documents_id_seq", Long.class);
+    }
+
+    /** Un document, un quiz de deux questions notées, une fiche, un résultat, un morceau et un niveau. */
+    private static void seed(JdbcTemplate jdbc, long userId, long base) {
+        jdbc.update("INSERT INTO documents VALUES (?, ?, ?)", base, userId, "doc-" + userId);
+        jdbc.update("INSERT INTO quizzes VALUES (?, ?)", base, base);
+        jdbc.update("INSERT INTO quiz_questions VALUES (?, ?), (?, ?)", base, base, base + 1, base);
+        jdbc.update("INSERT INTO question_stats VALUES (?, 3), (?, 4)", base, base + 1);
+        jdbc.update("INSERT INTO flash_cards VALUES (?, ?)", base, base);
+        jdbc.update("INSERT INTO quiz_results VALUES (?, ?, ?)", base, userId, base);
+        jdbc.update("INSERT INTO document_chunks VALUES (?, ?, ?, 'texte')", base, base, userId);
+        jdbc.update("INSERT INTO user_abilities VALUES (?, ?, 0.5)", userId, base);
+        jdbc.update("INSERT INTO adaptive_attempts VALUES (?, ?)", "attempt-" + userId, userId);
+        jdbc.update("INSERT INTO adaptive_attempt_questions VALUES (?, ?), (?, ?)",
+                "attempt-" + userId, base, "attempt-" + userId, base + 1);
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static void authenticate(Long userId) {
+        CustomUserDetails user = new CustomUserDetails(userId, "user" + userId, "x", true, false, Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        ds.setMaximumPoolSize(2);
+        JdbcTemplate init = new JdbcTemplate(ds);
+        SCHEMA.forEach(init::execute);
+        init.update("INSERT INTO marker (name) VALUES (?)", name);
+        return ds;
+    }
+}
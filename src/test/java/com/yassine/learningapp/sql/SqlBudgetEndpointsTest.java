@@ -0,0 +1,209 @@
+package com.yassine.learningapp.sql;
+
+import com.yassine.learningapp.dto.Role;
+import com.yassine.learningapp.live.LiveQuizService;
+import com.yassine.learningapp.security.CustomUserDetails;
+import com.yassine.learningapp.service.JwtService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Appelle chaque endpoint annoté {@link SqlBudget} sur l'application complète (profil "test", budgets appliqués) :
+ * {@link SqlBudgetExtension} fait échouer le test dont un appel dépasse le budget de son endpoint. Les réponses
+ * sont vérifiées en 2xx/304 : un endpoint qui échoue avant ses requêtes ne passerait pas pour économe.
+ * Le flux SSE des sessions en direct (budget 0, sans requête) n'est pas ouvert. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(SqlBudgetExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlBudgetEndpointsTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final int QUESTIONS = 8;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    private String alice;
+    private String bob;
+    private long documentId;
+    private long quizId;
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) throws IOException {
+        Path root = Files.createTempDirectory("sql-budget-");
+        for (String dir : List.of("export", "bundle", "retrieval", "extraction")) {
+            registry.add("app." + dir + ".dir", () -> root.resolve(dir).toString());
+        }
+    }
+
+    @BeforeAll
+    void seed() throws IOException {
+        long aliceId = user("alice");
+        long bobId = user("bob");
+        alice = token(aliceId, "alice");
+        bob = token(bobId, "bob");
+
+        Path file = Files.createTempFile("cours-", ".txt");
+        Files.writeString(file, "La photosynthèse transforme la lumière en énergie chimique. ".repeat(200));
+        documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', ?, 12.0, now()) RETURNING id", Long.class, aliceId, file.toString());
+        quizId = jdbc.queryForObject("INSERT INTO quizzes (document_id, title, question_count, created_at) "
+                + "VALUES (?, 'Quiz', ?, now()) RETURNING id", Long.class, documentId, String.valueOf(QUESTIONS));
+        for (int i = 0; i < QUESTIONS; i++) {
+            jdbc.update("INSERT INTO quiz_questions (quiz_id, question_order, question, option_a, option_b, option_c, "
+                    + "option_d, correct_answer, explanation, created_at) VALUES (?, ?, ?, 'a', 'b', 'c', 'd', 'A', 'x', now())",
+                    quizId, i, "Question " + i);
+            jdbc.update("INSERT INTO flash_cards (document_id, title, content, created_at) VALUES (?, ?, 'contenu', now())",
+                    documentId, "Fiche " + i);
+        }
+    }
+
+    @Test
+    void studyContentReadsAndRevalidations() throws Exception {
+        for (String path : List.of("/api/documents", "/api/documents/" + documentId + "/flashcards",
+                "/api/documents/" + documentId + "/quizzes", "/api/quizzes/" + quizId)) {
+            String etag = mvc.perform(as(alice, get(path))).andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            mvc.perform(as(alice, get(path)).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        }
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        mvc.perform(as(alice, get("/api/dashboard"))).andExpect(status().isOk());
+        mvc.perform(as(alice, get("/api/dashboard"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void adaptiveQuizAssembleAndSubmit() throws Exception {
+        JsonNode quiz = read(mvc.perform(as(alice, get("/api/documents/" + documentId + "/adaptive-quiz")))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        List<String> answers = new ArrayList<>();
+        for (JsonNode question : quiz.get("questions")) {
+            answers.add("{\"questionId\":" + question.get("id").asLong() + ",\"choice\":\"A\",\"responseMillis\":1000}");
+        }
+        assertFalse(answers.isEmpty());
+
+        mvc.perform(as(alice, post("/api/documents/" + documentId + "/adaptive-quiz/answers"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"attemptId\":\"" + quiz.get("attemptId").asString() + "\",\"answers\":[" + String.join(",", answers) + "]}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void attemptSync() throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add("{\"idempotencyKey\":\"offline-" + i + "\",\"quizId\":" + quizId
+                    + ",\"score\":3,\"questionCount\":" + QUESTIONS + ",\"timeTakenSeconds\":42.0}");
+        }
+        String body = "{\"attempts\":[" + String.join(",", items) + "]}";
+        mvc.perform(as(alice, post("/api/quiz-results/sync")).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        // Relivraison du même lot : tout est déjà présent
+        mvc.perform(as(alice, post("/api/quiz-results/sync")).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void studyBundleAndExport() throws Exception {
+        mvc.perform(as(alice, get("/api/documents/" + documentId + "/bundle"))).andExpect(status().isOk());
+        mvc.perform(as(alice, get("/api/documents/" + documentId + "/bundle"))).andExpect(status().isOk());
+        mvc.perform(as(alice, get("/api/me/export"))).andExpect(status().isOk());
+        mvc.perform(as(alice, get("/api/me/export"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void retrievalIndexAndSearch() throws Exception {
+        mvc.perform(as(alice, post("/api/documents/" + documentId + "/index"))).andExpect(status().isOk());
+        mvc.perform(as(alice, post("/api/documents/" + documentId + "/index"))).andExpect(status().isOk());
+        mvc.perform(as(alice, get("/api/search/chunks").param("q", "photosynthèse lumière").param("k", "3")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void liveSession() throws Exception {
+        String code = read(mvc.perform(as(alice, post("/api/live/sessions"))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"quizId\":" + quizId + "}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString()).get("code").asString();
+        String session = "/api/live/sessions/" + code;
+
+        mvc.perform(as(bob, post(session + "/join")).contentType(MediaType.APPLICATION_JSON).content("{\"nickname\":\"bob\"}"))
+                .andExpect(status().isOk());
+        mvc.perform(as(alice, post(session + "/next"))).andExpect(status().isOk());
+        mvc.perform(as(bob, post(session + "/answers"))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"questionIndex\":0,\"choice\":\"A\"}"))
+                .andExpect(status().isOk());
+        mvc.perform(as(alice, post(session + "/finish"))).andExpect(status().isOk());
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM quiz_results WHERE client_attempt_id = ?",
+                Integer.class, LiveQuizService.ATTEMPT_KEY_PREFIX + code));
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private long user(String username) {
+        return jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES (?, 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class, username);
+    }
+
+    private String token(long userId, String username) {
+        return jwtService.generateToken(new CustomUserDetails(userId, username, "x", true, false, Role.USER));
+    }
+
+    private static MockHttpServletRequestBuilder as(String token, MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private JsonNode read(String body) {
+        return json.readTree(body);
+    }
+}
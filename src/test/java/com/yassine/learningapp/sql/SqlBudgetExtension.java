@@ -0,0 +1,34 @@
+package com.yassine.learningapp.sql;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fait échouer un test d'intégration si un endpoint appelé pendant le test a dépassé son {@link SqlBudget}.
+ * Usage : {@code @ExtendWith(SqlBudgetExtension.class)} sur un test {@code @SpringBootTest} du profil "test".
+ */
+public class SqlBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        recorder(context).reset();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<SqlBudgetRecorder.Violation> violations = recorder(context).violations();
+        if (!violations.isEmpty()) {
+            fail("SQL budget exceeded: " + violations);
+        }
+    }
+
+    private static SqlBudgetRecorder recorder(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(SqlBudgetRecorder.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.yassine.learningapp.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlMonitoringListenerTest {
+
+    private final SqlMonitoringListener listener = new SqlMonitoringListener(200, 3);
+    private final SqlBudgetRecorder recorder = new SqlBudgetRecorder(true);
+
+    @AfterEach
+    void clear() {
+        SqlStatementStats.clear();
+    }
+
+    @Test
+    void shapeIgnoresLiteralsAndInListLength() {
+        assertEquals(
+                SqlShape.of("select * from quiz_questions where quiz_id = 12 and title = 'a'"),
+                SqlShape.of("SELECT *  FROM quiz_questions\n WHERE quiz_id = 7 AND title = 'it''s'"));
+        assertEquals(
+                SqlShape.of("select * from flash_cards where document_id in (?, ?)"),
+                SqlShape.of("select * from flash_cards where document_id in (?,?,?,?)"));
+    }
+
+    @Test
+    void repeatedStatementShapeExceedsBudget() {
+        SqlStatementStats stats = SqlStatementStats.start("QuizController.get");
+
+        execute("select q.* from quizzes q where q.id = ?");
+        for (int i = 0; i < 4; i++) {
+            execute("select qq.* from quiz_questions qq where qq.quiz_id = ?");
+        }
+
+        assertEquals(5, stats.statements());
+        assertEquals(4, stats.maxShapeRepetitions());
+        assertTrue(stats.repeatedShapes().contains("select qq.* from quiz_questions qq where qq.quiz_id = ?"));
+
+        recorder.check(budget(10, 2), stats);
+        assertEquals(1, recorder.violations().size());
+
+        recorder.reset();
+        recorder.check(budget(10, 4), stats);
+        assertTrue(recorder.violations().isEmpty());
+    }
+
+    private void execute(String sql) {
+        ExecutionInfo info = new ExecutionInfo();
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        listener.beforeQuery(info, queries);
+        listener.afterQuery(info, queries);
+    }
+
+    private static SqlBudget budget(int maxStatements, int maxRepeatedShape) {
+        return new SqlBudget() {
+            @Override public int maxStatements() { return maxStatements; }
+            @Override public int maxRepeatedShape() { return maxRepeatedShape; }
+            @Override public Class<SqlBudget> annotationType() { return SqlBudget.class; }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.yassine.learningapp.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeferredInitializationTest {
+
+    @Test
+    void defersMatchingBeansOnly() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("openApiResource", new RootBeanDefinition("org.springdoc.webmvc.api.OpenApiResource"));
+        beanFactory.registerBeanDefinition("quizService", new RootBeanDefinition("com.yassine.learningapp.service.QuizService"));
+        beanFactory.registerBeanDefinition("cacheStatisticsService", new RootBeanDefinition("com.yassine.learningapp.cache.CacheStatisticsService"));
+
+        RootBeanDefinition infrastructure = new RootBeanDefinition("org.springdoc.core.SpringdocInfrastructure");
+        infrastructure.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        beanFactory.registerBeanDefinition("springdocInfrastructure", infrastructure);
+
+        // Bean déclaré par une méthode @Bean d'une configuration springdoc : pas de classe de bean connue
+        beanFactory.registerBeanDefinition("springDocConfiguration", new RootBeanDefinition("org.springdoc.core.configuration.SpringDocConfiguration"));
+        RootBeanDefinition produced = new RootBeanDefinition();
+        produced.setFactoryBeanName("springDocConfiguration");
+        produced.setFactoryMethodName("springDocProviders");
+        beanFactory.registerBeanDefinition("springDocProviders", produced);
+
+        new DeferredInitialization(List.of("org.springdoc."), Set.of("cacheStatisticsService"))
+                .postProcessBeanFactory(beanFactory);
+
+        assertTrue(beanFactory.getBeanDefinition("openApiResource").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("cacheStatisticsService").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("springDocProviders").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("quizService").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("springdocInfrastructure").isLazyInit());
+    }
+
+    @Test
+    void disabledConfigurationChangesNothing() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("openApiResource", new RootBeanDefinition("org.springdoc.webmvc.api.OpenApiResource"));
+
+        new DeferredInitialization(List.of(), Set.of()).postProcessBeanFactory(beanFactory);
+
+        assertFalse(beanFactory.getBeanDefinition("openApiResource").isLazyInit());
+    }
+}
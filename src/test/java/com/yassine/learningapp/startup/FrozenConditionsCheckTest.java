@@ -0,0 +1,47 @@
+package com.yassine.learningapp.startup;
+
+import com.yassine.learningapp.datasource.ReadWriteRoutingConfig;
+import com.yassine.learningapp.sharding.ShardingConfig;
+import com.yassine.learningapp.tokenstore.EmbeddedRefreshTokenStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FrozenConditionsCheckTest {
+
+    @Test
+    void defaultsMatchAnImageBuiltWithoutOptionalFeatures() {
+        assertEquals(List.of(), FrozenConditionsCheck.mismatches(
+                FrozenConditionsCheck.conditions(new MockEnvironment()), type -> false));
+    }
+
+    @Test
+    void reportsEveryFlagThatDiffersFromTheBuild() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.sharding.enabled", "true")
+                .withProperty("app.refresh-store.migrate-from", "embedded");
+        Set<Class<?>> built = Set.of(ReadWriteRoutingConfig.class, EmbeddedRefreshTokenStore.class);
+
+        assertEquals(List.of(
+                        "app.sharding.enabled is true but was false at build time",
+                        "app.datasource.routing.enabled is false but was true at build time"),
+                FrozenConditionsCheck.mismatches(FrozenConditionsCheck.conditions(environment), built::contains));
+    }
+
+    @Test
+    void refusesToStartOnMismatch() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("shardingConfig", new RootBeanDefinition(ShardingConfig.class));
+
+        FrozenConditionsCheck check = new FrozenConditionsCheck(beanFactory, new MockEnvironment());
+
+        assertThrows(IllegalStateException.class, check::afterSingletonsInstantiated);
+    }
+}
@@ -0,0 +1,140 @@
+package com.yassine.learningapp.sync;
+
+import com.yassine.learningapp.dto.AttemptSyncRequest;
+import com.yassine.learningapp.dto.AttemptSyncResponse;
+import com.yassine.learningapp.dto.AttemptSyncResponse.Status;
+import com.yassine.learningapp.metrics.HotPathMetrics;
+import com.yassine.learningapp.repository.QuizRepository;
+import com.yassine.learningapp.repository.QuizResultBatchInserter;
+import com.yassine.learningapp.repository.QuizResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Synchronisation des tentatives sur PostgreSQL : un lot rejoué après un échec partiel ne crée pas de doublon et
+ * renvoie les ids d'origine. Chaque rejeu passe par un nouveau service (index mémoire vide, comme sur une autre
+ * instance) : seule la contrainte d'unicité en base déduplique. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QuizResultBatchInserter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // chaque lot commite sur sa propre transaction
+class AttemptSyncServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Autowired
+    private QuizResultBatchInserter inserter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+    private long quizId;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM documents");
+        jdbc.update("DELETE FROM users");
+        userId = jdbc.queryForObject("INSERT INTO users (username, password, role, active, locked, created_at) "
+                + "VALUES ('alice', 'x', 'USER', TRUE, FALSE, now()) RETURNING id", Long.class);
+        long documentId = jdbc.queryForObject("INSERT INTO documents (user_id, title, path, file_size, created_at) "
+                + "VALUES (?, 'Biologie', '/nowhere.txt', 12.0, now()) RETURNING id", Long.class, userId);
+        quizId = jdbc.queryForObject("INSERT INTO quizzes (document_id, title, question_count, created_at) "
+                + "VALUES (?, 'Cellule', '10', now()) RETURNING id", Long.class, documentId);
+    }
+
+    @Test
+    void retryAfterPartialSuccessKeepsOriginalIds() {
+        // Seule la première tentative est arrivée en base avant la coupure (réponse perdue)
+        AttemptSyncResponse.Item first = service(inserter).sync(userId, List.of(attempt("attempt-0001"))).results().get(0);
+        assertEquals(Status.CREATED, first.status());
+
+        List<AttemptSyncResponse.Item> retried = service(inserter).sync(userId, List.of(
+                attempt("attempt-0001"), attempt("attempt-0002"), attempt("attempt-0003"))).results();
+
+        assertEquals(List.of(Status.DUPLICATE, Status.CREATED, Status.CREATED),
+                retried.stream().map(AttemptSyncResponse.Item::status).toList());
+        assertEquals(first.resultId(), retried.get(0).resultId());
+        assertEquals(3, count());
+    }
+
+    @Test
+    void failureDuringTheBatchRollsBackThenRetrySucceeds() {
+        // Insertion exécutée puis échec avant le commit (ex. connexion perdue)
+        QuizResultBatchInserter failing = new QuizResultBatchInserter(dataSource) {
+            @Override
+            public int[] insert(List<Row> rows) {
+                super.insert(rows);
+                throw new IllegalStateException("connexion perdue");
+            }
+        };
+        List<AttemptSyncRequest.Item> batch = List.of(attempt("attempt-0001"), attempt("attempt-0002"));
+
+        assertThrows(IllegalStateException.class, () -> service(failing).sync(userId, batch));
+        assertEquals(0, count());
+
+        List<AttemptSyncResponse.Item> retried = service(inserter).sync(userId, batch).results();
+        assertEquals(List.of(Status.CREATED, Status.CREATED),
+                retried.stream().map(AttemptSyncResponse.Item::status).toList());
+        assertEquals(2, count());
+
+        List<AttemptSyncResponse.Item> replayed = service(inserter).sync(userId, batch).results();
+        assertEquals(List.of(Status.DUPLICATE, Status.DUPLICATE),
+                replayed.stream().map(AttemptSyncResponse.Item::status).toList());
+        assertEquals(retried.stream().map(AttemptSyncResponse.Item::resultId).toList(),
+                replayed.stream().map(AttemptSyncResponse.Item::resultId).toList());
+        assertEquals(2, count());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    private AttemptSyncService service(QuizResultBatchInserter batchInserter) {
+        return new AttemptSyncService(quizRepository, quizResultRepository, batchInserter, transactionManager,
+                new HotPathMetrics(new SimpleMeterRegistry()), 24, 1000);
+    }
+
+    private AttemptSyncRequest.Item attempt(String key) {
+        return new AttemptSyncRequest.Item(key, quizId, 7, 10, 42.0);
+    }
+
+    private int count() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM quiz_results WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.yassine.learningapp.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyKeyIndexTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void keysAreScopedPerUserAndExpire() {
+        IdempotencyKeyIndex index = new IdempotencyKeyIndex(Duration.ofSeconds(10), 100, clock::get);
+        index.remember(1L, "attempt-0001", 42L);
+
+        assertEquals(42L, index.find(1L, "attempt-0001"));
+        assertNull(index.find(2L, "attempt-0001"));
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertNull(index.find(1L, "attempt-0001"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void stopsRememberingWhenFullOfLiveKeys() {
+        IdempotencyKeyIndex index = new IdempotencyKeyIndex(Duration.ofSeconds(10), 2, clock::get);
+        index.remember(1L, "attempt-0001", 1L);
+        index.remember(1L, "attempt-0002", 2L);
+        index.remember(1L, "attempt-0003", 3L);
+
+        assertNull(index.find(1L, "attempt-0003"));
+        assertEquals(2, index.size());
+
+        // Les clés expirées libèrent la place
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        index.remember(1L, "attempt-0003", 3L);
+        assertEquals(3L, index.find(1L, "attempt-0003"));
+        assertEquals(1, index.size());
+    }
+}
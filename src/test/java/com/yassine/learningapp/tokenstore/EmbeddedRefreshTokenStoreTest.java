@@ -0,0 +1,160 @@
+package com.yassine.learningapp.tokenstore;
+
+import com.yassine.learningapp.dto.TokenType;
+import com.yassine.learningapp.entity.RefreshToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedRefreshTokenStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexesByHashAndUser() {
+        try (EmbeddedRefreshTokenStore store = open()) {
+            RefreshToken saved = store.save(token("h1", 1L, 30));
+            store.save(token("h2", 1L, 30));
+            store.save(token("h3", 2L, 30));
+            assertNotNull(saved.getId());
+
+            assertEquals(2, store.countActiveSessions(1L, NOW));
+            assertEquals(1, store.revokeAllByUserId(2L));
+            assertTrue(store.findByTokenHash("h3").orElseThrow().isRevoked());
+            assertEquals(0, store.countActiveSessions(2L, NOW));
+
+            // Les instances renvoyées sont des copies
+            store.findByTokenHash("h1").orElseThrow().revoke();
+            assertFalse(store.findByTokenHash("h1").orElseThrow().isRevoked());
+        }
+    }
+
+    @Test
+    void replaysLogAndIgnoresTornTail() throws IOException {
+        try (EmbeddedRefreshTokenStore store = open()) {
+            store.save(token("h1", 1L, 30));
+            RefreshToken h2 = store.save(token("h2", 1L, 30));
+            h2.revoke();
+            store.save(h2);
+            store.save(token("old", 3L, -10));
+            assertEquals(1, store.deleteExpired(NOW));
+        }
+        // Crash pendant l'écriture d'un enregistrement : octets partiels en fin de journal
+        Files.write(dir.resolve(EmbeddedRefreshTokenStore.LOG_FILE), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (EmbeddedRefreshTokenStore store = open()) {
+            assertEquals(2, store.size());
+            assertTrue(store.findByTokenHash("h2").orElseThrow().isRevoked());
+            assertTrue(store.findByTokenHash("old").isEmpty());
+            // Ids jamais réutilisés, même ceux de tokens supprimés
+            RefreshToken next = store.save(token("h4", 1L, 30));
+            assertEquals(4L, next.getId());
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveTokens() throws IOException {
+        Path log = dir.resolve(EmbeddedRefreshTokenStore.LOG_FILE);
+        try (EmbeddedRefreshTokenStore store = new EmbeddedRefreshTokenStore(dir, 10, 2.0)) {
+            RefreshToken token = store.save(token("h1", 1L, 30));
+            for (int i = 0; i < 20; i++) {
+                token.markAsUsed();
+                token = store.save(token);
+            }
+            long before = Files.size(log);
+            assertTrue(store.maybeCompact());
+            assertTrue(Files.size(log) < before);
+            store.save(token("h2", 1L, 30));
+        }
+        try (EmbeddedRefreshTokenStore store = open()) {
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void mutationsDuringCompactionSurviveReplay() {
+        int tokens = 2_000;
+        try (EmbeddedRefreshTokenStore store = new EmbeddedRefreshTokenStore(dir, 10, 2.0)) {
+            AtomicBoolean writing = new AtomicBoolean(true);
+            CompletableFuture<Integer> compactions = CompletableFuture.supplyAsync(() -> {
+                int count = 0;
+                while (writing.get()) {
+                    if (store.maybeCompact()) count++;
+                }
+                return count;
+            });
+            for (int i = 0; i < tokens; i++) {
+                RefreshToken token = store.save(token("h" + i, (long) i % 10, 30));
+                token.markAsUsed();
+                token = store.save(token);
+                if (i % 3 == 0) token.revoke();
+                else token.markAsUsed();
+                store.save(token);
+            }
+            writing.set(false);
+            assertTrue(compactions.join() > 0);
+        }
+
+        try (EmbeddedRefreshTokenStore store = open()) {
+            assertEquals(tokens, store.size());
+            for (int i = 0; i < tokens; i++) {
+                assertEquals(i % 3 == 0, store.findByTokenHash("h" + i).orElseThrow().isRevoked(), "h" + i);
+            }
+        }
+    }
+
+    @Test
+    void embeddedStoreRequiresAnExplicitDirectory() {
+        assertThrows(IllegalStateException.class,
+                () -> new RefreshTokenStoreConfig().embeddedRefreshTokenStore(" ", 10, 2.0));
+    }
+
+    @Test
+    void migratesOnlyValidTokensOnce() {
+        try (EmbeddedRefreshTokenStore source = open();
+             EmbeddedRefreshTokenStore target = new EmbeddedRefreshTokenStore(dir.resolve("target"), 10, 2.0)) {
+            source.save(token("valid", 1L, 30));
+            source.save(token("expired", 1L, -1));
+            RefreshToken revoked = source.save(token("revoked", 1L, 30));
+            revoked.revoke();
+            source.save(revoked);
+
+            assertEquals(1, RefreshTokenStoreMigrator.migrate(source, target, NOW));
+            assertEquals(0, RefreshTokenStoreMigrator.migrate(source, target, NOW));
+            assertTrue(target.findByTokenHash("valid").isPresent());
+        }
+    }
+
+    private EmbeddedRefreshTokenStore open() {
+        return new EmbeddedRefreshTokenStore(dir, 10_000, 3.0);
+    }
+
+    private static RefreshToken token(String hash, Long userId, int expiresInDays) {
+        return RefreshToken.builder()
+                .tokenHash(hash)
+                .userId(userId)
+                .tokenType(TokenType.REFRESH)
+                .createdAt(NOW)
+                .lastUsedAt(NOW)
+                .expiresAt(NOW.plusDays(expiresInDays))
+                .revoked(false)
+                .userAgent("JUnit")
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.yassine.learningapp.tracing;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracingFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void nestedSpansAreRecordedInsideTheirParent() throws Exception {
+        SlowTraceBuffer buffer = new SlowTraceBuffer(10, 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quizzes/1");
+        request.addHeader(TracingFilter.TRACEPARENT_HEADER, "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+
+        new TracingFilter(buffer).doFilter(request, new MockHttpServletResponse(), nested());
+
+        TraceSnapshot trace = buffer.find(TRACE_ID).orElseThrow();
+        assertEquals("/api/quizzes/1", trace.path());
+        // Enregistrés à la fermeture : l'enfant avant le parent
+        List<TraceContext.SpanRecord> spans = trace.spans();
+        assertEquals(List.of("sql", "service"), spans.stream().map(TraceContext.SpanRecord::stage).toList());
+        TraceContext.SpanRecord child = spans.get(0);
+        TraceContext.SpanRecord parent = spans.get(1);
+        assertTrue(parent.offsetMicros() <= child.offsetMicros());
+        assertTrue(child.offsetMicros() + child.durationMicros() <= parent.offsetMicros() + parent.durationMicros());
+        assertTrue(parent.durationMicros() <= trace.durationMicros());
+        assertEquals(Map.of("sql", child.durationMicros(), "service", parent.durationMicros()), trace.stageTotalsMicros());
+    }
+
+    @Test
+    void fastRequestsAreNotBuffered() throws Exception {
+        SlowTraceBuffer buffer = new SlowTraceBuffer(10, 60_000);
+
+        new TracingFilter(buffer).doFilter(new MockHttpServletRequest("GET", "/api/quizzes/1"),
+                new MockHttpServletResponse(), nested());
+
+        assertEquals(List.of(), buffer.snapshot(10));
+    }
+
+    @Test
+    void traceIsDetachedAfterTheRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new TracingFilter(new SlowTraceBuffer(10, 0)).doFilter(new MockHttpServletRequest("GET", "/"), response,
+                (req, res) -> assertEquals(response.getHeader(TracingFilter.REQUEST_ID_HEADER), TraceContext.currentTraceId()));
+
+        assertNull(TraceContext.current());
+        // Hors requête : span neutre, rien n'est enregistré
+        TraceContext.span("sql", "select").close();
+    }
+
+    @Test
+    void spansBeyondTheLimitAreCountedNotKept() throws Exception {
+        SlowTraceBuffer buffer = new SlowTraceBuffer(10, 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.addHeader(TracingFilter.REQUEST_ID_HEADER, "req-1");
+
+        new TracingFilter(buffer).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < TraceContext.MAX_SPANS + 5; i++) {
+                TraceContext.span("sql", "select").close();
+            }
+        });
+
+        TraceSnapshot trace = buffer.find("req-1").orElseThrow();
+        assertEquals(TraceContext.MAX_SPANS, trace.spans().size());
+        assertEquals(5, trace.droppedSpans());
+    }
+
+    @Test
+    void bufferKeepsTheLatestTracesSlowestFirst() {
+        SlowTraceBuffer buffer = new SlowTraceBuffer(3, 500);
+        for (int i = 1; i <= 5; i++) buffer.offer(trace("t" + i, i * 1_000_000L));
+
+        assertTrue(buffer.isSlow(500_000));
+        assertFalse(buffer.isSlow(499_999));
+        assertEquals(List.of("t5", "t4", "t3"), buffer.snapshot(10).stream().map(TraceSnapshot::traceId).toList());
+        assertEquals(List.of("t5"), buffer.snapshot(1).stream().map(TraceSnapshot::traceId).toList());
+        assertTrue(buffer.find("t1").isEmpty());
+    }
+
+    // -------------------------
+    // Internal
+    // -------------------------
+
+    /** Un span "service" contenant un span "sql". */
+    private static FilterChain nested() {
+        return (request, response) -> {
+            try (TraceContext.Span service = TraceContext.span("service", "QuizService.find")) {
+                LockSupport.parkNanos(1_000_000);
+                try (TraceContext.Span sql = TraceContext.span("sql", "select")) {
+                    LockSupport.parkNanos(1_000_000);
+                }
+                LockSupport.parkNanos(1_000_000);
+            }
+        };
+    }
+
+    private static TraceSnapshot trace(String traceId, long durationMicros) {
+        return new TraceSnapshot(traceId, "GET", "/", 200, Instant.now(), durationMicros, Map.of(), List.of(), 0);
+    }
+}
@@ -0,0 +1,74 @@
+package com.yassine.learningapp.web;
+
+import com.yassine.learningapp.dto.ContentVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalGetTest {
+
+    private static final ContentVersion VERSION = new ContentVersion(3L, LocalDateTime.of(2026, 1, 15, 10, 30));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesBodyWithWeakEtagAndLastModified() {
+        ResponseEntity<String> response = ConditionalGet.respond(get(null, null), VERSION, "p0s20", this::load);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("body", response.getBody());
+        assertTrue(response.getHeaders().getETag().startsWith("W/\""));
+        assertEquals(VERSION.lastModifiedEpochMillis(), response.getHeaders().getLastModified());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void answers304WithoutLoadingWhenEtagMatches() {
+        String etag = ConditionalGet.etag(VERSION, "p0s20");
+
+        ResponseEntity<String> response = ConditionalGet.respond(get(etag, null), VERSION, "p0s20", this::load);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void newRowOrOtherPageIsModified() {
+        String etag = ConditionalGet.etag(VERSION, "p0s20");
+        ContentVersion added = new ContentVersion(4L, VERSION.lastModified());
+
+        assertEquals(HttpStatus.OK, ConditionalGet.respond(get(etag, null), added, "p0s20", this::load).getStatusCode());
+        assertEquals(HttpStatus.OK, ConditionalGet.respond(get(etag, null), VERSION, "p1s20", this::load).getStatusCode());
+    }
+
+    @Test
+    void fallsBackToIfModifiedSince() {
+        ResponseEntity<String> response = ConditionalGet.respond(get(null, VERSION.lastModifiedEpochMillis()), VERSION, null, this::load);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(0, loads.get());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "body";
+    }
+
+    private static ServletWebRequest get(String ifNoneMatch, Long ifModifiedSince) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        if (ifNoneMatch != null) request.addHeader("If-None-Match", ifNoneMatch);
+        if (ifModifiedSince != null) request.addHeader("If-Modified-Since", ifModifiedSince);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,110 @@
+package com.yassine.learningapp.web;
+
+import com.yassine.learningapp.dto.FlashCardResponse;
+import com.yassine.learningapp.dto.QuizDetailResponse;
+import com.yassine.learningapp.dto.QuizQuestionResponse;
+import com.yassine.learningapp.dto.QuizResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Micro-benchmark manuel (hors suite de tests) : taille (brute / gzip) et débit de sérialisation
+ * JSON vs Smile vs CBOR sur les payloads quiz et fiches.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      com.yassine.learningapp.web.PayloadFormatBenchmark [questions] [cards]
+ * </pre>
+ */
+public final class PayloadFormatBenchmark {
+
+    private static final long ROUND_NANOS = 2_000_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int cards = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Map<String, ObjectMapper> mappers = Map.of(
+                "json", JsonMapper.builder().build(),
+                "smile", SmileMapper.builder().build(),
+                "cbor", CBORMapper.builder().build());
+        Map<String, Object> payloads = Map.of(
+                "quiz(" + questions + "q)", quiz(questions),
+                "flashcards(" + cards + ")", flashCards(cards));
+
+        for (int round = 0; round < 3; round++) { // 2 tours de chauffe JIT
+            System.out.println("round=" + round);
+            for (var payload : payloads.entrySet()) {
+                for (String format : List.of("json", "smile", "cbor")) {
+                    ObjectMapper mapper = mappers.get(format);
+                    byte[] bytes = mapper.writeValueAsBytes(payload.getValue());
+                    Class<?> type = payload.getValue().getClass();
+                    System.out.printf("  %-16s %-6s raw=%7d B  gzip=%6d B  ser=%8.0f ops/s  deser=%8.0f ops/s%n",
+                            payload.getKey(), format, bytes.length, gzip(bytes).length,
+                            throughput(() -> mapper.writeValueAsBytes(payload.getValue())),
+                            throughput(() -> mapper.readValue(bytes, type)));
+                }
+            }
+        }
+    }
+
+    private static double throughput(Runnable op) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 100; i++) op.run();
+            ops += 100;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS / 4);
+        return ops / (elapsed / 1e9);
+    }
+
+    /** Même niveau que la compression HTTP de Tomcat (Deflater par défaut). */
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static QuizDetailResponse quiz(int questions) {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 9, 0);
+        List<QuizQuestionResponse> list = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            list.add(new QuizQuestionResponse((long) i, i + 1,
+                    "Question " + i + " : quelle affirmation décrit le mieux la notion étudiée dans la section " + i + " ?",
+                    "Première proposition plausible " + i, "Deuxième proposition plausible " + i,
+                    "Troisième proposition plausible " + i, "Quatrième proposition plausible " + i,
+                    String.valueOf((char) ('A' + i % 4)),
+                    "La bonne réponse découle directement de la définition donnée au paragraphe " + i + "."));
+        }
+        return new QuizDetailResponse(new QuizResponse(1L, 1L, "Quiz de révision", String.valueOf(questions), now, now), list);
+    }
+
+    private static FlashCardList flashCards(int cards) {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 9, 0);
+        FlashCardList list = new FlashCardList();
+        for (int i = 0; i < cards; i++) {
+            list.add(new FlashCardResponse((long) i, 1L, "Notion " + i,
+                    "Définition courte de la notion " + i + ", avec un exemple d'application.", i % 7 == 0, now, now));
+        }
+        return list;
+    }
+
+    /** Type concret pour la désérialisation (pas d'effacement de générique). */
+    static final class FlashCardList extends ArrayList<FlashCardResponse> {
+    }
+}